@@ -0,0 +1,91 @@
+-- =========================================
+-- ParticionarMovimientos.sql
+-- Sistema: Angular Bank
+-- Descripción: pasa la tabla movimientos existente
+-- a particiones mensuales por fecha (PostgreSQL 14+)
+-- =========================================
+--
+-- Se corre una sola vez, con el backend detenido (reescribe la tabla bajo lock exclusivo).
+-- Después, ParticionesMovimientosService crea al arrancar y cada noche las particiones
+-- del mes actual y los siguientes (bank.movimientos.particiones.meses-adelante).
+--
+-- La clave primaria pasa a ser (movimiento_id, fecha): en PostgreSQL toda restricción única
+-- de una tabla particionada debe incluir la columna de partición. movimiento_id sigue saliendo
+-- de movimientos_seq, así que en la práctica continúa siendo único.
+--
+-- Una base nueva ya nace particionada (V1__esquema_inicial.sql); este script es solo para las
+-- que se crearon antes con ddl-auto=update. Correrlo después de que Flyway aplicó V1 y V2.
+
+BEGIN;
+
+LOCK TABLE movimientos IN ACCESS EXCLUSIVE MODE;
+
+-- =========================
+-- Apartar la tabla actual (los nombres de índice son únicos por esquema)
+-- =========================
+ALTER TABLE movimientos RENAME TO movimientos_sin_particionar;
+ALTER INDEX IF EXISTS movimientos_pkey RENAME TO movimientos_sin_particionar_pkey;
+ALTER INDEX IF EXISTS idx_movimientos_cuenta_fecha_id RENAME TO idx_movimientos_sin_particionar_cfi;
+DROP INDEX IF EXISTS idx_movimientos_fecha;
+DROP INDEX IF EXISTS idx_movimientos_fecha_brin;
+DROP INDEX IF EXISTS idx_movimientos_cuenta;
+
+-- =========================
+-- Tabla particionada
+-- =========================
+CREATE TABLE movimientos (
+    movimiento_id BIGINT NOT NULL,
+    fecha TIMESTAMP(6) NOT NULL,
+    tipo_movimiento VARCHAR(255) NOT NULL,
+    valor NUMERIC(18,2) NOT NULL,
+    saldo NUMERIC(18,2) NOT NULL,
+    cuenta_id BIGINT NOT NULL,
+    CONSTRAINT movimientos_pkey PRIMARY KEY (movimiento_id, fecha),
+    CONSTRAINT fk_movimiento_cuenta
+        FOREIGN KEY (cuenta_id)
+        REFERENCES cuentas(cuenta_id)
+) PARTITION BY RANGE (fecha);
+
+-- Índices particionados (cada partición tiene el suyo), iguales a los de V2__indices_rendimiento.sql
+CREATE INDEX idx_movimientos_cuenta_fecha_id
+    ON movimientos (cuenta_id, fecha, movimiento_id)
+    INCLUDE (tipo_movimiento, valor, saldo);
+CREATE INDEX idx_movimientos_fecha_brin ON movimientos USING BRIN (fecha);
+
+-- =========================
+-- Una partición por mes: desde el movimiento más viejo hasta 3 meses adelante
+-- =========================
+DO $$
+DECLARE
+    mes DATE := COALESCE(
+        (SELECT date_trunc('month', MIN(fecha))::date FROM movimientos_sin_particionar),
+        date_trunc('month', now())::date);
+    ultimo DATE := (date_trunc('month', now()) + INTERVAL '3 months')::date;
+BEGIN
+    WHILE mes <= ultimo LOOP
+        EXECUTE format('CREATE TABLE %I PARTITION OF movimientos FOR VALUES FROM (%L) TO (%L)',
+                       'movimientos_' || to_char(mes, 'YYYY_MM'),
+                       mes,
+                       (mes + INTERVAL '1 month')::date);
+        mes := (mes + INTERVAL '1 month')::date;
+    END LOOP;
+END $$;
+
+-- =========================
+-- Copia y limpieza
+-- =========================
+INSERT INTO movimientos (movimiento_id, fecha, tipo_movimiento, valor, saldo, cuenta_id)
+SELECT movimiento_id, fecha, tipo_movimiento, valor, saldo, cuenta_id
+  FROM movimientos_sin_particionar;
+
+DROP TABLE movimientos_sin_particionar;
+
+COMMIT;
+
+ANALYZE movimientos;
+
+-- =========================
+-- Verificación: el plan del estado de cuenta debe tocar solo la partición del mes
+-- =========================
+-- EXPLAIN SELECT * FROM movimientos
+--  WHERE cuenta_id = 1 AND fecha BETWEEN '2026-03-01' AND '2026-03-31 23:59:59';
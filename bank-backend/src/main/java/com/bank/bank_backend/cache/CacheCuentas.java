@@ -0,0 +1,85 @@
+package com.bank.bank_backend.cache;
+
+import com.bank.bank_backend.config.DataSourceRuteado;
+import com.bank.bank_backend.dto.DescriptorCuenta;
+import com.bank.bank_backend.exception.NotFoundException;
+import com.bank.bank_backend.repository.CuentaRepository;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.Objects;
+import java.util.Optional;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Resolución numeroCuenta -> {@link DescriptorCuenta} con cache LRU + TTL.
+ *
+ * - Solo se cachean cuentas existentes (una cuenta recién creada se ve de inmediato).
+ * - CuentaService/ClienteService desalojan las entradas al modificar o eliminar.
+ * - El TTL acota lo que puede durar un dato viejo si la cuenta cambió por otra vía.
+ * - Lo leído de la réplica no se guarda: puede ser anterior a un desalojo ya hecho en la primaria.
+ *
+ * Métricas: bank.cache.cuentas.aciertos, bank.cache.cuentas.fallos, bank.cache.cuentas.tamano.
+ */
+@Component
+public class CacheCuentas {
+
+    private final CuentaRepository cuentaRepo;
+    private final CacheLru<String, DescriptorCuenta> cache;
+
+    public CacheCuentas(CuentaRepository cuentaRepo,
+                        ObjectProvider<MeterRegistry> meterRegistry,
+                        @Value("${bank.cache.cuentas.max-entradas:50000}") int maxEntradas,
+                        @Value("${bank.cache.cuentas.ttl-segundos:600}") long ttlSegundos) {
+        this.cuentaRepo = cuentaRepo;
+        this.cache = new CacheLru<>(maxEntradas, TimeUnit.SECONDS.toMillis(ttlSegundos));
+
+        meterRegistry.ifAvailable(registry -> {
+            FunctionCounter.builder("bank.cache.cuentas.aciertos", cache, CacheLru::getAciertos)
+                    .description("Resoluciones de numeroCuenta servidas desde la cache")
+                    .register(registry);
+            FunctionCounter.builder("bank.cache.cuentas.fallos", cache, CacheLru::getFallos)
+                    .description("Resoluciones de numeroCuenta que fueron a la base")
+                    .register(registry);
+            Gauge.builder("bank.cache.cuentas.tamano", cache, CacheLru::size)
+                    .register(registry);
+        });
+    }
+
+    public Optional<DescriptorCuenta> buscar(String numeroCuenta) {
+        if (numeroCuenta == null) return Optional.empty();
+        String numero = numeroCuenta.trim();
+
+        DescriptorCuenta enCache = cache.get(numero);
+        if (enCache != null) return Optional.of(enCache);
+
+        Optional<DescriptorCuenta> leido = cuentaRepo.buscarDescriptor(numero);
+        if (!DataSourceRuteado.transaccionEnReplica()) leido.ifPresent(d -> cache.put(numero, d));
+        return leido;
+    }
+
+    public DescriptorCuenta obtener(String numeroCuenta) {
+        return buscar(numeroCuenta).orElseThrow(() -> new NotFoundException("Cuenta no encontrada"));
+    }
+
+    public void desalojar(String numeroCuenta) {
+        if (numeroCuenta != null) cache.remove(numeroCuenta.trim());
+    }
+
+    // Cambios del cliente (nombre) o su eliminación afectan a todas sus cuentas
+    public void desalojarCliente(Long clienteId) {
+        cache.removeIf((numero, d) -> Objects.equals(d.clienteId(), clienteId));
+    }
+
+    public long getAciertos() {
+        return cache.getAciertos();
+    }
+
+    public long getFallos() {
+        return cache.getFallos();
+    }
+}
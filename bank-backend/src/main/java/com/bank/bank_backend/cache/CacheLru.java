@@ -0,0 +1,90 @@
+package com.bank.bank_backend.cache;
+
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.BiPredicate;
+
+/**
+ * Cache en memoria acotada:
+ * - LRU: al superar {@code maxEntradas} se descarta la entrada menos usada.
+ * - TTL opcional: una entrada más vieja que {@code ttlMillis} se considera ausente (0 = sin TTL).
+ * - Cuenta aciertos y fallos para exponerlos como métricas.
+ *
+ * Thread-safe (sincronizada); pensada para valores chicos y lecturas frecuentes.
+ */
+public class CacheLru<K, V> {
+
+    private record Entrada<V>(V valor, long creadaEn) {}
+
+    private final int maxEntradas;
+    private final long ttlMillis;
+    private final LinkedHashMap<K, Entrada<V>> mapa;
+
+    private final LongAdder aciertos = new LongAdder();
+    private final LongAdder fallos = new LongAdder();
+
+    public CacheLru(int maxEntradas, long ttlMillis) {
+        this.maxEntradas = Math.max(1, maxEntradas);
+        this.ttlMillis = Math.max(0, ttlMillis);
+        this.mapa = new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<K, Entrada<V>> eldest) {
+                return size() > CacheLru.this.maxEntradas;
+            }
+        };
+    }
+
+    /** Devuelve el valor o null si no existe / expiró. */
+    public synchronized V get(K clave) {
+        Entrada<V> e = mapa.get(clave);
+        if (e != null && expirada(e)) {
+            mapa.remove(clave);
+            e = null;
+        }
+        if (e == null) {
+            fallos.increment();
+            return null;
+        }
+        aciertos.increment();
+        return e.valor();
+    }
+
+    public synchronized void put(K clave, V valor) {
+        mapa.put(clave, new Entrada<>(valor, System.currentTimeMillis()));
+    }
+
+    public synchronized void remove(K clave) {
+        mapa.remove(clave);
+    }
+
+    /** Elimina todas las entradas que cumplan la condición. */
+    public synchronized void removeIf(BiPredicate<K, V> condicion) {
+        Iterator<Map.Entry<K, Entrada<V>>> it = mapa.entrySet().iterator();
+        while (it.hasNext()) {
+            Map.Entry<K, Entrada<V>> e = it.next();
+            if (condicion.test(e.getKey(), e.getValue().valor())) it.remove();
+        }
+    }
+
+    public synchronized void clear() {
+        mapa.clear();
+    }
+
+    public synchronized int size() {
+        return mapa.size();
+    }
+
+    public long getAciertos() {
+        return aciertos.sum();
+    }
+
+    public long getFallos() {
+        return fallos.sum();
+    }
+
+    private boolean expirada(Entrada<V> e) {
+        return ttlMillis > 0 && System.currentTimeMillis() - e.creadaEn() > ttlMillis;
+    }
+}
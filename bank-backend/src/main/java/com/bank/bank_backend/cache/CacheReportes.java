@@ -0,0 +1,128 @@
+package com.bank.bank_backend.cache;
+
+import com.bank.bank_backend.dto.ReporteEstadoCuentaResponse;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.LocalDate;
+import java.util.Collection;
+import java.util.Objects;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Cache de estados de cuenta por (numeroCuenta, fechaInicio, fechaFin, formato).
+ *
+ * - Sin TTL: un período cerrado (fechaFin anterior a hoy) no recibe posteos y queda en cache
+ *   hasta que el LRU lo descarte.
+ * - Un posteo invalida, al confirmarse, solo los reportes de esa cuenta cuyo rango contiene
+ *   el día del movimiento.
+ * - Un reporte de un rango abierto calculado mientras se invalidaba no se guarda
+ *   (pudo leer datos anteriores al commit).
+ * - Uno leído de la réplica tampoco, si el rango llega a ayer: la invalidación corre al confirmar
+ *   en la primaria y la réplica puede no tener todavía ese posteo (el día extra cubre la medianoche).
+ *
+ * Métricas: bank.cache.reportes.aciertos, bank.cache.reportes.fallos, bank.cache.reportes.tamano.
+ */
+@Component
+public class CacheReportes {
+
+    public enum Formato { JSON, JSON_PDF }
+
+    public record Clave(String numeroCuenta, LocalDate fechaInicio, LocalDate fechaFin, Formato formato) {
+
+        boolean contiene(LocalDate dia) {
+            return !dia.isBefore(fechaInicio) && !dia.isAfter(fechaFin);
+        }
+    }
+
+    private record Entrada(Long cuentaId, Long clienteId, ReporteEstadoCuentaResponse reporte) {}
+
+    private final CacheLru<Clave, Entrada> cache;
+
+    // Se incrementa en cada invalidación; ver guardar(...)
+    private final AtomicLong invalidaciones = new AtomicLong();
+
+    public CacheReportes(ObjectProvider<MeterRegistry> meterRegistry,
+                         @Value("${bank.cache.reportes.max-entradas:500}") int maxEntradas) {
+        this.cache = new CacheLru<>(maxEntradas, 0);
+
+        meterRegistry.ifAvailable(registry -> {
+            FunctionCounter.builder("bank.cache.reportes.aciertos", cache, CacheLru::getAciertos)
+                    .description("Estados de cuenta servidos desde la cache")
+                    .register(registry);
+            FunctionCounter.builder("bank.cache.reportes.fallos", cache, CacheLru::getFallos)
+                    .description("Estados de cuenta calculados contra la base")
+                    .register(registry);
+            Gauge.builder("bank.cache.reportes.tamano", cache, CacheLru::size)
+                    .register(registry);
+        });
+    }
+
+    /** Tomar antes de calcular el reporte y pasarla a {@link #guardar}. */
+    public long marca() {
+        return invalidaciones.get();
+    }
+
+    public ReporteEstadoCuentaResponse buscar(Clave clave) {
+        Entrada e = cache.get(clave);
+        return e == null ? null : e.reporte();
+    }
+
+    public void guardar(Clave clave, Long cuentaId, Long clienteId, ReporteEstadoCuentaResponse reporte,
+                        long marca, boolean desdeReplica) {
+        LocalDate hoy = LocalDate.now();
+        boolean abierto = !clave.fechaFin().isBefore(hoy);
+        if (abierto && marca != invalidaciones.get()) return;
+        if (desdeReplica && !clave.fechaFin().isBefore(hoy.minusDays(1))) return;
+        cache.put(clave, new Entrada(cuentaId, clienteId, reporte));
+    }
+
+    /**
+     * Invalida los reportes de la cuenta cuyo rango contiene alguno de los días.
+     * Dentro de una transacción se difiere al commit (antes, otro lector aún vería los datos viejos).
+     */
+    public void invalidarAlConfirmar(Long cuentaId, Collection<LocalDate> dias) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            invalidar(cuentaId, dias);
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                invalidar(cuentaId, dias);
+            }
+        });
+    }
+
+    public void invalidar(Long cuentaId, Collection<LocalDate> dias) {
+        invalidaciones.incrementAndGet();
+        cache.removeIf((clave, e) -> Objects.equals(e.cuentaId(), cuentaId)
+                && dias.stream().anyMatch(clave::contiene));
+    }
+
+    // Reconstrucción de saldos o eliminación de la cuenta: cualquier rango puede haber cambiado
+    public void desalojarCuenta(Long cuentaId) {
+        invalidaciones.incrementAndGet();
+        cache.removeIf((clave, e) -> Objects.equals(e.cuentaId(), cuentaId));
+    }
+
+    // El nombre del cliente va en el reporte
+    public void desalojarCliente(Long clienteId) {
+        invalidaciones.incrementAndGet();
+        cache.removeIf((clave, e) -> Objects.equals(e.clienteId(), clienteId));
+    }
+
+    public long getAciertos() {
+        return cache.getAciertos();
+    }
+
+    public long getFallos() {
+        return cache.getFallos();
+    }
+}
@@ -0,0 +1,68 @@
+package com.bank.bank_backend.config;
+
+import org.springframework.jdbc.datasource.lookup.AbstractRoutingDataSource;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import javax.sql.DataSource;
+import java.util.Map;
+
+/**
+ * Elige primaria o réplica por conexión. Va a la réplica solo si se cumplen las tres:
+ * - transacción {@code readOnly = true},
+ * - el hilo está dentro de un método {@link LecturaEnReplica},
+ * - MonitorReplica la considera al día.
+ *
+ * Tiene que estar detrás de un LazyConnectionDataSourceProxy: el JpaTransactionManager pide
+ * la conexión antes de marcar la transacción como readOnly en TransactionSynchronizationManager;
+ * el proxy demora la conexión física hasta la primera sentencia, cuando la marca ya está.
+ *
+ * La transacción que recibe una conexión de la réplica queda marcada hasta que termina
+ * ({@link #transaccionEnReplica()}): lo que leyó puede ser anterior a un commit de la primaria.
+ */
+public class DataSourceRuteado extends AbstractRoutingDataSource {
+
+    enum Destino { PRIMARIA, REPLICA }
+
+    // Recurso de la transacción en curso: solo importa si está ligado
+    private static final Object MARCA_REPLICA = new Object();
+
+    private final MonitorReplica monitor;
+
+    public DataSourceRuteado(DataSource primaria, DataSource replica, MonitorReplica monitor) {
+        this.monitor = monitor;
+        setTargetDataSources(Map.of(Destino.PRIMARIA, primaria, Destino.REPLICA, replica));
+        setDefaultTargetDataSource(primaria);
+        afterPropertiesSet();
+    }
+
+    @Override
+    protected Object determineCurrentLookupKey() {
+        return destino();
+    }
+
+    Destino destino() {
+        boolean lectura = TransactionSynchronizationManager.isCurrentTransactionReadOnly()
+                && LecturaReplicaInterceptor.activa();
+        if (!lectura || !monitor.disponible()) return Destino.PRIMARIA;
+        marcarTransaccion();
+        return Destino.REPLICA;
+    }
+
+    /** La transacción en curso obtuvo su conexión de la réplica. */
+    public static boolean transaccionEnReplica() {
+        return TransactionSynchronizationManager.hasResource(MARCA_REPLICA);
+    }
+
+    // Solo se llega con transacción readOnly activa: hay sincronización para desmarcar al terminar
+    private static void marcarTransaccion() {
+        if (!TransactionSynchronizationManager.isSynchronizationActive() || transaccionEnReplica()) return;
+        TransactionSynchronizationManager.bindResource(MARCA_REPLICA, Boolean.TRUE);
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCompletion(int status) {
+                TransactionSynchronizationManager.unbindResourceIfPossible(MARCA_REPLICA);
+            }
+        });
+    }
+}
@@ -0,0 +1,17 @@
+package com.bank.bank_backend.config;
+
+import java.lang.annotation.*;
+
+/**
+ * Marca servicios (o métodos) de solo lectura cuyas consultas pueden ir a la réplica
+ * (bank.replica.habilitada). Solo se enrutan las que corren dentro de un
+ * {@code @Transactional(readOnly = true)}; todo lo demás sigue en la primaria.
+ *
+ * Tolera datos levemente atrasados: si la réplica se atrasa más que
+ * bank.replica.retraso-maximo-ms, o no responde, las lecturas vuelven a la primaria.
+ */
+@Target({ElementType.TYPE, ElementType.METHOD})
+@Retention(RetentionPolicy.RUNTIME)
+@Documented
+public @interface LecturaEnReplica {
+}
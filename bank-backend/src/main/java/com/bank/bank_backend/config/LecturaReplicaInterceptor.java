@@ -0,0 +1,29 @@
+package com.bank.bank_backend.config;
+
+import org.aopalliance.intercept.MethodInterceptor;
+import org.aopalliance.intercept.MethodInvocation;
+
+/**
+ * Marca el hilo mientras corre un método {@link LecturaEnReplica}. DataSourceRuteado lo consulta
+ * recién al pedir la conexión física (LazyConnectionDataSourceProxy), es decir, ya dentro del método.
+ * Es un contador: las llamadas anidadas no limpian la marca de la externa.
+ */
+public class LecturaReplicaInterceptor implements MethodInterceptor {
+
+    private static final ThreadLocal<int[]> PROFUNDIDAD = ThreadLocal.withInitial(() -> new int[1]);
+
+    public static boolean activa() {
+        return PROFUNDIDAD.get()[0] > 0;
+    }
+
+    @Override
+    public Object invoke(MethodInvocation invocation) throws Throwable {
+        int[] profundidad = PROFUNDIDAD.get();
+        profundidad[0]++;
+        try {
+            return invocation.proceed();
+        } finally {
+            if (--profundidad[0] == 0) PROFUNDIDAD.remove();
+        }
+    }
+}
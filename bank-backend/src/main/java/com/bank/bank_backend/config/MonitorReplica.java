@@ -0,0 +1,87 @@
+package com.bank.bank_backend.config;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+
+import javax.sql.DataSource;
+
+/**
+ * Mide cada bank.replica.verificacion-ms el retraso de la réplica (en ms) con una consulta sobre ella.
+ * Si supera bank.replica.retraso-maximo-ms, la consulta falla o devuelve NULL, la réplica queda
+ * fuera y DataSourceRuteado manda todo a la primaria hasta la próxima medición buena.
+ *
+ * La consulta por defecto es la de PostgreSQL en streaming replication:
+ * - 0 si no está en recuperación;
+ * - NULL (fuera) si no hay un WAL receiver en streaming: sin conexión al primario, receive y replay
+ *   quedan iguales y parecería al día;
+ * - 0 si ya reprodujo todo lo recibido (un primario sin escrituras no cuenta como atraso);
+ * - si no, el tiempo desde la última transacción reproducida.
+ * El estado del WAL receiver solo lo ve un usuario con pg_read_all_stats (o pg_monitor); para otro
+ * usuario la columna viene NULL y se toma como en streaming mientras el proceso exista.
+ */
+public class MonitorReplica {
+
+    private static final Logger log = LoggerFactory.getLogger(MonitorReplica.class);
+
+    public static final String CONSULTA_POSTGRES = """
+            SELECT CASE
+                     WHEN NOT pg_is_in_recovery() THEN 0
+                     WHEN NOT EXISTS (SELECT 1 FROM pg_stat_wal_receiver
+                                       WHERE status IS NULL OR status = 'streaming') THEN NULL
+                     WHEN pg_last_wal_receive_lsn() = pg_last_wal_replay_lsn() THEN 0
+                     ELSE COALESCE(EXTRACT(EPOCH FROM now() - pg_last_xact_replay_timestamp()) * 1000, 0)
+                   END
+            """;
+
+    private final JdbcTemplate jdbc;
+    private final String consulta;
+    private final long retrasoMaximoMs;
+
+    private volatile boolean disponible;
+    private volatile long retrasoMs = -1; // -1 = sin medición válida
+
+    public MonitorReplica(DataSource replica, String consulta, long retrasoMaximoMs, int timeoutSegundos) {
+        this.jdbc = new JdbcTemplate(replica);
+        this.jdbc.setQueryTimeout(timeoutSegundos);
+        this.consulta = consulta;
+        this.retrasoMaximoMs = retrasoMaximoMs;
+        verificar();
+    }
+
+    public boolean disponible() {
+        return disponible;
+    }
+
+    public long getRetrasoMs() {
+        return retrasoMs;
+    }
+
+    @Scheduled(fixedDelayString = "${bank.replica.verificacion-ms:1000}")
+    public void verificar() {
+        boolean antes = disponible;
+        try {
+            Number medido = jdbc.queryForObject(consulta, Number.class);
+            if (medido == null) {
+                retrasoMs = -1;
+                disponible = false;
+                if (antes) log.warn("Réplica sin conexión al primario, lecturas a la primaria");
+                return;
+            }
+            retrasoMs = medido.longValue();
+            disponible = retrasoMs <= retrasoMaximoMs;
+        } catch (RuntimeException ex) {
+            retrasoMs = -1;
+            disponible = false;
+            if (antes) log.warn("Réplica sin respuesta, lecturas a la primaria", ex);
+            return;
+        }
+
+        if (antes && !disponible) {
+            log.warn("Réplica atrasada {} ms (máximo {} ms), lecturas a la primaria", retrasoMs, retrasoMaximoMs);
+        } else if (!antes && disponible) {
+            log.info("Réplica al día ({} ms), lecturas de reportes a la réplica", retrasoMs);
+        }
+    }
+}
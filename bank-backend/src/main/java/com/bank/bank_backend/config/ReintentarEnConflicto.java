@@ -0,0 +1,17 @@
+package com.bank.bank_backend.config;
+
+import java.lang.annotation.*;
+
+/**
+ * Marca un método transaccional que debe reintentarse completo (nueva transacción)
+ * cuando falla por un conflicto de concurrencia: versión optimista desactualizada,
+ * deadlock o error de serialización.
+ *
+ * Si el método se invoca dentro de una transacción ya abierta no se reintenta:
+ * la decisión queda en manos de quien abrió la transacción externa.
+ */
+@Target(ElementType.METHOD)
+@Retention(RetentionPolicy.RUNTIME)
+@Documented
+public @interface ReintentarEnConflicto {
+}
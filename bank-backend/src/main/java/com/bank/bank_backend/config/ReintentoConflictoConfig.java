@@ -0,0 +1,37 @@
+package com.bank.bank_backend.config;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.aop.Advisor;
+import org.springframework.aop.support.DefaultPointcutAdvisor;
+import org.springframework.aop.support.annotation.AnnotationMatchingPointcut;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.config.BeanDefinition;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Role;
+import org.springframework.core.Ordered;
+
+@Configuration(proxyBeanMethods = false)
+public class ReintentoConflictoConfig {
+
+    /**
+     * Advisor de reintentos. Su orden es MAYOR prioridad que el de @Transactional,
+     * por eso envuelve a la transacción: cada intento abre y cierra su propia transacción.
+     */
+    @Bean
+    @Role(BeanDefinition.ROLE_INFRASTRUCTURE)
+    public static Advisor reintentoConflictoAdvisor(
+            ObjectProvider<MeterRegistry> meterRegistry,
+            @Value("${bank.posteo.reintentos.max-intentos:5}") int maxIntentos,
+            @Value("${bank.posteo.reintentos.backoff-base-ms:5}") long backoffBaseMs,
+            @Value("${bank.posteo.reintentos.backoff-max-ms:200}") long backoffMaxMs
+    ) {
+        DefaultPointcutAdvisor advisor = new DefaultPointcutAdvisor(
+                AnnotationMatchingPointcut.forMethodAnnotation(ReintentarEnConflicto.class),
+                new ReintentoConflictoInterceptor(meterRegistry, maxIntentos, backoffBaseMs, backoffMaxMs)
+        );
+        advisor.setOrder(Ordered.LOWEST_PRECEDENCE - 100);
+        return advisor;
+    }
+}
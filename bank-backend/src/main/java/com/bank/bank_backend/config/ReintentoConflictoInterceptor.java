@@ -0,0 +1,107 @@
+package com.bank.bank_backend.config;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.aopalliance.intercept.MethodInterceptor;
+import org.aopalliance.intercept.MethodInvocation;
+import org.springframework.aop.ProxyMethodInvocation;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.dao.ConcurrencyFailureException;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * Reintenta los métodos anotados con {@link ReintentarEnConflicto}.
+ *
+ * - Máximo de intentos acotado.
+ * - Backoff exponencial con "full jitter": espera aleatoria entre 0 y min(max, base * 2^n),
+ *   así los hilos que chocaron no vuelven a chocar todos al mismo tiempo.
+ * - Contadores: bank.posteo.conflictos, bank.posteo.reintentos, bank.posteo.reintentos.agotados
+ */
+public class ReintentoConflictoInterceptor implements MethodInterceptor {
+
+    private final ObjectProvider<MeterRegistry> meterRegistry;
+    private final int maxIntentos;
+    private final long backoffBaseMs;
+    private final long backoffMaxMs;
+
+    // Se crean perezosamente: el advisor se instancia antes que el MeterRegistry.
+    private volatile Counter conflictos;
+    private volatile Counter reintentos;
+    private volatile Counter agotados;
+
+    public ReintentoConflictoInterceptor(
+            ObjectProvider<MeterRegistry> meterRegistry,
+            int maxIntentos,
+            long backoffBaseMs,
+            long backoffMaxMs
+    ) {
+        this.meterRegistry = meterRegistry;
+        this.maxIntentos = Math.max(1, maxIntentos);
+        this.backoffBaseMs = Math.max(0, backoffBaseMs);
+        this.backoffMaxMs = Math.max(this.backoffBaseMs, backoffMaxMs);
+    }
+
+    @Override
+    public Object invoke(MethodInvocation invocation) throws Throwable {
+        // Dentro de una transacción externa no tiene sentido reintentar: el contexto ya quedó marcado.
+        if (TransactionSynchronizationManager.isActualTransactionActive()
+                || !(invocation instanceof ProxyMethodInvocation pmi)) {
+            return invocation.proceed();
+        }
+
+        for (int intento = 1; ; intento++) {
+            try {
+                return pmi.invocableClone().proceed();
+            } catch (ConcurrencyFailureException ex) {
+                contar(Tipo.CONFLICTO);
+                if (intento >= maxIntentos) {
+                    contar(Tipo.AGOTADO);
+                    throw ex;
+                }
+                contar(Tipo.REINTENTO);
+                esperar(intento);
+            }
+        }
+    }
+
+    private void esperar(int intento) throws InterruptedException {
+        long tope = Math.min(backoffMaxMs, backoffBaseMs << Math.min(intento - 1, 20));
+        if (tope <= 0) return;
+        Thread.sleep(ThreadLocalRandom.current().nextLong(tope + 1));
+    }
+
+    /* ===============================
+       Métricas
+       =============================== */
+
+    private enum Tipo { CONFLICTO, REINTENTO, AGOTADO }
+
+    private void contar(Tipo tipo) {
+        MeterRegistry registry = meterRegistry.getIfAvailable();
+        if (registry == null) return;
+
+        if (conflictos == null) {
+            synchronized (this) {
+                if (conflictos == null) {
+                    reintentos = Counter.builder("bank.posteo.reintentos")
+                            .description("Reintentos por conflicto de concurrencia")
+                            .register(registry);
+                    agotados = Counter.builder("bank.posteo.reintentos.agotados")
+                            .description("Operaciones que agotaron los reintentos")
+                            .register(registry);
+                    conflictos = Counter.builder("bank.posteo.conflictos")
+                            .description("Conflictos de concurrencia detectados")
+                            .register(registry);
+                }
+            }
+        }
+
+        switch (tipo) {
+            case CONFLICTO -> conflictos.increment();
+            case REINTENTO -> reintentos.increment();
+            case AGOTADO -> agotados.increment();
+        }
+    }
+}
@@ -0,0 +1,95 @@
+package com.bank.bank_backend.config;
+
+import com.zaxxer.hikari.HikariDataSource;
+import org.springframework.aop.Advisor;
+import org.springframework.aop.support.ComposablePointcut;
+import org.springframework.aop.support.DefaultPointcutAdvisor;
+import org.springframework.aop.support.annotation.AnnotationMatchingPointcut;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.beans.factory.config.BeanDefinition;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceProperties;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Primary;
+import org.springframework.context.annotation.Role;
+import org.springframework.core.Ordered;
+import org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy;
+
+import javax.sql.DataSource;
+
+/**
+ * NUEVO: réplica de lectura para reportes y listados (bank.replica.habilitada=true).
+ *
+ * El DataSource de la aplicación pasa a ser LazyConnectionDataSourceProxy -> DataSourceRuteado,
+ * con dos pools Hikari: la primaria (spring.datasource.*) y la réplica (bank.replica.*).
+ * Las consultas de métodos @LecturaEnReplica con @Transactional(readOnly = true) van a la réplica
+ * mientras MonitorReplica la considere al día; posteos, Flyway y todo lo demás van a la primaria.
+ *
+ * Sin la propiedad no se define ningún DataSource y Spring Boot arma el de siempre.
+ */
+@Configuration(proxyBeanMethods = false)
+@ConditionalOnProperty(name = "bank.replica.habilitada", havingValue = "true")
+public class ReplicaLecturaConfig {
+
+    // Pools propios: defaultCandidate = false para que solo se inyecten pidiéndolos por nombre
+    @Bean(defaultCandidate = false)
+    @ConfigurationProperties("spring.datasource.hikari")
+    public HikariDataSource dataSourcePrimaria(DataSourceProperties propiedades) {
+        HikariDataSource ds = propiedades.initializeDataSourceBuilder().type(HikariDataSource.class).build();
+        ds.setPoolName("primaria");
+        return ds;
+    }
+
+    @Bean(defaultCandidate = false)
+    public HikariDataSource dataSourceReplica(
+            @Value("${bank.replica.url}") String url,
+            @Value("${bank.replica.usuario:${spring.datasource.username:}}") String usuario,
+            @Value("${bank.replica.contrasena:${spring.datasource.password:}}") String contrasena,
+            @Value("${bank.replica.pool-maximo:10}") int poolMaximo
+    ) {
+        HikariDataSource ds = new HikariDataSource();
+        ds.setPoolName("replica");
+        ds.setJdbcUrl(url);
+        ds.setUsername(usuario);
+        ds.setPassword(contrasena);
+        ds.setMaximumPoolSize(poolMaximo);
+        ds.setReadOnly(true);
+        return ds;
+    }
+
+    @Bean
+    public MonitorReplica monitorReplica(
+            @Qualifier("dataSourceReplica") DataSource replica,
+            @Value("${bank.replica.consulta-retraso:}") String consulta,
+            @Value("${bank.replica.retraso-maximo-ms:5000}") long retrasoMaximoMs,
+            @Value("${bank.replica.timeout-segundos:2}") int timeoutSegundos
+    ) {
+        return new MonitorReplica(replica,
+                consulta.isBlank() ? MonitorReplica.CONSULTA_POSTGRES : consulta, retrasoMaximoMs, timeoutSegundos);
+    }
+
+    @Bean
+    @Primary
+    public DataSource dataSource(
+            @Qualifier("dataSourcePrimaria") DataSource primaria,
+            @Qualifier("dataSourceReplica") DataSource replica,
+            MonitorReplica monitor
+    ) {
+        return new LazyConnectionDataSourceProxy(new DataSourceRuteado(primaria, replica, monitor));
+    }
+
+    /** Marca el hilo en los servicios o métodos anotados con @LecturaEnReplica. */
+    @Bean
+    @Role(BeanDefinition.ROLE_INFRASTRUCTURE)
+    public static Advisor lecturaReplicaAdvisor() {
+        ComposablePointcut pointcut =
+                new ComposablePointcut(AnnotationMatchingPointcut.forClassAnnotation(LecturaEnReplica.class))
+                        .union(AnnotationMatchingPointcut.forMethodAnnotation(LecturaEnReplica.class));
+        DefaultPointcutAdvisor advisor = new DefaultPointcutAdvisor(pointcut, new LecturaReplicaInterceptor());
+        advisor.setOrder(Ordered.LOWEST_PRECEDENCE - 50);
+        return advisor;
+    }
+}
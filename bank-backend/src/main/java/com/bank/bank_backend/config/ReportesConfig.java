@@ -0,0 +1,74 @@
+package com.bank.bank_backend.config;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinWorkerThread;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+@Configuration(proxyBeanMethods = false)
+public class ReportesConfig {
+
+    /**
+     * Pool acotado para renderizar PDFs independientes (uno por cuenta) en paralelo.
+     * Hilos y cola fijos; si la cola se llena, el hilo que pide el PDF lo renderiza él mismo
+     * (CallerRunsPolicy): nunca se rechaza trabajo ni crece la memoria sin límite.
+     */
+    @Bean(name = "ejecutorPdf", destroyMethod = "shutdown")
+    public ExecutorService ejecutorPdf(
+            @Value("${bank.reportes.pdf.hilos:4}") int hilos,
+            @Value("${bank.reportes.pdf.cola:64}") int cola
+    ) {
+        AtomicInteger n = new AtomicInteger();
+        ThreadFactory fabrica = r -> {
+            Thread t = new Thread(r, "reportes-pdf-" + n.incrementAndGet());
+            t.setDaemon(true);
+            return t;
+        };
+        return new ThreadPoolExecutor(hilos, hilos, 30, TimeUnit.SECONDS,
+                new ArrayBlockingQueue<>(cola), fabrica, new ThreadPoolExecutor.CallerRunsPolicy());
+    }
+
+    /**
+     * NUEVO: pool de trabajos de reporte asíncronos (POST /reportes/jobs).
+     * Acota cuántos reportes grandes corren a la vez (y cuántas conexiones ocupan).
+     * Con la cola llena se rechaza (AbortPolicy): el request responde 503 en vez de bloquear un hilo de Tomcat.
+     */
+    @Bean(name = "ejecutorTrabajosReporte", destroyMethod = "shutdownNow")
+    public ExecutorService ejecutorTrabajosReporte(
+            @Value("${bank.reportes.jobs.hilos:2}") int hilos,
+            @Value("${bank.reportes.jobs.cola:50}") int cola
+    ) {
+        AtomicInteger n = new AtomicInteger();
+        ThreadFactory fabrica = r -> {
+            Thread t = new Thread(r, "reportes-job-" + n.incrementAndGet());
+            t.setDaemon(true);
+            return t;
+        };
+        return new ThreadPoolExecutor(hilos, hilos, 30, TimeUnit.SECONDS,
+                new ArrayBlockingQueue<>(cola), fabrica, new ThreadPoolExecutor.AbortPolicy());
+    }
+
+    /**
+     * NUEVO: pool fork-join del cierre mensual. El paralelismo acota cuántos PDFs se renderizan
+     * a la vez (CPU y memoria); el resto de la aplicación no comparte este pool.
+     */
+    @Bean(name = "poolCierreMensual", destroyMethod = "shutdownNow")
+    public ForkJoinPool poolCierreMensual(@Value("${bank.cierre-mensual.paralelismo:4}") int paralelismo) {
+        AtomicInteger n = new AtomicInteger();
+        ForkJoinPool.ForkJoinWorkerThreadFactory fabrica = pool -> {
+            ForkJoinWorkerThread t = ForkJoinPool.defaultForkJoinWorkerThreadFactory.newThread(pool);
+            t.setName("cierre-mensual-" + n.incrementAndGet());
+            t.setDaemon(true);
+            return t;
+        };
+        return new ForkJoinPool(Math.max(1, paralelismo), fabrica, null, false);
+    }
+}
@@ -0,0 +1,67 @@
+package com.bank.bank_backend.config;
+
+import jakarta.persistence.EntityManagerFactory;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.support.JdbcUtils;
+import org.springframework.jdbc.support.MetaDataAccessException;
+import org.springframework.stereotype.Component;
+
+import javax.sql.DataSource;
+import java.util.Collection;
+import java.util.List;
+
+/**
+ * NUEVO: falla el arranque si falta alguno de los índices de los que dependen las consultas
+ * de CuentaRepository y MovimientoRepository (migración V2__indices_rendimiento.sql).
+ *
+ * Sin ellos la aplicación funciona, pero los reportes y el posteo degradan a scans completos;
+ * es preferible enterarse al desplegar. Solo cuenta índices válidos (un CREATE INDEX CONCURRENTLY
+ * que falló deja uno inválido). Depende del EntityManagerFactory para correr después de Flyway.
+ * Solo aplica a PostgreSQL.
+ */
+@Component
+public class VerificadorIndices {
+
+    private static final Logger log = LoggerFactory.getLogger(VerificadorIndices.class);
+
+    static final List<String> ESPERADOS = List.of(
+            "uk_numero_cuenta",
+            "idx_cuentas_cliente_numero",
+            "idx_cuentas_activas",
+            "idx_movimientos_cuenta_fecha_id",
+            "idx_movimientos_fecha_brin",
+            "idx_idempotencia_fecha");
+
+    public VerificadorIndices(
+            DataSource dataSource,
+            EntityManagerFactory emf,
+            @Value("${bank.esquema.verificar-indices:true}") boolean verificar
+    ) throws MetaDataAccessException {
+        String producto = JdbcUtils.extractDatabaseMetaData(dataSource, md -> md.getDatabaseProductName());
+        if (!verificar || !"PostgreSQL".equalsIgnoreCase(producto)) {
+            return;
+        }
+
+        List<String> existentes = new JdbcTemplate(dataSource).queryForList("""
+                SELECT c.relname
+                  FROM pg_index x
+                  JOIN pg_class c ON c.oid = x.indexrelid
+                 WHERE c.relnamespace = current_schema()::regnamespace
+                   AND x.indisvalid
+                """, String.class);
+
+        List<String> faltantes = faltantes(existentes);
+        if (!faltantes.isEmpty()) {
+            throw new IllegalStateException("Faltan índices del esquema " + faltantes
+                    + ": revisar las migraciones de Flyway (db/migration)");
+        }
+        log.info("Índices del esquema verificados: {}", ESPERADOS.size());
+    }
+
+    static List<String> faltantes(Collection<String> existentes) {
+        return ESPERADOS.stream().filter(i -> !existentes.contains(i)).toList();
+    }
+}
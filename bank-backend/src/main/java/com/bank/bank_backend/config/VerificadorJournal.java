@@ -0,0 +1,41 @@
+package com.bank.bank_backend.config;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * NUEVO: falla el arranque si el motor de posteo con journal convive con rutas que escriben
+ * saldos por fuera de él (transferencias y POST /movimientos/batch, que postean con
+ * MovimientoService en modo CLASICO/ATOMICO).
+ *
+ * Con journal el motor acusa antes de tocar la base y su saldo en memoria manda: una escritura
+ * externa haría que el drenador descarte movimientos ya acusados. Esas rutas se apagan con
+ * bank.transferencias.habilitadas=false y bank.movimientos.lote.habilitado=false.
+ * POST /movimientos ya pasa por el motor cuando está habilitado.
+ */
+@Component
+public class VerificadorJournal {
+
+    public VerificadorJournal(
+            @Value("${bank.posteo.motor.habilitado:false}") boolean motor,
+            @Value("${bank.posteo.journal.habilitado:false}") boolean journal,
+            @Value("${bank.transferencias.habilitadas:true}") boolean transferencias,
+            @Value("${bank.movimientos.lote.habilitado:true}") boolean lotes
+    ) {
+        List<String> conflictos = conflictos(motor && journal, transferencias, lotes);
+        if (!conflictos.isEmpty()) {
+            throw new IllegalStateException("El journal del motor de posteo requiere deshabilitar " + conflictos);
+        }
+    }
+
+    static List<String> conflictos(boolean journal, boolean transferencias, boolean lotes) {
+        List<String> conflictos = new ArrayList<>();
+        if (!journal) return conflictos;
+        if (transferencias) conflictos.add("bank.transferencias.habilitadas");
+        if (lotes) conflictos.add("bank.movimientos.lote.habilitado");
+        return conflictos;
+    }
+}
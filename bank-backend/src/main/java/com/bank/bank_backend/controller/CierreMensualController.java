@@ -0,0 +1,51 @@
+package com.bank.bank_backend.controller;
+
+import com.bank.bank_backend.dto.CierreMensualResponse;
+import com.bank.bank_backend.exception.BadRequestException;
+import com.bank.bank_backend.service.CierreMensualService;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+import java.net.URI;
+import java.time.YearMonth;
+import java.time.format.DateTimeParseException;
+
+/**
+ * NUEVO: cierre mensual (un PDF por cuenta activa, en disco).
+ * POST lo inicia o lo reanuda y responde 202; GET devuelve el progreso.
+ */
+@RestController
+@RequestMapping("/reportes/cierre-mensual")
+@CrossOrigin(origins = "http://localhost:4200", exposedHeaders = HttpHeaders.LOCATION)
+public class CierreMensualController {
+
+    private final CierreMensualService cierreService;
+
+    public CierreMensualController(CierreMensualService cierreService) {
+        this.cierreService = cierreService;
+    }
+
+    // periodo=yyyy-MM (por defecto, el mes anterior); 409 si ya hay uno en curso o ya se generó
+    @PostMapping
+    public ResponseEntity<CierreMensualResponse> iniciar(@RequestParam(required = false) String periodo) {
+        CierreMensualResponse cierre = cierreService.iniciar(periodo(periodo));
+        return ResponseEntity.accepted()
+                .location(URI.create("/reportes/cierre-mensual?periodo=" + cierre.getPeriodo()))
+                .body(cierre);
+    }
+
+    @GetMapping
+    public CierreMensualResponse progreso(@RequestParam(required = false) String periodo) {
+        return cierreService.progreso(periodo(periodo));
+    }
+
+    private static YearMonth periodo(String periodo) {
+        if (periodo == null || periodo.isBlank()) return null;
+        try {
+            return YearMonth.parse(periodo.trim());
+        } catch (DateTimeParseException ex) {
+            throw new BadRequestException("periodo debe tener el formato yyyy-MM");
+        }
+    }
+}
@@ -1,35 +1,131 @@
 package com.bank.bank_backend.controller;
 
 import com.bank.bank_backend.dto.CrearMovimientoRequest;
+import com.bank.bank_backend.dto.PaginaMovimientos;
+import com.bank.bank_backend.dto.ResultadoMovimientoLote;
 import com.bank.bank_backend.entity.Movimiento;
-import com.bank.bank_backend.repository.MovimientoRepository;
+import com.bank.bank_backend.exception.BadRequestException;
+import com.bank.bank_backend.service.IdempotenciaService;
+import com.bank.bank_backend.service.MotorPosteo;
+import com.bank.bank_backend.service.MovimientoLoteService;
 import com.bank.bank_backend.service.MovimientoService;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.MappingIterator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.util.Iterator;
 import java.util.List;
 
 @RestController
 @RequestMapping("/movimientos")
-@CrossOrigin(origins = "http://localhost:4200")
+@CrossOrigin(origins = "http://localhost:4200", exposedHeaders = PaginaMovimientos.HEADER_SIGUIENTE_CURSOR)
 public class MovimientoController {
 
     private final MovimientoService movimientoService;
-    private final MovimientoRepository movRepo;
+    private final MovimientoLoteService loteService;
+    private final ObjectProvider<MotorPosteo> motorPosteo; // solo existe si está habilitado
+    private final IdempotenciaService idempotencia;
+    private final ObjectMapper objectMapper;
 
-    public MovimientoController(MovimientoService movimientoService, MovimientoRepository movRepo) {
+    public MovimientoController(MovimientoService movimientoService,
+                                MovimientoLoteService loteService,
+                                ObjectProvider<MotorPosteo> motorPosteo,
+                                IdempotenciaService idempotencia,
+                                ObjectMapper objectMapper) {
         this.movimientoService = movimientoService;
-        this.movRepo = movRepo;
+        this.loteService = loteService;
+        this.motorPosteo = motorPosteo;
+        this.idempotencia = idempotencia;
+        this.objectMapper = objectMapper;
     }
 
     // Crear movimiento (Crédito/Débito)
+    // NUEVO: con Idempotency-Key, un reintento devuelve el movimiento original sin volver a postear
     @PostMapping
-    public Movimiento crear(@RequestBody CrearMovimientoRequest req) {
-        return movimientoService.crear(req);
+    public Movimiento crear(@RequestBody CrearMovimientoRequest req,
+                            @RequestHeader(value = "Idempotency-Key", required = false) String idempotencyKey) {
+        if (idempotencyKey == null) return postear(req, null);
+        return idempotencia.ejecutar(idempotencyKey, req, clave -> postear(req, clave));
+    }
+
+    // La clave (si hay) se completa en la misma transacción que confirma el movimiento
+    private Movimiento postear(CrearMovimientoRequest req, String claveIdempotencia) {
+        MotorPosteo motor = motorPosteo.getIfAvailable();
+        if (motor != null) return motor.postear(req, claveIdempotencia);
+        return claveIdempotencia == null ? movimientoService.crear(req) : movimientoService.crear(req, claveIdempotencia);
+    }
+
+    // NUEVO: lote de movimientos como arreglo JSON
+    @PostMapping(value = "/batch", consumes = MediaType.APPLICATION_JSON_VALUE)
+    public List<ResultadoMovimientoLote> crearLote(@RequestBody List<CrearMovimientoRequest> items) {
+        return loteService.procesar(items);
+    }
+
+    // NUEVO: lote de movimientos como NDJSON (un objeto JSON por línea)
+    // Se procesa a medida que se lee: el cuerpo no se carga entero en memoria
+    @PostMapping(value = "/batch", consumes = MediaType.APPLICATION_NDJSON_VALUE)
+    public List<ResultadoMovimientoLote> crearLoteNdjson(InputStream body) throws IOException {
+        try (MappingIterator<CrearMovimientoRequest> it = objectMapper
+                .readerFor(CrearMovimientoRequest.class)
+                .readValues(body)) {
+            return loteService.procesarStream(ndjson(it));
+        } catch (JsonProcessingException ex) {
+            throw new BadRequestException("NDJSON inválido: " + ex.getOriginalMessage());
+        }
+    }
+
+    // Una línea ilegible llega al servicio como BadRequestException en el ítem que corresponde
+    private static Iterator<CrearMovimientoRequest> ndjson(MappingIterator<CrearMovimientoRequest> it) {
+        return new Iterator<>() {
+            @Override
+            public boolean hasNext() {
+                try {
+                    return it.hasNextValue();
+                } catch (JsonProcessingException ex) {
+                    throw new BadRequestException("NDJSON inválido: " + ex.getOriginalMessage());
+                } catch (IOException ex) {
+                    throw new UncheckedIOException(ex);
+                }
+            }
+
+            @Override
+            public CrearMovimientoRequest next() {
+                try {
+                    return it.nextValue();
+                } catch (JsonProcessingException ex) {
+                    throw new BadRequestException("NDJSON inválido: " + ex.getOriginalMessage());
+                } catch (IOException ex) {
+                    throw new UncheckedIOException(ex);
+                }
+            }
+        };
     }
 
     // Listar movimientos por número de cuenta
+    // NUEVO: paginado por keyset si se pide cursor o limite (sin ellos, la lista completa como antes);
+    // el cuerpo sigue siendo el arreglo de movimientos y el cursor de la siguiente página
+    // viaja en el header X-Next-Cursor (ausente en la última página)
     @GetMapping("/cuenta/{numeroCuenta}")
-    public List<Movimiento> listarPorCuenta(@PathVariable String numeroCuenta) {
-        return movRepo.findByCuenta_NumeroCuentaOrderByFechaAsc(numeroCuenta);
+    public ResponseEntity<List<Movimiento>> listarPorCuenta(@PathVariable String numeroCuenta,
+                                                            @RequestParam(required = false) String cursor,
+                                                            @RequestParam(required = false) Integer limite) {
+        if (cursor == null && limite == null) {
+            return ResponseEntity.ok(movimientoService.listarPorCuenta(numeroCuenta));
+        }
+
+        PaginaMovimientos<Movimiento> pagina = movimientoService.listarPorCuenta(numeroCuenta, cursor, limite);
+
+        ResponseEntity.BodyBuilder resp = ResponseEntity.ok();
+        if (pagina.siguienteCursor() != null) {
+            resp.header(PaginaMovimientos.HEADER_SIGUIENTE_CURSOR, pagina.siguienteCursor());
+        }
+        return resp.body(pagina.items());
     }
 }
@@ -1,27 +1,43 @@
 package com.bank.bank_backend.controller;
 
+import com.bank.bank_backend.dto.PaginaMovimientos;
 import com.bank.bank_backend.dto.ReporteEstadoCuentaResponse;
 import com.bank.bank_backend.dto.ReporteMovimientoUsuarioItem;
+import com.bank.bank_backend.dto.ResumenMovimientosResponse;
+import com.bank.bank_backend.service.AgrupacionResumen;
+import com.bank.bank_backend.service.ExportadorMovimientos;
+import com.bank.bank_backend.service.FormatoExportacion;
 import com.bank.bank_backend.service.ReporteService;
+import com.bank.bank_backend.service.ResumenMovimientosService;
+import org.springframework.http.ContentDisposition;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
 import java.time.LocalDate;
 import java.util.Base64;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.zip.GZIPOutputStream;
 
 @RestController
 @RequestMapping("/reportes")
-@CrossOrigin(origins = "http://localhost:4200")
+@CrossOrigin(origins = "http://localhost:4200", exposedHeaders = PaginaMovimientos.HEADER_SIGUIENTE_CURSOR)
 public class ReportesController {
 
     private final ReporteService reporteService;
+    private final ExportadorMovimientos exportador;
+    private final ResumenMovimientosService resumenService;
 
-    public ReportesController(ReporteService reporteService) {
+    public ReportesController(ReporteService reporteService, ExportadorMovimientos exportador,
+                              ResumenMovimientosService resumenService) {
         this.reporteService = reporteService;
+        this.exportador = exportador;
+        this.resumenService = resumenService;
     }
 
     /**
@@ -68,19 +84,53 @@ public class ReportesController {
         return reporteService.estadoCuentaPorCliente(clienteId, ini, fin, incluirPdf);
     }
 
+    /**
+     * NUEVO: totales por cuenta (créditos, débitos, cantidad, saldo mínimo y máximo) calculados en la base.
+     * clienteId o numeroCuenta; agrupacion opcional: dia, semana o mes.
+     */
+    @GetMapping("/resumen")
+    public ResumenMovimientosResponse resumen(
+            @RequestParam(required = false) Long clienteId,
+            @RequestParam(required = false) String numeroCuenta,
+            @RequestParam String fechaInicio,
+            @RequestParam String fechaFin,
+            @RequestParam(required = false) String agrupacion
+    ) {
+        LocalDate ini = LocalDate.parse(fechaInicio);
+        LocalDate fin = LocalDate.parse(fechaFin);
+
+        return resumenService.resumen(clienteId, numeroCuenta, ini, fin, AgrupacionResumen.desde(agrupacion));
+    }
+
     /**
      * Movimientos por cliente + rango -> JSON
+     *
+     * NUEVO: con limite y/o cursor se pagina por keyset; el cursor de la siguiente
+     * página viaja en el header X-Next-Cursor. Sin ellos, devuelve el rango completo (frontend actual).
      */
     @GetMapping("/movimientos-por-cliente")
-    public List<ReporteMovimientoUsuarioItem> movimientosPorCliente(
+    public ResponseEntity<List<ReporteMovimientoUsuarioItem>> movimientosPorCliente(
             @RequestParam Long clienteId,
             @RequestParam String fechaInicio,
-            @RequestParam String fechaFin
+            @RequestParam String fechaFin,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(required = false) Integer limite
     ) {
         LocalDate ini = LocalDate.parse(fechaInicio);
         LocalDate fin = LocalDate.parse(fechaFin);
 
-        return reporteService.movimientosPorCliente(clienteId, ini, fin);
+        if (cursor == null && limite == null) {
+            return ResponseEntity.ok(reporteService.movimientosPorCliente(clienteId, ini, fin));
+        }
+
+        PaginaMovimientos<ReporteMovimientoUsuarioItem> pagina =
+                reporteService.movimientosPorClientePaginado(clienteId, ini, fin, cursor, limite);
+
+        ResponseEntity.BodyBuilder resp = ResponseEntity.ok();
+        if (pagina.siguienteCursor() != null) {
+            resp.header(PaginaMovimientos.HEADER_SIGUIENTE_CURSOR, pagina.siguienteCursor());
+        }
+        return resp.body(pagina.items());
     }
 
     /**
@@ -112,4 +162,189 @@ public class ReportesController {
 
         return ResponseEntity.ok(resp);
     }
+
+    /**
+     * NUEVO: Estado de cuenta -> application/pdf en stream (sin Base64 ni PDF completo en memoria)
+     *
+     * Devuelve:
+     * - 200 + PDF si hay movimientos
+     * - 204 No Content si no hay movimientos en ese rango
+     * - 404 si la cuenta no existe
+     */
+    @GetMapping("/estado-cuenta.pdf")
+    public ResponseEntity<StreamingResponseBody> estadoCuentaPdf(
+            @RequestParam String numeroCuenta,
+            @RequestParam String fechaInicio,
+            @RequestParam String fechaFin
+    ) {
+        LocalDate ini = LocalDate.parse(fechaInicio);
+        LocalDate fin = LocalDate.parse(fechaFin);
+
+        // Se valida antes de escribir: una vez iniciado el stream ya no se puede cambiar el status
+        if (!reporteService.estadoCuentaTieneMovimientos(numeroCuenta, ini, fin)) {
+            return ResponseEntity.status(HttpStatus.NO_CONTENT).build();
+        }
+
+        return pdf("estado-cuenta-" + numeroCuenta + ".pdf",
+                out -> reporteService.escribirPdfEstadoCuenta(numeroCuenta, ini, fin, out));
+    }
+
+    /**
+     * NUEVO: Movimientos por cliente + rango -> application/pdf en stream
+     */
+    @GetMapping("/movimientos-por-cliente.pdf")
+    public ResponseEntity<StreamingResponseBody> movimientosPorClientePdfStream(
+            @RequestParam Long clienteId,
+            @RequestParam String fechaInicio,
+            @RequestParam String fechaFin
+    ) {
+        LocalDate ini = LocalDate.parse(fechaInicio);
+        LocalDate fin = LocalDate.parse(fechaFin);
+
+        if (!reporteService.clienteTieneMovimientos(clienteId, ini, fin)) {
+            return ResponseEntity.status(HttpStatus.NO_CONTENT).build();
+        }
+
+        return pdf("movimientos-cliente-" + clienteId + ".pdf",
+                out -> reporteService.escribirPdfMovimientosPorCliente(clienteId, ini, fin, out));
+    }
+
+    /**
+     * NUEVO: Estado de cuenta por cliente -> ZIP en stream, un PDF por cuenta con movimientos.
+     * Reemplaza a estado-cuenta-por-cliente?incluirPdf=true para clientes con muchas cuentas:
+     * cada PDF se comprime y se envía mientras se renderiza, sin Base64 ni JSON en memoria.
+     */
+    @GetMapping("/estado-cuenta-por-cliente.zip")
+    public ResponseEntity<StreamingResponseBody> estadoCuentaPorClienteZip(
+            @RequestParam Long clienteId,
+            @RequestParam String fechaInicio,
+            @RequestParam String fechaFin
+    ) {
+        LocalDate ini = LocalDate.parse(fechaInicio);
+        LocalDate fin = LocalDate.parse(fechaFin);
+
+        if (!reporteService.clienteTieneMovimientos(clienteId, ini, fin)) {
+            return ResponseEntity.status(HttpStatus.NO_CONTENT).build();
+        }
+
+        return ResponseEntity.ok()
+                .contentType(MediaType.parseMediaType("application/zip"))
+                .header(HttpHeaders.CONTENT_DISPOSITION, ContentDisposition.attachment()
+                        .filename("estados-cuenta-cliente-" + clienteId + ".zip").build().toString())
+                .body(out -> reporteService.escribirZipEstadosCuentaPorCliente(clienteId, ini, fin, out));
+    }
+
+    /**
+     * NUEVO: exportación de movimientos en stream (CSV o NDJSON), fila por fila desde el cursor.
+     * Sin Content-Length: sale con chunked transfer. Con "Accept-Encoding: gzip" (q > 0) se comprime al vuelo.
+     */
+    @GetMapping("/movimientos-por-cliente.csv")
+    public ResponseEntity<StreamingResponseBody> movimientosPorClienteCsv(
+            @RequestParam Long clienteId,
+            @RequestParam String fechaInicio,
+            @RequestParam String fechaFin,
+            @RequestHeader(value = HttpHeaders.ACCEPT_ENCODING, required = false) String aceptaCodificacion
+    ) {
+        return exportarPorCliente(clienteId, fechaInicio, fechaFin, FormatoExportacion.CSV, aceptaCodificacion);
+    }
+
+    @GetMapping("/movimientos-por-cliente.ndjson")
+    public ResponseEntity<StreamingResponseBody> movimientosPorClienteNdjson(
+            @RequestParam Long clienteId,
+            @RequestParam String fechaInicio,
+            @RequestParam String fechaFin,
+            @RequestHeader(value = HttpHeaders.ACCEPT_ENCODING, required = false) String aceptaCodificacion
+    ) {
+        return exportarPorCliente(clienteId, fechaInicio, fechaFin, FormatoExportacion.NDJSON, aceptaCodificacion);
+    }
+
+    // 404 si la cuenta no existe (se valida antes de empezar el stream)
+    @GetMapping("/estado-cuenta.csv")
+    public ResponseEntity<StreamingResponseBody> estadoCuentaCsv(
+            @RequestParam String numeroCuenta,
+            @RequestParam String fechaInicio,
+            @RequestParam String fechaFin,
+            @RequestHeader(value = HttpHeaders.ACCEPT_ENCODING, required = false) String aceptaCodificacion
+    ) {
+        return exportarEstadoCuenta(numeroCuenta, fechaInicio, fechaFin, FormatoExportacion.CSV, aceptaCodificacion);
+    }
+
+    @GetMapping("/estado-cuenta.ndjson")
+    public ResponseEntity<StreamingResponseBody> estadoCuentaNdjson(
+            @RequestParam String numeroCuenta,
+            @RequestParam String fechaInicio,
+            @RequestParam String fechaFin,
+            @RequestHeader(value = HttpHeaders.ACCEPT_ENCODING, required = false) String aceptaCodificacion
+    ) {
+        return exportarEstadoCuenta(numeroCuenta, fechaInicio, fechaFin, FormatoExportacion.NDJSON, aceptaCodificacion);
+    }
+
+    private ResponseEntity<StreamingResponseBody> exportarPorCliente(
+            Long clienteId, String fechaInicio, String fechaFin, FormatoExportacion formato, String aceptaCodificacion) {
+        LocalDate ini = LocalDate.parse(fechaInicio);
+        LocalDate fin = LocalDate.parse(fechaFin);
+        return exportacion("movimientos-cliente-" + clienteId + "." + formato.getExtension(), formato,
+                aceptaCodificacion, out -> exportador.exportarPorCliente(clienteId, ini, fin, formato, out));
+    }
+
+    private ResponseEntity<StreamingResponseBody> exportarEstadoCuenta(
+            String numeroCuenta, String fechaInicio, String fechaFin, FormatoExportacion formato, String aceptaCodificacion) {
+        LocalDate ini = LocalDate.parse(fechaInicio);
+        LocalDate fin = LocalDate.parse(fechaFin);
+        String numero = exportador.cuenta(numeroCuenta).numeroCuenta();
+        return exportacion("estado-cuenta-" + numero + "." + formato.getExtension(), formato,
+                aceptaCodificacion, out -> exportador.exportarEstadoCuenta(numero, ini, fin, formato, out));
+    }
+
+    private ResponseEntity<StreamingResponseBody> exportacion(
+            String nombreArchivo, FormatoExportacion formato, String aceptaCodificacion, StreamingResponseBody cuerpo) {
+        ResponseEntity.BodyBuilder resp = ResponseEntity.ok()
+                .contentType(MediaType.parseMediaType(formato.getTipoContenido() + ";charset=UTF-8"))
+                .header(HttpHeaders.CONTENT_DISPOSITION,
+                        ContentDisposition.attachment().filename(nombreArchivo).build().toString())
+                .header(HttpHeaders.VARY, HttpHeaders.ACCEPT_ENCODING);
+
+        if (!aceptaGzip(aceptaCodificacion)) {
+            return resp.body(cuerpo);
+        }
+        return resp.header(HttpHeaders.CONTENT_ENCODING, "gzip").body(out -> {
+            GZIPOutputStream gzip = new GZIPOutputStream(out, 64 * 1024);
+            cuerpo.writeTo(gzip);
+            gzip.finish(); // cierra el formato gzip sin cerrar la respuesta
+        });
+    }
+
+    /**
+     * gzip solo si el cliente lo lista con q > 0 ("gzip;q=0" lo rechaza explícitamente).
+     * "*" no cuenta: sin gzip nombrado se responde sin comprimir, que siempre es aceptable.
+     */
+    static boolean aceptaGzip(String aceptaCodificacion) {
+        if (aceptaCodificacion == null) return false;
+        for (String parte : aceptaCodificacion.split(",")) {
+            String[] campos = parte.split(";");
+            if (!campos[0].trim().equalsIgnoreCase("gzip")) continue;
+
+            double q = 1.0;
+            for (int i = 1; i < campos.length; i++) {
+                String param = campos[i].trim();
+                if (param.length() > 1 && param.regionMatches(true, 0, "q=", 0, 2)) {
+                    try {
+                        q = Double.parseDouble(param.substring(2).trim());
+                    } catch (NumberFormatException e) {
+                        q = 0; // q mal formado: no se arriesga a comprimir
+                    }
+                }
+            }
+            return q > 0;
+        }
+        return false;
+    }
+
+    private ResponseEntity<StreamingResponseBody> pdf(String nombreArchivo, StreamingResponseBody cuerpo) {
+        return ResponseEntity.ok()
+                .contentType(MediaType.APPLICATION_PDF)
+                .header(HttpHeaders.CONTENT_DISPOSITION,
+                        ContentDisposition.inline().filename(nombreArchivo).build().toString())
+                .body(cuerpo);
+    }
 }
@@ -0,0 +1,55 @@
+package com.bank.bank_backend.controller;
+
+import com.bank.bank_backend.dto.CrearTrabajoReporteRequest;
+import com.bank.bank_backend.dto.TrabajoReporteResponse;
+import com.bank.bank_backend.service.TrabajoReporteService;
+import org.springframework.core.io.FileSystemResource;
+import org.springframework.core.io.Resource;
+import org.springframework.http.ContentDisposition;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+import java.net.URI;
+
+/**
+ * NUEVO: reportes grandes en segundo plano.
+ * POST encola y responde 202 con el id; el cliente consulta el estado y descarga el resultado.
+ */
+@RestController
+@RequestMapping("/reportes/jobs")
+@CrossOrigin(origins = "http://localhost:4200", exposedHeaders = HttpHeaders.LOCATION)
+public class TrabajoReporteController {
+
+    private final TrabajoReporteService trabajoService;
+
+    public TrabajoReporteController(TrabajoReporteService trabajoService) {
+        this.trabajoService = trabajoService;
+    }
+
+    // 503 si la cola de reportes está llena
+    @PostMapping
+    public ResponseEntity<TrabajoReporteResponse> crear(@RequestBody CrearTrabajoReporteRequest req) {
+        TrabajoReporteResponse trabajo = trabajoService.crear(req);
+        return ResponseEntity.accepted()
+                .location(URI.create("/reportes/jobs/" + trabajo.getId()))
+                .body(trabajo);
+    }
+
+    @GetMapping("/{id}")
+    public TrabajoReporteResponse consultar(@PathVariable String id) {
+        return trabajoService.consultar(id);
+    }
+
+    // 409 mientras no esté COMPLETADO; 404 si no existe o ya venció
+    @GetMapping("/{id}/result")
+    public ResponseEntity<Resource> resultado(@PathVariable String id) {
+        FileSystemResource archivo = new FileSystemResource(trabajoService.resultado(id));
+        return ResponseEntity.ok()
+                .contentType(MediaType.APPLICATION_JSON)
+                .header(HttpHeaders.CONTENT_DISPOSITION, ContentDisposition.attachment()
+                        .filename("estado-cuenta-" + id + ".json").build().toString())
+                .body(archivo);
+    }
+}
@@ -0,0 +1,24 @@
+package com.bank.bank_backend.controller;
+
+import com.bank.bank_backend.dto.CrearTransferenciaRequest;
+import com.bank.bank_backend.dto.TransferenciaResponse;
+import com.bank.bank_backend.service.TransferenciaService;
+import org.springframework.web.bind.annotation.*;
+
+@RestController
+@RequestMapping("/transferencias")
+@CrossOrigin(origins = "http://localhost:4200")
+public class TransferenciaController {
+
+    private final TransferenciaService transferenciaService;
+
+    public TransferenciaController(TransferenciaService transferenciaService) {
+        this.transferenciaService = transferenciaService;
+    }
+
+    // Débito en la cuenta origen + crédito en la destino, atómico
+    @PostMapping
+    public TransferenciaResponse transferir(@RequestBody CrearTransferenciaRequest req) {
+        return transferenciaService.transferir(req);
+    }
+}
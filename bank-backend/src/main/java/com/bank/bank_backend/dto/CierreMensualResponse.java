@@ -0,0 +1,57 @@
+package com.bank.bank_backend.dto;
+
+import com.bank.bank_backend.service.EstadoTrabajo;
+
+import java.time.LocalDateTime;
+
+public class CierreMensualResponse {
+
+    private String periodo;            // yyyy-MM
+    private EstadoTrabajo estado;
+
+    private long totalCuentas;         // cuentas activas al iniciar (0 si se leyó solo el checkpoint)
+    private long cuentasProcesadas;    // incluye las de corridas anteriores del mismo período
+    private Long ultimoCuentaId;       // último checkpoint: se reanuda desde la cuenta siguiente
+    private double cuentasPorSegundo;  // de esta corrida
+    private boolean reanudado;
+
+    private LocalDateTime iniciadoEn;
+    private LocalDateTime terminadoEn;
+    private String directorio;
+    private String error;              // solo si estado = FALLIDO
+
+    public CierreMensualResponse() {}
+
+    public String getPeriodo() { return periodo; }
+    public void setPeriodo(String periodo) { this.periodo = periodo; }
+
+    public EstadoTrabajo getEstado() { return estado; }
+    public void setEstado(EstadoTrabajo estado) { this.estado = estado; }
+
+    public long getTotalCuentas() { return totalCuentas; }
+    public void setTotalCuentas(long totalCuentas) { this.totalCuentas = totalCuentas; }
+
+    public long getCuentasProcesadas() { return cuentasProcesadas; }
+    public void setCuentasProcesadas(long cuentasProcesadas) { this.cuentasProcesadas = cuentasProcesadas; }
+
+    public Long getUltimoCuentaId() { return ultimoCuentaId; }
+    public void setUltimoCuentaId(Long ultimoCuentaId) { this.ultimoCuentaId = ultimoCuentaId; }
+
+    public double getCuentasPorSegundo() { return cuentasPorSegundo; }
+    public void setCuentasPorSegundo(double cuentasPorSegundo) { this.cuentasPorSegundo = cuentasPorSegundo; }
+
+    public boolean isReanudado() { return reanudado; }
+    public void setReanudado(boolean reanudado) { this.reanudado = reanudado; }
+
+    public LocalDateTime getIniciadoEn() { return iniciadoEn; }
+    public void setIniciadoEn(LocalDateTime iniciadoEn) { this.iniciadoEn = iniciadoEn; }
+
+    public LocalDateTime getTerminadoEn() { return terminadoEn; }
+    public void setTerminadoEn(LocalDateTime terminadoEn) { this.terminadoEn = terminadoEn; }
+
+    public String getDirectorio() { return directorio; }
+    public void setDirectorio(String directorio) { this.directorio = directorio; }
+
+    public String getError() { return error; }
+    public void setError(String error) { this.error = error; }
+}
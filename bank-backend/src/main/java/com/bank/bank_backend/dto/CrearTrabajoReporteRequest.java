@@ -0,0 +1,26 @@
+package com.bank.bank_backend.dto;
+
+import java.time.LocalDate;
+
+// Estado de cuenta por cliente, generado en segundo plano (POST /reportes/jobs)
+public class CrearTrabajoReporteRequest {
+
+    private Long clienteId;
+    private LocalDate fechaInicio;
+    private LocalDate fechaFin;
+    private boolean incluirPdf;
+
+    public CrearTrabajoReporteRequest() {}
+
+    public Long getClienteId() { return clienteId; }
+    public void setClienteId(Long clienteId) { this.clienteId = clienteId; }
+
+    public LocalDate getFechaInicio() { return fechaInicio; }
+    public void setFechaInicio(LocalDate fechaInicio) { this.fechaInicio = fechaInicio; }
+
+    public LocalDate getFechaFin() { return fechaFin; }
+    public void setFechaFin(LocalDate fechaFin) { this.fechaFin = fechaFin; }
+
+    public boolean isIncluirPdf() { return incluirPdf; }
+    public void setIncluirPdf(boolean incluirPdf) { this.incluirPdf = incluirPdf; }
+}
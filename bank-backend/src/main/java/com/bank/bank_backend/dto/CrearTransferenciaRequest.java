@@ -0,0 +1,36 @@
+package com.bank.bank_backend.dto;
+
+import java.math.BigDecimal;
+
+public class CrearTransferenciaRequest {
+
+    private String numeroCuentaOrigen;
+    private String numeroCuentaDestino;
+    private BigDecimal valor;
+
+    public CrearTransferenciaRequest() {}
+
+    public String getNumeroCuentaOrigen() {
+        return numeroCuentaOrigen;
+    }
+
+    public void setNumeroCuentaOrigen(String numeroCuentaOrigen) {
+        this.numeroCuentaOrigen = numeroCuentaOrigen;
+    }
+
+    public String getNumeroCuentaDestino() {
+        return numeroCuentaDestino;
+    }
+
+    public void setNumeroCuentaDestino(String numeroCuentaDestino) {
+        this.numeroCuentaDestino = numeroCuentaDestino;
+    }
+
+    public BigDecimal getValor() {
+        return valor;
+    }
+
+    public void setValor(BigDecimal valor) {
+        this.valor = valor;
+    }
+}
@@ -0,0 +1,20 @@
+package com.bank.bank_backend.dto;
+
+import java.math.BigDecimal;
+
+/**
+ * Proyección (interfaz) de una cuenta para reportes: solo las columnas que se muestran,
+ * sin cargar las entidades Cuenta ni Cliente.
+ */
+public interface CuentaConSaldo {
+
+    Long getCuentaId();
+
+    String getNumeroCuenta();
+
+    String getNombreCliente();
+
+    BigDecimal getSaldoInicial();
+
+    BigDecimal getSaldoActual();
+}
@@ -0,0 +1,20 @@
+package com.bank.bank_backend.dto;
+
+import java.math.BigDecimal;
+
+/**
+ * Proyección (interfaz) de una cuenta activa para el cierre mensual:
+ * lo necesario para ubicar y encabezar su estado de cuenta.
+ */
+public interface CuentaDeCierre {
+
+    Long getCuentaId();
+
+    String getNumeroCuenta();
+
+    Long getClienteId();
+
+    String getNombreCliente();
+
+    BigDecimal getSaldoInicial();
+}
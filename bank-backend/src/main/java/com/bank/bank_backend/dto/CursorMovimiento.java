@@ -0,0 +1,36 @@
+package com.bank.bank_backend.dto;
+
+import com.bank.bank_backend.exception.BadRequestException;
+
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeParseException;
+import java.util.Base64;
+
+/**
+ * Posición en un listado ordenado por (fecha, movimientoId).
+ * Viaja al cliente como token opaco (Base64 URL-safe); la siguiente página
+ * arranca estrictamente después de esta fila.
+ */
+public record CursorMovimiento(LocalDateTime fecha, Long movimientoId) {
+
+    public String codificar() {
+        String plano = fecha + "|" + movimientoId;
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(plano.getBytes(StandardCharsets.UTF_8));
+    }
+
+    public static CursorMovimiento decodificar(String token) {
+        if (token == null || token.isBlank()) return null;
+        try {
+            String plano = new String(Base64.getUrlDecoder().decode(token.trim()), StandardCharsets.UTF_8);
+            int sep = plano.indexOf('|');
+            if (sep < 0) throw new IllegalArgumentException();
+            return new CursorMovimiento(
+                    LocalDateTime.parse(plano.substring(0, sep)),
+                    Long.valueOf(plano.substring(sep + 1))
+            );
+        } catch (IllegalArgumentException | DateTimeParseException ex) {
+            throw new BadRequestException("Cursor inválido");
+        }
+    }
+}
@@ -0,0 +1,18 @@
+package com.bank.bank_backend.dto;
+
+/**
+ * Vista liviana e inmutable de una cuenta (sin saldos): lo que se necesita para
+ * resolver un numeroCuenta sin cargar la entidad Cuenta ni su Cliente.
+ */
+public record DescriptorCuenta(
+        Long cuentaId,
+        String numeroCuenta,
+        String tipoCuenta,
+        Boolean estado,
+        Long clienteId,
+        String nombreCliente
+) {
+    public boolean activa() {
+        return !Boolean.FALSE.equals(estado);
+    }
+}
@@ -0,0 +1,21 @@
+package com.bank.bank_backend.dto;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+
+/**
+ * Proyección (interfaz) de un movimiento con el id de su cuenta, para armar
+ * los estados de cuenta de un cliente con una sola consulta.
+ */
+public interface MovimientoDeCuenta {
+
+    Long getCuentaId();
+
+    LocalDateTime getFecha();
+
+    String getTipoMovimiento();
+
+    BigDecimal getValor();
+
+    BigDecimal getSaldo();
+}
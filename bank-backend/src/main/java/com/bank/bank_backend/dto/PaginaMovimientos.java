@@ -0,0 +1,24 @@
+package com.bank.bank_backend.dto;
+
+import com.bank.bank_backend.exception.BadRequestException;
+
+import java.util.List;
+
+/**
+ * Página de un listado por keyset: los ítems y el cursor de la siguiente
+ * página (null si no hay más).
+ */
+public record PaginaMovimientos<T>(List<T> items, String siguienteCursor) {
+
+    // Header con el cursor de la siguiente página
+    public static final String HEADER_SIGUIENTE_CURSOR = "X-Next-Cursor";
+
+    /**
+     * Tamaño efectivo de página: el pedido, o el de defecto si no vino; nunca más que el máximo.
+     */
+    public static int tamano(Integer pedido, int porDefecto, int maximo) {
+        if (pedido == null) return Math.min(porDefecto, maximo);
+        if (pedido <= 0) throw new BadRequestException("limite debe ser mayor a 0");
+        return Math.min(pedido, maximo);
+    }
+}
@@ -10,6 +10,12 @@ public class ReporteEstadoCuentaResponse {
     private BigDecimal saldoActual;
     private List<ReporteMovimientoItem> movimientos;
 
+    // NUEVO: resumen del período (desde saldos_diarios); débitos en positivo
+    private BigDecimal saldoApertura;
+    private BigDecimal saldoCierre;
+    private BigDecimal totalCreditos;
+    private BigDecimal totalDebitos;
+
     // NUEVO: PDF en Base64 (opcional)
     private String pdfBase64;
 
@@ -54,6 +60,38 @@ public class ReporteEstadoCuentaResponse {
     public List<ReporteMovimientoItem> getMovimientos() { return movimientos; }
     public void setMovimientos(List<ReporteMovimientoItem> movimientos) { this.movimientos = movimientos; }
 
+    public BigDecimal getSaldoApertura() { return saldoApertura; }
+    public void setSaldoApertura(BigDecimal saldoApertura) { this.saldoApertura = saldoApertura; }
+
+    public BigDecimal getSaldoCierre() { return saldoCierre; }
+    public void setSaldoCierre(BigDecimal saldoCierre) { this.saldoCierre = saldoCierre; }
+
+    public BigDecimal getTotalCreditos() { return totalCreditos; }
+    public void setTotalCreditos(BigDecimal totalCreditos) { this.totalCreditos = totalCreditos; }
+
+    public BigDecimal getTotalDebitos() { return totalDebitos; }
+    public void setTotalDebitos(BigDecimal totalDebitos) { this.totalDebitos = totalDebitos; }
+
+    // NUEVO: copia apertura, cierre y totales del resumen
+    public void aplicarResumen(ResumenPeriodo r) {
+        if (r == null) return;
+        this.saldoApertura = r.saldoApertura();
+        this.saldoCierre = r.saldoCierre();
+        this.totalCreditos = r.totalCreditos();
+        this.totalDebitos = r.totalDebitos();
+    }
+
     public String getPdfBase64() { return pdfBase64; }
     public void setPdfBase64(String pdfBase64) { this.pdfBase64 = pdfBase64; }
+
+    // NUEVO: copia superficial (la instancia en cache no se entrega a quien llama)
+    public ReporteEstadoCuentaResponse copia() {
+        ReporteEstadoCuentaResponse c = new ReporteEstadoCuentaResponse(
+                numeroCuenta, cliente, saldoActual, movimientos, pdfBase64);
+        c.saldoApertura = saldoApertura;
+        c.saldoCierre = saldoCierre;
+        c.totalCreditos = totalCreditos;
+        c.totalDebitos = totalDebitos;
+        return c;
+    }
 }
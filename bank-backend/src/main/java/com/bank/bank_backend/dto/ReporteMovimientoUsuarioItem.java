@@ -1,10 +1,16 @@
 package com.bank.bank_backend.dto;
 
+import com.fasterxml.jackson.annotation.JsonIgnore;
+
 import java.math.BigDecimal;
 import java.time.LocalDateTime;
 
 public class ReporteMovimientoUsuarioItem {
 
+    // NUEVO: solo para armar el cursor de paginación; no forma parte del JSON
+    @JsonIgnore
+    private Long movimientoId;
+
     private LocalDateTime fecha;
     private String cliente;
     private String numeroCuenta;
@@ -36,6 +42,25 @@ public class ReporteMovimientoUsuarioItem {
         this.saldoDisponible = saldoDisponible;
     }
 
+    // NUEVO: variante con movimientoId (consultas paginadas por keyset)
+    public ReporteMovimientoUsuarioItem(
+            Long movimientoId,
+            LocalDateTime fecha,
+            String cliente,
+            String numeroCuenta,
+            String tipo,
+            BigDecimal saldoInicial,
+            Boolean estado,
+            BigDecimal movimiento,
+            BigDecimal saldoDisponible
+    ) {
+        this(fecha, cliente, numeroCuenta, tipo, saldoInicial, estado, movimiento, saldoDisponible);
+        this.movimientoId = movimientoId;
+    }
+
+    public Long getMovimientoId() { return movimientoId; }
+    public void setMovimientoId(Long movimientoId) { this.movimientoId = movimientoId; }
+
     public LocalDateTime getFecha() { return fecha; }
     public void setFecha(LocalDateTime fecha) { this.fecha = fecha; }
 
@@ -0,0 +1,66 @@
+package com.bank.bank_backend.dto;
+
+import java.math.BigDecimal;
+
+public class ResultadoMovimientoLote {
+
+    public static final String OK = "OK";
+    public static final String ERROR = "ERROR";
+
+    private int indice;               // posición del ítem en el lote recibido
+    private String numeroCuenta;
+    private String estado;            // "OK" | "ERROR"
+    private Long movimientoId;        // solo si estado = OK
+    private String tipoMovimiento;
+    private BigDecimal valor;         // + crédito / - débito
+    private BigDecimal saldo;         // saldo luego del movimiento
+    private String mensaje;           // motivo si estado = ERROR
+
+    public ResultadoMovimientoLote() {}
+
+    public static ResultadoMovimientoLote ok(int indice, String numeroCuenta, Long movimientoId,
+                                             String tipoMovimiento, BigDecimal valor, BigDecimal saldo) {
+        ResultadoMovimientoLote r = new ResultadoMovimientoLote();
+        r.indice = indice;
+        r.numeroCuenta = numeroCuenta;
+        r.estado = OK;
+        r.movimientoId = movimientoId;
+        r.tipoMovimiento = tipoMovimiento;
+        r.valor = valor;
+        r.saldo = saldo;
+        return r;
+    }
+
+    public static ResultadoMovimientoLote error(int indice, String numeroCuenta, String mensaje) {
+        ResultadoMovimientoLote r = new ResultadoMovimientoLote();
+        r.indice = indice;
+        r.numeroCuenta = numeroCuenta;
+        r.estado = ERROR;
+        r.mensaje = mensaje;
+        return r;
+    }
+
+    public int getIndice() { return indice; }
+    public void setIndice(int indice) { this.indice = indice; }
+
+    public String getNumeroCuenta() { return numeroCuenta; }
+    public void setNumeroCuenta(String numeroCuenta) { this.numeroCuenta = numeroCuenta; }
+
+    public String getEstado() { return estado; }
+    public void setEstado(String estado) { this.estado = estado; }
+
+    public Long getMovimientoId() { return movimientoId; }
+    public void setMovimientoId(Long movimientoId) { this.movimientoId = movimientoId; }
+
+    public String getTipoMovimiento() { return tipoMovimiento; }
+    public void setTipoMovimiento(String tipoMovimiento) { this.tipoMovimiento = tipoMovimiento; }
+
+    public BigDecimal getValor() { return valor; }
+    public void setValor(BigDecimal valor) { this.valor = valor; }
+
+    public BigDecimal getSaldo() { return saldo; }
+    public void setSaldo(BigDecimal saldo) { this.saldo = saldo; }
+
+    public String getMensaje() { return mensaje; }
+    public void setMensaje(String mensaje) { this.mensaje = mensaje; }
+}
@@ -0,0 +1,17 @@
+package com.bank.bank_backend.dto;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.List;
+
+/**
+ * Totales de movimientos por cuenta (y por período si se pidió agrupación), calculados en la base.
+ * Los débitos van en positivo; periodo es el primer día del día/semana/mes, o null sin agrupación.
+ */
+public record ResumenMovimientosResponse(LocalDate fechaInicio, LocalDate fechaFin, String agrupacion,
+                                         List<Fila> filas) {
+
+    public record Fila(String numeroCuenta, LocalDate periodo, BigDecimal creditos, BigDecimal debitos,
+                       long movimientos, BigDecimal saldoMinimo, BigDecimal saldoMaximo) {
+    }
+}
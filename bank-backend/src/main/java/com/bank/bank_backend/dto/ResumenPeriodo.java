@@ -0,0 +1,11 @@
+package com.bank.bank_backend.dto;
+
+import java.math.BigDecimal;
+
+/**
+ * Saldos de apertura y cierre y totales de un período, calculados desde saldos_diarios.
+ * Los débitos van en positivo.
+ */
+public record ResumenPeriodo(BigDecimal saldoApertura, BigDecimal saldoCierre,
+                             BigDecimal totalCreditos, BigDecimal totalDebitos) {
+}
@@ -0,0 +1,54 @@
+package com.bank.bank_backend.dto;
+
+import com.bank.bank_backend.service.EstadoTrabajo;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+
+public class TrabajoReporteResponse {
+
+    private String id;
+    private EstadoTrabajo estado;
+
+    private Long clienteId;
+    private LocalDate fechaInicio;
+    private LocalDate fechaFin;
+    private boolean incluirPdf;
+
+    private LocalDateTime creadoEn;
+    private LocalDateTime terminadoEn;
+    private LocalDateTime expiraEn;   // a partir de acá el resultado ya no se puede descargar
+    private String error;             // solo si estado = FALLIDO
+
+    public TrabajoReporteResponse() {}
+
+    public String getId() { return id; }
+    public void setId(String id) { this.id = id; }
+
+    public EstadoTrabajo getEstado() { return estado; }
+    public void setEstado(EstadoTrabajo estado) { this.estado = estado; }
+
+    public Long getClienteId() { return clienteId; }
+    public void setClienteId(Long clienteId) { this.clienteId = clienteId; }
+
+    public LocalDate getFechaInicio() { return fechaInicio; }
+    public void setFechaInicio(LocalDate fechaInicio) { this.fechaInicio = fechaInicio; }
+
+    public LocalDate getFechaFin() { return fechaFin; }
+    public void setFechaFin(LocalDate fechaFin) { this.fechaFin = fechaFin; }
+
+    public boolean isIncluirPdf() { return incluirPdf; }
+    public void setIncluirPdf(boolean incluirPdf) { this.incluirPdf = incluirPdf; }
+
+    public LocalDateTime getCreadoEn() { return creadoEn; }
+    public void setCreadoEn(LocalDateTime creadoEn) { this.creadoEn = creadoEn; }
+
+    public LocalDateTime getTerminadoEn() { return terminadoEn; }
+    public void setTerminadoEn(LocalDateTime terminadoEn) { this.terminadoEn = terminadoEn; }
+
+    public LocalDateTime getExpiraEn() { return expiraEn; }
+    public void setExpiraEn(LocalDateTime expiraEn) { this.expiraEn = expiraEn; }
+
+    public String getError() { return error; }
+    public void setError(String error) { this.error = error; }
+}
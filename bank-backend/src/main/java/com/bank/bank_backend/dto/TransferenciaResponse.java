@@ -0,0 +1,57 @@
+package com.bank.bank_backend.dto;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+
+public class TransferenciaResponse {
+
+    private LocalDateTime fecha;
+    private BigDecimal valor;
+
+    private String numeroCuentaOrigen;
+    private Long movimientoDebitoId;
+    private BigDecimal saldoOrigen;       // saldo luego del débito
+
+    private String numeroCuentaDestino;
+    private Long movimientoCreditoId;
+    private BigDecimal saldoDestino;      // saldo luego del crédito
+
+    public TransferenciaResponse() {}
+
+    public TransferenciaResponse(LocalDateTime fecha, BigDecimal valor,
+                                 String numeroCuentaOrigen, Long movimientoDebitoId, BigDecimal saldoOrigen,
+                                 String numeroCuentaDestino, Long movimientoCreditoId, BigDecimal saldoDestino) {
+        this.fecha = fecha;
+        this.valor = valor;
+        this.numeroCuentaOrigen = numeroCuentaOrigen;
+        this.movimientoDebitoId = movimientoDebitoId;
+        this.saldoOrigen = saldoOrigen;
+        this.numeroCuentaDestino = numeroCuentaDestino;
+        this.movimientoCreditoId = movimientoCreditoId;
+        this.saldoDestino = saldoDestino;
+    }
+
+    public LocalDateTime getFecha() { return fecha; }
+    public void setFecha(LocalDateTime fecha) { this.fecha = fecha; }
+
+    public BigDecimal getValor() { return valor; }
+    public void setValor(BigDecimal valor) { this.valor = valor; }
+
+    public String getNumeroCuentaOrigen() { return numeroCuentaOrigen; }
+    public void setNumeroCuentaOrigen(String numeroCuentaOrigen) { this.numeroCuentaOrigen = numeroCuentaOrigen; }
+
+    public Long getMovimientoDebitoId() { return movimientoDebitoId; }
+    public void setMovimientoDebitoId(Long movimientoDebitoId) { this.movimientoDebitoId = movimientoDebitoId; }
+
+    public BigDecimal getSaldoOrigen() { return saldoOrigen; }
+    public void setSaldoOrigen(BigDecimal saldoOrigen) { this.saldoOrigen = saldoOrigen; }
+
+    public String getNumeroCuentaDestino() { return numeroCuentaDestino; }
+    public void setNumeroCuentaDestino(String numeroCuentaDestino) { this.numeroCuentaDestino = numeroCuentaDestino; }
+
+    public Long getMovimientoCreditoId() { return movimientoCreditoId; }
+    public void setMovimientoCreditoId(Long movimientoCreditoId) { this.movimientoCreditoId = movimientoCreditoId; }
+
+    public BigDecimal getSaldoDestino() { return saldoDestino; }
+    public void setSaldoDestino(BigDecimal saldoDestino) { this.saldoDestino = saldoDestino; }
+}
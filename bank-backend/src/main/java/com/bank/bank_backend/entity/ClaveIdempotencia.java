@@ -0,0 +1,50 @@
+package com.bank.bank_backend.entity;
+
+import jakarta.persistence.*;
+import java.time.LocalDateTime;
+
+/**
+ * Registro de un POST /movimientos con header Idempotency-Key.
+ * Sin FK a movimientos a propósito: la tabla se purga por antigüedad de forma independiente.
+ */
+@Entity
+@Table(name = "idempotencia_movimientos", indexes = {
+        @Index(name = "idx_idempotencia_fecha", columnList = "fecha_creacion")
+})
+public class ClaveIdempotencia {
+
+    public static final String EN_PROCESO = "EN_PROCESO";
+    public static final String COMPLETADO = "COMPLETADO";
+
+    @Id
+    @Column(length = 100)
+    private String clave;
+
+    // SHA-256 del request original: una clave reutilizada con otro request se rechaza
+    @Column(nullable = false, length = 64)
+    private String huella;
+
+    @Column(nullable = false, length = 20)
+    private String estado;
+
+    @Column(name = "movimiento_id")
+    private Long movimientoId;
+
+    @Column(name = "fecha_creacion", nullable = false)
+    private LocalDateTime fechaCreacion;
+
+    public String getClave() { return clave; }
+    public void setClave(String clave) { this.clave = clave; }
+
+    public String getHuella() { return huella; }
+    public void setHuella(String huella) { this.huella = huella; }
+
+    public String getEstado() { return estado; }
+    public void setEstado(String estado) { this.estado = estado; }
+
+    public Long getMovimientoId() { return movimientoId; }
+    public void setMovimientoId(Long movimientoId) { this.movimientoId = movimientoId; }
+
+    public LocalDateTime getFechaCreacion() { return fechaCreacion; }
+    public void setFechaCreacion(LocalDateTime fechaCreacion) { this.fechaCreacion = fechaCreacion; }
+}
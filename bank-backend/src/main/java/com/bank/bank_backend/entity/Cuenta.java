@@ -33,6 +33,11 @@ public class Cuenta {
             foreignKey = @ForeignKey(name = "fk_cuenta_cliente"))
     private Cliente cliente;
 
+    // NUEVO: control optimista de concurrencia (se incrementa en cada UPDATE)
+    @Version
+    @Column(nullable = false, columnDefinition = "bigint default 0")
+    private long version;
+
     /* =======================
        GETTERS Y SETTERS
        ======================= */
@@ -92,4 +97,12 @@ public class Cuenta {
     public void setCliente(Cliente cliente) {
         this.cliente = cliente;
     }
+
+    public long getVersion() {
+        return version;
+    }
+
+    public void setVersion(long version) {
+        this.version = version;
+    }
 }
@@ -0,0 +1,25 @@
+package com.bank.bank_backend.entity;
+
+import jakarta.persistence.*;
+
+/**
+ * Última secuencia del journal de un shard ya aplicada en la base.
+ * Se actualiza en la misma transacción que inserta los movimientos: así la reaplicación
+ * al arrancar nunca duplica ni pierde registros.
+ */
+@Entity
+@Table(name = "journal_posteo")
+public class MarcaJournal {
+
+    @Id
+    private Integer shard;
+
+    @Column(name = "secuencia_aplicada", nullable = false)
+    private long secuenciaAplicada;
+
+    public Integer getShard() { return shard; }
+    public void setShard(Integer shard) { this.shard = shard; }
+
+    public long getSecuenciaAplicada() { return secuenciaAplicada; }
+    public void setSecuenciaAplicada(long secuenciaAplicada) { this.secuenciaAplicada = secuenciaAplicada; }
+}
@@ -5,11 +5,19 @@ import java.math.BigDecimal;
 import java.time.LocalDateTime;
 
 @Entity
-@Table(name = "movimientos")
+// NUEVO: índice compuesto para la paginación por keyset (cuenta, fecha, id)
+@Table(name = "movimientos", indexes = {
+        @Index(name = "idx_movimientos_cuenta_fecha_id", columnList = "cuenta_id, fecha, movimiento_id")
+})
 public class Movimiento {
 
+    // Tamaño del pool de IDs; el journal del motor reserva bloques del mismo tamaño
+    public static final int BLOQUE_IDS = 50;
+
+    // Secuencia con pool (allocationSize) para que Hibernate pueda agrupar los INSERT en lotes JDBC
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "movimientos_seq")
+    @SequenceGenerator(name = "movimientos_seq", sequenceName = "movimientos_seq", allocationSize = BLOQUE_IDS)
     private Long movimientoId;
 
     @Column(nullable = false)
@@ -0,0 +1,79 @@
+package com.bank.bank_backend.entity;
+
+import jakarta.persistence.*;
+
+import java.io.Serializable;
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.Objects;
+
+/**
+ * Foto diaria por cuenta: totales del día y saldo al cierre.
+ * Se mantiene en la misma transacción que inserta los movimientos (MERGE incremental)
+ * y se puede reconstruir desde movimientos con SaldoDiarioService.
+ */
+@Entity
+@Table(name = "saldos_diarios")
+@IdClass(SaldoDiario.Clave.class)
+public class SaldoDiario {
+
+    @Id
+    @Column(name = "cuenta_id")
+    private Long cuentaId;
+
+    @Id
+    @Column(nullable = false)
+    private LocalDate fecha;
+
+    @Column(nullable = false, precision = 18, scale = 2)
+    private BigDecimal creditos = BigDecimal.ZERO;
+
+    @Column(nullable = false, precision = 18, scale = 2)
+    private BigDecimal debitos = BigDecimal.ZERO; // en positivo
+
+    @Column(nullable = false)
+    private int movimientos;
+
+    @Column(name = "saldo_cierre", nullable = false, precision = 18, scale = 2)
+    private BigDecimal saldoCierre;
+
+    public Long getCuentaId() { return cuentaId; }
+    public void setCuentaId(Long cuentaId) { this.cuentaId = cuentaId; }
+
+    public LocalDate getFecha() { return fecha; }
+    public void setFecha(LocalDate fecha) { this.fecha = fecha; }
+
+    public BigDecimal getCreditos() { return creditos; }
+    public void setCreditos(BigDecimal creditos) { this.creditos = creditos; }
+
+    public BigDecimal getDebitos() { return debitos; }
+    public void setDebitos(BigDecimal debitos) { this.debitos = debitos; }
+
+    public int getMovimientos() { return movimientos; }
+    public void setMovimientos(int movimientos) { this.movimientos = movimientos; }
+
+    public BigDecimal getSaldoCierre() { return saldoCierre; }
+    public void setSaldoCierre(BigDecimal saldoCierre) { this.saldoCierre = saldoCierre; }
+
+    public static class Clave implements Serializable {
+        private Long cuentaId;
+        private LocalDate fecha;
+
+        public Clave() {}
+
+        public Clave(Long cuentaId, LocalDate fecha) {
+            this.cuentaId = cuentaId;
+            this.fecha = fecha;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            return o instanceof Clave c && Objects.equals(cuentaId, c.cuentaId) && Objects.equals(fecha, c.fecha);
+        }
+
+        @Override
+        public int hashCode() {
+            return Objects.hash(cuentaId, fecha);
+        }
+    }
+}
@@ -0,0 +1,5 @@
+package com.bank.bank_backend.exception;
+
+public class ConflictException extends RuntimeException {
+    public ConflictException(String message) { super(message); }
+}
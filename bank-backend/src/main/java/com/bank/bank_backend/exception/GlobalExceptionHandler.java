@@ -1,5 +1,6 @@
 package com.bank.bank_backend.exception;
 
+import org.springframework.dao.ConcurrencyFailureException;
 import org.springframework.dao.DataIntegrityViolationException;
 import org.springframework.http.HttpStatus;
 import org.springframework.web.bind.MethodArgumentNotValidException;
@@ -22,6 +23,27 @@ public class GlobalExceptionHandler {
         return Map.of("message", ex.getMessage());
     }
 
+    @ExceptionHandler(ConflictException.class)
+    @ResponseStatus(HttpStatus.CONFLICT)
+    public Map<String, Object> conflict(ConflictException ex) {
+        return Map.of("message", ex.getMessage());
+    }
+
+    // NUEVO: conflicto de concurrencia que agotó los reintentos (ReintentoConflictoInterceptor);
+    // la transacción se revirtió entera y el cliente puede reintentar
+    @ExceptionHandler(ConcurrencyFailureException.class)
+    @ResponseStatus(HttpStatus.CONFLICT)
+    public Map<String, Object> concurrencia(ConcurrencyFailureException ex) {
+        return Map.of("message", "La cuenta fue modificada por otra operación, intente nuevamente");
+    }
+
+    // NUEVO: capacidad agotada (ej. cola de reportes llena); el cliente puede reintentar
+    @ExceptionHandler(ServicioNoDisponibleException.class)
+    @ResponseStatus(HttpStatus.SERVICE_UNAVAILABLE)
+    public Map<String, Object> servicioNoDisponible(ServicioNoDisponibleException ex) {
+        return Map.of("message", ex.getMessage());
+    }
+
     @ExceptionHandler(MethodArgumentNotValidException.class)
     @ResponseStatus(HttpStatus.BAD_REQUEST)
     public Map<String, Object> validation(MethodArgumentNotValidException ex) {
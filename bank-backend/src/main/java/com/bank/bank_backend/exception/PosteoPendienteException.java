@@ -0,0 +1,9 @@
+package com.bank.bank_backend.exception;
+
+/**
+ * 503 con resultado incierto: el posteo se aceptó pero no se confirmó a tiempo
+ * y todavía puede quedar aplicado. Una reserva de Idempotency-Key no se libera por esto.
+ */
+public class PosteoPendienteException extends ServicioNoDisponibleException {
+    public PosteoPendienteException(String message) { super(message); }
+}
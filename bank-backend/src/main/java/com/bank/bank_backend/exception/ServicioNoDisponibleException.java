@@ -0,0 +1,5 @@
+package com.bank.bank_backend.exception;
+
+public class ServicioNoDisponibleException extends RuntimeException {
+    public ServicioNoDisponibleException(String message) { super(message); }
+}
@@ -0,0 +1,160 @@
+package com.bank.bank_backend.journal;
+
+import com.bank.bank_backend.entity.MarcaJournal;
+import com.bank.bank_backend.repository.MarcaJournalRepository;
+import com.bank.bank_backend.service.SaldoDiarioService;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.engine.spi.SessionFactoryImplementor;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.math.BigDecimal;
+import java.sql.Timestamp;
+import java.util.*;
+import java.util.function.Consumer;
+
+/**
+ * Aplica registros del journal en la base con JDBC batch:
+ * INSERT de los movimientos (con el ID ya asignado), UPDATE condicionado del saldo de cada cuenta,
+ * MERGE de saldos_diarios y avance de la marca del shard, todo en una transacción.
+ */
+@Component
+public class AplicadorJournal {
+
+    private final JdbcTemplate jdbc;
+    private final MarcaJournalRepository marcaRepo;
+    private final SaldoDiarioService saldosDiarios;
+    private final TransactionTemplate tx;
+    private final String siguienteValorSecuencia;
+
+    public AplicadorJournal(JdbcTemplate jdbc,
+                            MarcaJournalRepository marcaRepo,
+                            SaldoDiarioService saldosDiarios,
+                            PlatformTransactionManager txManager,
+                            EntityManagerFactory emf) {
+        this.jdbc = jdbc;
+        this.marcaRepo = marcaRepo;
+        this.saldosDiarios = saldosDiarios;
+        this.tx = new TransactionTemplate(txManager);
+        this.siguienteValorSecuencia = emf.unwrap(SessionFactoryImplementor.class)
+                .getJdbcServices().getDialect().getSequenceSupport()
+                .getSequenceNextValString("movimientos_seq");
+    }
+
+    /** Última secuencia aplicada del shard (0 si nunca aplicó nada). */
+    public long marca(int shard) {
+        return marcaRepo.findById(shard).map(MarcaJournal::getSecuenciaAplicada).orElse(0L);
+    }
+
+    /**
+     * Reserva un bloque de IDs de movimientos_seq, igual que lo hace Hibernate con su pool:
+     * el valor devuelto por la secuencia es el tope del bloque.
+     *
+     * @return {primerId, ultimoId} ambos inclusive
+     */
+    public long[] reservarIds(int tamanoBloque) {
+        long tope = siguienteValor();
+        if (tope == 1) {
+            // Valor inicial: Hibernate pide otro valor y usa 1..ese valor; se replica para no solaparse
+            return new long[]{1, siguienteValor()};
+        }
+        return new long[]{tope - tamanoBloque + 1, tope};
+    }
+
+    private long siguienteValor() {
+        Long valor = jdbc.queryForObject(siguienteValorSecuencia, Long.class);
+        if (valor == null) throw new IllegalStateException("movimientos_seq no devolvió valor");
+        return valor;
+    }
+
+    /**
+     * Aplica los registros con secuencia mayor a la marca; devuelve la nueva marca.
+     *
+     * Cada cuenta se actualiza con un UPDATE condicionado: pasa del saldo previo al lote
+     * (saldo - valor del primer registro) al saldo del último, solo si la base tiene ese saldo previo
+     * y ningún saldo del lote es negativo. Los registros de una cuenta que no cumple se entregan
+     * a {@code rechazados} dentro de la transacción (antes de avanzar la marca) y no se insertan.
+     */
+    public long aplicar(int shard, List<RegistroJournal> registros, Consumer<List<RegistroJournal>> rechazados) {
+        Long resultado = tx.execute(status -> {
+            MarcaJournal marca = marcaRepo.findById(shard).orElseGet(() -> nuevaMarca(shard));
+
+            List<RegistroJournal> nuevos = new ArrayList<>(registros.size());
+            Map<Long, BigDecimal> previos = new LinkedHashMap<>();
+            Map<Long, BigDecimal> finales = new HashMap<>();
+            Set<Long> invalidas = new HashSet<>();
+            long ultima = marca.getSecuenciaAplicada();
+            for (RegistroJournal r : registros) {
+                if (r.secuencia() <= ultima) continue; // ya aplicado (reaplicación tras una caída)
+                nuevos.add(r);
+                previos.putIfAbsent(r.cuentaId(), r.saldo().subtract(r.valor()));
+                finales.put(r.cuentaId(), r.saldo());
+                if (r.saldo().signum() < 0) invalidas.add(r.cuentaId());
+                ultima = r.secuencia();
+            }
+            if (nuevos.isEmpty()) return ultima;
+
+            List<Long> cuentas = previos.keySet().stream().filter(c -> !invalidas.contains(c)).toList();
+            List<Object[]> updates = new ArrayList<>(cuentas.size());
+            for (Long cuentaId : cuentas) {
+                updates.add(new Object[]{finales.get(cuentaId), cuentaId, previos.get(cuentaId)});
+            }
+            int[] actualizadas = jdbc.batchUpdate("""
+                    UPDATE cuentas SET saldo_actual = ?, version = version + 1
+                    WHERE cuenta_id = ? AND saldo_actual = ?
+                    """, updates);
+            for (int i = 0; i < actualizadas.length; i++) {
+                if (actualizadas[i] == 0) invalidas.add(cuentas.get(i)); // modificada fuera del motor o inexistente
+            }
+
+            List<Object[]> inserts = new ArrayList<>(nuevos.size());
+            List<SaldoDiarioService.Asiento> asientos = new ArrayList<>(nuevos.size());
+            List<RegistroJournal> descartados = new ArrayList<>();
+            for (RegistroJournal r : nuevos) {
+                if (invalidas.contains(r.cuentaId())) {
+                    descartados.add(r);
+                    continue;
+                }
+                inserts.add(new Object[]{
+                        r.movimientoId(), Timestamp.valueOf(r.fecha()), r.tipoMovimiento(),
+                        r.valor(), r.saldo(), r.cuentaId()});
+                asientos.add(new SaldoDiarioService.Asiento(r.cuentaId(), r.fecha(), r.valor(), r.saldo()));
+            }
+            if (!descartados.isEmpty()) rechazados.accept(descartados);
+
+            jdbc.batchUpdate("""
+                    INSERT INTO movimientos (movimiento_id, fecha, tipo_movimiento, valor, saldo, cuenta_id)
+                    VALUES (?, ?, ?, ?, ?, ?)
+                    """, inserts);
+
+            // Después de los UPDATE: las filas de las cuentas ya están bloqueadas
+            saldosDiarios.registrar(asientos);
+
+            marca.setSecuenciaAplicada(ultima);
+            marcaRepo.save(marca);
+            return ultima;
+        });
+        return resultado == null ? 0 : resultado;
+    }
+
+    /** Avanza la marca sin aplicar nada: el lote hasta esa secuencia ya quedó en el archivo de descartados. */
+    public long saltar(int shard, long hasta) {
+        Long resultado = tx.execute(status -> {
+            MarcaJournal marca = marcaRepo.findById(shard).orElseGet(() -> nuevaMarca(shard));
+            if (hasta > marca.getSecuenciaAplicada()) {
+                marca.setSecuenciaAplicada(hasta);
+                marcaRepo.save(marca);
+            }
+            return marca.getSecuenciaAplicada();
+        });
+        return resultado == null ? 0 : resultado;
+    }
+
+    private static MarcaJournal nuevaMarca(int shard) {
+        MarcaJournal m = new MarcaJournal();
+        m.setShard(shard);
+        return m;
+    }
+}
@@ -0,0 +1,220 @@
+package com.bank.bank_backend.journal;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.LocalDateTime;
+import java.util.*;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+import java.util.stream.Stream;
+
+/**
+ * Journal de un shard del motor de posteo: una serie de segmentos
+ * "shard-NN-SSSSSSSSSSSSSSSSSSS.seg" donde S es la primera secuencia del segmento.
+ *
+ * - Al abrir se leen los segmentos en orden y se validan los registros (CRC + secuencia contigua).
+ * - Al llenarse un segmento se fuerza a disco y se pasa al siguiente (rollover).
+ * - Los segmentos ya aplicados en la base se borran con {@link #liberarHasta(long)}.
+ * - Lo que la base rechaza se copia a un archivo de descartados con {@link #descartar(List, String)}.
+ *
+ * agregar/forzar los usa el hilo del shard; liberarHasta el drenador: por eso es sincronizado.
+ */
+public final class JournalShard {
+
+    private static final Logger log = LoggerFactory.getLogger(JournalShard.class);
+    private static final Pattern NOMBRE = Pattern.compile("shard-(\\d+)-(\\d+)\\.seg");
+
+    private final Path directorio;
+    private final int shard;
+    private final int registrosPorSegmento;
+
+    private final Deque<SegmentoJournal> segmentos = new ArrayDeque<>();
+    private final List<RegistroJournal> recuperados = new ArrayList<>();
+    private long siguienteSecuencia;
+
+    private JournalShard(Path directorio, int shard, int registrosPorSegmento) {
+        this.directorio = directorio;
+        this.shard = shard;
+        this.registrosPorSegmento = registrosPorSegmento;
+    }
+
+    /**
+     * Abre (o crea) el journal del shard.
+     *
+     * @param aplicadaHasta última secuencia ya confirmada en la base: nunca se reutiliza
+     *                      una secuencia menor o igual, aunque el directorio se haya perdido.
+     */
+    public static JournalShard abrir(Path directorio, int shard, int registrosPorSegmento, long aplicadaHasta) {
+        JournalShard j = new JournalShard(directorio, shard, Math.max(1, registrosPorSegmento));
+        try {
+            Files.createDirectories(directorio);
+        } catch (IOException e) {
+            throw new UncheckedIOException("No se pudo crear el directorio del journal " + directorio, e);
+        }
+        j.recuperar(aplicadaHasta);
+        return j;
+    }
+
+    /** Índices de shard con segmentos en el directorio (por si cambió la cantidad de shards). */
+    public static Set<Integer> shardsExistentes(Path directorio) {
+        Set<Integer> shards = new TreeSet<>();
+        if (!Files.isDirectory(directorio)) return shards;
+        try (Stream<Path> archivos = Files.list(directorio)) {
+            archivos.forEach(p -> {
+                Matcher m = NOMBRE.matcher(p.getFileName().toString());
+                if (m.matches()) shards.add(Integer.parseInt(m.group(1)));
+            });
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        return shards;
+    }
+
+    private void recuperar(long aplicadaHasta) {
+        TreeMap<Long, Path> archivos = new TreeMap<>();
+        try (Stream<Path> lista = Files.list(directorio)) {
+            lista.forEach(p -> {
+                Matcher m = NOMBRE.matcher(p.getFileName().toString());
+                if (m.matches() && Integer.parseInt(m.group(1)) == shard) {
+                    archivos.put(Long.parseLong(m.group(2)), p);
+                }
+            });
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+
+        long esperada = -1;
+        for (Map.Entry<Long, Path> e : archivos.entrySet()) {
+            if (esperada >= 0 && e.getKey() != esperada) {
+                // Hueco o segmento previo cortado por un registro roto: lo que sigue no es confiable
+                log.error("Segmento de journal descartado (no es contiguo): {}", e.getValue());
+                renombrarCorrupto(e.getValue());
+                esperada = Long.MAX_VALUE;
+                continue;
+            }
+            SegmentoJournal seg = SegmentoJournal.abrir(e.getValue(), e.getKey(), registrosPorSegmento);
+            for (RegistroJournal r : seg.recuperar()) {
+                if (r.secuencia() > aplicadaHasta) recuperados.add(r);
+            }
+            segmentos.addLast(seg);
+            esperada = seg.ultimaSecuencia() + 1;
+        }
+
+        SegmentoJournal ultimo = segmentos.peekLast();
+        siguienteSecuencia = Math.max(ultimo == null ? 1 : ultimo.ultimaSecuencia() + 1, aplicadaHasta + 1);
+
+        if (ultimo != null && ultimo.ultimaSecuencia() + 1 != siguienteSecuencia) {
+            // La base ya aplicó más de lo que hay en disco: los segmentos existentes sobran
+            liberarHasta(Long.MAX_VALUE);
+            SegmentoJournal resto = segmentos.removeFirst();
+            resto.cerrar();
+            borrar(resto.archivo());
+            ultimo = null;
+        }
+        if (ultimo == null || ultimo.lleno()) {
+            nuevoSegmento();
+        }
+    }
+
+    /** Registros escritos pero aún no aplicados en la base al momento de abrir. */
+    public List<RegistroJournal> recuperados() {
+        return Collections.unmodifiableList(recuperados);
+    }
+
+    /** Agrega un movimiento (sin forzar a disco) y devuelve el registro con su secuencia. */
+    public synchronized RegistroJournal agregar(long movimientoId, long cuentaId,
+                                                BigDecimal valor, BigDecimal saldo, LocalDateTime fecha) {
+        SegmentoJournal actual = segmentos.getLast();
+        if (actual.lleno()) {
+            actual.forzar();
+            actual = nuevoSegmento();
+        }
+        RegistroJournal r = new RegistroJournal(siguienteSecuencia, movimientoId, cuentaId, valor, saldo, fecha);
+        actual.agregar(r);
+        siguienteSecuencia++;
+        return r;
+    }
+
+    /** fsync en grupo: baja a disco todo lo agregado desde el último forzado. */
+    public synchronized void forzar() {
+        segmentos.getLast().forzar();
+    }
+
+    public synchronized long ultimaSecuencia() {
+        return siguienteSecuencia - 1;
+    }
+
+    /** Borra los segmentos cuyos registros ya están todos aplicados (nunca el actual). */
+    public synchronized void liberarHasta(long aplicada) {
+        while (segmentos.size() > 1 && segmentos.getFirst().ultimaSecuencia() <= aplicada) {
+            SegmentoJournal viejo = segmentos.removeFirst();
+            viejo.cerrar();
+            borrar(viejo.archivo());
+        }
+    }
+
+    /**
+     * Agrega registros acusados que no se pueden aplicar a "shard-NN-descartados.csv" (con fsync),
+     * para conciliarlos a mano. Una reaplicación tras una caída puede repetir líneas: la secuencia las identifica.
+     */
+    public synchronized void descartar(List<RegistroJournal> registros, String motivo) {
+        Path archivo = directorio.resolve(String.format("shard-%02d-descartados.csv", shard));
+        StringBuilder sb = new StringBuilder();
+        if (!Files.exists(archivo)) {
+            sb.append("secuencia,movimiento_id,cuenta_id,valor,saldo,fecha,motivo\n");
+        }
+        String motivoCsv = '"' + String.valueOf(motivo).replace("\"", "\"\"").replace('\n', ' ') + '"';
+        for (RegistroJournal r : registros) {
+            sb.append(r.secuencia()).append(',')
+                    .append(r.movimientoId()).append(',')
+                    .append(r.cuentaId()).append(',')
+                    .append(r.valor().toPlainString()).append(',')
+                    .append(r.saldo().toPlainString()).append(',')
+                    .append(r.fecha()).append(',')
+                    .append(motivoCsv).append('\n');
+        }
+        try {
+            Files.writeString(archivo, sb, StandardCharsets.UTF_8, StandardOpenOption.CREATE,
+                    StandardOpenOption.WRITE, StandardOpenOption.APPEND, StandardOpenOption.SYNC);
+        } catch (IOException e) {
+            throw new UncheckedIOException("No se pudo escribir " + archivo, e);
+        }
+    }
+
+    public synchronized void cerrar() {
+        for (SegmentoJournal s : segmentos) s.cerrar();
+        segmentos.clear();
+    }
+
+    private SegmentoJournal nuevoSegmento() {
+        Path archivo = directorio.resolve(String.format("shard-%02d-%019d.seg", shard, siguienteSecuencia));
+        SegmentoJournal seg = SegmentoJournal.abrir(archivo, siguienteSecuencia, registrosPorSegmento);
+        seg.recuperar(); // archivo nuevo: deja la escritura al inicio
+        segmentos.addLast(seg);
+        return seg;
+    }
+
+    private static void borrar(Path p) {
+        try {
+            Files.deleteIfExists(p);
+        } catch (IOException e) {
+            log.warn("No se pudo borrar el segmento {}", p, e);
+        }
+    }
+
+    private static void renombrarCorrupto(Path p) {
+        try {
+            Files.move(p, p.resolveSibling(p.getFileName() + ".corrupto"));
+        } catch (IOException e) {
+            log.warn("No se pudo renombrar {}", p, e);
+        }
+    }
+}
@@ -0,0 +1,77 @@
+package com.bank.bank_backend.journal;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.nio.ByteBuffer;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.zip.CRC32;
+
+/**
+ * Un movimiento aceptado por el motor, tal como queda en el journal.
+ *
+ * Formato fijo de {@value #TAMANO} bytes (big endian):
+ * <pre>
+ *  0  int   magic "MOV1"
+ *  4  int   nanos de la fecha
+ *  8  long  secuencia (creciente y sin huecos dentro del shard)
+ * 16  long  movimientoId
+ * 24  long  cuentaId
+ * 32  long  valor en centavos (con signo)
+ * 40  long  saldo posterior en centavos
+ * 48  long  fecha (segundos epoch, UTC)
+ * 56  int   reservado
+ * 60  int   CRC32 de los bytes 0..59
+ * </pre>
+ */
+public record RegistroJournal(long secuencia, long movimientoId, long cuentaId,
+                              BigDecimal valor, BigDecimal saldo, LocalDateTime fecha) {
+
+    public static final int TAMANO = 64;
+    private static final int MAGIC = 0x4D4F5631; // "MOV1"
+    private static final int LARGO_CRC = TAMANO - 4;
+
+    public void escribir(ByteBuffer destino, int posicion) {
+        destino.putInt(posicion, MAGIC);
+        destino.putInt(posicion + 4, fecha.getNano());
+        destino.putLong(posicion + 8, secuencia);
+        destino.putLong(posicion + 16, movimientoId);
+        destino.putLong(posicion + 24, cuentaId);
+        destino.putLong(posicion + 32, centavos(valor));
+        destino.putLong(posicion + 40, centavos(saldo));
+        destino.putLong(posicion + 48, fecha.toEpochSecond(ZoneOffset.UTC));
+        destino.putInt(posicion + 56, 0);
+        destino.putInt(posicion + LARGO_CRC, crc(destino, posicion));
+    }
+
+    /** Lee el registro en la posición; null si está vacío, incompleto o corrupto. */
+    public static RegistroJournal leer(ByteBuffer origen, int posicion) {
+        if (origen.getInt(posicion) != MAGIC) return null;
+        if (origen.getInt(posicion + LARGO_CRC) != crc(origen, posicion)) return null;
+
+        LocalDateTime fecha = LocalDateTime.ofEpochSecond(
+                origen.getLong(posicion + 48), origen.getInt(posicion + 4), ZoneOffset.UTC);
+        return new RegistroJournal(
+                origen.getLong(posicion + 8),
+                origen.getLong(posicion + 16),
+                origen.getLong(posicion + 24),
+                BigDecimal.valueOf(origen.getLong(posicion + 32), 2),
+                BigDecimal.valueOf(origen.getLong(posicion + 40), 2),
+                fecha);
+    }
+
+    public String tipoMovimiento() {
+        return valor.signum() > 0 ? "Credito" : "Debito";
+    }
+
+    private static long centavos(BigDecimal v) {
+        // Misma escala que las columnas numeric(18,2)
+        return v.setScale(2, RoundingMode.HALF_UP).unscaledValue().longValueExact();
+    }
+
+    private static int crc(ByteBuffer buf, int posicion) {
+        CRC32 crc = new CRC32();
+        crc.update(buf.slice(posicion, LARGO_CRC));
+        return (int) crc.getValue();
+    }
+}
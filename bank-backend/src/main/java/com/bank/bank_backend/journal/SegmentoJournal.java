@@ -0,0 +1,108 @@
+package com.bank.bank_backend.journal;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Archivo de tamaño fijo mapeado en memoria con registros de {@link RegistroJournal#TAMANO} bytes.
+ * Solo se agrega al final; {@link #forzar()} baja a disco lo escrito desde el último forzado.
+ */
+final class SegmentoJournal {
+
+    private final Path archivo;
+    private final long primeraSecuencia;
+    private final int capacidad;
+    private final FileChannel canal;
+    private final MappedByteBuffer buffer;
+
+    private int registros;     // registros válidos escritos
+    private int forzadosHasta; // registros ya bajados a disco
+
+    private SegmentoJournal(Path archivo, long primeraSecuencia, int capacidad) throws IOException {
+        this.archivo = archivo;
+        this.primeraSecuencia = primeraSecuencia;
+        this.capacidad = capacidad;
+        this.canal = FileChannel.open(archivo,
+                StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE);
+        this.buffer = canal.map(FileChannel.MapMode.READ_WRITE, 0, (long) capacidad * RegistroJournal.TAMANO);
+    }
+
+    static SegmentoJournal abrir(Path archivo, long primeraSecuencia, int capacidad) {
+        try {
+            return new SegmentoJournal(archivo, primeraSecuencia, capacidad);
+        } catch (IOException e) {
+            throw new UncheckedIOException("No se pudo abrir el segmento " + archivo, e);
+        }
+    }
+
+    /**
+     * Lee los registros válidos y consecutivos desde el inicio y deja la escritura a continuación.
+     * Un registro roto (escritura cortada por una caída) marca el final: lo que sigue se limpia.
+     */
+    List<RegistroJournal> recuperar() {
+        List<RegistroJournal> validos = new ArrayList<>();
+        long esperada = primeraSecuencia;
+        int i = 0;
+        for (; i < capacidad; i++) {
+            RegistroJournal r = RegistroJournal.leer(buffer, i * RegistroJournal.TAMANO);
+            if (r == null || r.secuencia() != esperada) break;
+            validos.add(r);
+            esperada++;
+        }
+        registros = i;
+        forzadosHasta = i;
+
+        // Restos de una escritura incompleta: se ponen en cero para que no se relean más adelante
+        int desde = i * RegistroJournal.TAMANO;
+        if (desde < buffer.capacity() && buffer.getInt(desde) != 0) {
+            for (int p = desde; p < buffer.capacity(); p += 8) buffer.putLong(p, 0L);
+            buffer.force();
+        }
+        return validos;
+    }
+
+    void agregar(RegistroJournal r) {
+        if (lleno()) throw new IllegalStateException("Segmento lleno: " + archivo);
+        r.escribir(buffer, registros * RegistroJournal.TAMANO);
+        registros++;
+    }
+
+    void forzar() {
+        if (forzadosHasta == registros) return;
+        int desde = forzadosHasta * RegistroJournal.TAMANO;
+        buffer.force(desde, (registros - forzadosHasta) * RegistroJournal.TAMANO);
+        forzadosHasta = registros;
+    }
+
+    boolean lleno() {
+        return registros >= capacidad;
+    }
+
+    long primeraSecuencia() {
+        return primeraSecuencia;
+    }
+
+    /** Última secuencia escrita (primeraSecuencia - 1 si está vacío). */
+    long ultimaSecuencia() {
+        return primeraSecuencia + registros - 1;
+    }
+
+    Path archivo() {
+        return archivo;
+    }
+
+    void cerrar() {
+        try {
+            forzar();
+            canal.close();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+}
@@ -0,0 +1,235 @@
+package com.bank.bank_backend.pdf;
+
+import com.bank.bank_backend.dto.ReporteMovimientoItem;
+import com.bank.bank_backend.dto.ReporteMovimientoUsuarioItem;
+import com.bank.bank_backend.dto.ResumenPeriodo;
+import com.lowagie.text.Document;
+import com.lowagie.text.Font;
+import com.lowagie.text.PageSize;
+import com.lowagie.text.Paragraph;
+import com.lowagie.text.Phrase;
+import com.lowagie.text.pdf.PdfPCell;
+import com.lowagie.text.pdf.PdfPTable;
+import com.lowagie.text.pdf.PdfWriter;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.awt.Color;
+import java.io.OutputStream;
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.Iterator;
+import java.util.List;
+
+/**
+ * Renderizado de los PDFs de reportes (estado de cuenta, cierre mensual y movimientos por cliente).
+ *
+ * - Fuentes y color de encabezado se crean una sola vez y se comparten entre documentos e hilos
+ *   (solo se leen al renderizar).
+ * - Las celdas del cuerpo salen de la celda por defecto de la tabla (padding ya configurado):
+ *   por celda solo se crea la Phrase con el texto.
+ * - Las filas se vuelcan al documento cada {@code filasPorBloque} con la tabla en modo incompleto,
+ *   así la memoria queda acotada por el bloque y no por la cantidad de movimientos.
+ */
+@Component
+public class RenderizadorPdf {
+
+    private static final Font TITULO = new Font(Font.HELVETICA, 14, Font.BOLD);
+    private static final Font NEGRITA = new Font(Font.HELVETICA, 11, Font.BOLD);
+    private static final Font NORMAL = new Font(Font.HELVETICA, 11, Font.NORMAL);
+    private static final Font CELDA_ENCABEZADO = new Font(Font.HELVETICA, 10, Font.BOLD);
+    private static final Font CELDA = new Font(Font.HELVETICA, 10, Font.NORMAL);
+    private static final Color FONDO_ENCABEZADO = new Color(230, 230, 230);
+    private static final float PADDING = 6f;
+
+    private final int filasPorBloque;
+
+    public RenderizadorPdf(@Value("${bank.reportes.pdf.filas-por-bloque:200}") int filasPorBloque) {
+        this.filasPorBloque = Math.max(1, filasPorBloque);
+    }
+
+    public void estadoCuenta(
+            OutputStream out,
+            String cliente,
+            String numeroCuenta,
+            BigDecimal saldoActual,
+            LocalDate ini,
+            LocalDate fin,
+            Iterator<ReporteMovimientoItem> filas
+    ) {
+        estadoCuenta(out, cliente, numeroCuenta,
+                List.of(new Paragraph("Saldo actual: " + saldoActual, NORMAL)), ini, fin, filas);
+    }
+
+    /**
+     * Estado de cuenta de un período cerrado (cierre mensual): en lugar del saldo actual
+     * muestra apertura, cierre y totales del período.
+     */
+    public void estadoCuentaDePeriodo(
+            OutputStream out,
+            String cliente,
+            String numeroCuenta,
+            ResumenPeriodo resumen,
+            LocalDate ini,
+            LocalDate fin,
+            Iterator<ReporteMovimientoItem> filas
+    ) {
+        estadoCuenta(out, cliente, numeroCuenta, List.of(
+                new Paragraph("Saldo de apertura: " + resumen.saldoApertura(), NORMAL),
+                new Paragraph("Saldo de cierre: " + resumen.saldoCierre(), NORMAL),
+                new Paragraph("Total créditos: " + resumen.totalCreditos(), NORMAL),
+                new Paragraph("Total débitos: " + resumen.totalDebitos(), NORMAL)
+        ), ini, fin, filas);
+    }
+
+    private void estadoCuenta(
+            OutputStream out,
+            String cliente,
+            String numeroCuenta,
+            List<Paragraph> saldos,
+            LocalDate ini,
+            LocalDate fin,
+            Iterator<ReporteMovimientoItem> filas
+    ) {
+        try {
+            Document doc = new Document(PageSize.A4, 36, 36, 36, 36);
+            abrir(doc, out);
+
+            doc.add(new Paragraph("REPORTE – ESTADO DE CUENTA", TITULO));
+            doc.add(new Paragraph(" "));
+
+            doc.add(new Paragraph("Cliente: " + safe(cliente), NEGRITA));
+            doc.add(new Paragraph("Número de cuenta: " + safe(numeroCuenta), NORMAL));
+            for (Paragraph p : saldos) {
+                doc.add(p);
+            }
+            doc.add(new Paragraph("Rango de fechas: " + ini + " a " + fin, NORMAL));
+
+            doc.add(new Paragraph(" "));
+            doc.add(new Paragraph("Movimientos", NEGRITA));
+            doc.add(new Paragraph(" "));
+
+            PdfPTable table = tabla(new float[]{3.5f, 2f, 2f, 2f}, "Fecha", "Tipo", "Valor", "Saldo");
+
+            while (filas.hasNext()) {
+                ReporteMovimientoItem m = filas.next();
+                celda(table, String.valueOf(m.getFecha()));
+                celda(table, safe(m.getTipoMovimiento()));
+                celda(table, String.valueOf(nvl(m.getValor())));
+                celda(table, String.valueOf(nvl(m.getSaldo())));
+                volcarSiCorresponde(doc, table);
+            }
+            cerrarTabla(doc, table);
+
+            doc.close();
+
+        } catch (Exception e) {
+            throw new RuntimeException("Error al generar PDF del estado de cuenta", e);
+        }
+    }
+
+    public void movimientosPorCliente(
+            OutputStream out,
+            LocalDate ini,
+            LocalDate fin,
+            Iterator<ReporteMovimientoUsuarioItem> filas
+    ) {
+        try {
+            Document doc = new Document(PageSize.A4.rotate(), 36, 36, 36, 36); // horizontal para que no se corte
+            abrir(doc, out);
+
+            // El nombre del cliente sale de la primera fila (todas son del mismo cliente)
+            ReporteMovimientoUsuarioItem primera = filas.hasNext() ? filas.next() : null;
+            String nombreCliente = primera != null ? safe(primera.getCliente()) : "";
+
+            doc.add(new Paragraph("REPORTE – MOVIMIENTOS POR CLIENTE", TITULO));
+            doc.add(new Paragraph(" "));
+
+            doc.add(new Paragraph("Cliente: " + nombreCliente, NEGRITA));
+            doc.add(new Paragraph("Rango de fechas: " + ini + " a " + fin, NORMAL));
+            doc.add(new Paragraph(" "));
+
+            PdfPTable table = tabla(new float[]{2.8f, 3.2f, 2.4f, 2.0f, 2.0f, 2.0f, 2.2f},
+                    "Fecha", "Cliente", "Número Cuenta", "Tipo Cuenta", "Saldo Inicial", "Movimiento", "Saldo Disponible");
+
+            ReporteMovimientoUsuarioItem m = primera;
+            while (m != null) {
+                celda(table, String.valueOf(m.getFecha()));
+                celda(table, safe(m.getCliente()));
+                celda(table, safe(m.getNumeroCuenta()));
+                celda(table, safe(m.getTipo()));
+                celda(table, String.valueOf(nvl(m.getSaldoInicial())));
+                celda(table, String.valueOf(nvl(m.getMovimiento())));
+                celda(table, String.valueOf(nvl(m.getSaldoDisponible())));
+                volcarSiCorresponde(doc, table);
+                m = filas.hasNext() ? filas.next() : null;
+            }
+            cerrarTabla(doc, table);
+
+            doc.close();
+
+        } catch (Exception e) {
+            throw new RuntimeException("Error al generar PDF de movimientos por cliente", e);
+        }
+    }
+
+    /* ===============================
+       Tabla
+       =============================== */
+
+    // El documento no cierra el stream: en la respuesta HTTP lo cierra el contenedor
+    private static void abrir(Document doc, OutputStream out) {
+        PdfWriter writer = PdfWriter.getInstance(doc, out);
+        writer.setCloseStream(false);
+        doc.open();
+    }
+
+    /**
+     * Tabla incompleta con el encabezado como fila repetida en cada página;
+     * la celda por defecto queda como plantilla del cuerpo.
+     */
+    private static PdfPTable tabla(float[] anchos, String... encabezados) {
+        PdfPTable table = new PdfPTable(anchos.length);
+        table.setWidthPercentage(100);
+        table.setWidths(anchos);
+
+        for (String e : encabezados) {
+            PdfPCell c = new PdfPCell(new Phrase(e, CELDA_ENCABEZADO));
+            c.setBackgroundColor(FONDO_ENCABEZADO);
+            c.setPadding(PADDING);
+            table.addCell(c);
+        }
+        table.setHeaderRows(1);
+        table.setComplete(false);
+
+        table.getDefaultCell().setPadding(PADDING);
+        return table;
+    }
+
+    private static void celda(PdfPTable table, String texto) {
+        table.addCell(new Phrase(texto, CELDA));
+    }
+
+    /**
+     * Con la tabla incompleta, doc.add escribe las filas completas ya agregadas y las descarta
+     * (el encabezado se conserva para las páginas siguientes).
+     */
+    private void volcarSiCorresponde(Document doc, PdfPTable table) {
+        if (table.size() - table.getHeaderRows() >= filasPorBloque) {
+            doc.add(table);
+        }
+    }
+
+    private static void cerrarTabla(Document doc, PdfPTable table) {
+        table.setComplete(true);
+        doc.add(table);
+    }
+
+    private static BigDecimal nvl(BigDecimal v) {
+        return v == null ? BigDecimal.ZERO : v;
+    }
+
+    private static String safe(String s) {
+        return s == null ? "" : s;
+    }
+}
@@ -0,0 +1,56 @@
+package com.bank.bank_backend.repository;
+
+import com.bank.bank_backend.entity.ClaveIdempotencia;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.Set;
+
+public interface ClaveIdempotenciaRepository extends JpaRepository<ClaveIdempotencia, String> {
+
+    /**
+     * Pasa la reserva a COMPLETADO con su movimiento. Se llama dentro de la transacción del posteo:
+     * el movimiento y la clave se confirman juntos. 0 = la reserva ya no está EN_PROCESO.
+     */
+    @Modifying
+    @Query("update ClaveIdempotencia c set c.estado = 'COMPLETADO', c.movimientoId = :movimientoId "
+            + "where c.clave = :clave and c.estado = 'EN_PROCESO'")
+    int completar(@Param("clave") String clave, @Param("movimientoId") Long movimientoId);
+
+    // Motor de posteo: de las claves del grupo, las que siguen reservadas
+    @Query("select c.clave from ClaveIdempotencia c where c.clave in :claves and c.estado = 'EN_PROCESO'")
+    Set<String> clavesEnProceso(@Param("claves") Collection<String> claves);
+
+    // Libera una reserva cuyo posteo seguro no se aplicó (rechazo de negocio o del motor).
+    // Solo la propia: si venció, otra solicitud con la misma clave pudo reservarla de nuevo
+    @Transactional
+    @Modifying
+    @Query("delete from ClaveIdempotencia c where c.clave = :clave and c.estado = 'EN_PROCESO' "
+            + "and c.fechaCreacion = :fechaCreacion")
+    int liberar(@Param("clave") String clave, @Param("fechaCreacion") LocalDateTime fechaCreacion);
+
+    // Libera una reserva EN_PROCESO creada antes del límite: su posteo ya no puede confirmarse
+    @Transactional
+    @Modifying
+    @Query("delete from ClaveIdempotencia c where c.clave = :clave and c.estado = 'EN_PROCESO' "
+            + "and c.fechaCreacion < :limite")
+    int liberarVencida(@Param("clave") String clave, @Param("limite") LocalDateTime limite);
+
+    // Modo journal: claves de movimientos que no llegaron al journal (se llama después de reaplicarlo)
+    @Transactional
+    @Modifying
+    @Query("delete from ClaveIdempotencia c where c.movimientoId is not null "
+            + "and not exists (select 1 from Movimiento m where m.movimientoId = c.movimientoId)")
+    int eliminarSinMovimiento();
+
+    // Purga por antigüedad (un solo DELETE)
+    @Transactional
+    @Modifying
+    @Query("delete from ClaveIdempotencia c where c.fechaCreacion < :limite")
+    int eliminarAnterioresA(@Param("limite") LocalDateTime limite);
+}
@@ -1,8 +1,18 @@
 package com.bank.bank_backend.repository;
 
+import com.bank.bank_backend.dto.CuentaConSaldo;
+import com.bank.bank_backend.dto.CuentaDeCierre;
+import com.bank.bank_backend.dto.DescriptorCuenta;
 import com.bank.bank_backend.entity.Cuenta;
+import jakarta.persistence.LockModeType;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 
+import java.math.BigDecimal;
 import java.util.List;
 import java.util.Optional;
 
@@ -11,12 +21,82 @@ public interface CuentaRepository extends JpaRepository<Cuenta, Long> {
     // Buscar cuenta por número (ya usado en movimientos y reportes)
     Optional<Cuenta> findByNumeroCuenta(String numeroCuenta);
 
-    // Validación de unicidad (ya usado en creación)
-    boolean existsByNumeroCuenta(String numeroCuenta);
+    // NUEVO: solo los datos del descriptor (sin saldos ni entidad Cliente)
+    @Query("""
+            select new com.bank.bank_backend.dto.DescriptorCuenta(
+                   c.cuentaId, c.numeroCuenta, c.tipoCuenta, c.estado, cl.clienteId, cl.nombre)
+              from Cuenta c join c.cliente cl
+             where c.numeroCuenta = :numeroCuenta
+            """)
+    Optional<DescriptorCuenta> buscarDescriptor(@Param("numeroCuenta") String numeroCuenta);
+
+    // NUEVO: saldo actual sin cargar la entidad
+    @Query("select c.saldoActual from Cuenta c where c.cuentaId = :cuentaId")
+    Optional<BigDecimal> saldoActualDe(@Param("cuentaId") Long cuentaId);
+
+    // NUEVO: saldo inicial (apertura de cuentas sin saldos_diarios previos)
+    @Query("select c.saldoInicial from Cuenta c where c.cuentaId = :cuentaId")
+    Optional<BigDecimal> saldoInicialDe(@Param("cuentaId") Long cuentaId);
+
+    // NUEVO: ids de todas las cuentas (reconstrucción de saldos_diarios)
+    @Query("select c.cuentaId from Cuenta c order by c.cuentaId")
+    List<Long> todosLosIds();
+
+    // NUEVO: bloque de cuentas activas siguiente a :desde, por keyset sobre la PK (cierre mensual)
+    @Query("""
+            select c.cuentaId as cuentaId, c.numeroCuenta as numeroCuenta, cl.clienteId as clienteId,
+                   cl.nombre as nombreCliente, c.saldoInicial as saldoInicial
+              from Cuenta c join c.cliente cl
+             where c.estado = true and c.cuentaId > :desde
+             order by c.cuentaId asc
+            """)
+    List<CuentaDeCierre> activasDesde(@Param("desde") Long desde, Limit limite);
+
+    @Query("select count(c) from Cuenta c where c.estado = true")
+    long contarActivas();
+
+    // NUEVO: misma búsqueda pero bloqueando la fila (SELECT ... FOR UPDATE) hasta el commit
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("select c from Cuenta c where c.numeroCuenta = :numeroCuenta")
+    Optional<Cuenta> findByNumeroCuentaParaActualizar(@Param("numeroCuenta") String numeroCuenta);
+
+    // NUEVO: bloqueo por PK (transferencias: se bloquea en orden de cuentaId)
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("select c from Cuenta c where c.cuentaId = :cuentaId")
+    Optional<Cuenta> findByIdParaActualizar(@Param("cuentaId") Long cuentaId);
 
     // Listar cuentas por cliente (por ID)
     List<Cuenta> findByClienteClienteId(Long clienteId);
 
     // 🔹 NUEVO: listar cuentas de un cliente ordenadas (para reportes por titular)
     List<Cuenta> findByClienteClienteIdOrderByNumeroCuentaAsc(Long clienteId);
+
+    // NUEVO: solo los números de cuenta del cliente (sin entidades)
+    @Query("select c.numeroCuenta from Cuenta c where c.cliente.clienteId = :clienteId order by c.numeroCuenta asc")
+    List<String> numerosDeCliente(@Param("clienteId") Long clienteId);
+
+    // NUEVO: cuentas del cliente con saldo y nombre del titular, en una consulta
+    @Query("""
+            select c.cuentaId as cuentaId, c.numeroCuenta as numeroCuenta,
+                   cl.nombre as nombreCliente, c.saldoInicial as saldoInicial, c.saldoActual as saldoActual
+              from Cuenta c join c.cliente cl
+             where cl.clienteId = :clienteId
+             order by c.numeroCuenta asc
+            """)
+    List<CuentaConSaldo> saldosDeCliente(@Param("clienteId") Long clienteId);
+
+    // NUEVO: aplica el delta sobre el saldo en una sola sentencia.
+    // Solo afecta la fila si la cuenta está activa y el saldo resultante no queda negativo.
+    // Retorna 0 si la cuenta no existe, está inactiva o no tiene saldo suficiente.
+    // Va por PK: el numeroCuenta ya se resolvió con el descriptor en cache.
+    @Modifying(clearAutomatically = true)
+    @Query("""
+            update Cuenta c
+               set c.saldoActual = c.saldoActual + :delta,
+                   c.version = c.version + 1
+             where c.cuentaId = :cuentaId
+               and c.estado = true
+               and c.saldoActual + :delta >= 0
+            """)
+    int aplicarDelta(@Param("cuentaId") Long cuentaId, @Param("delta") BigDecimal delta);
 }
@@ -0,0 +1,7 @@
+package com.bank.bank_backend.repository;
+
+import com.bank.bank_backend.entity.MarcaJournal;
+import org.springframework.data.jpa.repository.JpaRepository;
+
+public interface MarcaJournalRepository extends JpaRepository<MarcaJournal, Integer> {
+}
@@ -0,0 +1,30 @@
+package com.bank.bank_backend.repository;
+
+import com.bank.bank_backend.dto.CursorMovimiento;
+import com.bank.bank_backend.dto.ReporteMovimientoItem;
+import com.bank.bank_backend.dto.ReporteMovimientoUsuarioItem;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.stream.Stream;
+
+/**
+ * Consultas de reportes en stream (fragmento de MovimientoRepository).
+ *
+ * - Cursor del lado del servidor con fetch size configurable (bank.reportes.fetch-size)
+ * - Devuelven DTOs: nada queda registrado en el contexto de persistencia
+ * - Deben consumirse dentro de una transacción y cerrarse (try-with-resources)
+ */
+public interface MovimientoReporteRepository {
+
+    Stream<ReporteMovimientoItem> streamEstadoCuenta(Long cuentaId, LocalDateTime desde, LocalDateTime hasta);
+
+    Stream<ReporteMovimientoUsuarioItem> streamPorCliente(Long clienteId, LocalDateTime desde, LocalDateTime hasta);
+
+    /**
+     * Página por keyset del listado por cliente: filas estrictamente posteriores a {@code despuesDe}
+     * (o desde el inicio si es null), a lo sumo {@code limite}.
+     */
+    List<ReporteMovimientoUsuarioItem> paginaPorCliente(Long clienteId, LocalDateTime desde, LocalDateTime hasta,
+                                                        CursorMovimiento despuesDe, int limite);
+}
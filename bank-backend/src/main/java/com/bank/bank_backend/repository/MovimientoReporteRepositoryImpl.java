@@ -0,0 +1,97 @@
+package com.bank.bank_backend.repository;
+
+import com.bank.bank_backend.dto.CursorMovimiento;
+import com.bank.bank_backend.dto.ReporteMovimientoItem;
+import com.bank.bank_backend.dto.ReporteMovimientoUsuarioItem;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import jakarta.persistence.TypedQuery;
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.beans.factory.annotation.Value;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.stream.Stream;
+
+/**
+ * Implementación del fragmento: JPQL con proyección por constructor y hints de cursor.
+ * El fetch size se aplica por consulta (en PostgreSQL solo abre cursor con autocommit apagado,
+ * por eso los métodos de ReporteService que las usan son @Transactional(readOnly = true)).
+ */
+class MovimientoReporteRepositoryImpl implements MovimientoReporteRepository {
+
+    private static final String ESTADO_CUENTA = """
+            select new com.bank.bank_backend.dto.ReporteMovimientoItem(m.fecha, m.tipoMovimiento, m.valor, m.saldo)
+              from Movimiento m
+             where m.cuenta.cuentaId = :id
+               and m.fecha between :desde and :hasta
+             order by m.fecha asc, m.movimientoId asc
+            """;
+
+    private static final String POR_CLIENTE = """
+            select new com.bank.bank_backend.dto.ReporteMovimientoUsuarioItem(
+                   m.fecha, cl.nombre, c.numeroCuenta, c.tipoCuenta, c.saldoInicial, c.estado, m.valor, m.saldo)
+              from Movimiento m join m.cuenta c join c.cliente cl
+             where cl.clienteId = :id
+               and m.fecha between :desde and :hasta
+             order by m.fecha asc, m.movimientoId asc
+            """;
+
+    // Igual que POR_CLIENTE pero con movimientoId (para armar el cursor) y el corte por keyset
+    private static final String PAGINA_POR_CLIENTE = """
+            select new com.bank.bank_backend.dto.ReporteMovimientoUsuarioItem(
+                   m.movimientoId, m.fecha, cl.nombre, c.numeroCuenta, c.tipoCuenta, c.saldoInicial, c.estado,
+                   m.valor, m.saldo)
+              from Movimiento m join m.cuenta c join c.cliente cl
+             where cl.clienteId = :id
+               and m.fecha between :desde and :hasta
+               %s
+             order by m.fecha asc, m.movimientoId asc
+            """;
+
+    private static final String DESPUES_DEL_CURSOR =
+            "and m.fecha >= :cFecha and (m.fecha > :cFecha or m.movimientoId > :cId)";
+
+    @PersistenceContext
+    private EntityManager em;
+
+    @Value("${bank.reportes.fetch-size:500}")
+    private int fetchSize = 500;
+
+    @Override
+    public Stream<ReporteMovimientoItem> streamEstadoCuenta(Long cuentaId, LocalDateTime desde, LocalDateTime hasta) {
+        return stream(ESTADO_CUENTA, ReporteMovimientoItem.class, cuentaId, desde, hasta);
+    }
+
+    @Override
+    public Stream<ReporteMovimientoUsuarioItem> streamPorCliente(Long clienteId, LocalDateTime desde, LocalDateTime hasta) {
+        return stream(POR_CLIENTE, ReporteMovimientoUsuarioItem.class, clienteId, desde, hasta);
+    }
+
+    @Override
+    public List<ReporteMovimientoUsuarioItem> paginaPorCliente(Long clienteId, LocalDateTime desde, LocalDateTime hasta,
+                                                               CursorMovimiento despuesDe, int limite) {
+        TypedQuery<ReporteMovimientoUsuarioItem> q = em.createQuery(
+                        PAGINA_POR_CLIENTE.formatted(despuesDe != null ? DESPUES_DEL_CURSOR : ""),
+                        ReporteMovimientoUsuarioItem.class)
+                .setParameter("id", clienteId)
+                .setParameter("desde", desde)
+                .setParameter("hasta", hasta)
+                .setMaxResults(limite);
+        if (despuesDe != null) {
+            q.setParameter("cFecha", despuesDe.fecha());
+            q.setParameter("cId", despuesDe.movimientoId());
+        }
+        return q.getResultList();
+    }
+
+    private <T> Stream<T> stream(String jpql, Class<T> tipo, Long id, LocalDateTime desde, LocalDateTime hasta) {
+        TypedQuery<T> q = em.createQuery(jpql, tipo)
+                .setParameter("id", id)
+                .setParameter("desde", desde)
+                .setParameter("hasta", hasta)
+                .setHint(HibernateHints.HINT_FETCH_SIZE, fetchSize)
+                .setHint(HibernateHints.HINT_READ_ONLY, true);
+        return q.getResultStream();
+    }
+}
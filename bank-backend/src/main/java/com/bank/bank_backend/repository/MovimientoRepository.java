@@ -1,12 +1,17 @@
 package com.bank.bank_backend.repository;
 
+import com.bank.bank_backend.dto.MovimientoDeCuenta;
 import com.bank.bank_backend.entity.Movimiento;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 
 import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
 
-public interface MovimientoRepository extends JpaRepository<Movimiento, Long> {
+public interface MovimientoRepository extends JpaRepository<Movimiento, Long>, MovimientoReporteRepository {
 
     // Movimientos por cuentaId y rango (útil para reportes luego)
     List<Movimiento> findByCuentaCuentaIdAndFechaBetween(Long cuentaId, LocalDateTime desde, LocalDateTime hasta);
@@ -14,17 +19,58 @@ public interface MovimientoRepository extends JpaRepository<Movimiento, Long> {
     // Lista todos los movimientos de una cuenta por número (ordenados)
     List<Movimiento> findByCuenta_NumeroCuentaOrderByFechaAsc(String numeroCuenta);
 
-    // Movimientos por número y rango (útil para reportes)
-    List<Movimiento> findByCuenta_NumeroCuentaAndFechaBetweenOrderByFechaAsc(
-            String numeroCuenta,
-            LocalDateTime desde,
-            LocalDateTime hasta
-    );
-
-    // NUEVO: Listado por cliente (usuario) + rango (ordenado)
-    List<Movimiento> findByCuenta_Cliente_ClienteIdAndFechaBetweenOrderByFechaAsc(
-            Long clienteId,
-            LocalDateTime desde,
-            LocalDateTime hasta
-    );
+    // Los rangos de reportes (por cuenta y por cliente) se leen en stream: ver MovimientoReporteRepository
+
+    // NUEVO: movimientos de todas las cuentas del cliente en el rango (estado de cuenta por cliente)
+    @Query("""
+            select m.cuenta.cuentaId as cuentaId, m.fecha as fecha, m.tipoMovimiento as tipoMovimiento,
+                   m.valor as valor, m.saldo as saldo
+              from Movimiento m
+             where m.cuenta.cliente.clienteId = :clienteId
+               and m.fecha between :desde and :hasta
+             order by m.cuenta.cuentaId asc, m.fecha asc, m.movimientoId asc
+            """)
+    List<MovimientoDeCuenta> movimientosDeCliente(@Param("clienteId") Long clienteId,
+                                                  @Param("desde") LocalDateTime desde,
+                                                  @Param("hasta") LocalDateTime hasta);
+
+    // NUEVO: movimientos de un bloque de cuentas en el rango (cierre mensual), en una consulta
+    @Query("""
+            select m.cuenta.cuentaId as cuentaId, m.fecha as fecha, m.tipoMovimiento as tipoMovimiento,
+                   m.valor as valor, m.saldo as saldo
+              from Movimiento m
+             where m.cuenta.cuentaId in :cuentaIds
+               and m.fecha between :desde and :hasta
+             order by m.cuenta.cuentaId asc, m.fecha asc, m.movimientoId asc
+            """)
+    List<MovimientoDeCuenta> movimientosDeCuentas(@Param("cuentaIds") Collection<Long> cuentaIds,
+                                                  @Param("desde") LocalDateTime desde,
+                                                  @Param("hasta") LocalDateTime hasta);
+
+    // NUEVO: ¿hay movimientos en el rango? (decide 204 antes de abrir el stream del PDF)
+    boolean existsByCuentaCuentaIdAndFechaBetween(Long cuentaId, LocalDateTime desde, LocalDateTime hasta);
+
+    boolean existsByCuenta_Cliente_ClienteIdAndFechaBetween(Long clienteId, LocalDateTime desde, LocalDateTime hasta);
+
+    // NUEVO: paginación por keyset sobre (fecha, movimientoId), índice idx_movimientos_cuenta_fecha_id.
+    // La página N cuesta lo mismo que la primera: se busca en el índice desde el cursor, sin OFFSET.
+    @Query("""
+            select m from Movimiento m join fetch m.cuenta c join fetch c.cliente
+             where c.cuentaId = :cuentaId
+             order by m.fecha asc, m.movimientoId asc
+            """)
+    List<Movimiento> primeraPaginaPorCuenta(@Param("cuentaId") Long cuentaId, Limit limite);
+
+    // fecha >= :fecha acota el rango del índice; el OR descarta los ya entregados con la misma fecha
+    @Query("""
+            select m from Movimiento m join fetch m.cuenta c join fetch c.cliente
+             where c.cuentaId = :cuentaId
+               and m.fecha >= :fecha
+               and (m.fecha > :fecha or m.movimientoId > :movimientoId)
+             order by m.fecha asc, m.movimientoId asc
+            """)
+    List<Movimiento> paginaPorCuentaDesde(@Param("cuentaId") Long cuentaId,
+                                          @Param("fecha") LocalDateTime fecha,
+                                          @Param("movimientoId") Long movimientoId,
+                                          Limit limite);
 }
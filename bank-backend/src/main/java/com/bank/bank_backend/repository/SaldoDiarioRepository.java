@@ -0,0 +1,89 @@
+package com.bank.bank_backend.repository;
+
+import com.bank.bank_backend.entity.SaldoDiario;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
+
+public interface SaldoDiarioRepository extends JpaRepository<SaldoDiario, SaldoDiario.Clave> {
+
+    List<SaldoDiario> findByCuentaIdOrderByFechaAsc(Long cuentaId);
+
+    // Saldo al cierre del último día con movimientos anterior a :fecha (= saldo al inicio de :fecha)
+    @Query("""
+            select d.saldoCierre from SaldoDiario d
+             where d.cuentaId = :cuentaId and d.fecha < :fecha
+             order by d.fecha desc
+             limit 1
+            """)
+    Optional<BigDecimal> saldoAntesDe(@Param("cuentaId") Long cuentaId, @Param("fecha") LocalDate fecha);
+
+    @Query("""
+            select d.cuentaId as cuentaId, sum(d.creditos) as creditos, sum(d.debitos) as debitos
+              from SaldoDiario d
+             where d.cuentaId = :cuentaId and d.fecha between :desde and :hasta
+             group by d.cuentaId
+            """)
+    Optional<Totales> totales(@Param("cuentaId") Long cuentaId,
+                              @Param("desde") LocalDate desde,
+                              @Param("hasta") LocalDate hasta);
+
+    // Mismo cálculo para todas las cuentas de un cliente, en una consulta
+    @Query("""
+            select d.cuentaId as cuentaId, d.saldoCierre as saldo
+              from SaldoDiario d
+             where d.cuentaId in (select c.cuentaId from Cuenta c where c.cliente.clienteId = :clienteId)
+               and d.fecha = (select max(d2.fecha) from SaldoDiario d2
+                               where d2.cuentaId = d.cuentaId and d2.fecha < :fecha)
+            """)
+    List<SaldoAl> saldosAntesDe(@Param("clienteId") Long clienteId, @Param("fecha") LocalDate fecha);
+
+    @Query("""
+            select d.cuentaId as cuentaId, sum(d.creditos) as creditos, sum(d.debitos) as debitos
+              from SaldoDiario d
+             where d.cuentaId in (select c.cuentaId from Cuenta c where c.cliente.clienteId = :clienteId)
+               and d.fecha between :desde and :hasta
+             group by d.cuentaId
+            """)
+    List<Totales> totalesDeCliente(@Param("clienteId") Long clienteId,
+                                   @Param("desde") LocalDate desde,
+                                   @Param("hasta") LocalDate hasta);
+
+    // Mismo cálculo para un bloque de cuentas (cierre mensual)
+    @Query("""
+            select d.cuentaId as cuentaId, d.saldoCierre as saldo
+              from SaldoDiario d
+             where d.cuentaId in :cuentaIds
+               and d.fecha = (select max(d2.fecha) from SaldoDiario d2
+                               where d2.cuentaId = d.cuentaId and d2.fecha < :fecha)
+            """)
+    List<SaldoAl> saldosAntesDeCuentas(@Param("cuentaIds") Collection<Long> cuentaIds, @Param("fecha") LocalDate fecha);
+
+    @Query("""
+            select d.cuentaId as cuentaId, sum(d.creditos) as creditos, sum(d.debitos) as debitos
+              from SaldoDiario d
+             where d.cuentaId in :cuentaIds
+               and d.fecha between :desde and :hasta
+             group by d.cuentaId
+            """)
+    List<Totales> totalesDeCuentas(@Param("cuentaIds") Collection<Long> cuentaIds,
+                                   @Param("desde") LocalDate desde,
+                                   @Param("hasta") LocalDate hasta);
+
+    interface SaldoAl {
+        Long getCuentaId();
+        BigDecimal getSaldo();
+    }
+
+    interface Totales {
+        Long getCuentaId();
+        BigDecimal getCreditos();
+        BigDecimal getDebitos();
+    }
+}
@@ -0,0 +1,38 @@
+package com.bank.bank_backend.service;
+
+import com.bank.bank_backend.exception.BadRequestException;
+
+import java.util.Locale;
+
+/**
+ * Granularidad de GET /reportes/resumen: un período por día, semana o mes.
+ * La semana es la de date_trunc: de lunes a domingo en PostgreSQL (H2 la empieza el domingo).
+ * Sin agrupación, una fila por cuenta con los totales del rango.
+ */
+public enum AgrupacionResumen {
+
+    DIA("day"),
+    SEMANA("week"),
+    MES("month");
+
+    // Unidad de date_trunc (literal fijo: nunca viene del request)
+    private final String unidad;
+
+    AgrupacionResumen(String unidad) {
+        this.unidad = unidad;
+    }
+
+    public String getUnidad() {
+        return unidad;
+    }
+
+    /** null o vacío = sin agrupación; "dia", "semana" o "mes" sin importar mayúsculas. */
+    public static AgrupacionResumen desde(String valor) {
+        if (valor == null || valor.isBlank()) return null;
+        try {
+            return valueOf(valor.trim().toUpperCase(Locale.ROOT));
+        } catch (IllegalArgumentException ex) {
+            throw new BadRequestException("agrupacion debe ser dia, semana o mes");
+        }
+    }
+}
@@ -0,0 +1,306 @@
+package com.bank.bank_backend.service;
+
+import com.bank.bank_backend.dto.CierreMensualResponse;
+import com.bank.bank_backend.dto.CuentaDeCierre;
+import com.bank.bank_backend.dto.ReporteMovimientoItem;
+import com.bank.bank_backend.dto.ResumenPeriodo;
+import com.bank.bank_backend.exception.BadRequestException;
+import com.bank.bank_backend.exception.ConflictException;
+import com.bank.bank_backend.exception.NotFoundException;
+import com.bank.bank_backend.exception.ServicioNoDisponibleException;
+import com.bank.bank_backend.pdf.RenderizadorPdf;
+import com.bank.bank_backend.repository.CuentaRepository;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.io.BufferedOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.YearMonth;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * NUEVO: cierre mensual — un PDF de estado de cuenta por cada cuenta activa.
+ *
+ * - Recorre cuentas por bloques ordenados por cuentaId (keyset, sin OFFSET). Por bloque hace
+ *   tres consultas (cuentas, movimientos del mes, resúmenes de saldos_diarios) en LectorCierreMensual,
+ *   por la réplica si está habilitada, y suelta la conexión antes de renderizar.
+ * - Los PDFs del bloque se renderizan en el pool fork-join "poolCierreMensual"
+ *   (bank.cierre-mensual.paralelismo) y se escriben en {directorio}/{yyyy-MM}/{clienteId}/{numeroCuenta}.pdf.
+ * - Al terminar cada bloque se guarda el checkpoint ({directorio}/{yyyy-MM}/checkpoint.json) con la
+ *   última cuenta escrita. Si el proceso se cae, volver a iniciar el mismo período sigue desde ahí;
+ *   a lo sumo se reescribe el bloque que estaba en curso (cada archivo se reemplaza atómicamente).
+ * - Se dispara por cron (bank.cierre-mensual.cron, mes anterior) o por POST /reportes/cierre-mensual.
+ *   Corre un cierre a la vez, en el pool de trabajos de reporte.
+ */
+@Service
+public class CierreMensualService {
+
+    private static final Logger log = LoggerFactory.getLogger(CierreMensualService.class);
+
+    private static final String CHECKPOINT = "checkpoint.json";
+
+    /** Lo que queda en disco después de cada bloque. */
+    record Checkpoint(String periodo, long ultimoCuentaId, long cuentasProcesadas, boolean completado) {
+    }
+
+    private static final class Corrida {
+        final YearMonth periodo;
+        final Path directorio;
+        final long totalCuentas;
+        final boolean reanudada;
+        final LocalDateTime iniciadoEn = LocalDateTime.now();
+        final long inicio = System.nanoTime();
+        volatile EstadoTrabajo estado = EstadoTrabajo.EN_COLA;
+        volatile long ultimoCuentaId;
+        volatile long cuentasProcesadas;
+        volatile long procesadasEnCorrida;
+        volatile long fin;
+        volatile LocalDateTime terminadoEn;
+        volatile String error;
+
+        Corrida(YearMonth periodo, Path directorio, long totalCuentas, Checkpoint previo) {
+            this.periodo = periodo;
+            this.directorio = directorio;
+            this.totalCuentas = totalCuentas;
+            this.reanudada = previo != null;
+            if (previo != null) {
+                this.ultimoCuentaId = previo.ultimoCuentaId();
+                this.cuentasProcesadas = previo.cuentasProcesadas();
+            }
+        }
+
+        boolean enCurso() {
+            return estado == EstadoTrabajo.EN_COLA || estado == EstadoTrabajo.EN_PROCESO;
+        }
+
+        double cuentasPorSegundo() {
+            long hasta = fin != 0 ? fin : System.nanoTime();
+            double segundos = (hasta - inicio) / 1e9;
+            return segundos <= 0 ? 0 : procesadasEnCorrida / segundos;
+        }
+    }
+
+    private final CuentaRepository cuentaRepo;
+    private final LectorCierreMensual lector;
+    private final RenderizadorPdf renderizador;
+    private final ObjectMapper objectMapper;
+    private final Executor ejecutor;
+    private final ExecutorService pool;
+    private final Path directorio;
+    private final int tamanoBloque;
+
+    private final AtomicReference<Corrida> actual = new AtomicReference<>();
+
+    public CierreMensualService(CuentaRepository cuentaRepo,
+                                LectorCierreMensual lector,
+                                RenderizadorPdf renderizador,
+                                ObjectMapper objectMapper,
+                                @Qualifier("ejecutorTrabajosReporte") Executor ejecutor,
+                                @Qualifier("poolCierreMensual") ExecutorService pool,
+                                @Value("${bank.cierre-mensual.directorio:./data/cierre-mensual}") String directorio,
+                                @Value("${bank.cierre-mensual.tamano-bloque:200}") int tamanoBloque) {
+        this.cuentaRepo = cuentaRepo;
+        this.lector = lector;
+        this.renderizador = renderizador;
+        this.objectMapper = objectMapper;
+        this.ejecutor = ejecutor;
+        this.pool = pool;
+        this.directorio = Path.of(directorio);
+        this.tamanoBloque = Math.max(1, tamanoBloque);
+    }
+
+    /**
+     * Encola el cierre del período (por defecto, el mes anterior). Si hay un checkpoint
+     * incompleto del mismo período, sigue desde la última cuenta escrita.
+     */
+    public CierreMensualResponse iniciar(YearMonth periodo) {
+        YearMonth p = periodo != null ? periodo : YearMonth.now().minusMonths(1);
+        if (!p.isBefore(YearMonth.now())) {
+            throw new BadRequestException("El período " + p + " todavía no cerró");
+        }
+        Corrida previa = actual.get();
+        if (previa != null && previa.enCurso()) {
+            throw new ConflictException("Ya hay un cierre mensual en curso (" + previa.periodo + ")");
+        }
+        Checkpoint checkpoint = leerCheckpoint(p);
+        if (checkpoint != null && checkpoint.completado()) {
+            throw new ConflictException("El cierre de " + p + " ya fue generado");
+        }
+
+        Corrida c = new Corrida(p, directorio.resolve(p.toString()), cuentaRepo.contarActivas(), checkpoint);
+        if (!actual.compareAndSet(previa, c)) {
+            throw new ConflictException("Ya hay un cierre mensual en curso");
+        }
+        try {
+            ejecutor.execute(() -> ejecutar(c));
+        } catch (RejectedExecutionException ex) {
+            actual.compareAndSet(c, previa);
+            throw new ServicioNoDisponibleException("Hay demasiados reportes en cola, intente más tarde");
+        }
+        return respuesta(c);
+    }
+
+    /**
+     * Progreso del cierre en curso (o del último). Con período, si no es el de esta instancia
+     * se responde desde su checkpoint (por ejemplo, después de un reinicio).
+     */
+    public CierreMensualResponse progreso(YearMonth periodo) {
+        Corrida c = actual.get();
+        if (c != null && (periodo == null || periodo.equals(c.periodo))) {
+            return respuesta(c);
+        }
+        Checkpoint checkpoint = periodo != null ? leerCheckpoint(periodo) : null;
+        if (checkpoint == null) throw new NotFoundException("No hay cierre mensual para ese período");
+
+        CierreMensualResponse r = new CierreMensualResponse();
+        r.setPeriodo(checkpoint.periodo());
+        r.setEstado(checkpoint.completado() ? EstadoTrabajo.COMPLETADO : EstadoTrabajo.FALLIDO);
+        r.setCuentasProcesadas(checkpoint.cuentasProcesadas());
+        r.setUltimoCuentaId(checkpoint.ultimoCuentaId());
+        r.setDirectorio(directorio.resolve(periodo.toString()).toString());
+        if (!checkpoint.completado()) {
+            r.setError("Interrumpido; se reanuda desde la cuenta " + checkpoint.ultimoCuentaId());
+        }
+        return r;
+    }
+
+    /** Cierre del mes anterior. Desactivado por defecto ("-"). */
+    @Scheduled(cron = "${bank.cierre-mensual.cron:-}")
+    public void programado() {
+        try {
+            iniciar(YearMonth.now().minusMonths(1));
+        } catch (ConflictException | ServicioNoDisponibleException ex) {
+            log.warn("Cierre mensual programado no iniciado: {}", ex.getMessage());
+        }
+    }
+
+    /* ===============================
+       Corrida
+       =============================== */
+
+    private void ejecutar(Corrida c) {
+        c.estado = EstadoTrabajo.EN_PROCESO;
+        LocalDate desde = c.periodo.atDay(1);
+        LocalDate hasta = c.periodo.atEndOfMonth();
+        try {
+            Files.createDirectories(c.directorio);
+            LectorCierreMensual.Bloque bloque;
+            while (!(bloque = lector.leer(c.ultimoCuentaId, tamanoBloque, desde, hasta)).cuentas().isEmpty()) {
+                renderizarBloque(c, bloque, desde, hasta);
+
+                List<CuentaDeCierre> cuentas = bloque.cuentas();
+                c.ultimoCuentaId = cuentas.get(cuentas.size() - 1).getCuentaId();
+                c.cuentasProcesadas += cuentas.size();
+                c.procesadasEnCorrida += cuentas.size();
+                guardarCheckpoint(c, false);
+                log.debug("Cierre mensual {}: {}/{} cuentas ({} cuentas/s)",
+                        c.periodo, c.cuentasProcesadas, c.totalCuentas, Math.round(c.cuentasPorSegundo()));
+            }
+            guardarCheckpoint(c, true);
+            terminar(c, EstadoTrabajo.COMPLETADO, null);
+            log.info("Cierre mensual {} completado: {} cuentas, {} cuentas/s",
+                    c.periodo, c.cuentasProcesadas, Math.round(c.cuentasPorSegundo()));
+        } catch (Exception ex) {
+            log.error("Falló el cierre mensual {} después de la cuenta {}", c.periodo, c.ultimoCuentaId, ex);
+            terminar(c, EstadoTrabajo.FALLIDO,
+                    "Error generando el cierre mensual; se reanuda desde la cuenta " + c.ultimoCuentaId);
+        }
+    }
+
+    private void renderizarBloque(Corrida c, LectorCierreMensual.Bloque bloque, LocalDate desde, LocalDate hasta)
+            throws InterruptedException, ExecutionException {
+        List<Callable<Void>> tareas = bloque.cuentas().stream()
+                .map(cuenta -> (Callable<Void>) () -> {
+                    escribirPdf(c.directorio, cuenta, bloque.resumenes().get(cuenta.getCuentaId()),
+                            bloque.movimientos().getOrDefault(cuenta.getCuentaId(), List.of()), desde, hasta);
+                    return null;
+                })
+                .toList();
+        // invokeAll espera a todas; get() relanza la primera que falló
+        for (Future<Void> f : pool.invokeAll(tareas)) {
+            f.get();
+        }
+    }
+
+    private void escribirPdf(Path directorioPeriodo, CuentaDeCierre cuenta, ResumenPeriodo resumen,
+                             List<ReporteMovimientoItem> movimientos, LocalDate desde, LocalDate hasta) throws IOException {
+        Path carpeta = directorioPeriodo.resolve(String.valueOf(cuenta.getClienteId()));
+        Files.createDirectories(carpeta);
+        Path archivo = carpeta.resolve(cuenta.getNumeroCuenta() + ".pdf");
+        Path temporal = carpeta.resolve(cuenta.getNumeroCuenta() + ".pdf.tmp");
+
+        try (OutputStream out = new BufferedOutputStream(Files.newOutputStream(temporal))) {
+            renderizador.estadoCuentaDePeriodo(out, cuenta.getNombreCliente(), cuenta.getNumeroCuenta(),
+                    resumen, desde, hasta, movimientos.iterator());
+        }
+        Files.move(temporal, archivo, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+    }
+
+    private void terminar(Corrida c, EstadoTrabajo estado, String error) {
+        c.fin = System.nanoTime();
+        c.error = error;
+        c.terminadoEn = LocalDateTime.now();
+        c.estado = estado; // último: quien ve el estado final ya ve el resto
+    }
+
+    /* ===============================
+       Checkpoint
+       =============================== */
+
+    private void guardarCheckpoint(Corrida c, boolean completado) throws IOException {
+        Checkpoint checkpoint = new Checkpoint(c.periodo.toString(), c.ultimoCuentaId, c.cuentasProcesadas, completado);
+        Path temporal = c.directorio.resolve(CHECKPOINT + ".tmp");
+        objectMapper.writeValue(temporal.toFile(), checkpoint);
+        Files.move(temporal, c.directorio.resolve(CHECKPOINT),
+                StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+    }
+
+    private Checkpoint leerCheckpoint(YearMonth periodo) {
+        Path archivo = directorio.resolve(periodo.toString()).resolve(CHECKPOINT);
+        if (!Files.exists(archivo)) return null;
+        try {
+            return objectMapper.readValue(archivo.toFile(), Checkpoint.class);
+        } catch (IOException ex) {
+            throw new UncheckedIOException("No se pudo leer " + archivo, ex);
+        }
+    }
+
+    /* ===============================
+       Helpers
+       =============================== */
+
+    private static CierreMensualResponse respuesta(Corrida c) {
+        CierreMensualResponse r = new CierreMensualResponse();
+        r.setPeriodo(c.periodo.toString());
+        r.setEstado(c.estado);
+        r.setTotalCuentas(c.totalCuentas);
+        r.setCuentasProcesadas(c.cuentasProcesadas);
+        r.setUltimoCuentaId(c.ultimoCuentaId);
+        r.setCuentasPorSegundo(c.cuentasPorSegundo());
+        r.setReanudado(c.reanudada);
+        r.setIniciadoEn(c.iniciadoEn);
+        r.setTerminadoEn(c.terminadoEn);
+        r.setDirectorio(c.directorio.toString());
+        r.setError(c.error);
+        return r;
+    }
+}
@@ -1,5 +1,7 @@
 package com.bank.bank_backend.service;
 
+import com.bank.bank_backend.cache.CacheCuentas;
+import com.bank.bank_backend.cache.CacheReportes;
 import com.bank.bank_backend.dto.UpdateClienteRequest;
 import com.bank.bank_backend.dto.CrearClienteRequest;
 import com.bank.bank_backend.entity.Cliente;
@@ -12,9 +14,13 @@ import java.util.List;
 public class ClienteService {
 
     private final ClienteRepository repo;
+    private final CacheCuentas cacheCuentas;
+    private final CacheReportes cacheReportes;
 
-    public ClienteService(ClienteRepository repo) {
+    public ClienteService(ClienteRepository repo, CacheCuentas cacheCuentas, CacheReportes cacheReportes) {
         this.repo = repo;
+        this.cacheCuentas = cacheCuentas;
+        this.cacheReportes = cacheReportes;
     }
 
     public List<Cliente> listar() {
@@ -75,7 +81,10 @@ public class ClienteService {
             existente.setContrasena(safeTrim(req.getContrasena()));
         }
 
-        return repo.save(existente);
+        Cliente guardado = repo.save(existente);
+        cacheCuentas.desalojarCliente(guardado.getClienteId()); // el nombre va en el descriptor
+        cacheReportes.desalojarCliente(guardado.getClienteId());
+        return guardado;
     }
 
     public void eliminar(Long id) {
@@ -84,6 +93,8 @@ public class ClienteService {
             throw new RuntimeException("Cliente no existe");
         }
         repo.deleteById(id);
+        cacheCuentas.desalojarCliente(id);
+        cacheReportes.desalojarCliente(id);
     }
 
     private String safeTrim(String s) {
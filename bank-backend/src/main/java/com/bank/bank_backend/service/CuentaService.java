@@ -1,14 +1,17 @@
 package com.bank.bank_backend.service;
 
+import com.bank.bank_backend.cache.CacheCuentas;
+import com.bank.bank_backend.cache.CacheReportes;
 import com.bank.bank_backend.entity.Cliente;
 import com.bank.bank_backend.entity.Cuenta;
 import com.bank.bank_backend.repository.ClienteRepository;
 import com.bank.bank_backend.repository.CuentaRepository;
 import com.bank.bank_backend.exception.NotFoundException;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.dao.DataIntegrityViolationException;
 import org.springframework.stereotype.Service;
 
 import java.math.BigDecimal;
-import java.security.SecureRandom;
 import java.util.List;
 
 @Service
@@ -16,12 +19,23 @@ public class CuentaService {
 
     private final CuentaRepository cuentaRepo;
     private final ClienteRepository clienteRepo;
+    private final ObjectProvider<MotorPosteo> motorPosteo;
+    private final CacheCuentas cacheCuentas;
+    private final GeneradorNumeroCuenta generadorNumero;
+    private final CacheReportes cacheReportes;
 
-    private final SecureRandom random = new SecureRandom();
+    // Solo ante choques con números heredados (aleatorios) ya existentes
+    private static final int MAX_INTENTOS_NUMERO = 5;
 
-    public CuentaService(CuentaRepository cuentaRepo, ClienteRepository clienteRepo) {
+    public CuentaService(CuentaRepository cuentaRepo, ClienteRepository clienteRepo,
+                         ObjectProvider<MotorPosteo> motorPosteo, CacheCuentas cacheCuentas,
+                         GeneradorNumeroCuenta generadorNumero, CacheReportes cacheReportes) {
         this.cuentaRepo = cuentaRepo;
         this.clienteRepo = clienteRepo;
+        this.motorPosteo = motorPosteo;
+        this.cacheCuentas = cacheCuentas;
+        this.generadorNumero = generadorNumero;
+        this.cacheReportes = cacheReportes;
     }
 
     public List<Cuenta> listar() {
@@ -46,9 +60,6 @@ public class CuentaService {
             throw new RuntimeException("Saldo inicial no puede ser negativo");
         }
 
-        // Numero de cuenta: SIEMPRE lo genera el backend
-        cuenta.setNumeroCuenta(generarNumeroCuentaUnico(9));
-
         // Al crear: saldoActual inicia igual a saldoInicial
         cuenta.setSaldoActual(cuenta.getSaldoInicial());
 
@@ -57,7 +68,15 @@ public class CuentaService {
 
         cuenta.setCliente(cliente);
 
-        return cuentaRepo.save(cuenta);
+        // Numero de cuenta: SIEMPRE lo genera el backend (sin consultar existencia antes)
+        for (int intento = 1; ; intento++) {
+            cuenta.setNumeroCuenta(generadorNumero.siguiente());
+            try {
+                return cuentaRepo.save(cuenta);
+            } catch (DataIntegrityViolationException ex) {
+                if (!esNumeroDuplicado(ex) || intento >= MAX_INTENTOS_NUMERO) throw ex;
+            }
+        }
     }
 
     public Cuenta actualizar(Long cuentaId, Cuenta cambios) {
@@ -74,36 +93,27 @@ public class CuentaService {
         }
 
         // NO permitir cambiar numeroCuenta ni saldos aquí.
-        return cuentaRepo.save(c);
+        Cuenta guardada = cuentaRepo.save(c);
+        cacheCuentas.desalojar(guardada.getNumeroCuenta());
+        motorPosteo.ifAvailable(m -> m.invalidar(guardada.getNumeroCuenta()));
+        return guardada;
     }
 
     public void eliminar(Long cuentaId) {
-        if (!cuentaRepo.existsById(cuentaId)) {
-            throw new NotFoundException("Cuenta no encontrada");
-        }
+        Cuenta c = cuentaRepo.findById(cuentaId)
+                .orElseThrow(() -> new NotFoundException("Cuenta no encontrada"));
         cuentaRepo.deleteById(cuentaId);
+        cacheCuentas.desalojar(c.getNumeroCuenta());
+        cacheReportes.desalojarCuenta(cuentaId);
+        motorPosteo.ifAvailable(m -> m.invalidar(c.getNumeroCuenta()));
     }
 
     // =========================
     // Helpers
     // =========================
 
-    private String generarNumeroCuentaUnico(int digitos) {
-        // 10 intentos: suficiente para esta prueba técnica
-        for (int i = 0; i < 10; i++) {
-            String candidato = generarDigitos(digitos);
-            if (!cuentaRepo.existsByNumeroCuenta(candidato)) {
-                return candidato;
-            }
-        }
-        throw new RuntimeException("No se pudo generar un número de cuenta único. Intente nuevamente.");
-    }
-
-    private String generarDigitos(int digitos) {
-        StringBuilder sb = new StringBuilder(digitos);
-        for (int i = 0; i < digitos; i++) {
-            sb.append(random.nextInt(10));
-        }
-        return sb.toString();
+    private static boolean esNumeroDuplicado(DataIntegrityViolationException ex) {
+        String msg = ex.getMostSpecificCause().getMessage();
+        return msg != null && msg.toLowerCase().contains("uk_numero_cuenta");
     }
 }
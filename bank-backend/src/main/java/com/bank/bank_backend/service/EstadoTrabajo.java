@@ -0,0 +1,11 @@
+package com.bank.bank_backend.service;
+
+/**
+ * Ciclo de vida de un trabajo de reporte asíncrono.
+ */
+public enum EstadoTrabajo {
+    EN_COLA,
+    EN_PROCESO,
+    COMPLETADO,
+    FALLIDO
+}
@@ -0,0 +1,155 @@
+package com.bank.bank_backend.service;
+
+import com.bank.bank_backend.cache.CacheCuentas;
+import com.bank.bank_backend.config.LecturaEnReplica;
+import com.bank.bank_backend.dto.DescriptorCuenta;
+import com.bank.bank_backend.dto.ReporteMovimientoItem;
+import com.bank.bank_backend.dto.ReporteMovimientoUsuarioItem;
+import com.bank.bank_backend.repository.MovimientoRepository;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.Iterator;
+import java.util.stream.Stream;
+
+/**
+ * NUEVO: exportación de movimientos en CSV / NDJSON directo desde el cursor de la base.
+ *
+ * Cada fila se escribe apenas llega del stream (fetch size: bank.reportes.fetch-size) a un buffer
+ * acotado sobre la respuesta: no se arma ninguna lista, así que la memoria no depende del rango.
+ */
+@Service
+@Transactional(readOnly = true)
+@LecturaEnReplica
+public class ExportadorMovimientos {
+
+    // Buffer de escritura: la respuesta sale en chunks de este tamaño
+    private static final int BUFFER = 64 * 1024;
+
+    private static final String CABECERA_CLIENTE =
+            "fecha,cliente,numeroCuenta,tipo,saldoInicial,estado,movimiento,saldoDisponible";
+    private static final String CABECERA_CUENTA = "fecha,tipoMovimiento,valor,saldo";
+
+    private final MovimientoRepository movRepo;
+    private final CacheCuentas cacheCuentas;
+    private final ObjectMapper objectMapper;
+
+    public ExportadorMovimientos(MovimientoRepository movRepo, CacheCuentas cacheCuentas, ObjectMapper objectMapper) {
+        this.movRepo = movRepo;
+        this.cacheCuentas = cacheCuentas;
+        this.objectMapper = objectMapper;
+    }
+
+    public void exportarPorCliente(Long clienteId, LocalDate fechaInicio, LocalDate fechaFin,
+                                   FormatoExportacion formato, OutputStream out) {
+        try (Stream<ReporteMovimientoUsuarioItem> filas = movRepo.streamPorCliente(
+                clienteId, fechaInicio.atStartOfDay(), finDelDia(fechaFin))) {
+            if (formato == FormatoExportacion.CSV) {
+                escribirCsv(out, CABECERA_CLIENTE, filas.iterator(), (w, m) -> {
+                    campo(w, m.getFecha()); w.write(',');
+                    campo(w, m.getCliente()); w.write(',');
+                    campo(w, m.getNumeroCuenta()); w.write(',');
+                    campo(w, m.getTipo()); w.write(',');
+                    campo(w, m.getSaldoInicial()); w.write(',');
+                    campo(w, m.getEstado()); w.write(',');
+                    campo(w, m.getMovimiento()); w.write(',');
+                    campo(w, m.getSaldoDisponible());
+                });
+            } else {
+                escribirNdjson(out, filas.iterator());
+            }
+        }
+    }
+
+    /** Lanza NotFound si la cuenta no existe (llamar antes de empezar a escribir la respuesta). */
+    public DescriptorCuenta cuenta(String numeroCuenta) {
+        return cacheCuentas.obtener(numeroCuenta);
+    }
+
+    public void exportarEstadoCuenta(String numeroCuenta, LocalDate fechaInicio, LocalDate fechaFin,
+                                     FormatoExportacion formato, OutputStream out) {
+        DescriptorCuenta cuenta = cacheCuentas.obtener(numeroCuenta);
+        try (Stream<ReporteMovimientoItem> filas = movRepo.streamEstadoCuenta(
+                cuenta.cuentaId(), fechaInicio.atStartOfDay(), finDelDia(fechaFin))) {
+            if (formato == FormatoExportacion.CSV) {
+                escribirCsv(out, CABECERA_CUENTA, filas.iterator(), (w, m) -> {
+                    campo(w, m.getFecha()); w.write(',');
+                    campo(w, m.getTipoMovimiento()); w.write(',');
+                    campo(w, m.getValor()); w.write(',');
+                    campo(w, m.getSaldo());
+                });
+            } else {
+                escribirNdjson(out, filas.iterator());
+            }
+        }
+    }
+
+    /* ===============================
+       Escritura
+       =============================== */
+
+    @FunctionalInterface
+    private interface EscritorFila<T> {
+        void escribir(Writer w, T fila) throws IOException;
+    }
+
+    private static <T> void escribirCsv(OutputStream out, String cabecera, Iterator<T> filas, EscritorFila<T> fila) {
+        try {
+            Writer w = new BufferedWriter(new OutputStreamWriter(out, StandardCharsets.UTF_8), BUFFER);
+            w.write(cabecera);
+            w.write("\r\n");
+            while (filas.hasNext()) {
+                fila.escribir(w, filas.next());
+                w.write("\r\n");
+            }
+            w.flush(); // sin close: el stream de la respuesta lo cierra quien lo abrió
+        } catch (IOException ex) {
+            throw new UncheckedIOException(ex);
+        }
+    }
+
+    private void escribirNdjson(OutputStream out, Iterator<?> filas) {
+        try {
+            Writer w = new BufferedWriter(new OutputStreamWriter(out, StandardCharsets.UTF_8), BUFFER);
+            JsonGenerator gen = objectMapper.getFactory().createGenerator(w);
+            gen.disable(JsonGenerator.Feature.AUTO_CLOSE_TARGET);
+            while (filas.hasNext()) {
+                objectMapper.writeValue(gen, filas.next());
+                gen.writeRaw('\n');
+            }
+            gen.close();
+            w.flush();
+        } catch (IOException ex) {
+            throw new UncheckedIOException(ex);
+        }
+    }
+
+    // Nulos como campo vacío; comillas solo si el texto lo necesita
+    private static void campo(Writer w, Object valor) throws IOException {
+        if (valor == null) return;
+        String texto = valor instanceof BigDecimal d ? d.toPlainString() : valor.toString();
+        if (texto.indexOf(',') < 0 && texto.indexOf('"') < 0 && texto.indexOf('\n') < 0 && texto.indexOf('\r') < 0) {
+            w.write(texto);
+            return;
+        }
+        w.write('"');
+        w.write(texto.replace("\"", "\"\""));
+        w.write('"');
+    }
+
+    private static LocalDateTime finDelDia(LocalDate fecha) {
+        return fecha.plusDays(1).atStartOfDay().minusNanos(1);
+    }
+}
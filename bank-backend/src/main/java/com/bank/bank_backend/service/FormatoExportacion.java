@@ -0,0 +1,29 @@
+package com.bank.bank_backend.service;
+
+/**
+ * Formatos de exportación de movimientos (una fila por movimiento, escritas en stream).
+ *
+ * - CSV: cabecera + filas separadas por coma (RFC 4180), UTF-8.
+ * - NDJSON: un objeto JSON por línea; se puede procesar línea a línea sin parsear el archivo entero.
+ */
+public enum FormatoExportacion {
+
+    CSV("text/csv", "csv"),
+    NDJSON("application/x-ndjson", "ndjson");
+
+    private final String tipoContenido;
+    private final String extension;
+
+    FormatoExportacion(String tipoContenido, String extension) {
+        this.tipoContenido = tipoContenido;
+        this.extension = extension;
+    }
+
+    public String getTipoContenido() {
+        return tipoContenido;
+    }
+
+    public String getExtension() {
+        return extension;
+    }
+}
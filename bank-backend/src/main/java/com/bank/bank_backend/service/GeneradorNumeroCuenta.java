@@ -0,0 +1,90 @@
+package com.bank.bank_backend.service;
+
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.engine.spi.SessionFactoryImplementor;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+
+/**
+ * Números de cuenta de 9 dígitos sin consultas de existencia:
+ *
+ * - La secuencia cuentas_numero_seq (V1) entrega un índice de bloque; cada bloque son
+ *   {@value #TAMANO_BLOQUE} números consecutivos que se reparten desde memoria.
+ * - El número n (0 .. 10^8-1) se permuta con (A·n + C) mod 10^8, una biyección porque
+ *   A es coprimo con 10^8: así los números no se ven correlativos y nunca se repiten.
+ * - Se agrega un dígito verificador Luhn (8 + 1 = 9 dígitos, igual que antes).
+ *
+ * Los números aleatorios heredados pueden coincidir con alguno generado:
+ * CuentaService reintenta con el siguiente si la restricción uk_numero_cuenta lo rechaza.
+ */
+@Component
+public class GeneradorNumeroCuenta {
+
+    // Fijo: cambiarlo con datos existentes haría que los bloques se solapen
+    static final int TAMANO_BLOQUE = 100;
+
+    static final long ESPACIO = 100_000_000L; // 8 dígitos + verificador
+    private static final long MULTIPLICADOR = 61_803_399L; // impar y no múltiplo de 5
+    private static final long DESPLAZAMIENTO = 27_182_818L;
+
+    private final JdbcTemplate jdbc;
+    private final String siguienteBloque;
+    private final boolean permutar;
+
+    private long siguiente;
+    private long limite; // exclusivo
+
+    public GeneradorNumeroCuenta(JdbcTemplate jdbc,
+                                 EntityManagerFactory emf,
+                                 @Value("${bank.cuentas.numero.permutar:true}") boolean permutar) {
+        this.jdbc = jdbc;
+        this.permutar = permutar;
+        this.siguienteBloque = emf.unwrap(SessionFactoryImplementor.class)
+                .getJdbcServices().getDialect().getSequenceSupport()
+                .getSequenceNextValString("cuentas_numero_seq");
+    }
+
+    public synchronized String siguiente() {
+        if (siguiente >= limite) {
+            Long bloque = jdbc.queryForObject(siguienteBloque, Long.class);
+            if (bloque == null) throw new IllegalStateException("cuentas_numero_seq no devolvió valor");
+            siguiente = (bloque - 1) * TAMANO_BLOQUE;
+            limite = siguiente + TAMANO_BLOQUE;
+            if (limite > ESPACIO) {
+                throw new IllegalStateException("Se agotó el espacio de números de cuenta");
+            }
+        }
+        return numeroPara(siguiente++, permutar);
+    }
+
+    /** Número de cuenta (9 dígitos) para el índice n de la secuencia. */
+    static String numeroPara(long n, boolean permutar) {
+        long base = permutar ? Math.floorMod(MULTIPLICADOR * n + DESPLAZAMIENTO, ESPACIO) : n;
+        String cuerpo = String.format("%08d", base);
+        return cuerpo + digitoLuhn(cuerpo);
+    }
+
+    /** true si el número tiene 9 dígitos y su verificador Luhn es correcto. */
+    public static boolean esValido(String numero) {
+        if (numero == null || numero.length() != 9 || !numero.chars().allMatch(Character::isDigit)) {
+            return false;
+        }
+        return digitoLuhn(numero.substring(0, 8)) == numero.charAt(8) - '0';
+    }
+
+    static int digitoLuhn(String cuerpo) {
+        int suma = 0;
+        boolean duplicar = true; // de derecha a izquierda, empezando junto al verificador
+        for (int i = cuerpo.length() - 1; i >= 0; i--) {
+            int d = cuerpo.charAt(i) - '0';
+            if (duplicar) {
+                d *= 2;
+                if (d > 9) d -= 9;
+            }
+            suma += d;
+            duplicar = !duplicar;
+        }
+        return (10 - suma % 10) % 10;
+    }
+}
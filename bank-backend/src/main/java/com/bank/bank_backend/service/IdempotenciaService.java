@@ -0,0 +1,219 @@
+package com.bank.bank_backend.service;
+
+import com.bank.bank_backend.cache.CacheLru;
+import com.bank.bank_backend.dto.CrearMovimientoRequest;
+import com.bank.bank_backend.entity.ClaveIdempotencia;
+import com.bank.bank_backend.entity.Movimiento;
+import com.bank.bank_backend.exception.BadRequestException;
+import com.bank.bank_backend.exception.ConflictException;
+import com.bank.bank_backend.exception.NotFoundException;
+import com.bank.bank_backend.exception.PosteoPendienteException;
+import com.bank.bank_backend.exception.ServicioNoDisponibleException;
+import com.bank.bank_backend.repository.ClaveIdempotenciaRepository;
+import com.bank.bank_backend.repository.MovimientoRepository;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.ConcurrencyFailureException;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.HexFormat;
+import java.util.Locale;
+import java.util.Optional;
+import java.util.concurrent.*;
+import java.util.function.Function;
+
+/**
+ * Soporte del header Idempotency-Key en POST /movimientos.
+ *
+ * Orden de resolución de una clave:
+ * 1) Cache en memoria (LRU + TTL): devuelve el movimiento original sin tocar la base.
+ * 2) Solicitud en curso con la misma clave en este nodo: se espera su resultado en vez de competir.
+ * 3) Tabla idempotencia_movimientos: si ya se completó, se relee el movimiento (no se toca cuentas).
+ * 4) Clave nueva: se reserva la fila (EN_PROCESO, commit propio) y se postea. El posteo pasa la
+ *    reserva a COMPLETADO con su movimientoId en la misma transacción del movimiento
+ *    (MovimientoService.crear o el group commit de MotorPosteo): quedan los dos o ninguno.
+ *
+ * Si el posteo falla:
+ * - Rechazo seguro (400, 404, conflicto de concurrencia, motor saturado): no se aplicó nada y la reserva se libera.
+ * - Resultado incierto (tiempo agotado, 5xx): la reserva sigue EN_PROCESO y los reintentos reciben 409.
+ *   Si el movimiento se confirma, la clave queda COMPLETADO con él. Si no, pasado
+ *   bank.idempotencia.reserva-vencida-ms la reserva se libera y la clave vuelve a postear
+ *   (completar() solo actúa sobre una reserva EN_PROCESO: un posteo tardío y el nuevo no pueden confirmarse los dos).
+ */
+@Service
+public class IdempotenciaService {
+
+    public static final int LARGO_MAXIMO_CLAVE = 100;
+
+    private record Registro(String huella, Movimiento movimiento) {}
+
+    private final ClaveIdempotenciaRepository claveRepo;
+    private final MovimientoRepository movRepo;
+    private final CacheLru<String, Registro> cache;
+    private final ConcurrentHashMap<String, CompletableFuture<Registro>> enCurso = new ConcurrentHashMap<>();
+
+    @Value("${bank.idempotencia.espera-ms:30000}")
+    private long esperaMs = 30_000;
+
+    @Value("${bank.idempotencia.retencion-horas:24}")
+    private long retencionHoras = 24;
+
+    // Antigüedad a partir de la cual una reserva EN_PROCESO ya no puede completarse
+    @Value("${bank.idempotencia.reserva-vencida-ms:60000}")
+    private long reservaVencidaMs = 60_000;
+
+    public IdempotenciaService(ClaveIdempotenciaRepository claveRepo,
+                               MovimientoRepository movRepo,
+                               @Value("${bank.idempotencia.cache.max-entradas:10000}") int maxEntradas,
+                               @Value("${bank.idempotencia.cache.ttl-minutos:60}") long ttlMinutos) {
+        this.claveRepo = claveRepo;
+        this.movRepo = movRepo;
+        this.cache = new CacheLru<>(maxEntradas, TimeUnit.MINUTES.toMillis(ttlMinutos));
+    }
+
+    /**
+     * @param posteo recibe la clave y debe completarla (ClaveIdempotenciaRepository.completar)
+     *               dentro de la transacción que confirma el movimiento
+     */
+    public Movimiento ejecutar(String clave, CrearMovimientoRequest req, Function<String, Movimiento> posteo) {
+        if (clave == null || clave.isBlank() || clave.length() > LARGO_MAXIMO_CLAVE) {
+            throw new BadRequestException("Idempotency-Key inválida (1 a " + LARGO_MAXIMO_CLAVE + " caracteres)");
+        }
+        String huella = huella(req);
+
+        // 1) Cache
+        Registro enCache = cache.get(clave);
+        if (enCache != null) return verificar(enCache, huella);
+
+        // 2) Duplicado concurrente: esperar al primero
+        CompletableFuture<Registro> propio = new CompletableFuture<>();
+        CompletableFuture<Registro> existente = enCurso.putIfAbsent(clave, propio);
+        if (existente != null) return verificar(esperar(existente), huella);
+
+        try {
+            Registro r = resolver(clave, huella, posteo);
+            propio.complete(r);
+            return r.movimiento();
+        } catch (RuntimeException ex) {
+            propio.completeExceptionally(ex);
+            throw ex;
+        } finally {
+            enCurso.remove(clave, propio);
+        }
+    }
+
+    private Registro resolver(String clave, String huella, Function<String, Movimiento> posteo) {
+        // 3) Tabla (una reserva vencida se descarta y la clave se trata como nueva)
+        LocalDateTime vencimiento = LocalDateTime.now().minus(Duration.ofMillis(reservaVencidaMs));
+        Optional<ClaveIdempotencia> previa = claveRepo.findById(clave);
+        if (previa.isPresent() && vencida(previa.get(), vencimiento)
+                && claveRepo.liberarVencida(clave, vencimiento) > 0) {
+            previa = Optional.empty();
+        }
+        if (previa.isPresent()) {
+            ClaveIdempotencia fila = previa.get();
+            if (!fila.getHuella().equals(huella)) {
+                throw new BadRequestException("Idempotency-Key ya usada con un movimiento distinto");
+            }
+            if (!ClaveIdempotencia.COMPLETADO.equals(fila.getEstado()) || fila.getMovimientoId() == null) {
+                throw new ConflictException("La solicitud con esta Idempotency-Key sigue en proceso");
+            }
+            // Modo journal: la clave se completa antes de que el drenador inserte el movimiento
+            Movimiento original = movRepo.findById(fila.getMovimientoId())
+                    .orElseThrow(() -> new ConflictException("La solicitud con esta Idempotency-Key sigue en proceso"));
+            Registro r = new Registro(huella, original);
+            cache.put(clave, r);
+            return r;
+        }
+
+        // 4) Clave nueva: reservar (otro nodo pudo ganar la carrera → PK duplicada)
+        ClaveIdempotencia reserva = new ClaveIdempotencia();
+        reserva.setClave(clave);
+        reserva.setHuella(huella);
+        reserva.setEstado(ClaveIdempotencia.EN_PROCESO);
+        // Microsegundos: la columna no guarda más, y liberar(...) compara por igualdad
+        reserva.setFechaCreacion(LocalDateTime.now().truncatedTo(ChronoUnit.MICROS));
+        try {
+            claveRepo.saveAndFlush(reserva);
+        } catch (DataIntegrityViolationException ex) {
+            throw new ConflictException("La solicitud con esta Idempotency-Key sigue en proceso");
+        }
+
+        Movimiento m;
+        try {
+            m = posteo.apply(clave);
+        } catch (BadRequestException | NotFoundException | ConcurrencyFailureException ex) {
+            // La transacción del posteo se revirtió (con ella, el completar de la clave)
+            claveRepo.liberar(clave, reserva.getFechaCreacion());
+            throw ex;
+        } catch (ServicioNoDisponibleException ex) {
+            // Saturado o deteniéndose: no llegó a encolarse. Tiempo agotado: puede confirmarse todavía
+            if (!(ex instanceof PosteoPendienteException)) claveRepo.liberar(clave, reserva.getFechaCreacion());
+            throw ex;
+        }
+
+        Registro r = new Registro(huella, m);
+        cache.put(clave, r);
+        return r;
+    }
+
+    private static boolean vencida(ClaveIdempotencia fila, LocalDateTime vencimiento) {
+        return ClaveIdempotencia.EN_PROCESO.equals(fila.getEstado()) && fila.getFechaCreacion().isBefore(vencimiento);
+    }
+
+    private Registro esperar(CompletableFuture<Registro> futuro) {
+        try {
+            return futuro.get(esperaMs, TimeUnit.MILLISECONDS);
+        } catch (ExecutionException ex) {
+            if (ex.getCause() instanceof RuntimeException re) throw re;
+            throw new IllegalStateException(ex.getCause());
+        } catch (TimeoutException ex) {
+            throw new ConflictException("La solicitud con esta Idempotency-Key sigue en proceso");
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Espera interrumpida", ex);
+        }
+    }
+
+    private static Movimiento verificar(Registro registro, String huella) {
+        if (!registro.huella().equals(huella)) {
+            throw new BadRequestException("Idempotency-Key ya usada con un movimiento distinto");
+        }
+        return registro.movimiento();
+    }
+
+    // Purga de claves viejas: pasada la retención, la misma clave vuelve a postear
+    @Scheduled(fixedDelayString = "${bank.idempotencia.purga-ms:3600000}")
+    public void purgar() {
+        LocalDateTime limite = LocalDateTime.now().minusHours(retencionHoras);
+        claveRepo.eliminarAnterioresA(limite);
+        cache.clear();
+    }
+
+    /* ===============================
+       Helpers
+       =============================== */
+
+    // SHA-256 de (cuenta, tipo, valor) normalizados
+    static String huella(CrearMovimientoRequest req) {
+        String tipo = req.getTipoMovimiento() == null ? "" : req.getTipoMovimiento().trim().toLowerCase(Locale.ROOT);
+        BigDecimal valor = req.getValor();
+        String texto = (req.getNumeroCuenta() == null ? "" : req.getNumeroCuenta().trim()) + "|"
+                + tipo + "|"
+                + (valor == null ? "" : valor.stripTrailingZeros().toPlainString());
+        try {
+            byte[] hash = MessageDigest.getInstance("SHA-256").digest(texto.getBytes(StandardCharsets.UTF_8));
+            return HexFormat.of().formatHex(hash);
+        } catch (NoSuchAlgorithmException ex) {
+            throw new IllegalStateException(ex);
+        }
+    }
+}
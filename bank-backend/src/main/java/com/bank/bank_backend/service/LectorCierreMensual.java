@@ -0,0 +1,73 @@
+package com.bank.bank_backend.service;
+
+import com.bank.bank_backend.config.LecturaEnReplica;
+import com.bank.bank_backend.dto.CuentaDeCierre;
+import com.bank.bank_backend.dto.MovimientoDeCuenta;
+import com.bank.bank_backend.dto.ReporteMovimientoItem;
+import com.bank.bank_backend.dto.ResumenPeriodo;
+import com.bank.bank_backend.repository.CuentaRepository;
+import com.bank.bank_backend.repository.MovimientoRepository;
+import org.springframework.data.domain.Limit;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
+
+/**
+ * NUEVO: lecturas de un bloque del cierre mensual (cuentas, movimientos del mes y resúmenes de
+ * saldos_diarios) en una transacción de solo lectura por bloque: van a la réplica si está al día,
+ * y la conexión se suelta antes de que CierreMensualService renderice.
+ */
+@Service
+@Transactional(readOnly = true)
+@LecturaEnReplica
+public class LectorCierreMensual {
+
+    /** Cuentas del bloque (ordenadas por cuentaId) con sus movimientos y resumen del período. */
+    public record Bloque(List<CuentaDeCierre> cuentas,
+                         Map<Long, List<ReporteMovimientoItem>> movimientos,
+                         Map<Long, ResumenPeriodo> resumenes) {
+    }
+
+    private final CuentaRepository cuentaRepo;
+    private final MovimientoRepository movRepo;
+    private final SaldoDiarioService saldosDiarios;
+
+    public LectorCierreMensual(CuentaRepository cuentaRepo,
+                               MovimientoRepository movRepo,
+                               SaldoDiarioService saldosDiarios) {
+        this.cuentaRepo = cuentaRepo;
+        this.movRepo = movRepo;
+        this.saldosDiarios = saldosDiarios;
+    }
+
+    /** Siguiente bloque de cuentas activas después de {@code ultimoCuentaId} (vacío al terminar). */
+    public Bloque leer(long ultimoCuentaId, int tamanoBloque, LocalDate desde, LocalDate hasta) {
+        List<CuentaDeCierre> cuentas = cuentaRepo.activasDesde(ultimoCuentaId, Limit.of(tamanoBloque));
+        if (cuentas.isEmpty()) return new Bloque(cuentas, Map.of(), Map.of());
+
+        Map<Long, BigDecimal> saldosIniciales = new HashMap<>();
+        cuentas.forEach(cuenta -> saldosIniciales.put(cuenta.getCuentaId(), cuenta.getSaldoInicial()));
+
+        Map<Long, List<ReporteMovimientoItem>> movimientos = movRepo.movimientosDeCuentas(
+                        saldosIniciales.keySet(), desde.atStartOfDay(), finDelDia(hasta)).stream()
+                .collect(Collectors.groupingBy(
+                        MovimientoDeCuenta::getCuentaId,
+                        Collectors.mapping(
+                                m -> new ReporteMovimientoItem(m.getFecha(), m.getTipoMovimiento(), m.getValor(), m.getSaldo()),
+                                Collectors.toList())
+                ));
+        Map<Long, ResumenPeriodo> resumenes = saldosDiarios.resumenesDeCuentas(saldosIniciales, desde, hasta);
+        return new Bloque(cuentas, movimientos, resumenes);
+    }
+
+    private static LocalDateTime finDelDia(LocalDate fecha) {
+        return fecha.plusDays(1).atStartOfDay().minusNanos(1);
+    }
+}
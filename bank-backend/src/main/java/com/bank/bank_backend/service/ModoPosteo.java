@@ -0,0 +1,15 @@
+package com.bank.bank_backend.service;
+
+/**
+ * Estrategia con la que MovimientoService aplica un movimiento sobre el saldo de la cuenta.
+ *
+ * - CLASICO: lee la cuenta, calcula el saldo en Java y guarda cuenta + movimiento.
+ *   La versión optimista de Cuenta detecta escrituras concurrentes y el posteo se
+ *   reintenta (ver @ReintentarEnConflicto).
+ * - ATOMICO: valida y actualiza el saldo en una sola sentencia UPDATE condicionada
+ *   (saldo + delta >= 0) y luego inserta el movimiento en la misma transacción.
+ */
+public enum ModoPosteo {
+    CLASICO,
+    ATOMICO
+}
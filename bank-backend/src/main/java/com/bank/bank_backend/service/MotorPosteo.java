@@ -0,0 +1,743 @@
+package com.bank.bank_backend.service;
+
+import com.bank.bank_backend.dto.CrearMovimientoRequest;
+import com.bank.bank_backend.entity.Cuenta;
+import com.bank.bank_backend.entity.Movimiento;
+import com.bank.bank_backend.exception.BadRequestException;
+import com.bank.bank_backend.exception.NotFoundException;
+import com.bank.bank_backend.exception.PosteoPendienteException;
+import com.bank.bank_backend.exception.ServicioNoDisponibleException;
+import com.bank.bank_backend.journal.AplicadorJournal;
+import com.bank.bank_backend.journal.JournalShard;
+import com.bank.bank_backend.journal.RegistroJournal;
+import com.bank.bank_backend.repository.ClaveIdempotenciaRepository;
+import com.bank.bank_backend.repository.CuentaRepository;
+import com.bank.bank_backend.repository.MovimientoRepository;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.dao.DataAccessResourceFailureException;
+import org.springframework.dao.RecoverableDataAccessException;
+import org.springframework.dao.TransientDataAccessException;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.CannotCreateTransactionException;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.math.BigDecimal;
+import java.nio.file.Path;
+import java.time.LocalDateTime;
+import java.util.*;
+import java.util.concurrent.*;
+import java.util.function.Function;
+import java.util.function.Predicate;
+import java.util.stream.Collectors;
+
+/**
+ * NUEVO (opcional): motor de posteo en memoria delante de MovimientoService.
+ *
+ * - Cada numeroCuenta se asigna por hash a uno de N shards; cada shard es un único hilo,
+ *   así una cuenta tiene un solo escritor y no hay contención de locks de fila.
+ * - El shard mantiene en memoria el saldo de las cuentas calientes y valida ahí los débitos.
+ * - Los movimientos aceptados se confirman en grupo (group commit): una transacción
+ *   cada {@code flush-ms} milisegundos o cada {@code flush-items} movimientos.
+ * - El llamador recibe la respuesta recién cuando su grupo quedó confirmado en la base.
+ *
+ * Supone que, con el motor activo, los posteos a una cuenta pasan solo por aquí.
+ * Si otra ruta modifica la cuenta, la versión optimista lo detecta al confirmar:
+ * los movimientos de esa cuenta se rechazan y su saldo se recarga desde la base.
+ *
+ * Con bank.posteo.journal.habilitado=true cambia el momento del acuse:
+ * - Cada movimiento aceptado se agrega a un journal local por shard (segmentos mapeados en memoria)
+ *   con su ID ya reservado de movimientos_seq.
+ * - Al cerrar el grupo se hace un único fsync y se responde al llamador.
+ * - Un drenador por shard aplica luego los registros en la base en lotes JDBC,
+ *   avanzando la marca journal_posteo en la misma transacción.
+ * - Al arrancar se reaplican los registros del journal posteriores a esa marca.
+ * En este modo el motor debe ser el único que postea sobre las cuentas (VerificadorJournal
+ * impide arrancar con transferencias o lotes habilitados). Aun así el drenador no pisa saldos:
+ * - El UPDATE de cada cuenta está condicionado al saldo previo que registra el journal
+ *   y a que ningún saldo sea negativo. Lo que no cumple va al archivo de descartados del shard.
+ * - Un lote que falla {@code reintentos-maximos} veces por otra causa que la falta de conexión
+ *   también va a descartados, y la marca avanza para no trabar el shard.
+ * - Las cuentas con movimientos descartados quedan en conciliación: el motor rechaza
+ *   sus posteos (503) hasta el próximo arranque.
+ *
+ * Idempotency-Key: la reserva de la clave pasa a COMPLETADO en la transacción del group commit.
+ * Con journal no hay lugar para la clave en el registro: se completa (con el ID ya reservado)
+ * antes de escribir el grupo en el journal, y al arrancar se borran las claves cuyo movimiento
+ * no llegó al journal. Mientras el drenador no lo aplica, la clave responde "en proceso".
+ *
+ * Se activa con bank.posteo.motor.habilitado=true.
+ */
+@Service
+@ConditionalOnProperty(name = "bank.posteo.motor.habilitado", havingValue = "true")
+public class MotorPosteo {
+
+    private static final Logger log = LoggerFactory.getLogger(MotorPosteo.class);
+
+    private final CuentaRepository cuentaRepo;
+    private final MovimientoRepository movRepo;
+    private final TransactionTemplate tx;
+    private final AplicadorJournal aplicador;
+    private final SaldoDiarioService saldosDiarios;
+    private final ClaveIdempotenciaRepository claveRepo;
+
+    private final int flushMs;
+    private final int flushItems;
+    private final long timeoutMs;
+    private final int maxCuentasPorShard;
+    private final int reintentosMaximos;
+
+    // Modo journal: cuentas con movimientos acusados que la base rechazó (ver archivo de descartados)
+    private final Set<Long> enConciliacion = ConcurrentHashMap.newKeySet();
+
+    private final Shard[] shards;
+    private volatile boolean activo = true;
+    private volatile boolean drenando = true;
+
+    private static final int LOTE_DRENADO = 2_000;
+
+    public MotorPosteo(
+            CuentaRepository cuentaRepo,
+            MovimientoRepository movRepo,
+            PlatformTransactionManager txManager,
+            @Value("${bank.posteo.motor.shards:4}") int numShards,
+            @Value("${bank.posteo.motor.flush-ms:5}") int flushMs,
+            @Value("${bank.posteo.motor.flush-items:200}") int flushItems,
+            @Value("${bank.posteo.motor.capacidad-cola:10000}") int capacidadCola,
+            @Value("${bank.posteo.motor.timeout-ms:5000}") long timeoutMs,
+            @Value("${bank.posteo.motor.max-cuentas-por-shard:10000}") int maxCuentasPorShard,
+            AplicadorJournal aplicador,
+            @Value("${bank.posteo.journal.habilitado:false}") boolean journalHabilitado,
+            @Value("${bank.posteo.journal.directorio:./data/journal}") String directorioJournal,
+            @Value("${bank.posteo.journal.registros-por-segmento:262144}") int registrosPorSegmento,
+            @Value("${bank.posteo.journal.reintentos-maximos:10}") int reintentosMaximos,
+            SaldoDiarioService saldosDiarios,
+            ClaveIdempotenciaRepository claveRepo
+    ) {
+        this.cuentaRepo = cuentaRepo;
+        this.movRepo = movRepo;
+        this.tx = new TransactionTemplate(txManager);
+        this.aplicador = aplicador;
+        this.saldosDiarios = saldosDiarios;
+        this.claveRepo = claveRepo;
+        this.flushMs = Math.max(1, flushMs);
+        this.flushItems = Math.max(1, flushItems);
+        this.timeoutMs = timeoutMs;
+        this.maxCuentasPorShard = Math.max(1, maxCuentasPorShard);
+        this.reintentosMaximos = Math.max(1, reintentosMaximos);
+
+        this.shards = new Shard[Math.max(1, numShards)];
+        if (journalHabilitado) {
+            Path dir = Path.of(directorioJournal);
+            recuperarJournals(dir, registrosPorSegmento);
+            int huerfanas = claveRepo.eliminarSinMovimiento();
+            if (huerfanas > 0) {
+                log.info("{} Idempotency-Key sin movimiento en el journal liberadas", huerfanas);
+            }
+            for (int i = 0; i < shards.length; i++) {
+                JournalShard journal = JournalShard.abrir(dir, i, registrosPorSegmento, aplicador.marca(i));
+                shards[i] = new Shard(i, capacidadCola, journal);
+            }
+        } else {
+            for (int i = 0; i < shards.length; i++) shards[i] = new Shard(i, capacidadCola, null);
+        }
+        for (Shard shard : shards) shard.iniciar();
+
+        log.info("Motor de posteo iniciado: {} shards, flush cada {} ms o {} movimientos{}",
+                shards.length, this.flushMs, this.flushItems, journalHabilitado ? ", con journal" : "");
+    }
+
+    /** Reaplica en la base lo que quedó en los journals sin aplicar (incluye shards que ya no existen). */
+    private void recuperarJournals(Path dir, int registrosPorSegmento) {
+        Set<Integer> indices = new TreeSet<>(JournalShard.shardsExistentes(dir));
+        for (int i : indices) {
+            JournalShard journal = JournalShard.abrir(dir, i, registrosPorSegmento, aplicador.marca(i));
+            List<RegistroJournal> pendientes = journal.recuperados();
+            for (int desde = 0; desde < pendientes.size(); desde += LOTE_DRENADO) {
+                List<RegistroJournal> lote = pendientes.subList(desde, Math.min(pendientes.size(), desde + LOTE_DRENADO));
+                long marca;
+                try {
+                    marca = aplicarLote(i, journal, lote);
+                } catch (RuntimeException ex) {
+                    if (sinConexion(ex)) throw ex;
+                    log.error("No se pudo reaplicar un lote del journal del shard {}", i, ex);
+                    marca = descartarLote(i, journal, lote, ex);
+                }
+                journal.liberarHasta(marca);
+            }
+            if (!pendientes.isEmpty()) {
+                log.info("Journal del shard {}: {} movimientos reaplicados", i, pendientes.size());
+            }
+            journal.cerrar();
+        }
+    }
+
+    /**
+     * Postea el movimiento y espera a que quede confirmado en la base.
+     * Lanza las mismas excepciones de negocio que MovimientoService.crear.
+     * Cola llena o motor deteniéndose: ServicioNoDisponibleException (503, no se encoló nada).
+     * Tiempo agotado: PosteoPendienteException (503; si el shard aún no la tomó, ya no se aplica).
+     */
+    public Movimiento postear(CrearMovimientoRequest req) {
+        return postear(req, null);
+    }
+
+    /** Igual que {@link #postear(CrearMovimientoRequest)}, completando la Idempotency-Key reservada. */
+    public Movimiento postear(CrearMovimientoRequest req, String claveIdempotencia) {
+        if (req == null) throw new BadRequestException("Request inválido");
+
+        String numeroCuenta = req.getNumeroCuenta();
+        if (numeroCuenta == null || numeroCuenta.trim().isEmpty()) {
+            throw new BadRequestException("numeroCuenta es requerido");
+        }
+
+        Solicitud s = new Solicitud(numeroCuenta.trim(), req, claveIdempotencia);
+        encolar(s);
+
+        try {
+            return s.resultado.get(timeoutMs, TimeUnit.MILLISECONDS);
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof RuntimeException re) throw re;
+            throw new IllegalStateException("Error al postear el movimiento", e.getCause());
+        } catch (TimeoutException e) {
+            // Si el shard todavía no la procesó, la descarta; si ya está en un grupo, puede confirmarse
+            PosteoPendienteException ex = new PosteoPendienteException(
+                    "Tiempo de espera agotado al postear el movimiento, puede confirmarse más tarde");
+            s.resultado.completeExceptionally(ex);
+            throw ex;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Posteo interrumpido");
+        }
+    }
+
+    /**
+     * Descarta el saldo en memoria de la cuenta (p. ej. cambió su estado).
+     * Se procesa en orden dentro del shard, después de lo ya encolado.
+     */
+    public void invalidar(String numeroCuenta) {
+        if (numeroCuenta == null || !activo) return;
+        encolar(new Solicitud(numeroCuenta.trim(), null, null));
+    }
+
+    private void encolar(Solicitud s) {
+        if (!activo) throw new ServicioNoDisponibleException("El motor de posteo se está deteniendo, intente nuevamente");
+        Shard shard = shards[Math.floorMod(s.numeroCuenta.hashCode(), shards.length)];
+        try {
+            if (!shard.cola.offer(s, timeoutMs, TimeUnit.MILLISECONDS)) {
+                throw new ServicioNoDisponibleException("Motor de posteo saturado, intente nuevamente");
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Posteo interrumpido");
+        }
+    }
+
+    @PreDestroy
+    public void detener() throws InterruptedException {
+        activo = false;
+        for (Shard shard : shards) shard.hilo.interrupt();
+        for (Shard shard : shards) shard.hilo.join(10_000);
+
+        // Recién con los shards detenidos no llegan más grupos al drenador
+        drenando = false;
+        for (Shard shard : shards) {
+            if (shard.drenador == null) continue;
+            shard.drenador.hilo.interrupt();
+            shard.drenador.hilo.join(10_000);
+            shard.journal.cerrar();
+        }
+    }
+
+    /* =========================================================
+       Shard: un hilo, una cola, un mapa de saldos
+       ========================================================= */
+
+    private static final class Solicitud {
+        final String numeroCuenta;
+        final CrearMovimientoRequest req; // null = invalidar cache de la cuenta
+        final String clave;               // Idempotency-Key reservada (o null)
+        final CompletableFuture<Movimiento> resultado = new CompletableFuture<>();
+
+        Solicitud(String numeroCuenta, CrearMovimientoRequest req, String clave) {
+            this.numeroCuenta = numeroCuenta;
+            this.req = req;
+            this.clave = clave;
+        }
+    }
+
+    /** Saldo en memoria de una cuenta dentro de su shard. */
+    private static final class EstadoCuenta {
+        final Cuenta fila;         // copia leída de la base (la respuesta en modo journal)
+        final Long cuentaId;
+        final boolean activa;
+        BigDecimal saldo;          // incluye movimientos aceptados aún no confirmados
+        long versionConfirmada;    // versión de la fila tras el último group commit
+        long ultimaSecuencia;      // modo journal: último registro escrito para esta cuenta
+
+        EstadoCuenta(Cuenta c) {
+            this.fila = c;
+            this.cuentaId = c.getCuentaId();
+            this.activa = !Boolean.FALSE.equals(c.getEstado());
+            this.saldo = c.getSaldoActual() == null ? BigDecimal.ZERO : c.getSaldoActual();
+            this.versionConfirmada = c.getVersion();
+        }
+    }
+
+    private record Pendiente(Solicitud solicitud, EstadoCuenta cuenta, Movimiento movimiento) {}
+
+    private final class Shard implements Runnable {
+
+        final int indice;
+        final BlockingQueue<Solicitud> cola;
+        final Thread hilo;
+        final JournalShard journal;   // null sin journal
+        final Drenador drenador;      // null sin journal
+
+        // Bloque de IDs reservado de movimientos_seq (modo journal)
+        long siguienteId = 1;
+        long ultimoId = 0;
+
+        // Orden de acceso -> las menos usadas se descartan primero (solo sin pendientes)
+        final LinkedHashMap<String, EstadoCuenta> cuentas = new LinkedHashMap<>(256, 0.75f, true);
+        final List<Pendiente> pendientes = new ArrayList<>();
+
+        Shard(int indice, int capacidadCola, JournalShard journal) {
+            this.indice = indice;
+            this.cola = new ArrayBlockingQueue<>(Math.max(1, capacidadCola));
+            this.hilo = new Thread(this, "motor-posteo-" + indice);
+            this.hilo.setDaemon(true);
+            this.journal = journal;
+            this.drenador = journal == null ? null : new Drenador(this);
+        }
+
+        void iniciar() {
+            hilo.start();
+            if (drenador != null) drenador.hilo.start();
+        }
+
+        /** Cierra el grupo: con journal se acusa tras el fsync; sin journal, tras el commit. */
+        private void cerrarGrupo() {
+            if (journal != null) acusar();
+            else confirmar();
+        }
+
+        @Override
+        public void run() {
+            while (activo || !cola.isEmpty()) {
+                try {
+                    Solicitud primera = cola.poll(flushMs, TimeUnit.MILLISECONDS);
+                    if (primera == null) continue;
+
+                    procesar(primera);
+                    long limite = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(flushMs);
+
+                    // Junta más solicitudes hasta llenar el grupo o vencer la ventana.
+                    while (pendientes.size() < flushItems) {
+                        long restante = limite - System.nanoTime();
+                        Solicitud s = restante > 0 ? cola.poll(restante, TimeUnit.NANOSECONDS) : cola.poll();
+                        if (s == null) break;
+                        procesar(s);
+                    }
+                } catch (InterruptedException e) {
+                    // detener(): se vacía la cola y se confirma lo pendiente antes de salir
+                } catch (RuntimeException e) {
+                    log.error("Error inesperado en {}", hilo.getName(), e);
+                }
+                cerrarGrupo();
+            }
+            cerrarGrupo();
+        }
+
+        private void procesar(Solicitud s) {
+            if (s.req == null) {
+                // Invalidación: primero se confirma lo pendiente para no perder deltas.
+                cerrarGrupo();
+                if (drenador != null) drenador.esperarHasta(journal.ultimaSecuencia());
+                cuentas.remove(s.numeroCuenta);
+                s.resultado.complete(null);
+                return;
+            }
+
+            if (s.resultado.isDone()) return; // el llamador ya recibió tiempo agotado
+
+            try {
+                BigDecimal delta = MovimientoService.deltaValidado(s.req);
+
+                EstadoCuenta cuenta = cuentas.get(s.numeroCuenta);
+                if (cuenta == null) {
+                    Cuenta c = cuentaRepo.findByNumeroCuenta(s.numeroCuenta)
+                            .orElseThrow(() -> new NotFoundException("Cuenta no encontrada"));
+                    cuenta = new EstadoCuenta(c);
+                    cuentas.put(s.numeroCuenta, cuenta);
+                }
+
+                if (!cuenta.activa) {
+                    throw new BadRequestException("La cuenta está inactiva");
+                }
+                if (enConciliacion.contains(cuenta.cuentaId)) {
+                    throw new ServicioNoDisponibleException(
+                            "La cuenta tiene movimientos pendientes de conciliación, intente más tarde");
+                }
+                BigDecimal saldo = cuenta.saldo.add(delta);
+                if (saldo.compareTo(BigDecimal.ZERO) < 0) {
+                    throw new BadRequestException("Saldo no disponible");
+                }
+
+                Movimiento m = new Movimiento();
+                m.setFecha(LocalDateTime.now());
+                m.setTipoMovimiento(MovimientoService.tipoDe(delta));
+                m.setValor(delta);
+                m.setSaldo(saldo);
+
+                if (journal != null) {
+                    // El registro se escribe al cerrar el grupo (después de completar las claves)
+                    m.setMovimientoId(siguienteId());
+                    m.setCuenta(cuenta.fila);
+                }
+                cuenta.saldo = saldo;
+
+                pendientes.add(new Pendiente(s, cuenta, m));
+            } catch (RuntimeException ex) {
+                s.resultado.completeExceptionally(ex);
+            }
+        }
+
+        /** Group commit de todos los movimientos pendientes del shard. */
+        private void confirmar() {
+            if (pendientes.isEmpty()) return;
+
+            List<Pendiente> grupo = new ArrayList<>(pendientes);
+            pendientes.clear();
+
+            Map<Long, EstadoCuenta> tocadas = grupo.stream()
+                    .collect(Collectors.toMap(p -> p.cuenta().cuentaId, Pendiente::cuenta, (a, b) -> a));
+            Set<Long> rechazadas = new HashSet<>();
+
+            try {
+                Map<Long, Cuenta> confirmadas = tx.execute(status -> {
+                    Map<Long, Cuenta> filas = cuentaRepo.findAllById(tocadas.keySet()).stream()
+                            .collect(Collectors.toMap(Cuenta::getCuentaId, Function.identity()));
+
+                    // Si la fila cambió por fuera del motor, no se pisa: se rechaza esa cuenta.
+                    for (EstadoCuenta e : tocadas.values()) {
+                        Cuenta fila = filas.get(e.cuentaId);
+                        if (fila == null || fila.getVersion() != e.versionConfirmada) {
+                            rechazadas.add(e.cuentaId);
+                        }
+                    }
+                    rechazadas.addAll(conClaveVencida(grupo));
+
+                    List<Movimiento> movimientos = new ArrayList<>(grupo.size());
+                    for (Pendiente p : grupo) {
+                        if (rechazadas.contains(p.cuenta().cuentaId)) continue;
+                        p.movimiento().setCuenta(filas.get(p.cuenta().cuentaId));
+                        movimientos.add(p.movimiento());
+                    }
+                    movRepo.saveAll(movimientos);
+                    completarClaves(grupo, rechazadas);
+
+                    for (EstadoCuenta e : tocadas.values()) {
+                        if (!rechazadas.contains(e.cuentaId)) {
+                            filas.get(e.cuentaId).setSaldoActual(e.saldo);
+                        }
+                    }
+
+                    // El UPDATE versionado de las cuentas va antes que el MERGE de saldos_diarios
+                    cuentaRepo.flush();
+                    saldosDiarios.registrarMovimientos(movimientos);
+                    return filas;
+                });
+
+                for (EstadoCuenta e : tocadas.values()) {
+                    if (!rechazadas.contains(e.cuentaId)) {
+                        e.versionConfirmada = confirmadas.get(e.cuentaId).getVersion();
+                    }
+                }
+
+                for (Pendiente p : grupo) {
+                    if (rechazadas.contains(p.cuenta().cuentaId)) {
+                        // 503: no se aplicó, IdempotenciaService libera la reserva y el reintento postea
+                        p.solicitud().resultado.completeExceptionally(new ServicioNoDisponibleException(
+                                "La cuenta fue modificada fuera del motor de posteo o venció su Idempotency-Key, intente nuevamente"));
+                    } else {
+                        p.solicitud().resultado.complete(p.movimiento());
+                    }
+                }
+            } catch (RuntimeException ex) {
+                log.warn("Falló el group commit de {} movimientos en {}", grupo.size(), hilo.getName(), ex);
+                rechazadas.addAll(tocadas.keySet());
+                for (Pendiente p : grupo) p.solicitud().resultado.completeExceptionally(ex);
+            }
+
+            // Cuentas con rechazo: se recargan desde la base en el próximo uso.
+            cuentas.values().removeIf(e -> rechazadas.contains(e.cuentaId));
+            recortar(Long.MAX_VALUE);
+        }
+
+        /**
+         * Modo journal: completa las Idempotency-Key del grupo, lo escribe en el journal,
+         * hace un fsync para todo el grupo, acusa y lo pasa al drenador.
+         */
+        private void acusar() {
+            if (pendientes.isEmpty()) return;
+
+            List<Pendiente> grupo = new ArrayList<>(pendientes);
+            pendientes.clear();
+
+            // Las claves se completan antes de escribir el registro: nada queda en el journal sin su clave
+            Set<Long> rechazadas;
+            try {
+                rechazadas = grupo.stream().anyMatch(p -> p.solicitud().clave != null)
+                        ? tx.execute(status -> {
+                            Set<Long> vencidas = conClaveVencida(grupo);
+                            completarClaves(grupo, vencidas);
+                            return vencidas;
+                        })
+                        : Set.of();
+            } catch (RuntimeException ex) {
+                log.warn("No se pudieron completar las Idempotency-Key del grupo en {}", hilo.getName(), ex);
+                descartar(grupo, p -> true, ex);
+                return;
+            }
+            descartar(grupo, p -> rechazadas.contains(p.cuenta().cuentaId), new ServicioNoDisponibleException(
+                    "Venció la Idempotency-Key de un movimiento de la cuenta, intente nuevamente"));
+
+            List<Pendiente> aceptados = grupo.stream()
+                    .filter(p -> !rechazadas.contains(p.cuenta().cuentaId)).toList();
+            if (aceptados.isEmpty()) return;
+
+            List<RegistroJournal> registros = new ArrayList<>(aceptados.size());
+            try {
+                for (Pendiente p : aceptados) {
+                    Movimiento m = p.movimiento();
+                    RegistroJournal r = journal.agregar(
+                            m.getMovimientoId(), p.cuenta().cuentaId, m.getValor(), m.getSaldo(), m.getFecha());
+                    p.cuenta().ultimaSecuencia = r.secuencia();
+                    registros.add(r);
+                }
+                journal.forzar();
+            } catch (RuntimeException ex) {
+                // Sin fsync no hay garantía: se rechaza el grupo y las cuentas se recargan
+                log.error("Falló el fsync del journal en {}", hilo.getName(), ex);
+                for (Pendiente p : aceptados) {
+                    p.solicitud().resultado.completeExceptionally(ex);
+                    cuentas.remove(p.solicitud().numeroCuenta);
+                }
+                return;
+            }
+
+            for (Pendiente p : aceptados) {
+                p.cuenta().fila.setSaldoActual(p.cuenta().saldo);
+                p.solicitud().resultado.complete(p.movimiento());
+            }
+            drenador.encolar(registros);
+            recortar(drenador.aplicada);
+        }
+
+        /**
+         * Rechaza los pendientes elegidos sin haberlos escrito: se descuenta del saldo en memoria
+         * lo que aportaron. Los demás pendientes de esas cuentas se rechazan también,
+         * porque su saldo se calculó sobre los descartados.
+         */
+        private void descartar(List<Pendiente> grupo, Predicate<Pendiente> cuales,
+                               RuntimeException motivo) {
+            Set<Long> cuentasDescartadas = new HashSet<>();
+            for (Pendiente p : grupo) {
+                if (cuales.test(p)) cuentasDescartadas.add(p.cuenta().cuentaId);
+            }
+            for (Pendiente p : grupo) {
+                if (!cuentasDescartadas.contains(p.cuenta().cuentaId)) continue;
+                p.cuenta().saldo = p.cuenta().saldo.subtract(p.movimiento().getValor());
+                p.solicitud().resultado.completeExceptionally(motivo);
+            }
+        }
+
+        /** Recorta el mapa a su tamaño máximo sin descartar cuentas con registros sin aplicar. */
+        private void recortar(long aplicada) {
+            Iterator<EstadoCuenta> it = cuentas.values().iterator();
+            while (cuentas.size() > maxCuentasPorShard && it.hasNext()) {
+                if (it.next().ultimaSecuencia <= aplicada) it.remove();
+            }
+        }
+
+        private long siguienteId() {
+            if (siguienteId > ultimoId) {
+                long[] bloque = aplicador.reservarIds(Movimiento.BLOQUE_IDS);
+                siguienteId = bloque[0];
+                ultimoId = bloque[1];
+            }
+            return siguienteId++;
+        }
+    }
+
+    /* =========================================================
+       Idempotency-Key dentro del group commit
+       ========================================================= */
+
+    /** Cuentas con algún pendiente cuya reserva de Idempotency-Key ya no está EN_PROCESO. */
+    private Set<Long> conClaveVencida(List<Pendiente> grupo) {
+        List<String> claves = grupo.stream().map(p -> p.solicitud().clave).filter(Objects::nonNull).toList();
+        if (claves.isEmpty()) return new HashSet<>();
+
+        Set<String> vigentes = claveRepo.clavesEnProceso(claves);
+        Set<Long> cuentas = new HashSet<>();
+        for (Pendiente p : grupo) {
+            String clave = p.solicitud().clave;
+            if (clave != null && !vigentes.contains(clave)) cuentas.add(p.cuenta().cuentaId);
+        }
+        return cuentas;
+    }
+
+    private void completarClaves(List<Pendiente> grupo, Set<Long> rechazadas) {
+        for (Pendiente p : grupo) {
+            String clave = p.solicitud().clave;
+            if (clave != null && !rechazadas.contains(p.cuenta().cuentaId)) {
+                claveRepo.completar(clave, p.movimiento().getMovimientoId());
+            }
+        }
+    }
+
+    /* =========================================================
+       Modo journal: lotes que la base no acepta
+       ========================================================= */
+
+    /** Aplica el lote; lo que rechaza la guarda de saldo va a descartados antes de avanzar la marca. */
+    private long aplicarLote(int shard, JournalShard journal, List<RegistroJournal> lote) {
+        return aplicador.aplicar(shard, lote, rechazados -> enviarADescartados(shard, journal, rechazados,
+                "El saldo de la cuenta en la base no coincide con el journal o quedaría negativo"));
+    }
+
+    /** Envía el lote entero a descartados y avanza la marca hasta su último registro. */
+    private long descartarLote(int shard, JournalShard journal, List<RegistroJournal> lote, RuntimeException causa) {
+        enviarADescartados(shard, journal, lote, String.valueOf(causa));
+        return aplicador.saltar(shard, lote.get(lote.size() - 1).secuencia());
+    }
+
+    private void enviarADescartados(int shard, JournalShard journal, List<RegistroJournal> registros, String motivo) {
+        journal.descartar(registros, motivo);
+        registros.forEach(r -> enConciliacion.add(r.cuentaId()));
+        log.error("{} movimientos del journal del shard {} enviados a descartados ({}): {}",
+                registros.size(), shard, motivo, registros.stream().map(RegistroJournal::cuentaId).distinct().toList());
+    }
+
+    // Base caída o inaccesible: el lote no tiene la culpa, se reintenta sin límite
+    static boolean sinConexion(Throwable ex) {
+        for (Throwable t = ex; t != null; t = t.getCause()) {
+            if (t instanceof CannotCreateTransactionException
+                    || t instanceof DataAccessResourceFailureException
+                    || t instanceof TransientDataAccessException
+                    || t instanceof RecoverableDataAccessException) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /* =========================================================
+       Drenador: aplica en la base lo ya acusado desde el journal
+       ========================================================= */
+
+    private final class Drenador implements Runnable {
+
+        final Shard shard;
+        final Thread hilo;
+        final BlockingQueue<List<RegistroJournal>> cola = new LinkedBlockingQueue<>(1_024);
+        volatile long aplicada;
+
+        Drenador(Shard shard) {
+            this.shard = shard;
+            this.hilo = new Thread(this, "motor-posteo-drenador-" + shard.indice);
+            this.hilo.setDaemon(true);
+            this.aplicada = shard.journal.ultimaSecuencia(); // lo previo ya se reaplicó al arrancar
+        }
+
+        void encolar(List<RegistroJournal> registros) {
+            try {
+                cola.put(registros); // contrapresión si la base no da abasto
+            } catch (InterruptedException e) {
+                // detener(): el grupo ya está en el journal, se reaplica al arrancar
+                Thread.currentThread().interrupt();
+            }
+        }
+
+        @Override
+        public void run() {
+            List<RegistroJournal> lote = new ArrayList<>();
+            while (drenando || !cola.isEmpty()) {
+                try {
+                    List<RegistroJournal> primero = cola.poll(flushMs, TimeUnit.MILLISECONDS);
+                    if (primero == null) continue;
+                    lote.addAll(primero);
+                    List<List<RegistroJournal>> mas = new ArrayList<>();
+                    cola.drainTo(mas, LOTE_DRENADO);
+                    mas.forEach(lote::addAll);
+
+                    aplicarConReintento(lote);
+                    lote.clear();
+                } catch (InterruptedException e) {
+                    // detener(): se vacía la cola antes de salir
+                }
+            }
+        }
+
+        private void aplicarConReintento(List<RegistroJournal> lote) throws InterruptedException {
+            long espera = 10;
+            for (int intento = 1; ; intento++) {
+                try {
+                    avanzar(aplicarLote(shard.indice, shard.journal, lote));
+                    return;
+                } catch (RuntimeException ex) {
+                    if (intento >= reintentosMaximos && !sinConexion(ex)) {
+                        // Falla siempre igual: trabaría el shard para siempre
+                        log.error("Lote del journal del shard {} descartado tras {} intentos",
+                                shard.indice, intento, ex);
+                        try {
+                            avanzar(descartarLote(shard.indice, shard.journal, lote, ex));
+                            return;
+                        } catch (RuntimeException ex2) {
+                            log.warn("No se pudo descartar el lote del shard {}, reintentando", shard.indice, ex2);
+                        }
+                    } else {
+                        // Los registros siguen en el journal: se reintenta (o se reaplican al arrancar)
+                        log.warn("No se pudo aplicar el journal del shard {} (intento {}), reintentando",
+                                shard.indice, intento, ex);
+                    }
+                    if (!drenando) return;
+                    Thread.sleep(espera);
+                    espera = Math.min(espera * 2, 1_000);
+                }
+            }
+        }
+
+        private void avanzar(long marca) {
+            synchronized (this) {
+                aplicada = marca;
+                notifyAll();
+            }
+            shard.journal.liberarHasta(marca);
+        }
+
+        /** Bloquea hasta que la base tenga aplicados los registros hasta la secuencia dada. */
+        synchronized void esperarHasta(long secuencia) {
+            long limite = System.currentTimeMillis() + timeoutMs;
+            while (aplicada < secuencia) {
+                long restante = limite - System.currentTimeMillis();
+                if (restante <= 0) {
+                    log.warn("El drenador del shard {} no alcanzó la secuencia {}", shard.indice, secuencia);
+                    return;
+                }
+                try {
+                    wait(restante);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    return;
+                }
+            }
+        }
+    }
+}
@@ -0,0 +1,149 @@
+package com.bank.bank_backend.service;
+
+import com.bank.bank_backend.dto.CrearMovimientoRequest;
+import com.bank.bank_backend.dto.ResultadoMovimientoLote;
+import com.bank.bank_backend.exception.BadRequestException;
+import com.bank.bank_backend.exception.NotFoundException;
+import com.bank.bank_backend.exception.ServicioNoDisponibleException;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.ConcurrencyFailureException;
+import org.springframework.stereotype.Service;
+
+import java.util.*;
+
+/**
+ * NUEVO: posteo masivo (planillas, archivos de compensación).
+ *
+ * - Agrupa los ítems por número de cuenta respetando el orden de llegada.
+ * - Cada grupo se aplica en su propia transacción (MovimientoService.crearLote),
+ *   así una cuenta inexistente o un conflicto solo afecta a los ítems de esa cuenta.
+ * - Devuelve un resultado por ítem, en el mismo orden del lote recibido, también cuando
+ *   un grupo falla de forma inesperada (los grupos anteriores ya quedaron confirmados).
+ * - Los ítems se leen en bloques de {@code tamano-bloque}: un NDJSON se procesa a medida
+ *   que llega, sin cargar el lote entero en memoria. El orden por cuenta se conserva entre bloques.
+ * - Postea por MovimientoService, fuera del motor: con su journal activo se deshabilita
+ *   (bank.movimientos.lote.habilitado=false, ver VerificadorJournal).
+ */
+@Service
+public class MovimientoLoteService {
+
+    private static final Logger log = LoggerFactory.getLogger(MovimientoLoteService.class);
+
+    private final MovimientoService movimientoService;
+
+    @Value("${bank.movimientos.lote.habilitado:true}")
+    private boolean habilitado = true;
+
+    @Value("${bank.movimientos.lote.max-items:100000}")
+    private int maxItems = 100_000;
+
+    @Value("${bank.movimientos.lote.tamano-bloque:1000}")
+    private int tamanoBloque = 1_000;
+
+    public MovimientoLoteService(MovimientoService movimientoService) {
+        this.movimientoService = movimientoService;
+    }
+
+    public List<ResultadoMovimientoLote> procesar(List<CrearMovimientoRequest> items) {
+        if (items != null && items.size() > maxItems) {
+            throw new BadRequestException("El lote supera el máximo de " + maxItems + " movimientos");
+        }
+        return procesarStream(items == null ? Collections.emptyIterator() : items.iterator());
+    }
+
+    /**
+     * Procesa los ítems a medida que el iterador los entrega.
+     * Si un ítem no se puede leer (BadRequestException del iterador) o el lote supera max-items:
+     * - sin nada confirmado todavía, se responde 400;
+     * - con bloques ya confirmados, ese ítem queda como ERROR al final de la respuesta
+     *   y los siguientes no se leen. Todo lo anterior tiene su resultado.
+     */
+    public List<ResultadoMovimientoLote> procesarStream(Iterator<CrearMovimientoRequest> items) {
+        if (!habilitado) throw new ServicioNoDisponibleException("Posteo por lotes deshabilitado en este nodo");
+        List<ResultadoMovimientoLote> resultados = new ArrayList<>();
+        List<CrearMovimientoRequest> bloque = new ArrayList<>();
+        ResultadoMovimientoLote corte = null;
+
+        while (true) {
+            CrearMovimientoRequest req;
+            int indice = resultados.size() + bloque.size();
+            try {
+                if (!items.hasNext()) break;
+                req = items.next();
+                if (indice == maxItems) {
+                    throw new BadRequestException("El lote supera el máximo de " + maxItems + " movimientos");
+                }
+            } catch (BadRequestException ex) {
+                if (resultados.isEmpty()) throw ex; // nada confirmado todavía
+                corte = ResultadoMovimientoLote.error(indice, null,
+                        ex.getMessage() + "; este ítem y los siguientes no se procesaron");
+                break;
+            }
+
+            bloque.add(req);
+            if (bloque.size() == tamanoBloque) {
+                procesarBloque(bloque, resultados);
+                bloque.clear();
+            }
+        }
+
+        if (!bloque.isEmpty()) procesarBloque(bloque, resultados);
+        if (corte != null) resultados.add(corte);
+        if (resultados.isEmpty()) {
+            throw new BadRequestException("El lote no contiene movimientos");
+        }
+        return resultados;
+    }
+
+    /** Aplica un bloque agrupado por cuenta y agrega sus resultados (índices relativos al lote). */
+    private void procesarBloque(List<CrearMovimientoRequest> items, List<ResultadoMovimientoLote> salida) {
+        int base = salida.size();
+        ResultadoMovimientoLote[] resultados = new ResultadoMovimientoLote[items.size()];
+
+        // numeroCuenta -> índices (en orden) dentro del bloque
+        Map<String, List<Integer>> grupos = new LinkedHashMap<>();
+        for (int i = 0; i < items.size(); i++) {
+            CrearMovimientoRequest req = items.get(i);
+            String numero = req == null ? null : req.getNumeroCuenta();
+            if (numero == null || numero.trim().isEmpty()) {
+                resultados[i] = ResultadoMovimientoLote.error(base + i, numero, "numeroCuenta es requerido");
+                continue;
+            }
+            grupos.computeIfAbsent(numero.trim(), k -> new ArrayList<>()).add(i);
+        }
+
+        for (Map.Entry<String, List<Integer>> grupo : grupos.entrySet()) {
+            String numeroCuenta = grupo.getKey();
+            List<Integer> indices = grupo.getValue();
+            List<CrearMovimientoRequest> reqs = indices.stream().map(items::get).toList();
+
+            try {
+                List<ResultadoMovimientoLote> parciales = movimientoService.crearLote(numeroCuenta, reqs);
+                for (int k = 0; k < parciales.size(); k++) {
+                    ResultadoMovimientoLote r = parciales.get(k);
+                    r.setIndice(base + indices.get(k)); // índice relativo -> índice del lote
+                    resultados[indices.get(k)] = r;
+                }
+            } catch (NotFoundException | BadRequestException ex) {
+                marcarError(resultados, base, indices, numeroCuenta, ex.getMessage());
+            } catch (ConcurrencyFailureException ex) {
+                marcarError(resultados, base, indices, numeroCuenta, "Conflicto de concurrencia, reintente estos movimientos");
+            } catch (RuntimeException ex) {
+                // La transacción del grupo se revirtió; los demás grupos siguen
+                log.error("Error inesperado al postear el lote de la cuenta {}", numeroCuenta, ex);
+                marcarError(resultados, base, indices, numeroCuenta, "Error inesperado, estos movimientos no se aplicaron");
+            }
+        }
+
+        salida.addAll(Arrays.asList(resultados));
+    }
+
+    private void marcarError(ResultadoMovimientoLote[] resultados, int base, List<Integer> indices,
+                             String numeroCuenta, String mensaje) {
+        for (int i : indices) {
+            resultados[i] = ResultadoMovimientoLote.error(base + i, numeroCuenta, mensaje);
+        }
+    }
+}
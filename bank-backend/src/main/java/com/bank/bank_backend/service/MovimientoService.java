@@ -1,30 +1,125 @@
 package com.bank.bank_backend.service;
 
+import com.bank.bank_backend.cache.CacheCuentas;
+import com.bank.bank_backend.config.LecturaEnReplica;
+import com.bank.bank_backend.config.ReintentarEnConflicto;
 import com.bank.bank_backend.dto.CrearMovimientoRequest;
+import com.bank.bank_backend.dto.CursorMovimiento;
+import com.bank.bank_backend.dto.DescriptorCuenta;
+import com.bank.bank_backend.dto.PaginaMovimientos;
+import com.bank.bank_backend.dto.ResultadoMovimientoLote;
 import com.bank.bank_backend.entity.Cuenta;
 import com.bank.bank_backend.entity.Movimiento;
 import com.bank.bank_backend.exception.BadRequestException;
+import com.bank.bank_backend.exception.ConflictException;
 import com.bank.bank_backend.exception.NotFoundException;
+import com.bank.bank_backend.repository.ClaveIdempotenciaRepository;
 import com.bank.bank_backend.repository.CuentaRepository;
 import com.bank.bank_backend.repository.MovimientoRepository;
+import jakarta.persistence.EntityManager;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.Limit;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
 import java.math.BigDecimal;
 import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
 
 @Service
 public class MovimientoService {
 
     private final CuentaRepository cuentaRepo;
     private final MovimientoRepository movRepo;
+    private final CacheCuentas cacheCuentas;
+    private final SaldoDiarioService saldosDiarios;
+    private final ClaveIdempotenciaRepository claveRepo;
+    private final EntityManager em;
 
-    public MovimientoService(CuentaRepository cuentaRepo, MovimientoRepository movRepo) {
+    // Estrategia de posteo (configurable: bank.movimientos.modo-posteo)
+    @Value("${bank.movimientos.modo-posteo:CLASICO}")
+    private ModoPosteo modoPosteo = ModoPosteo.CLASICO;
+
+    // Paginación de GET /movimientos/cuenta/{numeroCuenta}
+    @Value("${bank.paginacion.tamano-por-defecto:100}")
+    private int tamanoPorDefecto = 100;
+
+    @Value("${bank.paginacion.tamano-maximo:1000}")
+    private int tamanoMaximo = 1000;
+
+    // crearLote: cada cuántos movimientos se vacía el contexto de persistencia (= lote JDBC)
+    @Value("${spring.jpa.properties.hibernate.jdbc.batch_size:50}")
+    private int tamanoLoteJdbc = 50;
+
+    public MovimientoService(CuentaRepository cuentaRepo, MovimientoRepository movRepo,
+                             CacheCuentas cacheCuentas, SaldoDiarioService saldosDiarios,
+                             ClaveIdempotenciaRepository claveRepo, EntityManager em) {
         this.cuentaRepo = cuentaRepo;
         this.movRepo = movRepo;
+        this.cacheCuentas = cacheCuentas;
+        this.saldosDiarios = saldosDiarios;
+        this.claveRepo = claveRepo;
+        this.em = em;
+    }
+
+    /**
+     * Todos los movimientos de una cuenta en orden (fecha, movimientoId), sin paginar:
+     * el listado de siempre, para los clientes que no piden cursor ni límite.
+     */
+    @Transactional(readOnly = true)
+    @LecturaEnReplica
+    public List<Movimiento> listarPorCuenta(String numeroCuenta) {
+        return cacheCuentas.buscar(numeroCuenta)
+                .map(c -> movRepo.primeraPaginaPorCuenta(c.cuentaId(), Limit.unlimited()))
+                .orElse(List.of());
+    }
+
+    /**
+     * NUEVO: movimientos de una cuenta por keyset sobre (fecha, movimientoId).
+     * Se pide una fila de más para saber si hay página siguiente sin contar.
+     * Una cuenta inexistente devuelve página vacía (igual que el listado anterior).
+     */
+    @Transactional(readOnly = true)
+    @LecturaEnReplica
+    public PaginaMovimientos<Movimiento> listarPorCuenta(String numeroCuenta, String cursor, Integer limite) {
+        int tamano = PaginaMovimientos.tamano(limite, tamanoPorDefecto, tamanoMaximo);
+        CursorMovimiento despuesDe = CursorMovimiento.decodificar(cursor);
+
+        Optional<DescriptorCuenta> cuenta = cacheCuentas.buscar(numeroCuenta);
+        if (cuenta.isEmpty()) return new PaginaMovimientos<>(List.of(), null);
+
+        Long cuentaId = cuenta.get().cuentaId();
+        List<Movimiento> filas = despuesDe == null
+                ? movRepo.primeraPaginaPorCuenta(cuentaId, Limit.of(tamano + 1))
+                : movRepo.paginaPorCuentaDesde(cuentaId, despuesDe.fecha(), despuesDe.movimientoId(), Limit.of(tamano + 1));
+
+        if (filas.size() <= tamano) return new PaginaMovimientos<>(filas, null);
+
+        List<Movimiento> pagina = filas.subList(0, tamano);
+        Movimiento ultimo = pagina.get(tamano - 1);
+        return new PaginaMovimientos<>(pagina,
+                new CursorMovimiento(ultimo.getFecha(), ultimo.getMovimientoId()).codificar());
+    }
+
+    /**
+     * NUEVO: posteo con Idempotency-Key ya reservada (IdempotenciaService).
+     * La reserva pasa a COMPLETADO en la misma transacción del movimiento; si ya no está
+     * EN_PROCESO (venció y otra solicitud la tomó), el movimiento se revierte.
+     */
+    @Transactional
+    @ReintentarEnConflicto
+    public Movimiento crear(CrearMovimientoRequest req, String claveIdempotencia) {
+        Movimiento m = crear(req);
+        if (claveIdempotencia != null && claveRepo.completar(claveIdempotencia, m.getMovimientoId()) == 0) {
+            throw new ConflictException("La reserva de esta Idempotency-Key ya no está vigente");
+        }
+        return m;
     }
 
     @Transactional
+    @ReintentarEnConflicto
     public Movimiento crear(CrearMovimientoRequest req) {
         if (req == null) throw new BadRequestException("Request inválido");
 
@@ -33,6 +128,10 @@ public class MovimientoService {
             throw new BadRequestException("numeroCuenta es requerido");
         }
 
+        if (modoPosteo == ModoPosteo.ATOMICO) {
+            return crearAtomico(numeroCuenta.trim(), req);
+        }
+
         Cuenta cuenta = cuentaRepo.findByNumeroCuenta(numeroCuenta.trim())
                 .orElseThrow(() -> new NotFoundException("Cuenta no encontrada"));
 
@@ -80,10 +179,166 @@ public class MovimientoService {
         cuenta.setSaldoActual(saldoNuevo);
         cuentaRepo.save(cuenta);
 
+        // NUEVO: primero el UPDATE de la cuenta (toma el lock de la fila), después el snapshot del día
+        cuentaRepo.flush();
+        saldosDiarios.registrar(guardado);
+
+        return guardado;
+    }
+
+    /**
+     * NUEVO: aplica EN ORDEN un grupo de movimientos de una misma cuenta en una sola transacción.
+     * - La cuenta se lee una vez y queda bloqueada (FOR UPDATE) mientras dura el grupo.
+     * - Cada ítem se valida por separado: uno inválido o sin saldo no invalida a los demás.
+     * - Los movimientos aceptados se insertan en lotes JDBC y la cuenta se actualiza una vez.
+     *   Cada batch_size movimientos se hace flush + clear: un grupo grande no queda entero en el contexto.
+     *
+     * El índice de cada resultado es la posición dentro de {@code items}.
+     */
+    @Transactional
+    @ReintentarEnConflicto
+    public List<ResultadoMovimientoLote> crearLote(String numeroCuenta, List<CrearMovimientoRequest> items) {
+        Cuenta cuenta = cuentaRepo.findByNumeroCuentaParaActualizar(numeroCuenta)
+                .orElseThrow(() -> new NotFoundException("Cuenta no encontrada"));
+
+        if (Boolean.FALSE.equals(cuenta.getEstado())) {
+            throw new BadRequestException("La cuenta está inactiva");
+        }
+
+        BigDecimal saldo = cuenta.getSaldoActual() == null ? BigDecimal.ZERO : cuenta.getSaldoActual();
+        LocalDateTime ahora = LocalDateTime.now();
+
+        List<ResultadoMovimientoLote> resultados = new ArrayList<>(items.size());
+        List<Movimiento> aceptados = new ArrayList<>(items.size());
+        List<Integer> indicesAceptados = new ArrayList<>(items.size());
+
+        for (int i = 0; i < items.size(); i++) {
+            CrearMovimientoRequest req = items.get(i);
+            try {
+                BigDecimal delta = deltaValidado(req);
+                String tipoNorm = tipoDe(delta);
+                if (saldo.add(delta).compareTo(BigDecimal.ZERO) < 0) {
+                    throw new BadRequestException("Saldo no disponible");
+                }
+                saldo = saldo.add(delta);
+
+                Movimiento m = new Movimiento();
+                m.setFecha(ahora);
+                m.setTipoMovimiento(tipoNorm);
+                m.setValor(delta);
+                m.setSaldo(saldo);
+                m.setCuenta(cuenta);
+
+                aceptados.add(m);
+                indicesAceptados.add(i);
+                resultados.add(null); // se completa luego del saveAll
+            } catch (BadRequestException ex) {
+                resultados.add(ResultadoMovimientoLote.error(i, numeroCuenta, ex.getMessage()));
+            }
+        }
+
+        if (!aceptados.isEmpty()) {
+            for (int desde = 0; desde < aceptados.size(); desde += tamanoLoteJdbc) {
+                List<Movimiento> tramo = aceptados.subList(desde, Math.min(aceptados.size(), desde + tamanoLoteJdbc));
+                movRepo.saveAll(tramo);
+                for (int k = 0; k < tramo.size(); k++) {
+                    Movimiento g = tramo.get(k);
+                    int i = indicesAceptados.get(desde + k);
+                    resultados.set(i, ResultadoMovimientoLote.ok(
+                            i, numeroCuenta, g.getMovimientoId(), g.getTipoMovimiento(), g.getValor(), g.getSaldo()));
+                }
+                em.flush();
+                em.clear(); // la cuenta queda desacoplada: el save de abajo la vuelve a unir (merge)
+            }
+
+            cuenta.setSaldoActual(saldo);
+            cuentaRepo.save(cuenta);
+
+            // La cuenta ya está bloqueada (FOR UPDATE): un solo batch para todo el grupo
+            saldosDiarios.registrarMovimientos(aceptados);
+        }
+
+        return resultados;
+    }
+
+    public ModoPosteo getModoPosteo() {
+        return modoPosteo;
+    }
+
+    public void setModoPosteo(ModoPosteo modoPosteo) {
+        this.modoPosteo = modoPosteo == null ? ModoPosteo.CLASICO : modoPosteo;
+    }
+
+    /* =========================================================
+       NUEVO: posteo atómico
+       - El chequeo de saldo y la actualización van en un único UPDATE condicionado,
+         así dos débitos concurrentes no pueden pisarse (sin lost updates).
+       - La fila de la cuenta queda bloqueada por el UPDATE hasta el commit,
+         por eso el saldo leído después es exactamente el que dejó este movimiento.
+       ========================================================= */
+
+    private Movimiento crearAtomico(String numeroCuenta, CrearMovimientoRequest req) {
+        BigDecimal delta = deltaValidado(req);
+        String tipoNorm = tipoDe(delta);
+
+        // Existencia y estado salen de la cache: resolver numeroCuenta ya no cuesta un SELECT.
+        DescriptorCuenta descriptor = cacheCuentas.obtener(numeroCuenta);
+        if (!descriptor.activa()) {
+            throw new BadRequestException("La cuenta está inactiva");
+        }
+
+        if (cuentaRepo.aplicarDelta(descriptor.cuentaId(), delta) == 0) {
+            // Solo en el camino de error averiguamos el motivo exacto (la cache pudo estar vieja).
+            Cuenta cuenta = cuentaRepo.findById(descriptor.cuentaId()).orElse(null);
+            if (cuenta == null) {
+                cacheCuentas.desalojar(numeroCuenta);
+                throw new NotFoundException("Cuenta no encontrada");
+            }
+            if (Boolean.FALSE.equals(cuenta.getEstado())) {
+                cacheCuentas.desalojar(numeroCuenta);
+                throw new BadRequestException("La cuenta está inactiva");
+            }
+            throw new BadRequestException("Saldo no disponible");
+        }
+
+        Cuenta cuenta = cuentaRepo.findById(descriptor.cuentaId())
+                .orElseThrow(() -> new NotFoundException("Cuenta no encontrada"));
+
+        Movimiento m = new Movimiento();
+        m.setFecha(LocalDateTime.now());
+        m.setTipoMovimiento(tipoNorm);
+        m.setValor(delta);
+        m.setSaldo(cuenta.getSaldoActual()); // ya incluye este movimiento
+        m.setCuenta(cuenta);
+
+        Movimiento guardado = movRepo.save(m);
+        saldosDiarios.registrar(guardado); // la fila de la cuenta ya quedó bloqueada por el UPDATE
         return guardado;
     }
 
-    private String normalizarTipo(String tipo) {
+    /**
+     * Valida valor y tipoMovimiento del request.
+     * Devuelve el delta con signo: positivo para crédito, negativo para débito.
+     */
+    static BigDecimal deltaValidado(CrearMovimientoRequest req) {
+        BigDecimal valorReq = req.getValor();
+        if (valorReq == null || valorReq.compareTo(BigDecimal.ZERO) <= 0) {
+            throw new BadRequestException("El valor debe ser mayor a 0");
+        }
+
+        String tipo = req.getTipoMovimiento();
+        if (tipo == null || tipo.trim().isEmpty()) {
+            throw new BadRequestException("tipoMovimiento es requerido");
+        }
+
+        return normalizarTipo(tipo).equals("Credito") ? valorReq : valorReq.negate();
+    }
+
+    static String tipoDe(BigDecimal delta) {
+        return delta.signum() > 0 ? "Credito" : "Debito";
+    }
+
+    private static String normalizarTipo(String tipo) {
         String t = tipo.trim().toLowerCase();
         if (t.equals("credito")) return "Credito";
         if (t.equals("debito")) return "Debito";
@@ -0,0 +1,145 @@
+package com.bank.bank_backend.service;
+
+import jakarta.persistence.EntityManagerFactory;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.support.JdbcUtils;
+import org.springframework.jdbc.support.MetaDataAccessException;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import javax.sql.DataSource;
+import java.time.YearMonth;
+import java.time.format.DateTimeFormatter;
+import java.time.format.DateTimeParseException;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * NUEVO: mantenimiento de las particiones mensuales de movimientos (PARTITION BY RANGE (fecha)).
+ *
+ * - Una partición por mes: movimientos_yyyy_MM con FROM (día 1) TO (día 1 del mes siguiente).
+ * - Al arrancar y luego por cron se crean las del mes actual y los siguientes
+ *   (bank.movimientos.particiones.meses-adelante): un INSERT nunca cae fuera de rango.
+ * - Con retención (bank.movimientos.particiones.retencion-meses > 0) las particiones más viejas
+ *   se desacoplan con DETACH PARTITION CONCURRENTLY: cambia solo el catálogo, sin DELETE fila por fila.
+ *   La tabla queda suelta (archivo o DROP manual); los saldos de esos meses siguen en saldos_diarios.
+ *
+ * Solo actúa si movimientos ya está particionada (ver ParticionarMovimientos.sql); sobre una tabla
+ * normal o en H2 no hace nada. Depende del EntityManagerFactory para correr después de Flyway
+ * (que en una base nueva crea movimientos ya particionada) y antes de recibir tráfico.
+ */
+@Service
+public class ParticionesMovimientosService {
+
+    private static final Logger log = LoggerFactory.getLogger(ParticionesMovimientosService.class);
+
+    static final String PREFIJO = "movimientos_";
+    private static final DateTimeFormatter SUFIJO = DateTimeFormatter.ofPattern("yyyy_MM");
+
+    private final JdbcTemplate jdbc;
+    private final boolean particionada;
+    private final int mesesAdelante;
+    private final int retencionMeses;
+
+    public ParticionesMovimientosService(
+            DataSource dataSource,
+            EntityManagerFactory emf,
+            @Value("${bank.movimientos.particiones.meses-adelante:3}") int mesesAdelante,
+            @Value("${bank.movimientos.particiones.retencion-meses:0}") int retencionMeses
+    ) throws MetaDataAccessException {
+        this.jdbc = new JdbcTemplate(dataSource);
+        this.mesesAdelante = mesesAdelante;
+        this.retencionMeses = retencionMeses;
+
+        String producto = JdbcUtils.extractDatabaseMetaData(dataSource, md -> md.getDatabaseProductName());
+        this.particionada = "PostgreSQL".equalsIgnoreCase(producto) && Boolean.TRUE.equals(jdbc.queryForObject(
+                "SELECT EXISTS (SELECT 1 FROM pg_partitioned_table WHERE partrelid = to_regclass('movimientos'))",
+                Boolean.class));
+
+        if (particionada) {
+            crearFuturas();
+        }
+    }
+
+    public boolean isParticionada() {
+        return particionada;
+    }
+
+    // Particiones del mes actual y los siguientes; idempotente (IF NOT EXISTS)
+    @Scheduled(cron = "${bank.movimientos.particiones.cron:0 0 2 * * *}")
+    public void mantener() {
+        if (!particionada) return;
+        crearFuturas();
+        if (retencionMeses > 0) {
+            desacoplarAnterioresA(YearMonth.now().minusMonths(retencionMeses));
+        }
+    }
+
+    public List<String> crearFuturas() {
+        List<String> existentes = existentes();
+        List<String> creadas = new ArrayList<>();
+        YearMonth actual = YearMonth.now();
+        for (int i = 0; i <= mesesAdelante; i++) {
+            YearMonth mes = actual.plusMonths(i);
+            String nombre = nombre(mes);
+            if (existentes.contains(nombre)) continue;
+            jdbc.execute(crearParticion(mes));
+            creadas.add(nombre);
+        }
+        if (!creadas.isEmpty()) log.info("Particiones de movimientos creadas: {}", creadas);
+        return creadas;
+    }
+
+    /**
+     * Desacopla las particiones de meses anteriores a {@code limite}. Sin transacción a propósito:
+     * DETACH ... CONCURRENTLY no puede correr dentro de un bloque BEGIN (PostgreSQL 14+).
+     */
+    public List<String> desacoplarAnterioresA(YearMonth limite) {
+        List<String> desacopladas = new ArrayList<>();
+        for (String nombre : existentes()) {
+            YearMonth mes = mes(nombre);
+            if (mes == null || !mes.isBefore(limite)) continue;
+            jdbc.execute("ALTER TABLE movimientos DETACH PARTITION " + nombre + " CONCURRENTLY");
+            desacopladas.add(nombre);
+        }
+        if (!desacopladas.isEmpty()) log.info("Particiones de movimientos desacopladas: {}", desacopladas);
+        return desacopladas;
+    }
+
+    private List<String> existentes() {
+        return jdbc.queryForList("""
+                SELECT c.relname
+                  FROM pg_inherits i
+                  JOIN pg_class c ON c.oid = i.inhrelid
+                 WHERE i.inhparent = to_regclass('movimientos')
+                 ORDER BY c.relname
+                """, String.class);
+    }
+
+    /* ===============================
+       Helpers
+       =============================== */
+
+    static String nombre(YearMonth mes) {
+        return PREFIJO + mes.format(SUFIJO);
+    }
+
+    // null si no sigue el patrón movimientos_yyyy_MM (ej. una partición DEFAULT creada a mano)
+    static YearMonth mes(String nombre) {
+        if (!nombre.startsWith(PREFIJO)) return null;
+        try {
+            return YearMonth.parse(nombre.substring(PREFIJO.length()), SUFIJO);
+        } catch (DateTimeParseException ex) {
+            return null;
+        }
+    }
+
+    // Los nombres y los límites salen de un YearMonth, nunca del request
+    static String crearParticion(YearMonth mes) {
+        return "CREATE TABLE IF NOT EXISTS " + nombre(mes) + " PARTITION OF movimientos FOR VALUES FROM ('"
+                + mes.atDay(1) + "') TO ('" + mes.plusMonths(1).atDay(1) + "')";
+    }
+}
@@ -1,42 +1,79 @@
 package com.bank.bank_backend.service;
 
+import com.bank.bank_backend.cache.CacheCuentas;
+import com.bank.bank_backend.cache.CacheReportes;
+import com.bank.bank_backend.config.DataSourceRuteado;
+import com.bank.bank_backend.config.LecturaEnReplica;
+import com.bank.bank_backend.dto.CuentaConSaldo;
+import com.bank.bank_backend.dto.CursorMovimiento;
+import com.bank.bank_backend.dto.DescriptorCuenta;
+import com.bank.bank_backend.dto.MovimientoDeCuenta;
+import com.bank.bank_backend.dto.PaginaMovimientos;
 import com.bank.bank_backend.dto.ReporteEstadoCuentaResponse;
 import com.bank.bank_backend.dto.ReporteMovimientoItem;
 import com.bank.bank_backend.dto.ReporteMovimientoUsuarioItem;
-import com.bank.bank_backend.entity.Cuenta;
-import com.bank.bank_backend.entity.Movimiento;
+import com.bank.bank_backend.dto.ResumenPeriodo;
 import com.bank.bank_backend.exception.NotFoundException;
+import com.bank.bank_backend.pdf.RenderizadorPdf;
 import com.bank.bank_backend.repository.CuentaRepository;
 import com.bank.bank_backend.repository.MovimientoRepository;
 
-import com.lowagie.text.Document;
-import com.lowagie.text.Font;
-import com.lowagie.text.PageSize;
-import com.lowagie.text.Paragraph;
-import com.lowagie.text.Phrase;
-import com.lowagie.text.pdf.PdfPCell;
-import com.lowagie.text.pdf.PdfPTable;
-import com.lowagie.text.pdf.PdfWriter;
-
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 
 import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
 import java.math.BigDecimal;
 import java.time.LocalDate;
 import java.time.LocalDateTime;
 import java.util.Base64;
-import java.util.Comparator;
+import java.util.HashMap;
+import java.util.Iterator;
 import java.util.List;
-
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.Executor;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipOutputStream;
+
+// Solo lectura: las consultas en stream necesitan la transacción abierta mientras se consumen
 @Service
+@Transactional(readOnly = true)
+@LecturaEnReplica
 public class ReporteService {
 
+    @Value("${bank.paginacion.tamano-por-defecto:100}")
+    private int tamanoPorDefecto = 100;
+
+    @Value("${bank.paginacion.tamano-maximo:1000}")
+    private int tamanoMaximo = 1000;
+
     private final CuentaRepository cuentaRepo;
     private final MovimientoRepository movRepo;
-
-    public ReporteService(CuentaRepository cuentaRepo, MovimientoRepository movRepo) {
+    private final CacheCuentas cacheCuentas;
+    private final CacheReportes cacheReportes;
+    private final SaldoDiarioService saldosDiarios;
+    private final RenderizadorPdf renderizador;
+    private final Executor ejecutorPdf;
+
+    public ReporteService(CuentaRepository cuentaRepo, MovimientoRepository movRepo,
+                          CacheCuentas cacheCuentas, CacheReportes cacheReportes,
+                          SaldoDiarioService saldosDiarios, RenderizadorPdf renderizador,
+                          @Qualifier("ejecutorPdf") Executor ejecutorPdf) {
         this.cuentaRepo = cuentaRepo;
         this.movRepo = movRepo;
+        this.cacheCuentas = cacheCuentas;
+        this.cacheReportes = cacheReportes;
+        this.saldosDiarios = saldosDiarios;
+        this.renderizador = renderizador;
+        this.ejecutorPdf = ejecutorPdf;
     }
 
     /**
@@ -60,40 +97,44 @@ public class ReporteService {
             boolean incluirPdf
     ) {
 
-        Cuenta cuenta = cuentaRepo.findByNumeroCuenta(numeroCuenta)
+        // Descriptor desde cache + saldo puntual: no se carga la entidad Cuenta ni su Cliente
+        DescriptorCuenta cuenta = cacheCuentas.obtener(numeroCuenta);
+        BigDecimal saldoActual = cuentaRepo.saldoActualDe(cuenta.cuentaId())
                 .orElseThrow(() -> new NotFoundException("Cuenta no encontrada"));
 
+        // NUEVO: reporte en cache (se invalida al postear dentro del rango)
+        CacheReportes.Clave clave = new CacheReportes.Clave(cuenta.numeroCuenta(), fechaInicio, fechaFin,
+                incluirPdf ? CacheReportes.Formato.JSON_PDF : CacheReportes.Formato.JSON);
+        ReporteEstadoCuentaResponse enCache = cacheReportes.buscar(clave);
+        if (enCache != null) {
+            // Un posteo posterior al rango no lo invalida pero sí mueve el saldo actual:
+            // en JSON se actualiza el campo; el PDF lo lleva impreso, así que se regenera.
+            if (nvl(saldoActual).compareTo(enCache.getSaldoActual()) == 0) return enCache.copia();
+            if (!incluirPdf) {
+                ReporteEstadoCuentaResponse copia = enCache.copia();
+                copia.setSaldoActual(nvl(saldoActual));
+                return copia;
+            }
+        }
+        long marca = cacheReportes.marca();
+
         LocalDateTime desde = fechaInicio.atStartOfDay();
         LocalDateTime hasta = fechaFin.plusDays(1).atStartOfDay().minusNanos(1);
 
-        List<Movimiento> movimientos = movRepo
-                .findByCuenta_NumeroCuentaAndFechaBetweenOrderByFechaAsc(
-                        numeroCuenta, desde, hasta
-                );
-
-        List<ReporteMovimientoItem> items = movimientos.stream()
-                .map(m -> new ReporteMovimientoItem(
-                        m.getFecha(),
-                        m.getTipoMovimiento(),
-                        m.getValor(),
-                        m.getSaldo()
-                ))
-                .toList();
-
-        ReporteEstadoCuentaResponse resp = new ReporteEstadoCuentaResponse(
-                cuenta.getNumeroCuenta(),
-                cuenta.getCliente().getNombre(),
-                nvl(cuenta.getSaldoActual()),
-                items
-        );
-
-        // ✅ Solo genera PDF si se pide Y si hay movimientos.
-        if (incluirPdf && items != null && !items.isEmpty()) {
-            byte[] pdf = generarPdfEstadoCuenta(resp, fechaInicio, fechaFin);
-            resp.setPdfBase64(Base64.getEncoder().encodeToString(pdf));
+        // Proyección en stream: sin entidades Movimiento en el contexto de persistencia
+        List<ReporteMovimientoItem> items;
+        try (Stream<ReporteMovimientoItem> filas = movRepo.streamEstadoCuenta(cuenta.cuentaId(), desde, hasta)) {
+            items = filas.toList();
         }
 
-        return resp;
+        // Apertura, cierre y totales desde saldos_diarios (sin recorrer movimientos)
+        ResumenPeriodo resumen = saldosDiarios.resumen(cuenta.cuentaId(), fechaInicio, fechaFin);
+
+        ReporteEstadoCuentaResponse resp = armarEstadoCuenta(cuenta.numeroCuenta(), cuenta.nombreCliente(),
+                saldoActual, items, resumen, incluirPdf, fechaInicio, fechaFin);
+        cacheReportes.guardar(clave, cuenta.cuentaId(), cuenta.clienteId(), resp, marca,
+                DataSourceRuteado.transaccionEnReplica());
+        return resp.copia();
     }
 
     /* =========================================================
@@ -106,20 +147,8 @@ public class ReporteService {
 
     public List<String> cuentasPorCliente(Long clienteId) {
         // NO lanzamos excepción si no hay cuentas: el frontend simplemente no muestra botón/tabla.
-
-        // ✅ OJO: en tu CuentaRepository que compartiste NO existe:
-        // findByClienteClienteIdOrderByNumeroCuentaAsc
-        // Por eso usamos el método existente y ordenamos aquí.
-        List<Cuenta> cuentas = cuentaRepo.findByClienteClienteId(clienteId);
-
-        if (cuentas == null || cuentas.isEmpty()) {
-            return List.of();
-        }
-
-        return cuentas.stream()
-                .sorted(Comparator.comparing(Cuenta::getNumeroCuenta, Comparator.nullsLast(String::compareTo)))
-                .map(Cuenta::getNumeroCuenta)
-                .toList();
+        // Solo la columna numero_cuenta, ya ordenada por la base.
+        return cuentaRepo.numerosDeCliente(clienteId);
     }
 
     /**
@@ -127,6 +156,11 @@ public class ReporteService {
      * Útil si el PDF/JSON del ejercicio requiere "por usuario".
      * - Si no hay cuentas, retorna lista vacía.
      * - Si una cuenta no tiene movimientos, igual retorna el reporte con movimientos vacíos (sin pdfBase64).
+     *
+     * Cantidad fija de consultas (cuentas con saldo, movimientos del cliente ordenados por cuenta
+     * y dos sobre saldos_diarios), sin importar cuántas cuentas tenga el cliente;
+     * los movimientos se reparten por cuenta en una pasada.
+     * Con incluirPdf, los PDFs por cuenta se generan en paralelo.
      */
     public List<ReporteEstadoCuentaResponse> estadoCuentaPorCliente(
             Long clienteId,
@@ -134,26 +168,81 @@ public class ReporteService {
             LocalDate fechaFin,
             boolean incluirPdf
     ) {
+        List<CuentaConSaldo> cuentas = cuentaRepo.saldosDeCliente(clienteId);
 
-        // ✅ Igual que arriba: usamos el repo existente
-        List<Cuenta> cuentas = cuentaRepo.findByClienteClienteId(clienteId);
-
-        if (cuentas == null || cuentas.isEmpty()) {
+        if (cuentas.isEmpty()) {
             return List.of();
         }
 
-        return cuentas.stream()
-                .sorted(Comparator.comparing(Cuenta::getNumeroCuenta, Comparator.nullsLast(String::compareTo)))
-                .map(c -> estadoCuenta(c.getNumeroCuenta(), fechaInicio, fechaFin, incluirPdf))
+        Map<Long, List<ReporteMovimientoItem>> movsPorCuenta = movRepo
+                .movimientosDeCliente(clienteId, fechaInicio.atStartOfDay(), finDelDia(fechaFin))
+                .stream()
+                .collect(Collectors.groupingBy(
+                        MovimientoDeCuenta::getCuentaId,
+                        Collectors.mapping(
+                                m -> new ReporteMovimientoItem(m.getFecha(), m.getTipoMovimiento(), m.getValor(), m.getSaldo()),
+                                Collectors.toList())
+                ));
+
+        Map<Long, BigDecimal> saldosIniciales = new HashMap<>();
+        cuentas.forEach(c -> saldosIniciales.put(c.getCuentaId(), c.getSaldoInicial()));
+        Map<Long, ResumenPeriodo> resumenes = saldosDiarios.resumenesDeCliente(
+                clienteId, fechaInicio, fechaFin, saldosIniciales);
+
+        List<ReporteEstadoCuentaResponse> reportes = cuentas.stream()
+                .map(c -> armarEstadoCuenta(
+                        c.getNumeroCuenta(),
+                        c.getNombreCliente(),
+                        c.getSaldoActual(),
+                        movsPorCuenta.getOrDefault(c.getCuentaId(), List.of()),
+                        resumenes.get(c.getCuentaId()),
+                        false,
+                        fechaInicio,
+                        fechaFin
+                ))
                 .toList();
+
+        if (incluirPdf) {
+            adjuntarPdfsEnParalelo(reportes, fechaInicio, fechaFin);
+        }
+        return reportes;
+    }
+
+    /**
+     * Los PDFs de cada cuenta son independientes (ya no tocan la base): se renderizan
+     * en el pool acotado ejecutorPdf y se espera a que terminen todos.
+     */
+    private void adjuntarPdfsEnParalelo(List<ReporteEstadoCuentaResponse> reportes, LocalDate ini, LocalDate fin) {
+        List<ReporteEstadoCuentaResponse> conMovimientos = reportes.stream()
+                .filter(r -> r.getMovimientos() != null && !r.getMovimientos().isEmpty())
+                .toList();
+
+        // Una sola cuenta: no vale la pena pasar a otro hilo
+        if (conMovimientos.size() == 1) {
+            adjuntarPdf(conMovimientos.get(0), ini, fin);
+            return;
+        }
+
+        CompletableFuture<?>[] tareas = conMovimientos.stream()
+                .map(r -> CompletableFuture.runAsync(() -> adjuntarPdf(r, ini, fin), ejecutorPdf))
+                .toArray(CompletableFuture[]::new);
+        try {
+            CompletableFuture.allOf(tareas).join();
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof RuntimeException re) throw re;
+            throw e;
+        }
+    }
+
+    private void adjuntarPdf(ReporteEstadoCuentaResponse resp, LocalDate ini, LocalDate fin) {
+        resp.setPdfBase64(Base64.getEncoder().encodeToString(generarPdfEstadoCuenta(resp, ini, fin)));
     }
 
     /**
      * NUEVO: Movimientos por fechas por usuario (cliente)
      * Devuelve el JSON tipo "Listado de movimientos por usuario" (según PDF).
      *
-     * Nota: requiere que exista el método en MovimientoRepository:
-     * findByCuenta_Cliente_ClienteIdAndFechaBetweenOrderByFechaAsc(...)
+     * Nota: las filas salen de MovimientoRepository.streamPorCliente(...)
      */
     public List<ReporteMovimientoUsuarioItem> movimientosPorCliente(
             Long clienteId,
@@ -164,32 +253,36 @@ public class ReporteService {
         LocalDateTime desde = fechaInicio.atStartOfDay();
         LocalDateTime hasta = fechaFin.plusDays(1).atStartOfDay().minusNanos(1);
 
-        List<Movimiento> movimientos = movRepo
-                .findByCuenta_Cliente_ClienteIdAndFechaBetweenOrderByFechaAsc(clienteId, desde, hasta);
-
-        if (movimientos == null || movimientos.isEmpty()) {
-            return List.of();
+        // Una sola consulta con join a cuenta y cliente; filas leídas en stream
+        try (Stream<ReporteMovimientoUsuarioItem> filas = movRepo.streamPorCliente(clienteId, desde, hasta)) {
+            return filas.map(this::normalizar).toList();
         }
+    }
 
-        return movimientos.stream()
-                .map(m -> {
-                    Cuenta cta = m.getCuenta();
-                    String nombreCliente = (cta.getCliente() != null && cta.getCliente().getNombre() != null)
-                            ? cta.getCliente().getNombre()
-                            : "";
-
-                    return new ReporteMovimientoUsuarioItem(
-                            m.getFecha(),
-                            nombreCliente,
-                            cta.getNumeroCuenta(),
-                            cta.getTipoCuenta(),
-                            nvl(cta.getSaldoInicial()),
-                            cta.getEstado(),
-                            nvl(m.getValor()),  // ya viene + o -
-                            nvl(m.getSaldo())   // saldo luego del movimiento
-                    );
-                })
-                .toList();
+    /**
+     * NUEVO: Movimientos por cliente paginados por keyset sobre (fecha, movimientoId).
+     * Misma forma de ítem que movimientosPorCliente; cursor opaco para la siguiente página.
+     */
+    public PaginaMovimientos<ReporteMovimientoUsuarioItem> movimientosPorClientePaginado(
+            Long clienteId,
+            LocalDate fechaInicio,
+            LocalDate fechaFin,
+            String cursor,
+            Integer limite
+    ) {
+        int tamano = PaginaMovimientos.tamano(limite, tamanoPorDefecto, tamanoMaximo);
+        CursorMovimiento despuesDe = CursorMovimiento.decodificar(cursor);
+
+        List<ReporteMovimientoUsuarioItem> filas = movRepo.paginaPorCliente(
+                clienteId, fechaInicio.atStartOfDay(), finDelDia(fechaFin), despuesDe, tamano + 1);
+        filas.forEach(this::normalizar);
+
+        if (filas.size() <= tamano) return new PaginaMovimientos<>(filas, null);
+
+        List<ReporteMovimientoUsuarioItem> pagina = filas.subList(0, tamano);
+        ReporteMovimientoUsuarioItem ultimo = pagina.get(tamano - 1);
+        return new PaginaMovimientos<>(pagina,
+                new CursorMovimiento(ultimo.getFecha(), ultimo.getMovimientoId()).codificar());
     }
 
     /* =========================================================
@@ -213,64 +306,136 @@ public class ReporteService {
         return generarPdfMovimientosPorCliente(items, fechaInicio, fechaFin);
     }
 
-    /* ===============================
-       PDF
-       =============================== */
-
-    private byte[] generarPdfEstadoCuenta(
-            ReporteEstadoCuentaResponse data,
-            LocalDate ini,
-            LocalDate fin
-    ) {
-
-        try (ByteArrayOutputStream baos = new ByteArrayOutputStream()) {
-
-            Document doc = new Document(PageSize.A4, 36, 36, 36, 36);
-            PdfWriter.getInstance(doc, baos);
-            doc.open();
+    /* =========================================================
+       NUEVO: PDF en stream directo a la respuesta HTTP
+       - Las filas salen de una consulta en stream (fetch size acotado, DTOs sin entidades)
+       - La tabla se vuelca al documento por bloques: el heap no crece con el largo del reporte
+       - El controller consulta primero si hay movimientos (204) y si la cuenta existe (404),
+         antes de escribir el primer byte
+       ========================================================= */
 
-            Font title = new Font(Font.HELVETICA, 14, Font.BOLD);
-            Font bold = new Font(Font.HELVETICA, 11, Font.BOLD);
-            Font normal = new Font(Font.HELVETICA, 11, Font.NORMAL);
+    public boolean estadoCuentaTieneMovimientos(String numeroCuenta, LocalDate fechaInicio, LocalDate fechaFin) {
+        DescriptorCuenta cuenta = cacheCuentas.obtener(numeroCuenta);
+        return movRepo.existsByCuentaCuentaIdAndFechaBetween(
+                cuenta.cuentaId(), fechaInicio.atStartOfDay(), finDelDia(fechaFin));
+    }
 
-            doc.add(new Paragraph("REPORTE – ESTADO DE CUENTA", title));
-            doc.add(new Paragraph(" "));
+    public void escribirPdfEstadoCuenta(
+            String numeroCuenta,
+            LocalDate fechaInicio,
+            LocalDate fechaFin,
+            OutputStream out
+    ) {
+        DescriptorCuenta cuenta = cacheCuentas.obtener(numeroCuenta);
+        BigDecimal saldoActual = cuentaRepo.saldoActualDe(cuenta.cuentaId())
+                .orElseThrow(() -> new NotFoundException("Cuenta no encontrada"));
 
-            doc.add(new Paragraph("Cliente: " + safe(data.getCliente()), bold));
-            doc.add(new Paragraph("Número de cuenta: " + safe(data.getNumeroCuenta()), normal));
-            doc.add(new Paragraph("Saldo actual: " + data.getSaldoActual(), normal));
-            doc.add(new Paragraph("Rango de fechas: " + ini + " a " + fin, normal));
+        try (Stream<ReporteMovimientoItem> filas = movRepo.streamEstadoCuenta(
+                cuenta.cuentaId(), fechaInicio.atStartOfDay(), finDelDia(fechaFin))) {
+            renderizador.estadoCuenta(out, cuenta.nombreCliente(), cuenta.numeroCuenta(), nvl(saldoActual),
+                    fechaInicio, fechaFin, filas.iterator());
+        }
+    }
 
-            doc.add(new Paragraph(" "));
-            doc.add(new Paragraph("Movimientos", bold));
-            doc.add(new Paragraph(" "));
+    public boolean clienteTieneMovimientos(Long clienteId, LocalDate fechaInicio, LocalDate fechaFin) {
+        return movRepo.existsByCuenta_Cliente_ClienteIdAndFechaBetween(
+                clienteId, fechaInicio.atStartOfDay(), finDelDia(fechaFin));
+    }
 
-            PdfPTable table = new PdfPTable(4);
-            table.setWidthPercentage(100);
-            table.setWidths(new float[]{3.5f, 2f, 2f, 2f});
+    public void escribirPdfMovimientosPorCliente(
+            Long clienteId,
+            LocalDate fechaInicio,
+            LocalDate fechaFin,
+            OutputStream out
+    ) {
+        try (Stream<ReporteMovimientoUsuarioItem> filas = movRepo.streamPorCliente(
+                clienteId, fechaInicio.atStartOfDay(), finDelDia(fechaFin))) {
+            renderizador.movimientosPorCliente(out, fechaInicio, fechaFin, filas.iterator());
+        }
+    }
 
-            table.addCell(headerCell("Fecha"));
-            table.addCell(headerCell("Tipo"));
-            table.addCell(headerCell("Valor"));
-            table.addCell(headerCell("Saldo"));
+    /* =========================================================
+       NUEVO: ZIP con los estados de cuenta del cliente, en stream
+       - Cada PDF se renderiza directo en su entrada del ZIP: se comprime a medida que se
+         escribe y, al cerrar la entrada, se vacía a la respuesta antes de pasar a la cuenta siguiente
+       - Los movimientos de cada cuenta se leen en stream: en memoria solo queda el bloque
+         de filas del PDF en curso, nunca un PDF entero
+       - Cuentas sin movimientos en el rango no generan entrada (igual que pdfBase64)
+       - Cada PDF muestra apertura, cierre y totales del rango (saldos_diarios), como el cierre mensual
+       ========================================================= */
 
-            if (data.getMovimientos() != null) {
-                for (ReporteMovimientoItem m : data.getMovimientos()) {
-                    table.addCell(bodyCell(String.valueOf(m.getFecha())));
-                    table.addCell(bodyCell(safe(m.getTipoMovimiento())));
-                    table.addCell(bodyCell(String.valueOf(nvl(m.getValor()))));
-                    table.addCell(bodyCell(String.valueOf(nvl(m.getSaldo()))));
+    public void escribirZipEstadosCuentaPorCliente(
+            Long clienteId,
+            LocalDate fechaInicio,
+            LocalDate fechaFin,
+            OutputStream out
+    ) {
+        List<CuentaConSaldo> cuentas = cuentaRepo.saldosDeCliente(clienteId);
+        Map<Long, BigDecimal> saldosIniciales = new HashMap<>();
+        cuentas.forEach(c -> saldosIniciales.put(c.getCuentaId(), c.getSaldoInicial()));
+        Map<Long, ResumenPeriodo> resumenes = saldosDiarios.resumenesDeCliente(
+                clienteId, fechaInicio, fechaFin, saldosIniciales);
+        try {
+            ZipOutputStream zip = new ZipOutputStream(out);
+            for (CuentaConSaldo c : cuentas) {
+                try (Stream<ReporteMovimientoItem> filas = movRepo.streamEstadoCuenta(
+                        c.getCuentaId(), fechaInicio.atStartOfDay(), finDelDia(fechaFin))) {
+                    Iterator<ReporteMovimientoItem> it = filas.iterator();
+                    if (!it.hasNext()) continue;
+
+                    zip.putNextEntry(new ZipEntry("estado-cuenta-" + c.getNumeroCuenta() + ".pdf"));
+                    renderizador.estadoCuentaDePeriodo(zip, c.getNombreCliente(), c.getNumeroCuenta(),
+                            resumenes.get(c.getCuentaId()), fechaInicio, fechaFin, it);
+                    zip.closeEntry();
+                    zip.flush();
                 }
             }
+            zip.finish(); // cierra el formato zip sin cerrar la respuesta
+        } catch (IOException ex) {
+            throw new UncheckedIOException(ex);
+        }
+    }
 
-            doc.add(table);
-            doc.close();
-
-            return baos.toByteArray();
+    private ReporteEstadoCuentaResponse armarEstadoCuenta(
+            String numeroCuenta,
+            String nombreCliente,
+            BigDecimal saldoActual,
+            List<ReporteMovimientoItem> items,
+            ResumenPeriodo resumen,
+            boolean incluirPdf,
+            LocalDate fechaInicio,
+            LocalDate fechaFin
+    ) {
+        ReporteEstadoCuentaResponse resp = new ReporteEstadoCuentaResponse(
+                numeroCuenta,
+                nombreCliente,
+                nvl(saldoActual),
+                items
+        );
+        resp.aplicarResumen(resumen);
 
-        } catch (Exception e) {
-            throw new RuntimeException("Error al generar PDF del estado de cuenta", e);
+        // ✅ Solo genera PDF si se pide Y si hay movimientos.
+        if (incluirPdf && items != null && !items.isEmpty()) {
+            adjuntarPdf(resp, fechaInicio, fechaFin);
         }
+
+        return resp;
+    }
+
+    /* ===============================
+       PDF
+       =============================== */
+
+    private byte[] generarPdfEstadoCuenta(
+            ReporteEstadoCuentaResponse data,
+            LocalDate ini,
+            LocalDate fin
+    ) {
+        ByteArrayOutputStream baos = new ByteArrayOutputStream();
+        List<ReporteMovimientoItem> movs = data.getMovimientos() != null ? data.getMovimientos() : List.of();
+        renderizador.estadoCuenta(baos, data.getCliente(), data.getNumeroCuenta(), data.getSaldoActual(),
+                ini, fin, movs.iterator());
+        return baos.toByteArray();
     }
 
     private byte[] generarPdfMovimientosPorCliente(
@@ -278,87 +443,33 @@ public class ReporteService {
             LocalDate ini,
             LocalDate fin
     ) {
-
-        try (ByteArrayOutputStream baos = new ByteArrayOutputStream()) {
-
-            Document doc = new Document(PageSize.A4.rotate(), 36, 36, 36, 36); // horizontal para que no se corte
-            PdfWriter.getInstance(doc, baos);
-            doc.open();
-
-            Font title = new Font(Font.HELVETICA, 14, Font.BOLD);
-            Font bold = new Font(Font.HELVETICA, 11, Font.BOLD);
-            Font normal = new Font(Font.HELVETICA, 11, Font.NORMAL);
-
-            String nombreCliente = "";
-            if (items != null && !items.isEmpty()) {
-                nombreCliente = safe(items.get(0).getCliente());
-            }
-
-            doc.add(new Paragraph("REPORTE – MOVIMIENTOS POR CLIENTE", title));
-            doc.add(new Paragraph(" "));
-
-            doc.add(new Paragraph("Cliente: " + nombreCliente, bold));
-            doc.add(new Paragraph("Rango de fechas: " + ini + " a " + fin, normal));
-            doc.add(new Paragraph(" "));
-
-            PdfPTable table = new PdfPTable(7);
-            table.setWidthPercentage(100);
-            table.setWidths(new float[]{2.8f, 3.2f, 2.4f, 2.0f, 2.0f, 2.0f, 2.2f});
-
-            table.addCell(headerCell("Fecha"));
-            table.addCell(headerCell("Cliente"));
-            table.addCell(headerCell("Número Cuenta"));
-            table.addCell(headerCell("Tipo Cuenta"));
-            table.addCell(headerCell("Saldo Inicial"));
-            table.addCell(headerCell("Movimiento"));
-            table.addCell(headerCell("Saldo Disponible"));
-
-            if (items != null) {
-                for (ReporteMovimientoUsuarioItem m : items) {
-                    table.addCell(bodyCell(String.valueOf(m.getFecha())));
-                    table.addCell(bodyCell(safe(m.getCliente())));
-                    table.addCell(bodyCell(safe(m.getNumeroCuenta())));
-                    table.addCell(bodyCell(safe(m.getTipo()))); // ✅ corregido para que compile y funcione
-                    table.addCell(bodyCell(String.valueOf(nvl(m.getSaldoInicial()))));
-                    table.addCell(bodyCell(String.valueOf(nvl(m.getMovimiento()))));
-                    table.addCell(bodyCell(String.valueOf(nvl(m.getSaldoDisponible()))));
-                }
-            }
-
-            doc.add(table);
-            doc.close();
-
-            return baos.toByteArray();
-
-        } catch (Exception e) {
-            throw new RuntimeException("Error al generar PDF de movimientos por cliente", e);
-        }
+        ByteArrayOutputStream baos = new ByteArrayOutputStream();
+        renderizador.movimientosPorCliente(baos, ini, fin, items.iterator());
+        return baos.toByteArray();
     }
 
     /* ===============================
        Helpers
        =============================== */
 
-    private BigDecimal nvl(BigDecimal v) {
-        return v == null ? BigDecimal.ZERO : v;
+    // Mismo criterio que el mapeo original desde la entidad: sin nulos en el JSON
+    private ReporteMovimientoUsuarioItem normalizar(ReporteMovimientoUsuarioItem item) {
+        item.setCliente(safe(item.getCliente()));
+        item.setSaldoInicial(nvl(item.getSaldoInicial()));
+        item.setMovimiento(nvl(item.getMovimiento()));
+        item.setSaldoDisponible(nvl(item.getSaldoDisponible()));
+        return item;
     }
 
-    private String safe(String s) {
-        return s == null ? "" : s;
+    private LocalDateTime finDelDia(LocalDate fecha) {
+        return fecha.plusDays(1).atStartOfDay().minusNanos(1);
     }
 
-    private PdfPCell headerCell(String text) {
-        Font f = new Font(Font.HELVETICA, 10, Font.BOLD);
-        PdfPCell c = new PdfPCell(new Phrase(text, f));
-        c.setBackgroundColor(new java.awt.Color(230, 230, 230));
-        c.setPadding(6f);
-        return c;
+    private BigDecimal nvl(BigDecimal v) {
+        return v == null ? BigDecimal.ZERO : v;
     }
 
-    private PdfPCell bodyCell(String text) {
-        Font f = new Font(Font.HELVETICA, 10, Font.NORMAL);
-        PdfPCell c = new PdfPCell(new Phrase(text, f));
-        c.setPadding(6f);
-        return c;
+    private String safe(String s) {
+        return s == null ? "" : s;
     }
 }
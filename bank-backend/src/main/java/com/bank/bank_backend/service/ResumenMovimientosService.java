@@ -0,0 +1,115 @@
+package com.bank.bank_backend.service;
+
+import com.bank.bank_backend.cache.CacheCuentas;
+import com.bank.bank_backend.config.LecturaEnReplica;
+import com.bank.bank_backend.dto.ResumenMovimientosResponse;
+import com.bank.bank_backend.exception.BadRequestException;
+import com.bank.bank_backend.exception.NotFoundException;
+import com.bank.bank_backend.repository.ClienteRepository;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowMapper;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.sql.Date;
+import java.sql.Timestamp;
+import java.time.LocalDate;
+import java.util.List;
+import java.util.Locale;
+
+/**
+ * NUEVO: resumen de movimientos para tableros (GET /reportes/resumen).
+ *
+ * La agregación (SUM / COUNT / MIN / MAX con GROUP BY por cuenta y, opcionalmente, por
+ * date_trunc de la fecha) la hace la base: viaja una fila por cuenta y período, nunca los
+ * movimientos, y no se instancia ninguna entidad. Filtra por cuenta_id + fecha, así que
+ * usa idx_movimientos_cuenta_fecha_id.
+ */
+@Service
+@Transactional(readOnly = true)
+@LecturaEnReplica
+public class ResumenMovimientosService {
+
+    // %1$s = período, %2$s = filtro por cuenta o cliente; DATE_TRUNC existe en PostgreSQL y H2
+    private static final String RESUMEN = """
+            SELECT c.numero_cuenta AS numero_cuenta,
+                   %1$s AS periodo,
+                   SUM(CASE WHEN m.valor > 0 THEN m.valor ELSE 0 END) AS creditos,
+                   SUM(CASE WHEN m.valor < 0 THEN -m.valor ELSE 0 END) AS debitos,
+                   COUNT(*) AS movimientos,
+                   MIN(m.saldo) AS saldo_minimo,
+                   MAX(m.saldo) AS saldo_maximo
+              FROM movimientos m
+              JOIN cuentas c ON c.cuenta_id = m.cuenta_id
+             WHERE %2$s
+               AND m.fecha BETWEEN ? AND ?
+             GROUP BY c.numero_cuenta, %1$s
+             ORDER BY c.numero_cuenta, %1$s
+            """;
+
+    private static final String SIN_PERIODO = "CAST(NULL AS DATE)";
+    private static final String POR_CUENTA = "m.cuenta_id = ?";
+    private static final String POR_CLIENTE = "c.cliente_id = ?";
+
+    private static final RowMapper<ResumenMovimientosResponse.Fila> FILA = (rs, i) -> {
+        Date periodo = rs.getDate("periodo");
+        return new ResumenMovimientosResponse.Fila(
+                rs.getString("numero_cuenta"),
+                periodo == null ? null : periodo.toLocalDate(),
+                rs.getBigDecimal("creditos"),
+                rs.getBigDecimal("debitos"),
+                rs.getLong("movimientos"),
+                rs.getBigDecimal("saldo_minimo"),
+                rs.getBigDecimal("saldo_maximo"));
+    };
+
+    private final JdbcTemplate jdbc;
+    private final CacheCuentas cacheCuentas;
+    private final ClienteRepository clienteRepo;
+
+    public ResumenMovimientosService(JdbcTemplate jdbc, CacheCuentas cacheCuentas, ClienteRepository clienteRepo) {
+        this.jdbc = jdbc;
+        this.cacheCuentas = cacheCuentas;
+        this.clienteRepo = clienteRepo;
+    }
+
+    /**
+     * Resumen de una cuenta (numeroCuenta) o de todas las cuentas de un cliente (clienteId);
+     * se debe indicar exactamente uno. Cuentas sin movimientos en el rango no aparecen.
+     */
+    public ResumenMovimientosResponse resumen(
+            Long clienteId,
+            String numeroCuenta,
+            LocalDate fechaInicio,
+            LocalDate fechaFin,
+            AgrupacionResumen agrupacion
+    ) {
+        boolean porCuenta = numeroCuenta != null && !numeroCuenta.isBlank();
+        if (porCuenta == (clienteId != null)) {
+            throw new BadRequestException("Indique clienteId o numeroCuenta (uno solo)");
+        }
+        if (fechaFin.isBefore(fechaInicio)) {
+            throw new BadRequestException("fechaFin debe ser posterior o igual a fechaInicio");
+        }
+
+        Long id;
+        if (porCuenta) {
+            id = cacheCuentas.obtener(numeroCuenta.trim()).cuentaId();
+        } else {
+            if (!clienteRepo.existsById(clienteId)) throw new NotFoundException("Cliente no encontrado");
+            id = clienteId;
+        }
+
+        String periodo = agrupacion == null
+                ? SIN_PERIODO
+                : "CAST(DATE_TRUNC('" + agrupacion.getUnidad() + "', m.fecha) AS DATE)";
+        String sql = String.format(RESUMEN, periodo, porCuenta ? POR_CUENTA : POR_CLIENTE);
+
+        List<ResumenMovimientosResponse.Fila> filas = jdbc.query(sql, FILA, id,
+                Timestamp.valueOf(fechaInicio.atStartOfDay()),
+                Timestamp.valueOf(fechaFin.plusDays(1).atStartOfDay().minusNanos(1)));
+
+        return new ResumenMovimientosResponse(fechaInicio, fechaFin,
+                agrupacion == null ? null : agrupacion.name().toLowerCase(Locale.ROOT), filas);
+    }
+}
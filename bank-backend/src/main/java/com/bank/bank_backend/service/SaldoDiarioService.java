@@ -0,0 +1,240 @@
+package com.bank.bank_backend.service;
+
+import com.bank.bank_backend.cache.CacheReportes;
+import com.bank.bank_backend.dto.ResumenPeriodo;
+import com.bank.bank_backend.entity.Movimiento;
+import com.bank.bank_backend.repository.CuentaRepository;
+import com.bank.bank_backend.repository.SaldoDiarioRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.math.BigDecimal;
+import java.sql.Date;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+/**
+ * Saldos diarios por cuenta (tabla saldos_diarios).
+ *
+ * - Escritura: cada posteo hace MERGE de su día dentro de la misma transacción (suma totales,
+ *   pisa el saldo de cierre). Quien llama ya tiene bloqueada la fila de la cuenta, así dos
+ *   posteos de la misma cuenta nunca hacen MERGE del mismo día a la vez.
+ * - Lectura: saldo al inicio de una fecha = cierre del último día anterior con movimientos;
+ *   totales del período = suma de días (a lo sumo uno por día, nunca movimientos crudos).
+ * - Reconstrucción: recalcula una cuenta (o todas) desde movimientos.
+ * - Cada escritura invalida los estados de cuenta en cache afectados ({@link CacheReportes}).
+ */
+@Service
+public class SaldoDiarioService {
+
+    private static final Logger log = LoggerFactory.getLogger(SaldoDiarioService.class);
+
+    // Sintaxis estándar: la aceptan PostgreSQL (15+) y H2
+    private static final String MERGE_DIA = """
+            MERGE INTO saldos_diarios d
+            USING (VALUES (CAST(? AS BIGINT), CAST(? AS DATE), CAST(? AS NUMERIC(18,2)),
+                           CAST(? AS NUMERIC(18,2)), CAST(? AS INTEGER), CAST(? AS NUMERIC(18,2))))
+                  AS v (cuenta_id, fecha, creditos, debitos, movimientos, saldo_cierre)
+               ON d.cuenta_id = v.cuenta_id AND d.fecha = v.fecha
+            WHEN MATCHED THEN UPDATE SET
+                 creditos = d.creditos + v.creditos,
+                 debitos = d.debitos + v.debitos,
+                 movimientos = d.movimientos + v.movimientos,
+                 saldo_cierre = v.saldo_cierre
+            WHEN NOT MATCHED THEN INSERT (cuenta_id, fecha, creditos, debitos, movimientos, saldo_cierre)
+                 VALUES (v.cuenta_id, v.fecha, v.creditos, v.debitos, v.movimientos, v.saldo_cierre)
+            """;
+
+    // Cierre del día = saldo del último movimiento del día (fecha, id)
+    private static final String RECONSTRUIR_CUENTA = """
+            INSERT INTO saldos_diarios (cuenta_id, fecha, creditos, debitos, movimientos, saldo_cierre)
+            SELECT cuenta_id, dia,
+                   SUM(CASE WHEN valor > 0 THEN valor ELSE 0 END),
+                   SUM(CASE WHEN valor < 0 THEN -valor ELSE 0 END),
+                   COUNT(*),
+                   MAX(CASE WHEN orden = 1 THEN saldo END)
+              FROM (SELECT cuenta_id, CAST(fecha AS DATE) AS dia, valor, saldo,
+                           ROW_NUMBER() OVER (PARTITION BY CAST(fecha AS DATE)
+                                              ORDER BY fecha DESC, movimiento_id DESC) AS orden
+                      FROM movimientos
+                     WHERE cuenta_id = ?) m
+             GROUP BY cuenta_id, dia
+            """;
+
+    /** Un movimiento ya posteado, con lo mínimo para la foto diaria. */
+    public record Asiento(Long cuentaId, LocalDateTime fecha, BigDecimal valor, BigDecimal saldo) {
+
+        public static Asiento de(Movimiento m) {
+            return new Asiento(m.getCuenta().getCuentaId(), m.getFecha(), m.getValor(), m.getSaldo());
+        }
+    }
+
+    private final JdbcTemplate jdbc;
+    private final SaldoDiarioRepository saldoRepo;
+    private final CuentaRepository cuentaRepo;
+    private final CacheReportes cacheReportes;
+    private final TransactionTemplate tx;
+
+    public SaldoDiarioService(JdbcTemplate jdbc,
+                              SaldoDiarioRepository saldoRepo,
+                              CuentaRepository cuentaRepo,
+                              CacheReportes cacheReportes,
+                              PlatformTransactionManager txManager) {
+        this.jdbc = jdbc;
+        this.saldoRepo = saldoRepo;
+        this.cuentaRepo = cuentaRepo;
+        this.cacheReportes = cacheReportes;
+        this.tx = new TransactionTemplate(txManager);
+    }
+
+    /* ===============================
+       Escritura incremental
+       =============================== */
+
+    public void registrar(Movimiento m) {
+        registrar(List.of(Asiento.de(m)));
+    }
+
+    public void registrarMovimientos(Collection<Movimiento> movimientos) {
+        registrar(movimientos.stream().map(Asiento::de).toList());
+    }
+
+    /**
+     * Un MERGE por (cuenta, día) presente en los asientos, en un solo lote JDBC.
+     * Debe llamarse dentro de la transacción del posteo y en orden de posteo:
+     * el saldo de cierre de cada día es el del último asiento de ese día.
+     */
+    public void registrar(Collection<Asiento> asientos) {
+        if (asientos.isEmpty()) return;
+
+        Map<List<Object>, Object[]> porDia = new LinkedHashMap<>();
+        for (Asiento a : asientos) {
+            LocalDate dia = a.fecha().toLocalDate();
+            Object[] fila = porDia.computeIfAbsent(List.of(a.cuentaId(), dia),
+                    k -> new Object[]{a.cuentaId(), Date.valueOf(dia), BigDecimal.ZERO, BigDecimal.ZERO, 0, null});
+            if (a.valor().signum() >= 0) {
+                fila[2] = ((BigDecimal) fila[2]).add(a.valor());
+            } else {
+                fila[3] = ((BigDecimal) fila[3]).add(a.valor().negate());
+            }
+            fila[4] = (Integer) fila[4] + 1;
+            fila[5] = a.saldo();
+        }
+
+        jdbc.batchUpdate(MERGE_DIA, new ArrayList<>(porDia.values()));
+
+        // Los estados de cuenta en cache que cubren estos días quedan viejos al confirmar
+        Map<Long, Set<LocalDate>> diasPorCuenta = new HashMap<>();
+        for (Asiento a : asientos) {
+            diasPorCuenta.computeIfAbsent(a.cuentaId(), k -> new HashSet<>()).add(a.fecha().toLocalDate());
+        }
+        diasPorCuenta.forEach(cacheReportes::invalidarAlConfirmar);
+    }
+
+    /* ===============================
+       Lectura
+       =============================== */
+
+    /**
+     * Apertura (saldo al inicio de {@code desde}), cierre (al final de {@code hasta}) y totales,
+     * leyendo solo saldos_diarios. Sin días previos, la apertura es el saldo inicial de la cuenta.
+     */
+    public ResumenPeriodo resumen(Long cuentaId, LocalDate desde, LocalDate hasta) {
+        BigDecimal apertura = saldoRepo.saldoAntesDe(cuentaId, desde)
+                .orElseGet(() -> cuentaRepo.saldoInicialDe(cuentaId).orElse(BigDecimal.ZERO));
+        return saldoRepo.totales(cuentaId, desde, hasta)
+                .map(t -> armar(apertura, t))
+                .orElseGet(() -> armar(apertura, null));
+    }
+
+    /**
+     * Igual que {@link #resumen} para todas las cuentas del cliente, con dos consultas.
+     *
+     * @param saldosIniciales cuentaId -> saldo inicial (para cuentas sin días previos)
+     */
+    public Map<Long, ResumenPeriodo> resumenesDeCliente(Long clienteId, LocalDate desde, LocalDate hasta,
+                                                        Map<Long, BigDecimal> saldosIniciales) {
+        return armarTodos(saldosIniciales,
+                saldoRepo.saldosAntesDe(clienteId, desde),
+                saldoRepo.totalesDeCliente(clienteId, desde, hasta));
+    }
+
+    /**
+     * Igual que {@link #resumen} para un bloque de cuentas (las claves de {@code saldosIniciales}),
+     * con dos consultas.
+     */
+    public Map<Long, ResumenPeriodo> resumenesDeCuentas(Map<Long, BigDecimal> saldosIniciales,
+                                                        LocalDate desde, LocalDate hasta) {
+        if (saldosIniciales.isEmpty()) return Map.of();
+        Set<Long> cuentaIds = saldosIniciales.keySet();
+        return armarTodos(saldosIniciales,
+                saldoRepo.saldosAntesDeCuentas(cuentaIds, desde),
+                saldoRepo.totalesDeCuentas(cuentaIds, desde, hasta));
+    }
+
+    private static Map<Long, ResumenPeriodo> armarTodos(Map<Long, BigDecimal> saldosIniciales,
+                                                        List<SaldoDiarioRepository.SaldoAl> saldosAntes,
+                                                        List<SaldoDiarioRepository.Totales> totalesPeriodo) {
+        Map<Long, BigDecimal> aperturas = saldosAntes.stream()
+                .collect(Collectors.toMap(SaldoDiarioRepository.SaldoAl::getCuentaId,
+                        SaldoDiarioRepository.SaldoAl::getSaldo));
+        Map<Long, SaldoDiarioRepository.Totales> totales = totalesPeriodo.stream()
+                .collect(Collectors.toMap(SaldoDiarioRepository.Totales::getCuentaId, Function.identity()));
+
+        Map<Long, ResumenPeriodo> resumenes = new HashMap<>();
+        saldosIniciales.forEach((cuentaId, inicial) -> {
+            BigDecimal apertura = aperturas.getOrDefault(cuentaId, Objects.requireNonNullElse(inicial, BigDecimal.ZERO));
+            resumenes.put(cuentaId, armar(apertura, totales.get(cuentaId)));
+        });
+        return resumenes;
+    }
+
+    private static ResumenPeriodo armar(BigDecimal apertura, SaldoDiarioRepository.Totales t) {
+        BigDecimal creditos = t == null ? BigDecimal.ZERO : t.getCreditos();
+        BigDecimal debitos = t == null ? BigDecimal.ZERO : t.getDebitos();
+        return new ResumenPeriodo(apertura, apertura.add(creditos).subtract(debitos), creditos, debitos);
+    }
+
+    /* ===============================
+       Reconstrucción
+       =============================== */
+
+    /**
+     * Recalcula la foto de una cuenta desde movimientos. Bloquea la fila de la cuenta
+     * para no cruzarse con posteos en curso.
+     */
+    public void reconstruir(Long cuentaId) {
+        tx.executeWithoutResult(status -> {
+            if (cuentaRepo.findByIdParaActualizar(cuentaId).isEmpty()) return;
+            jdbc.update("DELETE FROM saldos_diarios WHERE cuenta_id = ?", cuentaId);
+            jdbc.update(RECONSTRUIR_CUENTA, cuentaId);
+        });
+        cacheReportes.desalojarCuenta(cuentaId); // pudo haber movimientos retroactivos
+    }
+
+    /** Job de reconstrucción completa (una transacción corta por cuenta). Desactivado por defecto. */
+    @Scheduled(cron = "${bank.saldos-diarios.reconstruccion.cron:-}")
+    public void reconstruirTodo() {
+        List<Long> ids = cuentaRepo.todosLosIds();
+        long t0 = System.nanoTime();
+        ids.forEach(this::reconstruir);
+        log.info("saldos_diarios reconstruida para {} cuentas en {} ms",
+                ids.size(), (System.nanoTime() - t0) / 1_000_000);
+    }
+}
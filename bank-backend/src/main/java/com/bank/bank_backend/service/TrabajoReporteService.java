@@ -0,0 +1,230 @@
+package com.bank.bank_backend.service;
+
+import com.bank.bank_backend.dto.CrearTrabajoReporteRequest;
+import com.bank.bank_backend.dto.ReporteEstadoCuentaResponse;
+import com.bank.bank_backend.dto.TrabajoReporteResponse;
+import com.bank.bank_backend.exception.BadRequestException;
+import com.bank.bank_backend.exception.ConflictException;
+import com.bank.bank_backend.exception.NotFoundException;
+import com.bank.bank_backend.exception.ServicioNoDisponibleException;
+import com.bank.bank_backend.repository.ClienteRepository;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.attribute.FileTime;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+
+/**
+ * Estados de cuenta por cliente generados en segundo plano.
+ *
+ * - Cada trabajo corre en el pool acotado "ejecutorTrabajosReporte": el request solo encola
+ *   y devuelve el id, sin retener un hilo de Tomcat ni una conexión mientras se arma el reporte.
+ * - El resultado (JSON, con los PDF en Base64 si se pidieron) se escribe en disco y se puede
+ *   descargar hasta que vence el TTL; la purga borra archivo y registro.
+ * - El registro de trabajos vive en memoria: tras un reinicio los ids anteriores dejan de
+ *   existir y sus archivos se borran en la primera purga.
+ */
+@Service
+public class TrabajoReporteService {
+
+    private static final Logger log = LoggerFactory.getLogger(TrabajoReporteService.class);
+
+    private static final String EXTENSION = ".json";
+
+    private static final class Trabajo {
+        final String id;
+        final CrearTrabajoReporteRequest req;
+        final LocalDateTime creadoEn = LocalDateTime.now();
+        volatile EstadoTrabajo estado = EstadoTrabajo.EN_COLA;
+        volatile LocalDateTime terminadoEn;
+        volatile LocalDateTime expiraEn;
+        volatile String error;
+
+        Trabajo(String id, CrearTrabajoReporteRequest req) {
+            this.id = id;
+            this.req = req;
+        }
+    }
+
+    private final ReporteService reporteService;
+    private final ClienteRepository clienteRepo;
+    private final ObjectMapper objectMapper;
+    private final Executor ejecutor;
+    private final Path directorio;
+    private final Duration ttl;
+
+    private final Map<String, Trabajo> trabajos = new ConcurrentHashMap<>();
+
+    public TrabajoReporteService(ReporteService reporteService,
+                                 ClienteRepository clienteRepo,
+                                 ObjectMapper objectMapper,
+                                 @Qualifier("ejecutorTrabajosReporte") Executor ejecutor,
+                                 @Value("${bank.reportes.jobs.directorio:./data/reportes}") String directorio,
+                                 @Value("${bank.reportes.jobs.ttl-minutos:60}") long ttlMinutos) {
+        this.reporteService = reporteService;
+        this.clienteRepo = clienteRepo;
+        this.objectMapper = objectMapper;
+        this.ejecutor = ejecutor;
+        this.directorio = Path.of(directorio);
+        this.ttl = Duration.ofMinutes(Math.max(1, ttlMinutos));
+        try {
+            Files.createDirectories(this.directorio);
+        } catch (IOException ex) {
+            throw new UncheckedIOException("No se pudo crear " + this.directorio, ex);
+        }
+    }
+
+    public TrabajoReporteResponse crear(CrearTrabajoReporteRequest req) {
+        if (req == null) throw new BadRequestException("Request inválido");
+        if (req.getClienteId() == null) throw new BadRequestException("clienteId es requerido");
+        if (req.getFechaInicio() == null || req.getFechaFin() == null) {
+            throw new BadRequestException("fechaInicio y fechaFin son requeridas");
+        }
+        if (req.getFechaFin().isBefore(req.getFechaInicio())) {
+            throw new BadRequestException("fechaFin debe ser posterior o igual a fechaInicio");
+        }
+        if (!clienteRepo.existsById(req.getClienteId())) {
+            throw new NotFoundException("Cliente no encontrado");
+        }
+
+        Trabajo t = new Trabajo(UUID.randomUUID().toString(), req);
+        trabajos.put(t.id, t);
+        try {
+            ejecutor.execute(() -> ejecutar(t));
+        } catch (RejectedExecutionException ex) {
+            trabajos.remove(t.id);
+            throw new ServicioNoDisponibleException("Hay demasiados reportes en cola, intente más tarde");
+        }
+        return respuesta(t);
+    }
+
+    public TrabajoReporteResponse consultar(String id) {
+        return respuesta(buscar(id));
+    }
+
+    /** Archivo con el resultado; solo para trabajos completados y no vencidos. */
+    public Path resultado(String id) {
+        Trabajo t = buscar(id);
+        if (t.estado == EstadoTrabajo.FALLIDO) {
+            throw new ConflictException("El reporte falló: " + t.error);
+        }
+        if (t.estado != EstadoTrabajo.COMPLETADO) {
+            throw new ConflictException("El reporte aún no está listo");
+        }
+        Path archivo = archivo(t.id);
+        if (!Files.exists(archivo)) throw new NotFoundException("Trabajo no encontrado");
+        return archivo;
+    }
+
+    /**
+     * Borra trabajos terminados cuyo TTL venció y, en el directorio, cualquier resultado
+     * más viejo que el TTL (por ejemplo, de antes de un reinicio).
+     */
+    @Scheduled(fixedDelayString = "${bank.reportes.jobs.purga-ms:60000}")
+    public void purgar() {
+        LocalDateTime ahora = LocalDateTime.now();
+        trabajos.values().removeIf(t -> {
+            if (t.expiraEn == null || t.expiraEn.isAfter(ahora)) return false;
+            borrar(archivo(t.id));
+            return true;
+        });
+
+        FileTime limite = FileTime.from(Instant.now().minus(ttl));
+        try (DirectoryStream<Path> archivos = Files.newDirectoryStream(directorio)) {
+            for (Path a : archivos) {
+                if (Files.getLastModifiedTime(a).compareTo(limite) < 0) borrar(a);
+            }
+        } catch (IOException ex) {
+            log.warn("No se pudo recorrer {} para purgar reportes", directorio, ex);
+        }
+    }
+
+    /* ===============================
+       Helpers
+       =============================== */
+
+    private void ejecutar(Trabajo t) {
+        t.estado = EstadoTrabajo.EN_PROCESO;
+        CrearTrabajoReporteRequest req = t.req;
+        Path temporal = directorio.resolve(t.id + ".tmp");
+        try {
+            List<ReporteEstadoCuentaResponse> reporte = reporteService.estadoCuentaPorCliente(
+                    req.getClienteId(), req.getFechaInicio(), req.getFechaFin(), req.isIncluirPdf());
+
+            // Se escribe aparte y se renombra: nunca se descarga un archivo a medio escribir
+            try (OutputStream out = Files.newOutputStream(temporal)) {
+                objectMapper.writeValue(out, reporte);
+            }
+            Files.move(temporal, archivo(t.id), StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+            terminar(t, EstadoTrabajo.COMPLETADO, null);
+        } catch (BadRequestException | NotFoundException ex) {
+            terminar(t, EstadoTrabajo.FALLIDO, ex.getMessage());
+        } catch (Exception ex) {
+            log.error("Falló el trabajo de reporte {}", t.id, ex);
+            terminar(t, EstadoTrabajo.FALLIDO, "Error generando el reporte");
+        } finally {
+            borrar(temporal);
+        }
+    }
+
+    private void terminar(Trabajo t, EstadoTrabajo estado, String error) {
+        LocalDateTime ahora = LocalDateTime.now();
+        t.error = error;
+        t.terminadoEn = ahora;
+        t.expiraEn = ahora.plus(ttl);
+        t.estado = estado; // último: quien ve el estado final ya ve el resto
+    }
+
+    private Trabajo buscar(String id) {
+        Trabajo t = id == null ? null : trabajos.get(id);
+        if (t == null) throw new NotFoundException("Trabajo no encontrado");
+        return t;
+    }
+
+    private Path archivo(String id) {
+        return directorio.resolve(id + EXTENSION);
+    }
+
+    private static void borrar(Path archivo) {
+        try {
+            Files.deleteIfExists(archivo);
+        } catch (IOException ex) {
+            log.warn("No se pudo borrar {}", archivo, ex);
+        }
+    }
+
+    private static TrabajoReporteResponse respuesta(Trabajo t) {
+        TrabajoReporteResponse r = new TrabajoReporteResponse();
+        r.setId(t.id);
+        r.setEstado(t.estado);
+        r.setClienteId(t.req.getClienteId());
+        r.setFechaInicio(t.req.getFechaInicio());
+        r.setFechaFin(t.req.getFechaFin());
+        r.setIncluirPdf(t.req.isIncluirPdf());
+        r.setCreadoEn(t.creadoEn);
+        r.setTerminadoEn(t.terminadoEn);
+        r.setExpiraEn(t.expiraEn);
+        r.setError(t.error);
+        return r;
+    }
+}
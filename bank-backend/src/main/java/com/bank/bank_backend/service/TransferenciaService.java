@@ -0,0 +1,155 @@
+package com.bank.bank_backend.service;
+
+import com.bank.bank_backend.cache.CacheCuentas;
+import com.bank.bank_backend.config.ReintentarEnConflicto;
+import com.bank.bank_backend.dto.CrearTransferenciaRequest;
+import com.bank.bank_backend.dto.DescriptorCuenta;
+import com.bank.bank_backend.dto.TransferenciaResponse;
+import com.bank.bank_backend.entity.Cuenta;
+import com.bank.bank_backend.entity.Movimiento;
+import com.bank.bank_backend.exception.BadRequestException;
+import com.bank.bank_backend.exception.NotFoundException;
+import com.bank.bank_backend.exception.ServicioNoDisponibleException;
+import com.bank.bank_backend.repository.CuentaRepository;
+import com.bank.bank_backend.repository.MovimientoRepository;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.List;
+
+/**
+ * NUEVO: transferencia entre cuentas en una sola transacción.
+ *
+ * Las dos filas se bloquean (SELECT ... FOR UPDATE) siempre en orden ascendente de cuentaId:
+ * dos transferencias opuestas A→B y B→A esperan por la misma primera fila y nunca
+ * quedan en espera circular (sin deadlocks).
+ *
+ * Escribe las cuentas por fuera del motor de posteo: con su journal activo se deshabilita
+ * (bank.transferencias.habilitadas=false, ver VerificadorJournal).
+ */
+@Service
+public class TransferenciaService {
+
+    private final CuentaRepository cuentaRepo;
+    private final MovimientoRepository movRepo;
+    private final CacheCuentas cacheCuentas;
+    private final ObjectProvider<MotorPosteo> motorPosteo;
+    private final SaldoDiarioService saldosDiarios;
+
+    @Value("${bank.transferencias.habilitadas:true}")
+    private boolean habilitadas = true;
+
+    public TransferenciaService(CuentaRepository cuentaRepo,
+                                MovimientoRepository movRepo,
+                                CacheCuentas cacheCuentas,
+                                ObjectProvider<MotorPosteo> motorPosteo,
+                                SaldoDiarioService saldosDiarios) {
+        this.cuentaRepo = cuentaRepo;
+        this.movRepo = movRepo;
+        this.cacheCuentas = cacheCuentas;
+        this.motorPosteo = motorPosteo;
+        this.saldosDiarios = saldosDiarios;
+    }
+
+    @Transactional
+    @ReintentarEnConflicto
+    public TransferenciaResponse transferir(CrearTransferenciaRequest req) {
+        if (!habilitadas) throw new ServicioNoDisponibleException("Transferencias deshabilitadas en este nodo");
+        if (req == null) throw new BadRequestException("Request inválido");
+
+        String numeroOrigen = requerido(req.getNumeroCuentaOrigen(), "numeroCuentaOrigen es requerido");
+        String numeroDestino = requerido(req.getNumeroCuentaDestino(), "numeroCuentaDestino es requerido");
+        if (numeroOrigen.equals(numeroDestino)) {
+            throw new BadRequestException("La cuenta origen y destino deben ser distintas");
+        }
+
+        BigDecimal valor = req.getValor();
+        if (valor == null || valor.compareTo(BigDecimal.ZERO) <= 0) {
+            throw new BadRequestException("El valor debe ser mayor a 0");
+        }
+
+        DescriptorCuenta dOrigen = cacheCuentas.obtener(numeroOrigen);
+        DescriptorCuenta dDestino = cacheCuentas.obtener(numeroDestino);
+
+        // Orden fijo de bloqueo por cuentaId
+        boolean origenPrimero = dOrigen.cuentaId() < dDestino.cuentaId();
+        Cuenta primera = bloquear(origenPrimero ? dOrigen : dDestino);
+        Cuenta segunda = bloquear(origenPrimero ? dDestino : dOrigen);
+        Cuenta origen = origenPrimero ? primera : segunda;
+        Cuenta destino = origenPrimero ? segunda : primera;
+
+        if (Boolean.FALSE.equals(origen.getEstado()) || Boolean.FALSE.equals(destino.getEstado())) {
+            throw new BadRequestException("La cuenta está inactiva");
+        }
+
+        BigDecimal saldoOrigen = nvl(origen.getSaldoActual()).subtract(valor);
+        if (saldoOrigen.compareTo(BigDecimal.ZERO) < 0) {
+            throw new BadRequestException("Saldo no disponible");
+        }
+        BigDecimal saldoDestino = nvl(destino.getSaldoActual()).add(valor);
+
+        origen.setSaldoActual(saldoOrigen);
+        destino.setSaldoActual(saldoDestino);
+
+        LocalDateTime ahora = LocalDateTime.now();
+        Movimiento debito = movimiento(origen, ahora, "Debito", valor.negate(), saldoOrigen);
+        Movimiento credito = movimiento(destino, ahora, "Credito", valor, saldoDestino);
+        movRepo.saveAll(List.of(debito, credito)); // un solo lote JDBC
+        saldosDiarios.registrarMovimientos(List.of(debito, credito)); // ambas cuentas ya bloqueadas
+
+        invalidarMotorAlConfirmar(numeroOrigen, numeroDestino);
+
+        return new TransferenciaResponse(ahora, valor,
+                numeroOrigen, debito.getMovimientoId(), saldoOrigen,
+                numeroDestino, credito.getMovimientoId(), saldoDestino);
+    }
+
+    /* ===============================
+       Helpers
+       =============================== */
+
+    private Cuenta bloquear(DescriptorCuenta d) {
+        return cuentaRepo.findByIdParaActualizar(d.cuentaId()).orElseThrow(() -> {
+            cacheCuentas.desalojar(d.numeroCuenta()); // descriptor viejo: la cuenta ya no existe
+            return new NotFoundException("Cuenta no encontrada");
+        });
+    }
+
+    // Si el motor de posteo está activo, su saldo en memoria de estas cuentas quedó viejo.
+    private void invalidarMotorAlConfirmar(String... numeros) {
+        MotorPosteo motor = motorPosteo.getIfAvailable();
+        if (motor == null || !TransactionSynchronizationManager.isSynchronizationActive()) return;
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                for (String n : numeros) motor.invalidar(n);
+            }
+        });
+    }
+
+    private static Movimiento movimiento(Cuenta cuenta, LocalDateTime fecha, String tipo,
+                                         BigDecimal valor, BigDecimal saldo) {
+        Movimiento m = new Movimiento();
+        m.setFecha(fecha);
+        m.setTipoMovimiento(tipo);
+        m.setValor(valor);
+        m.setSaldo(saldo);
+        m.setCuenta(cuenta);
+        return m;
+    }
+
+    private static String requerido(String valor, String mensaje) {
+        if (valor == null || valor.trim().isEmpty()) throw new BadRequestException(mensaje);
+        return valor.trim();
+    }
+
+    private static BigDecimal nvl(BigDecimal v) {
+        return v == null ? BigDecimal.ZERO : v;
+    }
+}
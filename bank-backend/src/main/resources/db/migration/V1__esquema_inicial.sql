@@ -0,0 +1,107 @@
+-- =========================================
+-- V1: esquema de las entidades (antes lo creaba ddl-auto=update)
+-- =========================================
+--
+-- Todo es IF NOT EXISTS: en una base creada por Hibernate (baseline-on-migrate con versión 0)
+-- esta migración solo completa lo que falte. Una movimientos existente sin particionar
+-- se migra aparte con ParticionarMovimientos.sql.
+
+-- =========================
+-- Tabla: clientes
+-- =========================
+CREATE TABLE IF NOT EXISTS clientes (
+    cliente_id BIGINT GENERATED BY DEFAULT AS IDENTITY PRIMARY KEY,
+    nombre VARCHAR(255) NOT NULL,
+    genero VARCHAR(255) NOT NULL,
+    edad INTEGER NOT NULL,
+    identificacion VARCHAR(255) NOT NULL,
+    direccion VARCHAR(255) NOT NULL,
+    telefono VARCHAR(255) NOT NULL,
+    contrasena VARCHAR(255) NOT NULL,
+    estado BOOLEAN NOT NULL,
+    CONSTRAINT uk_cliente_identificacion UNIQUE (identificacion)
+);
+
+-- =========================
+-- Tabla: cuentas
+-- =========================
+CREATE TABLE IF NOT EXISTS cuentas (
+    cuenta_id BIGINT GENERATED BY DEFAULT AS IDENTITY PRIMARY KEY,
+    numero_cuenta VARCHAR(255) NOT NULL,
+    tipo_cuenta VARCHAR(255) NOT NULL,
+    saldo_inicial NUMERIC(18,2) NOT NULL,
+    saldo_actual NUMERIC(18,2) NOT NULL,
+    estado BOOLEAN NOT NULL,
+    cliente_id BIGINT NOT NULL,
+    version BIGINT NOT NULL DEFAULT 0,
+    CONSTRAINT uk_numero_cuenta UNIQUE (numero_cuenta),
+    CONSTRAINT fk_cuenta_cliente
+        FOREIGN KEY (cliente_id)
+        REFERENCES clientes(cliente_id)
+);
+
+-- Columnas agregadas después del esquema de ddl-auto: en una base adoptada la tabla ya existe sin ellas
+ALTER TABLE cuentas ADD COLUMN IF NOT EXISTS version BIGINT NOT NULL DEFAULT 0;
+
+-- =========================
+-- Tabla: movimientos (particionada por mes; las particiones las crea ParticionesMovimientosService)
+-- =========================
+CREATE TABLE IF NOT EXISTS movimientos (
+    movimiento_id BIGINT NOT NULL,
+    fecha TIMESTAMP(6) NOT NULL,
+    tipo_movimiento VARCHAR(255) NOT NULL,
+    valor NUMERIC(18,2) NOT NULL,
+    saldo NUMERIC(18,2) NOT NULL,
+    cuenta_id BIGINT NOT NULL,
+    CONSTRAINT movimientos_pkey PRIMARY KEY (movimiento_id, fecha),
+    CONSTRAINT fk_movimiento_cuenta
+        FOREIGN KEY (cuenta_id)
+        REFERENCES cuentas(cuenta_id)
+) PARTITION BY RANGE (fecha);
+
+-- =========================
+-- Tabla: saldos_diarios (foto diaria por cuenta: totales del día y saldo de cierre)
+-- =========================
+CREATE TABLE IF NOT EXISTS saldos_diarios (
+    cuenta_id BIGINT NOT NULL,
+    fecha DATE NOT NULL,
+    creditos NUMERIC(18,2) NOT NULL,
+    debitos NUMERIC(18,2) NOT NULL,
+    movimientos INTEGER NOT NULL,
+    saldo_cierre NUMERIC(18,2) NOT NULL,
+    PRIMARY KEY (cuenta_id, fecha)
+);
+
+-- =========================
+-- Tabla: idempotencia_movimientos (sin FK a movimientos: se purga por antigüedad)
+-- =========================
+CREATE TABLE IF NOT EXISTS idempotencia_movimientos (
+    clave VARCHAR(100) PRIMARY KEY,
+    huella VARCHAR(64) NOT NULL,
+    estado VARCHAR(20) NOT NULL,
+    movimiento_id BIGINT,
+    fecha_creacion TIMESTAMP(6) NOT NULL
+);
+
+-- =========================
+-- Tabla: journal_posteo (última secuencia del journal aplicada por shard)
+-- =========================
+CREATE TABLE IF NOT EXISTS journal_posteo (
+    shard INTEGER PRIMARY KEY,
+    secuencia_aplicada BIGINT NOT NULL
+);
+
+-- =========================
+-- Secuencias
+-- =========================
+-- IDs de movimientos con pool de 50 (Movimiento.BLOQUE_IDS): Hibernate y el journal reservan bloques
+CREATE SEQUENCE IF NOT EXISTS movimientos_seq START WITH 1 INCREMENT BY 50;
+
+-- Índice de bloque de números de cuenta (GeneradorNumeroCuenta)
+CREATE SEQUENCE IF NOT EXISTS cuentas_numero_seq START WITH 1 INCREMENT BY 1;
+
+-- En bases que venían de IDENTITY la secuencia nace en 1 y chocaría con los IDs previos
+SELECT setval('movimientos_seq', GREATEST(
+    (SELECT COALESCE(MAX(movimiento_id), 0) FROM movimientos),
+    (SELECT last_value FROM movimientos_seq)))
+ WHERE EXISTS (SELECT 1 FROM movimientos);
@@ -0,0 +1,49 @@
+-- =========================================
+-- V2: índices de las consultas de CuentaRepository y MovimientoRepository
+-- =========================================
+--
+-- Los nombres figuran en VerificadorIndices: si falta alguno, el backend no arranca.
+-- Sobre una base con datos, correr en una ventana de mantenimiento (CREATE INDEX bloquea escrituras;
+-- en una tabla particionada no existe CREATE INDEX CONCURRENTLY).
+
+-- =========================
+-- cuentas
+-- =========================
+-- findByNumeroCuenta, buscarDescriptor y findByNumeroCuentaParaActualizar usan uk_numero_cuenta (V1).
+
+-- Cuentas de un cliente ordenadas por número: findByClienteClienteId(OrderByNumeroCuentaAsc),
+-- numerosDeCliente (solo índice) y saldosDeCliente; también el join por cliente de los reportes
+CREATE INDEX IF NOT EXISTS idx_cuentas_cliente_numero
+    ON cuentas (cliente_id, numero_cuenta)
+    INCLUDE (saldo_inicial, saldo_actual);
+
+-- Keyset del cierre mensual (activasDesde) y contarActivas: solo las cuentas activas
+CREATE INDEX IF NOT EXISTS idx_cuentas_activas
+    ON cuentas (cuenta_id)
+    WHERE estado;
+
+-- =========================
+-- movimientos
+-- =========================
+-- Reportes por cuenta + rango (stream del estado de cuenta, exists, movimientosDeCuentas) y paginación
+-- por keyset sobre (fecha, movimiento_id). Cubre la proyección de los reportes: lectura solo del índice.
+DROP INDEX IF EXISTS idx_movimientos_cuenta_fecha_id;
+CREATE INDEX idx_movimientos_cuenta_fecha_id
+    ON movimientos (cuenta_id, fecha, movimiento_id)
+    INCLUDE (tipo_movimiento, valor, saldo);
+
+-- Rangos de fecha sin cuenta (resumen, reconstrucciones, archivo): BRIN ocupa unas pocas páginas
+-- porque las filas se insertan en orden de fecha
+DROP INDEX IF EXISTS idx_movimientos_fecha;
+CREATE INDEX IF NOT EXISTS idx_movimientos_fecha_brin
+    ON movimientos USING BRIN (fecha);
+
+-- idx_movimientos_cuenta queda cubierto por el prefijo de idx_movimientos_cuenta_fecha_id
+DROP INDEX IF EXISTS idx_movimientos_cuenta;
+
+-- =========================
+-- idempotencia_movimientos
+-- =========================
+-- Purga por antigüedad (eliminarAnterioresA)
+CREATE INDEX IF NOT EXISTS idx_idempotencia_fecha
+    ON idempotencia_movimientos (fecha_creacion);
@@ -0,0 +1,25 @@
+-- =========================================
+-- V3: carga inicial de saldos_diarios desde movimientos
+-- =========================================
+--
+-- V1 creó la tabla vacía también en bases que ya tenían movimientos, y los posteos posteriores solo
+-- agregaron filas parciales para su día. Se reconstruye completa con la misma lógica que
+-- SaldoDiarioService.RECONSTRUIR_CUENTA, para todas las cuentas en una sola pasada.
+-- En una base nueva no hace nada. El LOCK frena el MERGE de los posteos concurrentes hasta el commit:
+-- un movimiento que no entró en el SELECT se suma después sobre la fila ya reconstruida.
+
+LOCK TABLE saldos_diarios IN EXCLUSIVE MODE;
+
+DELETE FROM saldos_diarios;
+
+INSERT INTO saldos_diarios (cuenta_id, fecha, creditos, debitos, movimientos, saldo_cierre)
+SELECT cuenta_id, dia,
+       SUM(CASE WHEN valor > 0 THEN valor ELSE 0 END),
+       SUM(CASE WHEN valor < 0 THEN -valor ELSE 0 END),
+       COUNT(*),
+       MAX(CASE WHEN orden = 1 THEN saldo END)
+  FROM (SELECT cuenta_id, CAST(fecha AS DATE) AS dia, valor, saldo,
+               ROW_NUMBER() OVER (PARTITION BY cuenta_id, CAST(fecha AS DATE)
+                                  ORDER BY fecha DESC, movimiento_id DESC) AS orden
+          FROM movimientos) m
+ GROUP BY cuenta_id, dia;
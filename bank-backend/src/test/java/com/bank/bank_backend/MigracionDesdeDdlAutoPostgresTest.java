@@ -0,0 +1,129 @@
+package com.bank.bank_backend;
+
+import com.bank.bank_backend.dto.CrearMovimientoRequest;
+import com.bank.bank_backend.entity.Cuenta;
+import com.bank.bank_backend.entity.Movimiento;
+import com.bank.bank_backend.repository.CuentaRepository;
+import com.bank.bank_backend.service.MovimientoService;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfEnvironmentVariable;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+
+import java.math.BigDecimal;
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.Statement;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Adopción de una base creada por ddl-auto=update antes de Flyway: el esquema de partida es el
+ * que generaba Hibernate para las entidades originales (sin cuentas.version, movimientos sin
+ * particionar, sin secuencias). Al arrancar, baseline-on-migrate aplica V1..V3 y Hibernate
+ * valida el resultado; si falta una columna el contexto no levanta.
+ * Corre solo con BANK_TEST_POSTGRES_URL, en un esquema propio que se borra al terminar.
+ */
+@SpringBootTest(properties = {
+        "spring.flyway.enabled=true",
+        "spring.flyway.schemas=" + MigracionDesdeDdlAutoPostgresTest.ESQUEMA,
+        "spring.flyway.default-schema=" + MigracionDesdeDdlAutoPostgresTest.ESQUEMA,
+        "spring.jpa.hibernate.ddl-auto=validate",
+        "spring.jpa.show-sql=false"
+})
+@EnabledIfEnvironmentVariable(named = "BANK_TEST_POSTGRES_URL", matches = ".+")
+class MigracionDesdeDdlAutoPostgresTest {
+
+    static final String ESQUEMA = "prueba_migracion";
+
+    // DDL de Hibernate 6 para Cliente, Cuenta y Movimiento tal como estaban antes de las migraciones
+    private static final List<String> ESQUEMA_DDL_AUTO = List.of(
+            "CREATE TABLE clientes (cliente_id BIGINT GENERATED BY DEFAULT AS IDENTITY, "
+                    + "contrasena VARCHAR(255) NOT NULL, direccion VARCHAR(255) NOT NULL, edad INTEGER NOT NULL, "
+                    + "estado BOOLEAN NOT NULL, genero VARCHAR(255) NOT NULL, "
+                    + "identificacion VARCHAR(255) NOT NULL UNIQUE, nombre VARCHAR(255) NOT NULL, "
+                    + "telefono VARCHAR(255) NOT NULL, PRIMARY KEY (cliente_id))",
+            "CREATE TABLE cuentas (cuenta_id BIGINT GENERATED BY DEFAULT AS IDENTITY, estado BOOLEAN NOT NULL, "
+                    + "numero_cuenta VARCHAR(255) NOT NULL, saldo_actual NUMERIC(18,2) NOT NULL, "
+                    + "saldo_inicial NUMERIC(18,2) NOT NULL, tipo_cuenta VARCHAR(255) NOT NULL, "
+                    + "cliente_id BIGINT NOT NULL, PRIMARY KEY (cuenta_id), "
+                    + "CONSTRAINT uk_numero_cuenta UNIQUE (numero_cuenta))",
+            "CREATE TABLE movimientos (movimiento_id BIGINT GENERATED BY DEFAULT AS IDENTITY, "
+                    + "fecha TIMESTAMP(6) NOT NULL, saldo NUMERIC(18,2) NOT NULL, "
+                    + "tipo_movimiento VARCHAR(255) NOT NULL, valor NUMERIC(18,2) NOT NULL, "
+                    + "cuenta_id BIGINT NOT NULL, PRIMARY KEY (movimiento_id))",
+            "ALTER TABLE cuentas ADD CONSTRAINT fk_cuenta_cliente FOREIGN KEY (cliente_id) REFERENCES clientes",
+            "ALTER TABLE movimientos ADD CONSTRAINT fk_movimiento_cuenta FOREIGN KEY (cuenta_id) REFERENCES cuentas",
+            "INSERT INTO clientes (contrasena, direccion, edad, estado, genero, identificacion, nombre, telefono) "
+                    + "VALUES ('1234', 'Calle 1', 30, true, 'M', 'MIGRACION-1', 'Cliente previo', '0999999999')",
+            "INSERT INTO cuentas (estado, numero_cuenta, saldo_actual, saldo_inicial, tipo_cuenta, cliente_id) "
+                    + "VALUES (true, '8000000001', 150.00, 100.00, 'Ahorros', 1)",
+            "INSERT INTO movimientos (fecha, saldo, tipo_movimiento, valor, cuenta_id) "
+                    + "VALUES ('2024-03-10 10:00:00', 150.00, 'Credito', 50.00, 1)"
+    );
+
+    @DynamicPropertySource
+    static void postgres(DynamicPropertyRegistry registro) {
+        String url = System.getenv("BANK_TEST_POSTGRES_URL");
+        registro.add("spring.datasource.url",
+                () -> url + (url.contains("?") ? "&" : "?") + "currentSchema=" + ESQUEMA);
+    }
+
+    // Antes de que arranque el contexto (y con él Flyway)
+    @BeforeAll
+    static void antes() throws Exception {
+        try (Connection con = DriverManager.getConnection(System.getenv("BANK_TEST_POSTGRES_URL"));
+             Statement st = con.createStatement()) {
+            st.execute("DROP SCHEMA IF EXISTS " + ESQUEMA + " CASCADE");
+            st.execute("CREATE SCHEMA " + ESQUEMA);
+            st.execute("SET search_path TO " + ESQUEMA);
+            for (String sql : ESQUEMA_DDL_AUTO) st.execute(sql);
+        }
+    }
+
+    @AfterAll
+    static void despues() throws Exception {
+        try (Connection con = DriverManager.getConnection(System.getenv("BANK_TEST_POSTGRES_URL"));
+             Statement st = con.createStatement()) {
+            st.execute("DROP SCHEMA IF EXISTS " + ESQUEMA + " CASCADE");
+        }
+    }
+
+    @Autowired
+    private JdbcTemplate jdbc;
+
+    @Autowired
+    private CuentaRepository cuentaRepo;
+
+    @Autowired
+    private MovimientoService movimientoService;
+
+    @Test
+    void baseAdoptada_migraYValida() {
+        assertEquals(List.of("0", "1", "2", "3"), jdbc.queryForList(
+                "SELECT version FROM flyway_schema_history WHERE success ORDER BY installed_rank", String.class));
+
+        // La cuenta previa recibe version = 0 y el backfill de V3 su día con movimientos
+        Cuenta cuenta = cuentaRepo.findByNumeroCuenta("8000000001").orElseThrow();
+        assertEquals(0L, cuenta.getVersion());
+        assertEquals(1, jdbc.queryForObject(
+                "SELECT COUNT(*) FROM saldos_diarios WHERE cuenta_id = ?", Integer.class, cuenta.getCuentaId()));
+
+        // Un posteo nuevo: ID de movimientos_seq por encima de los previos y versión incrementada
+        CrearMovimientoRequest req = new CrearMovimientoRequest();
+        req.setNumeroCuenta("8000000001");
+        req.setTipoMovimiento("Debito");
+        req.setValor(new BigDecimal("20.00"));
+        Movimiento m = movimientoService.crear(req);
+
+        assertTrue(m.getMovimientoId() > 1L);
+        assertEquals(0, new BigDecimal("130.00").compareTo(m.getSaldo()));
+        assertEquals(1L, cuentaRepo.findByNumeroCuenta("8000000001").orElseThrow().getVersion());
+    }
+}
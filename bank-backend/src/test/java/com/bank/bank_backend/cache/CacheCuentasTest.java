@@ -0,0 +1,78 @@
+package com.bank.bank_backend.cache;
+
+import com.bank.bank_backend.dto.DescriptorCuenta;
+import com.bank.bank_backend.exception.NotFoundException;
+import com.bank.bank_backend.repository.CuentaRepository;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.support.StaticListableBeanFactory;
+
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+class CacheCuentasTest {
+
+    private CuentaRepository cuentaRepo;
+    private MeterRegistry registry;
+    private CacheCuentas cache;
+
+    @BeforeEach
+    void setUp() {
+        cuentaRepo = mock(CuentaRepository.class);
+        registry = new SimpleMeterRegistry();
+        StaticListableBeanFactory beans = new StaticListableBeanFactory();
+        beans.addBean("meterRegistry", registry);
+        cache = new CacheCuentas(cuentaRepo, beans.getBeanProvider(MeterRegistry.class), 100, 600);
+
+        when(cuentaRepo.buscarDescriptor("123")).thenReturn(Optional.of(
+                new DescriptorCuenta(1L, "123", "Ahorros", true, 10L, "Jose Lema")));
+        when(cuentaRepo.buscarDescriptor("456")).thenReturn(Optional.of(
+                new DescriptorCuenta(2L, "456", "Corriente", true, 10L, "Jose Lema")));
+    }
+
+    @Test
+    void segundaResolucion_vieneDeCacheYSeCuentaEnMetricas() {
+        assertEquals(1L, cache.obtener("123").cuentaId());
+        assertEquals(1L, cache.obtener(" 123 ").cuentaId());
+
+        verify(cuentaRepo, times(1)).buscarDescriptor("123");
+        assertEquals(1.0, registry.get("bank.cache.cuentas.aciertos").functionCounter().count());
+        assertEquals(1.0, registry.get("bank.cache.cuentas.fallos").functionCounter().count());
+    }
+
+    @Test
+    void cuentaInexistente_noSeCacheaYLanzaNotFound() {
+        when(cuentaRepo.buscarDescriptor("999")).thenReturn(Optional.empty());
+
+        assertThrows(NotFoundException.class, () -> cache.obtener("999"));
+        assertThrows(NotFoundException.class, () -> cache.obtener("999"));
+
+        verify(cuentaRepo, times(2)).buscarDescriptor("999");
+    }
+
+    @Test
+    void desalojar_obligaARecargar() {
+        cache.obtener("123");
+        cache.desalojar("123");
+        cache.obtener("123");
+
+        verify(cuentaRepo, times(2)).buscarDescriptor("123");
+    }
+
+    @Test
+    void desalojarCliente_quitaTodasSusCuentas() {
+        cache.obtener("123");
+        cache.obtener("456");
+
+        cache.desalojarCliente(10L);
+        cache.obtener("123");
+        cache.obtener("456");
+
+        verify(cuentaRepo, times(2)).buscarDescriptor("123");
+        verify(cuentaRepo, times(2)).buscarDescriptor("456");
+    }
+}
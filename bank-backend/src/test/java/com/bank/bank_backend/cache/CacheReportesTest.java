@@ -0,0 +1,100 @@
+package com.bank.bank_backend.cache;
+
+import com.bank.bank_backend.dto.ReporteEstadoCuentaResponse;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.support.StaticListableBeanFactory;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class CacheReportesTest {
+
+    private static final LocalDate HOY = LocalDate.now();
+    private static final LocalDate MES_PASADO = HOY.minusMonths(1).withDayOfMonth(1);
+
+    private MeterRegistry registry;
+    private CacheReportes cache;
+
+    @BeforeEach
+    void setUp() {
+        registry = new SimpleMeterRegistry();
+        StaticListableBeanFactory beans = new StaticListableBeanFactory();
+        beans.addBean("meterRegistry", registry);
+        cache = new CacheReportes(beans.getBeanProvider(MeterRegistry.class), 100);
+    }
+
+    @Test
+    void posteo_soloInvalidaLosRangosQueContienenElDia() {
+        CacheReportes.Clave abierto = clave("123", HOY.withDayOfMonth(1), HOY);
+        CacheReportes.Clave cerrado = clave("123", MES_PASADO, HOY.withDayOfMonth(1).minusDays(1));
+        CacheReportes.Clave otraCuenta = clave("456", HOY.withDayOfMonth(1), HOY);
+        cache.guardar(abierto, 1L, 10L, reporte("123"), cache.marca(), false);
+        cache.guardar(cerrado, 1L, 10L, reporte("123"), cache.marca(), false);
+        cache.guardar(otraCuenta, 2L, 10L, reporte("456"), cache.marca(), false);
+
+        cache.invalidarAlConfirmar(1L, List.of(HOY)); // sin transacción: inmediato
+
+        assertNull(cache.buscar(abierto));
+        assertNotNull(cache.buscar(cerrado));
+        assertNotNull(cache.buscar(otraCuenta));
+        assertEquals(2.0, registry.get("bank.cache.reportes.aciertos").functionCounter().count());
+        assertEquals(1.0, registry.get("bank.cache.reportes.fallos").functionCounter().count());
+    }
+
+    @Test
+    void rangoAbiertoCalculadoDuranteUnaInvalidacion_noSeGuarda() {
+        CacheReportes.Clave abierto = clave("123", HOY.withDayOfMonth(1), HOY);
+        CacheReportes.Clave cerrado = clave("123", MES_PASADO, MES_PASADO.plusDays(10));
+
+        long marca = cache.marca();
+        cache.invalidar(1L, List.of(HOY)); // un posteo confirmó mientras se armaba el reporte
+        cache.guardar(abierto, 1L, 10L, reporte("123"), marca, false);
+        cache.guardar(cerrado, 1L, 10L, reporte("123"), marca, false);
+
+        assertNull(cache.buscar(abierto));
+        assertNotNull(cache.buscar(cerrado)); // un período cerrado no recibe posteos
+    }
+
+    @Test
+    void leidoDeLaReplica_soloSeGuardaSiElRangoTerminoAntesDeAyer() {
+        CacheReportes.Clave abierto = clave("123", HOY.withDayOfMonth(1), HOY);
+        CacheReportes.Clave hastaAyer = clave("123", MES_PASADO, HOY.minusDays(1));
+        CacheReportes.Clave cerrado = clave("123", MES_PASADO, HOY.minusDays(2));
+
+        // Sin invalidaciones de por medio: la marca no alcanza, la réplica pudo no ver el último posteo
+        cache.guardar(abierto, 1L, 10L, reporte("123"), cache.marca(), true);
+        cache.guardar(hastaAyer, 1L, 10L, reporte("123"), cache.marca(), true);
+        cache.guardar(cerrado, 1L, 10L, reporte("123"), cache.marca(), true);
+
+        assertNull(cache.buscar(abierto));
+        assertNull(cache.buscar(hastaAyer));
+        assertNotNull(cache.buscar(cerrado));
+    }
+
+    @Test
+    void desalojarCliente_quitaTodasSusCuentas() {
+        CacheReportes.Clave a = clave("123", MES_PASADO, MES_PASADO.plusDays(10));
+        CacheReportes.Clave b = clave("456", MES_PASADO, MES_PASADO.plusDays(10));
+        cache.guardar(a, 1L, 10L, reporte("123"), cache.marca(), false);
+        cache.guardar(b, 2L, 20L, reporte("456"), cache.marca(), false);
+
+        cache.desalojarCliente(10L);
+
+        assertNull(cache.buscar(a));
+        assertNotNull(cache.buscar(b));
+    }
+
+    private static CacheReportes.Clave clave(String numero, LocalDate ini, LocalDate fin) {
+        return new CacheReportes.Clave(numero, ini, fin, CacheReportes.Formato.JSON);
+    }
+
+    private static ReporteEstadoCuentaResponse reporte(String numero) {
+        return new ReporteEstadoCuentaResponse(numero, "Jose Lema", BigDecimal.TEN, List.of());
+    }
+}
@@ -0,0 +1,140 @@
+package com.bank.bank_backend.config;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.aop.framework.ProxyFactory;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DataSourceTransactionManager;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+import org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Ruteo primaria / réplica con dos bases H2 distintas: cada una tiene una fila que dice cuál es.
+ * La "réplica" además tiene la tabla con el retraso que lee MonitorReplica.
+ */
+class DataSourceRuteadoTest {
+
+    private static final AtomicInteger SECUENCIA = new AtomicInteger();
+
+    private JdbcTemplate primaria;
+    private JdbcTemplate replica;
+    private MonitorReplica monitor;
+    private JdbcTemplate jdbc;
+    private DataSourceTransactionManager tm;
+
+    // Lo que haría un servicio @LecturaEnReplica: la consulta corre dentro del interceptor
+    private Supplier<String> lectorEnReplica;
+
+    @BeforeEach
+    void setUp() {
+        int prueba = SECUENCIA.incrementAndGet();
+        primaria = new JdbcTemplate(base("primaria" + prueba));
+        replica = new JdbcTemplate(base("replica" + prueba));
+        primaria.execute("CREATE TABLE origen (nombre VARCHAR(20))");
+        primaria.update("INSERT INTO origen VALUES ('primaria')");
+        replica.execute("CREATE TABLE origen (nombre VARCHAR(20))");
+        replica.update("INSERT INTO origen VALUES ('replica')");
+        replica.execute("CREATE TABLE retraso (ms BIGINT)");
+        replica.update("INSERT INTO retraso VALUES (100)");
+
+        monitor = new MonitorReplica(replica.getDataSource(), "SELECT ms FROM retraso", 1000, 2);
+        LazyConnectionDataSourceProxy ds = new LazyConnectionDataSourceProxy(
+                new DataSourceRuteado(primaria.getDataSource(), replica.getDataSource(), monitor));
+        jdbc = new JdbcTemplate(ds);
+        tm = new DataSourceTransactionManager(ds);
+
+        ProxyFactory pf = new ProxyFactory((Supplier<String>) this::origen);
+        pf.addInterface(Supplier.class);
+        pf.addAdvice(new LecturaReplicaInterceptor());
+        @SuppressWarnings("unchecked")
+        Supplier<String> proxy = (Supplier<String>) pf.getProxy();
+        lectorEnReplica = proxy;
+    }
+
+    @AfterEach
+    void tearDown() {
+        primaria.execute("SHUTDOWN");
+        replica.execute("SHUTDOWN");
+    }
+
+    @Test
+    void soloLecturaEnMetodoAnotado_vaALaReplica() {
+        assertTrue(monitor.disponible());
+        assertEquals(100, monitor.getRetrasoMs());
+
+        assertEquals("replica", enTransaccion(true, lectorEnReplica));
+        assertEquals("primaria", enTransaccion(false, lectorEnReplica), "transacción de escritura");
+        assertEquals("primaria", enTransaccion(true, this::origen), "readOnly pero sin @LecturaEnReplica");
+        assertEquals("primaria", lectorEnReplica.get(), "sin transacción");
+        assertFalse(LecturaReplicaInterceptor.activa());
+    }
+
+    @Test
+    void transaccionEnReplica_marcadaHastaQueTermina() {
+        TransactionTemplate tx = new TransactionTemplate(tm);
+        tx.setReadOnly(true);
+
+        Boolean enReplica = tx.execute(status -> {
+            lectorEnReplica.get();
+            return DataSourceRuteado.transaccionEnReplica();
+        });
+        Boolean enPrimaria = tx.execute(status -> {
+            origen();
+            return DataSourceRuteado.transaccionEnReplica();
+        });
+
+        assertEquals(Boolean.TRUE, enReplica);
+        assertEquals(Boolean.FALSE, enPrimaria);
+        assertFalse(DataSourceRuteado.transaccionEnReplica());
+    }
+
+    @Test
+    void replicaAtrasadaOCaida_vuelveALaPrimaria() {
+        replica.update("UPDATE retraso SET ms = 5000");
+        monitor.verificar();
+        assertFalse(monitor.disponible());
+        assertEquals("primaria", enTransaccion(true, lectorEnReplica));
+
+        replica.update("UPDATE retraso SET ms = 0");
+        monitor.verificar();
+        assertEquals("replica", enTransaccion(true, lectorEnReplica));
+
+        // NULL = sin medición (la consulta de PostgreSQL sin WAL receiver): fuera, no "0 ms"
+        replica.update("UPDATE retraso SET ms = NULL");
+        monitor.verificar();
+        assertFalse(monitor.disponible());
+        assertEquals(-1, monitor.getRetrasoMs());
+        assertEquals("primaria", enTransaccion(true, lectorEnReplica));
+
+        replica.update("UPDATE retraso SET ms = 0");
+        monitor.verificar();
+        assertTrue(monitor.disponible());
+
+        replica.execute("DROP TABLE retraso");
+        monitor.verificar();
+        assertFalse(monitor.disponible());
+        assertEquals(-1, monitor.getRetrasoMs());
+        assertEquals("primaria", enTransaccion(true, lectorEnReplica));
+    }
+
+    private String origen() {
+        return jdbc.queryForObject("SELECT nombre FROM origen", String.class);
+    }
+
+    private String enTransaccion(boolean soloLectura, Supplier<String> consulta) {
+        TransactionTemplate tx = new TransactionTemplate(tm);
+        tx.setReadOnly(soloLectura);
+        return tx.execute(status -> consulta.get());
+    }
+
+    private static DriverManagerDataSource base(String nombre) {
+        return new DriverManagerDataSource("jdbc:h2:mem:" + nombre + ";DB_CLOSE_DELAY=-1", "sa", "");
+    }
+}
@@ -0,0 +1,212 @@
+package com.bank.bank_backend.config;
+
+import com.bank.bank_backend.cache.CacheCuentas;
+import com.bank.bank_backend.cache.CacheReportes;
+import com.bank.bank_backend.dto.CrearMovimientoRequest;
+import com.bank.bank_backend.dto.ResumenMovimientosResponse;
+import com.bank.bank_backend.entity.Cliente;
+import com.bank.bank_backend.entity.Cuenta;
+import com.bank.bank_backend.repository.ClienteRepository;
+import com.bank.bank_backend.repository.CuentaRepository;
+import com.bank.bank_backend.service.LectorCierreMensual;
+import com.bank.bank_backend.service.MovimientoService;
+import com.bank.bank_backend.service.ReporteService;
+import com.bank.bank_backend.service.ResumenMovimientosService;
+import com.bank.bank_backend.service.SaldoDiarioService;
+import com.bank.bank_backend.support.DatosPrueba;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.context.TestConfiguration;
+import org.springframework.boot.test.mock.mockito.SpyBean;
+import org.springframework.context.annotation.Bean;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.doAnswer;
+
+/**
+ * Réplica de lectura con la aplicación completa (JpaTransactionManager + Hibernate).
+ * La "réplica" es la misma base H2 abierta con otro usuario (lector): así se ve qué pool atendió
+ * cada consulta, y el retraso que mide el monitor sale de una tabla. Hasta que existe el usuario,
+ * el monitor la da por caída (IFEXISTS: si la réplica conectara primero, H2 crearía la base
+ * con lector como dueño).
+ */
+@SpringBootTest(properties = {
+        "spring.datasource.url=" + ReplicaLecturaIntegracionTest.URL,
+        "bank.replica.habilitada=true",
+        "bank.replica.url=" + ReplicaLecturaIntegracionTest.URL + ";IFEXISTS=TRUE",
+        "bank.replica.usuario=lector",
+        "bank.replica.contrasena=lector",
+        "bank.replica.consulta-retraso=SELECT ms FROM retraso_replica",
+        "bank.replica.verificacion-ms=3600000"
+})
+@ActiveProfiles("test")
+class ReplicaLecturaIntegracionTest {
+
+    static final String URL =
+            "jdbc:h2:mem:replica;MODE=PostgreSQL;DATABASE_TO_LOWER=TRUE;DEFAULT_NULL_ORDERING=HIGH;DB_CLOSE_DELAY=-1";
+
+    @TestConfiguration
+    static class Config {
+        @Bean
+        Lector lector(JdbcTemplate jdbc, CacheCuentas cacheCuentas) {
+            return new Lector(jdbc, cacheCuentas);
+        }
+    }
+
+    @Transactional(readOnly = true)
+    @LecturaEnReplica
+    static class Lector {
+        private final JdbcTemplate jdbc;
+        private final CacheCuentas cacheCuentas;
+
+        Lector(JdbcTemplate jdbc, CacheCuentas cacheCuentas) {
+            this.jdbc = jdbc;
+            this.cacheCuentas = cacheCuentas;
+        }
+
+        public String usuario() {
+            return jdbc.queryForObject("SELECT CURRENT_USER", String.class);
+        }
+
+        public boolean cuentaExiste(String numeroCuenta) {
+            return cacheCuentas.buscar(numeroCuenta).isPresent();
+        }
+    }
+
+    @Autowired
+    private Lector lector;
+
+    @Autowired
+    private MonitorReplica monitor;
+
+    @Autowired
+    private JdbcTemplate jdbc;
+
+    @Autowired
+    private ResumenMovimientosService resumenService;
+
+    @Autowired
+    private MovimientoService movimientoService;
+
+    @Autowired
+    private ReporteService reporteService;
+
+    @Autowired
+    private CacheReportes cacheReportes;
+
+    @Autowired
+    private CacheCuentas cacheCuentas;
+
+    @Autowired
+    private LectorCierreMensual lectorCierre;
+
+    // Para ver desde dónde lee: la marca de la réplica solo existe dentro de la transacción
+    @SpyBean
+    private SaldoDiarioService saldosDiarios;
+
+    @Autowired
+    private ClienteRepository clienteRepo;
+
+    @Autowired
+    private CuentaRepository cuentaRepo;
+
+    @BeforeEach
+    void setUp() {
+        jdbc.execute("CREATE USER IF NOT EXISTS lector PASSWORD 'lector' ADMIN");
+        jdbc.execute("CREATE TABLE IF NOT EXISTS retraso_replica (ms BIGINT)");
+        jdbc.update("DELETE FROM retraso_replica");
+        jdbc.update("INSERT INTO retraso_replica VALUES (0)");
+        monitor.verificar();
+    }
+
+    @Test
+    void lecturasAnotadas_porLaReplica_yElRestoPorLaPrimaria() {
+        assertTrue(monitor.disponible());
+        assertEquals("lector", lector.usuario().toLowerCase());
+        assertEquals("sa", jdbc.queryForObject("SELECT CURRENT_USER", String.class).toLowerCase());
+
+        // Servicios reales: escritura en la primaria, resumen leído por la réplica (misma base)
+        Cliente cliente = DatosPrueba.cliente(clienteRepo, "REPLICA-1");
+        Cuenta cuenta = DatosPrueba.cuenta(cuentaRepo, cliente, "5100000001", new BigDecimal("100.00"));
+        CrearMovimientoRequest req = new CrearMovimientoRequest();
+        req.setNumeroCuenta(cuenta.getNumeroCuenta());
+        req.setTipoMovimiento("Credito");
+        req.setValor(new BigDecimal("25.00"));
+        movimientoService.crear(req);
+
+        ResumenMovimientosResponse r = resumenService.resumen(null, cuenta.getNumeroCuenta(),
+                LocalDate.now().minusDays(1), LocalDate.now(), null);
+        assertEquals(1, r.filas().size());
+        assertEquals(0, new BigDecimal("25.00").compareTo(r.filas().get(0).creditos()));
+    }
+
+    @Test
+    void estadoCuentaDeRangoAbierto_leidoDeLaReplica_noQuedaEnCache() {
+        Cliente cliente = DatosPrueba.cliente(clienteRepo, "REPLICA-2");
+        Cuenta cuenta = DatosPrueba.cuenta(cuentaRepo, cliente, "5100000002", new BigDecimal("100.00"));
+        LocalDate hoy = LocalDate.now();
+        CacheReportes.Clave clave = new CacheReportes.Clave(cuenta.getNumeroCuenta(), hoy.minusDays(7), hoy,
+                CacheReportes.Formato.JSON);
+
+        reporteService.estadoCuenta(cuenta.getNumeroCuenta(), hoy.minusDays(7), hoy);
+        assertNull(cacheReportes.buscar(clave), "la réplica pudo no ver un posteo ya invalidado");
+
+        // Réplica fuera: el mismo reporte sale de la primaria y se guarda
+        jdbc.update("UPDATE retraso_replica SET ms = 60000");
+        monitor.verificar();
+        reporteService.estadoCuenta(cuenta.getNumeroCuenta(), hoy.minusDays(7), hoy);
+        assertNotNull(cacheReportes.buscar(clave));
+    }
+
+    @Test
+    void cuentaLeidaDeLaReplica_noQuedaEnCache() {
+        Cliente cliente = DatosPrueba.cliente(clienteRepo, "REPLICA-4");
+        Cuenta cuenta = DatosPrueba.cuenta(cuentaRepo, cliente, "5100000004", new BigDecimal("100.00"));
+        long fallos = cacheCuentas.getFallos();
+
+        assertTrue(lector.cuentaExiste(cuenta.getNumeroCuenta()));
+        assertTrue(lector.cuentaExiste(cuenta.getNumeroCuenta()));
+        assertEquals(fallos + 2, cacheCuentas.getFallos(), "cada lectura de la réplica va a la base");
+
+        // Desde la primaria sí se guarda
+        long aciertos = cacheCuentas.getAciertos();
+        cacheCuentas.obtener(cuenta.getNumeroCuenta());
+        cacheCuentas.obtener(cuenta.getNumeroCuenta());
+        assertEquals(aciertos + 1, cacheCuentas.getAciertos());
+    }
+
+    @Test
+    void cierreMensual_losBloquesSeLeenDeLaReplica() {
+        Cliente cliente = DatosPrueba.cliente(clienteRepo, "REPLICA-3");
+        DatosPrueba.cuenta(cuentaRepo, cliente, "5100000003", new BigDecimal("100.00"));
+        List<Boolean> enReplica = new ArrayList<>();
+        doAnswer(inv -> {
+            enReplica.add(DataSourceRuteado.transaccionEnReplica());
+            return inv.callRealMethod();
+        }).when(saldosDiarios).resumenesDeCuentas(any(), any(), any());
+
+        LocalDate hoy = LocalDate.now();
+        assertFalse(lectorCierre.leer(0L, 10, hoy.withDayOfMonth(1), hoy).cuentas().isEmpty());
+        assertEquals(List.of(true), enReplica);
+    }
+
+    @Test
+    void replicaAtrasada_lasLecturasVuelvenALaPrimaria() {
+        jdbc.update("UPDATE retraso_replica SET ms = 60000");
+        monitor.verificar();
+
+        assertFalse(monitor.disponible());
+        assertEquals("sa", lector.usuario().toLowerCase());
+    }
+}
@@ -0,0 +1,40 @@
+package com.bank.bank_backend.config;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.core.io.ClassPathResource;
+
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Los índices que exige el arranque tienen que salir de las migraciones
+ * (si alguien renombra uno en V2, el backend no arrancaría).
+ */
+class VerificadorIndicesTest {
+
+    @Test
+    void faltantes_soloLosQueNoEstan() {
+        assertEquals(List.of(), VerificadorIndices.faltantes(VerificadorIndices.ESPERADOS));
+        assertEquals(List.of("idx_movimientos_fecha_brin"), VerificadorIndices.faltantes(
+                VerificadorIndices.ESPERADOS.stream().filter(i -> !i.endsWith("_brin")).toList()));
+    }
+
+    @Test
+    void esperados_losCreanLasMigraciones() throws Exception {
+        String migraciones = leer("db/migration/V1__esquema_inicial.sql")
+                + leer("db/migration/V2__indices_rendimiento.sql");
+
+        for (String indice : VerificadorIndices.ESPERADOS) {
+            assertTrue(migraciones.contains("CREATE INDEX IF NOT EXISTS " + indice)
+                            || migraciones.contains("CREATE INDEX " + indice)
+                            || migraciones.contains("CONSTRAINT " + indice + " UNIQUE"),
+                    indice);
+        }
+    }
+
+    private static String leer(String ruta) throws Exception {
+        return new ClassPathResource(ruta).getContentAsString(StandardCharsets.UTF_8);
+    }
+}
@@ -0,0 +1,29 @@
+package com.bank.bank_backend.config;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Con el journal del motor no puede haber otras rutas que escriban saldos.
+ */
+class VerificadorJournalTest {
+
+    @Test
+    void conflictos_soloConJournal() {
+        assertEquals(List.of(), VerificadorJournal.conflictos(false, true, true));
+        assertEquals(List.of(), VerificadorJournal.conflictos(true, false, false));
+        assertEquals(List.of("bank.transferencias.habilitadas", "bank.movimientos.lote.habilitado"),
+                VerificadorJournal.conflictos(true, true, true));
+    }
+
+    @Test
+    void journalConRutasDirectas_noArranca() {
+        IllegalStateException ex = assertThrows(IllegalStateException.class,
+                () -> new VerificadorJournal(true, true, false, true));
+        assertTrue(ex.getMessage().contains("bank.movimientos.lote.habilitado"));
+        assertDoesNotThrow(() -> new VerificadorJournal(false, true, true, true));
+    }
+}
@@ -1,9 +1,14 @@
 package com.bank.bank_backend.controller;
 
+import com.bank.bank_backend.dto.CrearMovimientoRequest;
+import com.bank.bank_backend.dto.PaginaMovimientos;
+import com.bank.bank_backend.dto.ResultadoMovimientoLote;
 import com.bank.bank_backend.exception.BadRequestException;
 import com.bank.bank_backend.exception.GlobalExceptionHandler;
+import com.bank.bank_backend.entity.Cuenta;
 import com.bank.bank_backend.entity.Movimiento;
-import com.bank.bank_backend.repository.MovimientoRepository;
+import com.bank.bank_backend.service.IdempotenciaService;
+import com.bank.bank_backend.service.MovimientoLoteService;
 import com.bank.bank_backend.service.MovimientoService;
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
@@ -11,10 +16,23 @@ import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
 import org.springframework.boot.test.mock.mockito.MockBean;
 import org.springframework.context.annotation.Import;
 import org.springframework.http.MediaType;
+import org.springframework.orm.ObjectOptimisticLockingFailureException;
 import org.springframework.test.web.servlet.MockMvc;
 
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.argThat;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.ArgumentMatchers.isNull;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
 
@@ -29,7 +47,10 @@ class MovimientoControllerTest {
     private MovimientoService movimientoService;
 
     @MockBean
-    private MovimientoRepository movimientoRepository;
+    private MovimientoLoteService movimientoLoteService;
+
+    @MockBean
+    private IdempotenciaService idempotenciaService;
 
     @Test
     void crearMovimiento_credito_ok() throws Exception {
@@ -52,4 +73,134 @@ class MovimientoControllerTest {
                 .andExpect(status().isBadRequest())
                 .andExpect(jsonPath("$.message").value("Saldo no disponible"));
     }
+
+    @Test
+    void crearMovimiento_conflictoConReintentosAgotados_retorna409() throws Exception {
+        // Lo que propaga ReintentoConflictoInterceptor después del último intento
+        when(movimientoService.crear(any()))
+                .thenThrow(new ObjectOptimisticLockingFailureException(Cuenta.class, 1L));
+
+        mockMvc.perform(post("/movimientos")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{}"))
+                .andExpect(status().isConflict())
+                .andExpect(jsonPath("$.message").value("La cuenta fue modificada por otra operación, intente nuevamente"));
+    }
+
+    @Test
+    void crear_conIdempotencyKey_delegaEnIdempotencia() throws Exception {
+        Movimiento original = new Movimiento();
+        original.setMovimientoId(77L);
+        when(idempotenciaService.ejecutar(eq("abc-1"), any(), any())).thenReturn(original);
+
+        mockMvc.perform(post("/movimientos")
+                        .header("Idempotency-Key", "abc-1")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{}"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.movimientoId").value(77));
+
+        verify(movimientoService, never()).crear(any());
+    }
+
+    @Test
+    void crearLote_json_retornaResultadoPorItem() throws Exception {
+        when(movimientoLoteService.procesar(argThat(l -> l.size() == 2))).thenReturn(List.of(
+                ResultadoMovimientoLote.ok(0, "123", 1L, "Credito", new BigDecimal("10.00"), new BigDecimal("110.00")),
+                ResultadoMovimientoLote.error(1, "999", "Cuenta no encontrada")
+        ));
+
+        mockMvc.perform(post("/movimientos/batch")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("""
+                                [{"numeroCuenta":"123","tipoMovimiento":"Credito","valor":10},
+                                 {"numeroCuenta":"999","tipoMovimiento":"Debito","valor":5}]
+                                """))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$[0].estado").value("OK"))
+                .andExpect(jsonPath("$[0].movimientoId").value(1))
+                .andExpect(jsonPath("$[1].estado").value("ERROR"))
+                .andExpect(jsonPath("$[1].mensaje").value("Cuenta no encontrada"));
+    }
+
+    @Test
+    void crearLote_ndjson_parseaUnObjetoPorLinea() throws Exception {
+        List<String> leidos = new ArrayList<>();
+        when(movimientoLoteService.procesarStream(any())).thenAnswer(inv -> leer(inv.getArgument(0), leidos));
+
+        mockMvc.perform(post("/movimientos/batch")
+                        .contentType(MediaType.APPLICATION_NDJSON)
+                        .content("""
+                                {"numeroCuenta":"123","tipoMovimiento":"Credito","valor":10}
+                                {"numeroCuenta":"456","tipoMovimiento":"Credito","valor":20}
+                                {"numeroCuenta":"789","tipoMovimiento":"Debito","valor":5}
+                                """))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$").isArray());
+
+        assertEquals(List.of("123", "456", "789"), leidos);
+    }
+
+    @Test
+    void crearLote_ndjsonInvalido_retorna400() throws Exception {
+        when(movimientoLoteService.procesarStream(any())).thenAnswer(inv -> leer(inv.getArgument(0), new ArrayList<>()));
+
+        mockMvc.perform(post("/movimientos/batch")
+                        .contentType(MediaType.APPLICATION_NDJSON)
+                        .content("{\"numeroCuenta\":\"123\",\n"))
+                .andExpect(status().isBadRequest());
+    }
+
+    // Lo que hace el servicio real: consume el iterador ítem por ítem
+    private static List<ResultadoMovimientoLote> leer(Iterator<CrearMovimientoRequest> it, List<String> leidos) {
+        while (it.hasNext()) leidos.add(it.next().getNumeroCuenta());
+        return List.of();
+    }
+
+    @Test
+    void listarPorCuenta_sinCursorNiLimite_listaCompletaSinPaginar() throws Exception {
+        Movimiento m = new Movimiento();
+        m.setMovimientoId(7L);
+        when(movimientoService.listarPorCuenta("123")).thenReturn(List.of(m));
+
+        mockMvc.perform(get("/movimientos/cuenta/123"))
+                .andExpect(status().isOk())
+                .andExpect(header().doesNotExist("X-Next-Cursor"))
+                .andExpect(jsonPath("$[0].movimientoId").value(7));
+        verify(movimientoService, never()).listarPorCuenta(any(), any(), any());
+    }
+
+    @Test
+    void listarPorCuenta_conMasPaginas_enviaCursorEnHeader() throws Exception {
+        Movimiento m = new Movimiento();
+        m.setMovimientoId(7L);
+        when(movimientoService.listarPorCuenta(eq("123"), isNull(), eq(1)))
+                .thenReturn(new PaginaMovimientos<>(List.of(m), "abc"));
+
+        mockMvc.perform(get("/movimientos/cuenta/123").param("limite", "1"))
+                .andExpect(status().isOk())
+                .andExpect(header().string("X-Next-Cursor", "abc"))
+                .andExpect(jsonPath("$[0].movimientoId").value(7));
+    }
+
+    @Test
+    void listarPorCuenta_ultimaPagina_sinHeader() throws Exception {
+        when(movimientoService.listarPorCuenta(eq("123"), eq("abc"), isNull()))
+                .thenReturn(new PaginaMovimientos<>(List.of(), null));
+
+        mockMvc.perform(get("/movimientos/cuenta/123").param("cursor", "abc"))
+                .andExpect(status().isOk())
+                .andExpect(header().doesNotExist("X-Next-Cursor"))
+                .andExpect(jsonPath("$").isEmpty());
+    }
+
+    @Test
+    void listarPorCuenta_cursorInvalido_retorna400() throws Exception {
+        when(movimientoService.listarPorCuenta(eq("123"), eq("xx"), any()))
+                .thenThrow(new BadRequestException("Cursor inválido"));
+
+        mockMvc.perform(get("/movimientos/cuenta/123").param("cursor", "xx"))
+                .andExpect(status().isBadRequest())
+                .andExpect(jsonPath("$.message").value("Cursor inválido"));
+    }
 }
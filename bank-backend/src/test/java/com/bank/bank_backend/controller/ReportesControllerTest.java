@@ -1,10 +1,16 @@
 package com.bank.bank_backend.controller;
 
 
+import com.bank.bank_backend.dto.DescriptorCuenta;
 import com.bank.bank_backend.dto.ReporteEstadoCuentaResponse;
+import com.bank.bank_backend.dto.ResumenMovimientosResponse;
 import com.bank.bank_backend.exception.GlobalExceptionHandler;
 import com.bank.bank_backend.exception.NotFoundException;
+import com.bank.bank_backend.service.AgrupacionResumen;
+import com.bank.bank_backend.service.ExportadorMovimientos;
+import com.bank.bank_backend.service.FormatoExportacion;
 import com.bank.bank_backend.service.ReporteService;
+import com.bank.bank_backend.service.ResumenMovimientosService;
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
@@ -12,12 +18,25 @@ import org.springframework.boot.test.mock.mockito.MockBean;
 import org.springframework.context.annotation.Import;
 import org.springframework.http.MediaType;
 import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
 
+import java.io.ByteArrayInputStream;
+import java.io.OutputStream;
+import java.math.BigDecimal;
 import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
 import java.util.List;
+import java.util.zip.GZIPInputStream;
 
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
 import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.asyncDispatch;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
 
@@ -31,6 +50,12 @@ class ReportesControllerTest {
     @MockBean
     private ReporteService reporteService;
 
+    @MockBean
+    private ExportadorMovimientos exportador;
+
+    @MockBean
+    private ResumenMovimientosService resumenService;
+
     @Test
     void estadoCuenta_ok_retorna200() throws Exception {
         // Dado
@@ -139,4 +164,218 @@ class ReportesControllerTest {
                 .andExpect(content().contentTypeCompatibleWith(MediaType.APPLICATION_JSON))
                 .andExpect(jsonPath("$.pdfBase64").isNotEmpty());
     }
+
+    @Test
+    void estadoCuentaPdf_conMovimientos_streamApplicationPdf() throws Exception {
+        when(reporteService.estadoCuentaTieneMovimientos(eq("123"), any(), any())).thenReturn(true);
+        doAnswer(inv -> {
+            OutputStream out = inv.getArgument(3);
+            out.write("%PDF-fake".getBytes(StandardCharsets.US_ASCII));
+            return null;
+        }).when(reporteService).escribirPdfEstadoCuenta(eq("123"), any(), any(), any());
+
+        MvcResult inicio = mockMvc.perform(get("/reportes/estado-cuenta.pdf")
+                        .param("numeroCuenta", "123")
+                        .param("fechaInicio", "2026-01-01")
+                        .param("fechaFin", "2026-01-31"))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+
+        mockMvc.perform(asyncDispatch(inicio))
+                .andExpect(status().isOk())
+                .andExpect(content().contentType(MediaType.APPLICATION_PDF))
+                .andExpect(header().string("Content-Disposition", "inline; filename=\"estado-cuenta-123.pdf\""))
+                .andExpect(content().bytes("%PDF-fake".getBytes(StandardCharsets.US_ASCII)));
+    }
+
+    @Test
+    void estadoCuentaPdf_sinMovimientos_retorna204SinEscribir() throws Exception {
+        when(reporteService.estadoCuentaTieneMovimientos(eq("123"), any(), any())).thenReturn(false);
+
+        mockMvc.perform(get("/reportes/estado-cuenta.pdf")
+                        .param("numeroCuenta", "123")
+                        .param("fechaInicio", "2026-01-01")
+                        .param("fechaFin", "2026-01-31"))
+                .andExpect(status().isNoContent());
+
+        verify(reporteService, never()).escribirPdfEstadoCuenta(any(), any(), any(), any());
+    }
+
+    @Test
+    void estadoCuentaPdf_cuentaNoExiste_retorna404() throws Exception {
+        when(reporteService.estadoCuentaTieneMovimientos(eq("999"), any(), any()))
+                .thenThrow(new NotFoundException("Cuenta no encontrada"));
+
+        mockMvc.perform(get("/reportes/estado-cuenta.pdf")
+                        .param("numeroCuenta", "999")
+                        .param("fechaInicio", "2026-01-01")
+                        .param("fechaFin", "2026-01-31"))
+                .andExpect(status().isNotFound())
+                .andExpect(jsonPath("$.message").value("Cuenta no encontrada"));
+    }
+
+    @Test
+    void movimientosPorClientePdfStream_conMovimientos_streamApplicationPdf() throws Exception {
+        when(reporteService.clienteTieneMovimientos(eq(10L), any(), any())).thenReturn(true);
+
+        MvcResult inicio = mockMvc.perform(get("/reportes/movimientos-por-cliente.pdf")
+                        .param("clienteId", "10")
+                        .param("fechaInicio", "2026-01-01")
+                        .param("fechaFin", "2026-01-31"))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+
+        mockMvc.perform(asyncDispatch(inicio))
+                .andExpect(status().isOk())
+                .andExpect(content().contentType(MediaType.APPLICATION_PDF));
+
+        verify(reporteService).escribirPdfMovimientosPorCliente(eq(10L), any(), any(), any());
+    }
+
+    @Test
+    void estadoCuentaPorClienteZip_streamApplicationZip_y204SinMovimientos() throws Exception {
+        when(reporteService.clienteTieneMovimientos(eq(10L), any(), any())).thenReturn(true);
+        when(reporteService.clienteTieneMovimientos(eq(11L), any(), any())).thenReturn(false);
+
+        MvcResult inicio = mockMvc.perform(get("/reportes/estado-cuenta-por-cliente.zip")
+                        .param("clienteId", "10")
+                        .param("fechaInicio", "2026-01-01")
+                        .param("fechaFin", "2026-01-31"))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+
+        mockMvc.perform(asyncDispatch(inicio))
+                .andExpect(status().isOk())
+                .andExpect(content().contentType("application/zip"))
+                .andExpect(header().string("Content-Disposition",
+                        "attachment; filename=\"estados-cuenta-cliente-10.zip\""));
+        verify(reporteService).escribirZipEstadosCuentaPorCliente(eq(10L), any(), any(), any());
+
+        mockMvc.perform(get("/reportes/estado-cuenta-por-cliente.zip")
+                        .param("clienteId", "11")
+                        .param("fechaInicio", "2026-01-01")
+                        .param("fechaFin", "2026-01-31"))
+                .andExpect(status().isNoContent());
+        verify(reporteService, never()).escribirZipEstadosCuentaPorCliente(eq(11L), any(), any(), any());
+    }
+
+    @Test
+    void resumen_agrupacionPorMes_yAgrupacionInvalida400() throws Exception {
+        when(resumenService.resumen(eq(10L), isNull(), any(), any(), eq(AgrupacionResumen.MES)))
+                .thenReturn(new ResumenMovimientosResponse(null, null, "mes", List.of(
+                        new ResumenMovimientosResponse.Fila("123", LocalDate.of(2026, 1, 1), BigDecimal.TEN,
+                                BigDecimal.ONE, 3, BigDecimal.ONE, BigDecimal.TEN))));
+
+        mockMvc.perform(get("/reportes/resumen")
+                        .param("clienteId", "10")
+                        .param("fechaInicio", "2026-01-01")
+                        .param("fechaFin", "2026-01-31")
+                        .param("agrupacion", "mes"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.filas[0].numeroCuenta").value("123"))
+                .andExpect(jsonPath("$.filas[0].periodo").value("2026-01-01"))
+                .andExpect(jsonPath("$.filas[0].movimientos").value(3));
+
+        mockMvc.perform(get("/reportes/resumen")
+                        .param("clienteId", "10")
+                        .param("fechaInicio", "2026-01-01")
+                        .param("fechaFin", "2026-01-31")
+                        .param("agrupacion", "trimestre"))
+                .andExpect(status().isBadRequest());
+    }
+
+    @Test
+    void movimientosPorClienteCsv_conGzip_comprimeAlVuelo() throws Exception {
+        String csv = "fecha,cliente\r\n2026-01-05T10:00,Jose Lema\r\n";
+        doAnswer(inv -> {
+            OutputStream out = inv.getArgument(4);
+            out.write(csv.getBytes(StandardCharsets.UTF_8));
+            return null;
+        }).when(exportador).exportarPorCliente(eq(10L), any(), any(), eq(FormatoExportacion.CSV), any());
+
+        MvcResult inicio = mockMvc.perform(get("/reportes/movimientos-por-cliente.csv")
+                        .header("Accept-Encoding", "gzip, deflate")
+                        .param("clienteId", "10")
+                        .param("fechaInicio", "2026-01-01")
+                        .param("fechaFin", "2026-01-31"))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+
+        MvcResult fin = mockMvc.perform(asyncDispatch(inicio))
+                .andExpect(status().isOk())
+                .andExpect(content().contentTypeCompatibleWith("text/csv"))
+                .andExpect(header().string("Content-Encoding", "gzip"))
+                .andExpect(header().string("Content-Disposition", "attachment; filename=\"movimientos-cliente-10.csv\""))
+                .andReturn();
+
+        try (GZIPInputStream gzip = new GZIPInputStream(
+                new ByteArrayInputStream(fin.getResponse().getContentAsByteArray()))) {
+            assertEquals(csv, new String(gzip.readAllBytes(), StandardCharsets.UTF_8));
+        }
+    }
+
+    @Test
+    void movimientosPorClienteCsv_gzipConQCero_noComprime() throws Exception {
+        String csv = "fecha,cliente\r\n";
+        doAnswer(inv -> {
+            OutputStream out = inv.getArgument(4);
+            out.write(csv.getBytes(StandardCharsets.UTF_8));
+            return null;
+        }).when(exportador).exportarPorCliente(eq(10L), any(), any(), eq(FormatoExportacion.CSV), any());
+
+        MvcResult inicio = mockMvc.perform(get("/reportes/movimientos-por-cliente.csv")
+                        .header("Accept-Encoding", "gzip;q=0, identity")
+                        .param("clienteId", "10")
+                        .param("fechaInicio", "2026-01-01")
+                        .param("fechaFin", "2026-01-31"))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+
+        mockMvc.perform(asyncDispatch(inicio))
+                .andExpect(status().isOk())
+                .andExpect(header().doesNotExist("Content-Encoding"))
+                .andExpect(content().string(csv));
+    }
+
+    @Test
+    void aceptaGzip_respetaLosValoresQ() {
+        assertTrue(ReportesController.aceptaGzip("gzip"));
+        assertTrue(ReportesController.aceptaGzip("deflate, GZIP ; q=0.5"));
+        assertFalse(ReportesController.aceptaGzip("gzip;q=0"));
+        assertFalse(ReportesController.aceptaGzip("gzip; q=0.000, br"));
+        assertFalse(ReportesController.aceptaGzip("x-gzip-nada, br;q=1"));
+        assertFalse(ReportesController.aceptaGzip("gzip;q=abc"));
+        assertFalse(ReportesController.aceptaGzip("*"));
+        assertFalse(ReportesController.aceptaGzip(null));
+    }
+
+    @Test
+    void estadoCuentaNdjson_sinGzip_y404AntesDelStream() throws Exception {
+        when(exportador.cuenta("123")).thenReturn(new DescriptorCuenta(1L, "123", "Ahorros", true, 10L, "Jose Lema"));
+        doAnswer(inv -> {
+            OutputStream out = inv.getArgument(4);
+            out.write("{\"valor\":5}\n".getBytes(StandardCharsets.UTF_8));
+            return null;
+        }).when(exportador).exportarEstadoCuenta(eq("123"), any(), any(), eq(FormatoExportacion.NDJSON), any());
+
+        MvcResult inicio = mockMvc.perform(get("/reportes/estado-cuenta.ndjson")
+                        .param("numeroCuenta", "123")
+                        .param("fechaInicio", "2026-01-01")
+                        .param("fechaFin", "2026-01-31"))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+        mockMvc.perform(asyncDispatch(inicio))
+                .andExpect(status().isOk())
+                .andExpect(content().contentTypeCompatibleWith("application/x-ndjson"))
+                .andExpect(header().doesNotExist("Content-Encoding"))
+                .andExpect(content().string("{\"valor\":5}\n"));
+
+        when(exportador.cuenta("999")).thenThrow(new NotFoundException("Cuenta no encontrada"));
+        mockMvc.perform(get("/reportes/estado-cuenta.ndjson")
+                        .param("numeroCuenta", "999")
+                        .param("fechaInicio", "2026-01-01")
+                        .param("fechaFin", "2026-01-31"))
+                .andExpect(status().isNotFound());
+        verify(exportador, never()).exportarEstadoCuenta(eq("999"), any(), any(), any(), any());
+    }
 }
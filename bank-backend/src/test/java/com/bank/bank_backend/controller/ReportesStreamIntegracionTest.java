@@ -0,0 +1,80 @@
+package com.bank.bank_backend.controller;
+
+import com.bank.bank_backend.dto.DescriptorCuenta;
+import com.bank.bank_backend.service.ExportadorMovimientos;
+import com.bank.bank_backend.service.FormatoExportacion;
+import org.apache.catalina.connector.Connector;
+import org.junit.jupiter.api.Test;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.context.TestConfiguration;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.boot.test.web.server.LocalServerPort;
+import org.springframework.boot.web.embedded.tomcat.TomcatServletWebServerFactory;
+import org.springframework.boot.web.server.WebServerFactoryCustomizer;
+import org.springframework.context.annotation.Bean;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.io.OutputStream;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.when;
+
+/**
+ * Descarga en stream con Tomcat real: el conector queda con un timeout async de 500 ms
+ * (en producción, 30 s) y la exportación tarda más que eso. La respuesta tiene que llegar
+ * completa porque spring.mvc.async.request-timeout lo reemplaza.
+ */
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT)
+@ActiveProfiles("test")
+class ReportesStreamIntegracionTest {
+
+    private static final long TIMEOUT_CONECTOR_MS = 500;
+    // Tomcat revisa los timeouts async cada ~1 s: el stream dura varias veces eso
+    private static final int FILAS = 6;
+
+    @TestConfiguration
+    static class Config {
+        @Bean
+        WebServerFactoryCustomizer<TomcatServletWebServerFactory> timeoutAsyncCorto() {
+            return f -> f.addConnectorCustomizers((Connector c) -> c.setAsyncTimeout(TIMEOUT_CONECTOR_MS));
+        }
+    }
+
+    @LocalServerPort
+    private int puerto;
+
+    @MockBean
+    private ExportadorMovimientos exportador;
+
+    @Test
+    void exportacionMasLargaQueElTimeoutDelConector_llegaCompleta() throws Exception {
+        when(exportador.cuenta("123")).thenReturn(new DescriptorCuenta(1L, "123", "Ahorros", true, 10L, "Jose Lema"));
+        doAnswer(inv -> {
+            OutputStream out = inv.getArgument(4);
+            for (int i = 0; i < FILAS; i++) {
+                out.write(("{\"fila\":" + i + "}\n").getBytes(StandardCharsets.UTF_8));
+                out.flush();
+                Thread.sleep(TIMEOUT_CONECTOR_MS);
+            }
+            return null;
+        }).when(exportador).exportarEstadoCuenta(eq("123"), any(), any(), eq(FormatoExportacion.NDJSON), any());
+
+        HttpResponse<String> resp = HttpClient.newHttpClient().send(HttpRequest.newBuilder(URI.create(
+                        "http://localhost:" + puerto
+                                + "/reportes/estado-cuenta.ndjson?numeroCuenta=123&fechaInicio=2026-01-01&fechaFin=2026-01-31"))
+                .GET().build(), HttpResponse.BodyHandlers.ofString());
+
+        assertEquals(200, resp.statusCode());
+        StringBuilder esperado = new StringBuilder();
+        for (int i = 0; i < FILAS; i++) esperado.append("{\"fila\":").append(i).append("}\n");
+        assertEquals(esperado.toString(), resp.body());
+    }
+}
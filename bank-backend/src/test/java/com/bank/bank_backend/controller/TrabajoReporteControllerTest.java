@@ -0,0 +1,81 @@
+package com.bank.bank_backend.controller;
+
+import com.bank.bank_backend.dto.TrabajoReporteResponse;
+import com.bank.bank_backend.exception.ConflictException;
+import com.bank.bank_backend.exception.GlobalExceptionHandler;
+import com.bank.bank_backend.exception.ServicioNoDisponibleException;
+import com.bank.bank_backend.service.EstadoTrabajo;
+import com.bank.bank_backend.service.TrabajoReporteService;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.context.annotation.Import;
+import org.springframework.http.MediaType;
+import org.springframework.test.web.servlet.MockMvc;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.when;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
+
+@WebMvcTest(controllers = TrabajoReporteController.class)
+@Import(GlobalExceptionHandler.class)
+class TrabajoReporteControllerTest {
+
+    private static final String BODY = """
+            {"clienteId": 10, "fechaInicio": "2026-01-01", "fechaFin": "2026-01-31", "incluirPdf": true}
+            """;
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @MockBean
+    private TrabajoReporteService trabajoService;
+
+    @TempDir
+    Path directorio;
+
+    @Test
+    void crear_retorna202ConLocation() throws Exception {
+        TrabajoReporteResponse t = new TrabajoReporteResponse();
+        t.setId("abc");
+        t.setEstado(EstadoTrabajo.EN_COLA);
+        when(trabajoService.crear(any())).thenReturn(t);
+
+        mockMvc.perform(post("/reportes/jobs").contentType(MediaType.APPLICATION_JSON).content(BODY))
+                .andExpect(status().isAccepted())
+                .andExpect(header().string("Location", "/reportes/jobs/abc"))
+                .andExpect(jsonPath("$.estado").value("EN_COLA"));
+    }
+
+    @Test
+    void crear_colaLlena_retorna503() throws Exception {
+        when(trabajoService.crear(any()))
+                .thenThrow(new ServicioNoDisponibleException("Hay demasiados reportes en cola, intente más tarde"));
+
+        mockMvc.perform(post("/reportes/jobs").contentType(MediaType.APPLICATION_JSON).content(BODY))
+                .andExpect(status().isServiceUnavailable())
+                .andExpect(jsonPath("$.message").value("Hay demasiados reportes en cola, intente más tarde"));
+    }
+
+    @Test
+    void resultado_listoSeDescarga_pendienteRetorna409() throws Exception {
+        Path archivo = Files.writeString(directorio.resolve("abc.json"), "[{\"numeroCuenta\":\"123\"}]");
+        when(trabajoService.resultado("abc")).thenReturn(archivo);
+        when(trabajoService.resultado("pendiente")).thenThrow(new ConflictException("El reporte aún no está listo"));
+
+        mockMvc.perform(get("/reportes/jobs/abc/result"))
+                .andExpect(status().isOk())
+                .andExpect(content().contentTypeCompatibleWith(MediaType.APPLICATION_JSON))
+                .andExpect(jsonPath("$[0].numeroCuenta").value("123"));
+
+        mockMvc.perform(get("/reportes/jobs/pendiente/result"))
+                .andExpect(status().isConflict());
+    }
+}
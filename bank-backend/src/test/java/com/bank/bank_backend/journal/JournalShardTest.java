@@ -0,0 +1,111 @@
+package com.bank.bank_backend.journal;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.RandomAccessFile;
+import java.math.BigDecimal;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class JournalShardTest {
+
+    @TempDir
+    Path dir;
+
+    @Test
+    void registrosForzados_seRecuperanAlReabrir() {
+        JournalShard j = JournalShard.abrir(dir, 0, 100, 0);
+        LocalDateTime fecha = LocalDateTime.of(2026, 1, 15, 10, 30, 0, 123_456_789);
+        j.agregar(1, 7, new BigDecimal("10.50"), new BigDecimal("110.50"), fecha);
+        j.agregar(2, 7, new BigDecimal("-3.25"), new BigDecimal("107.25"), fecha);
+        j.forzar();
+        j.cerrar();
+
+        JournalShard reabierto = JournalShard.abrir(dir, 0, 100, 0);
+        List<RegistroJournal> r = reabierto.recuperados();
+
+        assertEquals(2, r.size());
+        assertEquals(1, r.get(0).secuencia());
+        assertEquals(0, new BigDecimal("-3.25").compareTo(r.get(1).valor()));
+        assertEquals(0, new BigDecimal("107.25").compareTo(r.get(1).saldo()));
+        assertEquals(fecha, r.get(1).fecha());
+        assertEquals("Debito", r.get(1).tipoMovimiento());
+        assertEquals(2, reabierto.ultimaSecuencia());
+        reabierto.cerrar();
+    }
+
+    @Test
+    void registroCorrupto_cortaLaRecuperacionYSeSobrescribe() throws Exception {
+        JournalShard j = JournalShard.abrir(dir, 0, 100, 0);
+        for (int i = 1; i <= 3; i++) {
+            j.agregar(i, 1, BigDecimal.ONE, BigDecimal.TEN, LocalDateTime.now());
+        }
+        j.cerrar();
+
+        // Un byte cambiado en el segundo registro invalida su CRC
+        try (RandomAccessFile f = new RandomAccessFile(unicoSegmento().toFile(), "rw")) {
+            f.seek(RegistroJournal.TAMANO + 20);
+            f.write(0x7F);
+        }
+
+        JournalShard reabierto = JournalShard.abrir(dir, 0, 100, 0);
+        assertEquals(1, reabierto.recuperados().size());
+        assertEquals(2, reabierto.agregar(9, 1, BigDecimal.ONE, BigDecimal.TEN, LocalDateTime.now()).secuencia());
+        reabierto.cerrar();
+
+        assertEquals(2, JournalShard.abrir(dir, 0, 100, 0).recuperados().size());
+    }
+
+    @Test
+    void rollover_yLiberacionDeSegmentosAplicados() throws Exception {
+        JournalShard j = JournalShard.abrir(dir, 3, 4, 0);
+        for (int i = 1; i <= 10; i++) {
+            j.agregar(i, 1, BigDecimal.ONE, BigDecimal.TEN, LocalDateTime.now());
+        }
+        j.forzar();
+        assertEquals(3, contarSegmentos());
+
+        j.liberarHasta(8);
+        assertEquals(1, contarSegmentos()); // queda solo el actual (9..10)
+        j.cerrar();
+
+        JournalShard reabierto = JournalShard.abrir(dir, 3, 4, 8);
+        assertEquals(List.of(9L, 10L), reabierto.recuperados().stream().map(RegistroJournal::secuencia).toList());
+        reabierto.cerrar();
+    }
+
+    @Test
+    void marcaMayorQueElJournal_noReutilizaSecuencias() {
+        JournalShard j = JournalShard.abrir(dir, 0, 100, 0);
+        j.agregar(1, 1, BigDecimal.ONE, BigDecimal.TEN, LocalDateTime.now());
+        j.cerrar();
+
+        // La base ya aplicó hasta 500 (p. ej. se perdió el directorio en algún momento)
+        JournalShard reabierto = JournalShard.abrir(dir, 0, 100, 500);
+        assertTrue(reabierto.recuperados().isEmpty());
+        assertEquals(501, reabierto.agregar(2, 1, BigDecimal.ONE, BigDecimal.TEN, LocalDateTime.now()).secuencia());
+        reabierto.cerrar();
+
+        JournalShard otraVez = JournalShard.abrir(dir, 0, 100, 500);
+        assertEquals(1, otraVez.recuperados().size());
+        otraVez.cerrar();
+    }
+
+    private Path unicoSegmento() throws Exception {
+        try (Stream<Path> s = Files.list(dir)) {
+            return s.filter(p -> p.toString().endsWith(".seg")).findFirst().orElseThrow();
+        }
+    }
+
+    private long contarSegmentos() throws Exception {
+        try (Stream<Path> s = Files.list(dir)) {
+            return s.filter(p -> p.toString().endsWith(".seg")).count();
+        }
+    }
+}
@@ -0,0 +1,194 @@
+package com.bank.bank_backend.pdf;
+
+import com.bank.bank_backend.dto.ReporteMovimientoItem;
+import com.lowagie.text.Document;
+import com.lowagie.text.Font;
+import com.lowagie.text.PageSize;
+import com.lowagie.text.Paragraph;
+import com.lowagie.text.Phrase;
+import com.lowagie.text.pdf.PdfPCell;
+import com.lowagie.text.pdf.PdfPTable;
+import com.lowagie.text.pdf.PdfWriter;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+
+import java.io.OutputStream;
+import java.lang.management.ManagementFactory;
+import java.lang.management.MemoryPoolMXBean;
+import java.lang.management.MemoryType;
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.Iterator;
+import java.util.List;
+import java.util.function.Consumer;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Estado de cuenta de 200k filas: renderizador actual contra la versión anterior
+ * (Font y PdfPCell nuevas por cada celda, mismo volcado por bloques).
+ *
+ * La tabla entera en memoria (sin volcar) no entra en la comparación: OpenPDF la vuelve
+ * a recorrer por cada página, el costo crece cuadrático y con 2k filas ya tarda decenas de segundos.
+ *
+ * Corre solo con {@code mvn -Pbenchmark test} (heap fijo de 512 MB). Reporta filas por segundo
+ * y el pico de heap vivo (uso después de cada GC, muestreado mientras se renderiza).
+ * Las filas se generan al vuelo y la salida se descarta: se mide solo el renderizado.
+ * {@code -Dbenchmark.filas=N} cambia la cantidad de filas.
+ */
+@Tag("benchmark")
+class RenderizadorPdfBenchmark {
+
+    private static final int FILAS = Integer.getInteger("benchmark.filas", 200_000);
+    private static final LocalDate DIA = LocalDate.of(2026, 1, 1);
+    private static final int MUESTREO = 1_000;
+
+    @Test
+    void estadoCuenta_renderizadorVsVersionAnterior() {
+        medir("calentamiento", 10_000, this::renderizar);
+
+        Resultado anterior = medir("anterior", FILAS, RenderizadorPdfBenchmark::renderizarVersionAnterior);
+        Resultado actual = medir("renderizador", FILAS, this::renderizar);
+
+        System.out.println();
+        System.out.printf("Estado de cuenta, %,d filas (heap máx. %d MB)%n", FILAS, mb(Runtime.getRuntime().maxMemory()));
+        System.out.printf("%-14s %14s %16s%n", "", "filas/s", "heap vivo (MB)");
+        anterior.imprimir();
+        actual.imprimir();
+
+        assertTrue(actual.completo, "el renderizador debe terminar dentro del heap fijo");
+    }
+
+    private void renderizar(Iterator<ReporteMovimientoItem> filas) {
+        new RenderizadorPdf(200).estadoCuenta(OutputStream.nullOutputStream(), "Jose Lema", "478758",
+                new BigDecimal("100.00"), DIA, DIA, filas);
+    }
+
+    /* ===============================
+       Medición
+       =============================== */
+
+    private record Resultado(String nombre, boolean completo, double filasPorSegundo, long picoVivo) {
+        void imprimir() {
+            if (completo) {
+                System.out.printf("%-14s %,14.0f %16d%n", nombre, filasPorSegundo, mb(picoVivo));
+            } else {
+                System.out.printf("%-14s %14s %16s%n", nombre, "-", "sin memoria");
+            }
+        }
+    }
+
+    private static Resultado medir(String nombre, int filas, Consumer<Iterator<ReporteMovimientoItem>> render) {
+        System.gc();
+        long[] picoVivo = {heapVivo()};
+        Iterator<ReporteMovimientoItem> datos = filas(filas, picoVivo);
+
+        long inicio = System.nanoTime();
+        try {
+            render.accept(datos);
+        } catch (OutOfMemoryError e) {
+            return new Resultado(nombre, false, 0, 0);
+        }
+        double segundos = (System.nanoTime() - inicio) / 1e9;
+        return new Resultado(nombre, true, filas / segundos, Math.max(picoVivo[0], heapVivo()));
+    }
+
+    // Uso del heap después de la última recolección de cada pool: lo que sigue vivo, sin la basura pendiente
+    private static long heapVivo() {
+        long total = 0;
+        for (MemoryPoolMXBean pool : ManagementFactory.getMemoryPoolMXBeans()) {
+            if (pool.getType() == MemoryType.HEAP && pool.getCollectionUsage() != null) {
+                total += pool.getCollectionUsage().getUsed();
+            }
+        }
+        return total;
+    }
+
+    private static Iterator<ReporteMovimientoItem> filas(int cantidad, long[] picoVivo) {
+        return new Iterator<>() {
+            private int i;
+
+            @Override
+            public boolean hasNext() {
+                return i < cantidad;
+            }
+
+            @Override
+            public ReporteMovimientoItem next() {
+                if (++i % MUESTREO == 0) {
+                    picoVivo[0] = Math.max(picoVivo[0], heapVivo());
+                }
+                return new ReporteMovimientoItem(DIA.atStartOfDay().plusSeconds(i), "Credito",
+                        BigDecimal.ONE, BigDecimal.valueOf(i));
+            }
+        };
+    }
+
+    private static long mb(long bytes) {
+        return bytes / (1024 * 1024);
+    }
+
+    /* ===============================
+       Versión anterior (referencia)
+       =============================== */
+
+    private static void renderizarVersionAnterior(Iterator<ReporteMovimientoItem> filas) {
+        Document doc = new Document(PageSize.A4, 36, 36, 36, 36);
+        PdfWriter.getInstance(doc, OutputStream.nullOutputStream());
+        doc.open();
+
+        Font title = new Font(Font.HELVETICA, 14, Font.BOLD);
+        Font bold = new Font(Font.HELVETICA, 11, Font.BOLD);
+        Font normal = new Font(Font.HELVETICA, 11, Font.NORMAL);
+
+        doc.add(new Paragraph("REPORTE – ESTADO DE CUENTA", title));
+        doc.add(new Paragraph(" "));
+        doc.add(new Paragraph("Cliente: Jose Lema", bold));
+        doc.add(new Paragraph("Número de cuenta: 478758", normal));
+        doc.add(new Paragraph("Saldo actual: 100.00", normal));
+        doc.add(new Paragraph("Rango de fechas: " + DIA + " a " + DIA, normal));
+        doc.add(new Paragraph(" "));
+        doc.add(new Paragraph("Movimientos", bold));
+        doc.add(new Paragraph(" "));
+
+        PdfPTable table = new PdfPTable(4);
+        table.setWidthPercentage(100);
+        table.setWidths(new float[]{3.5f, 2f, 2f, 2f});
+        for (String h : List.of("Fecha", "Tipo", "Valor", "Saldo")) {
+            table.addCell(headerCell(h));
+        }
+        table.setHeaderRows(1);
+        table.setComplete(false);
+
+        int pendientes = 0;
+        while (filas.hasNext()) {
+            ReporteMovimientoItem m = filas.next();
+            table.addCell(bodyCell(String.valueOf(m.getFecha())));
+            table.addCell(bodyCell(m.getTipoMovimiento()));
+            table.addCell(bodyCell(String.valueOf(m.getValor())));
+            table.addCell(bodyCell(String.valueOf(m.getSaldo())));
+            if (++pendientes == 200) {
+                doc.add(table);
+                pendientes = 0;
+            }
+        }
+        table.setComplete(true);
+        doc.add(table);
+        doc.close();
+    }
+
+    private static PdfPCell headerCell(String text) {
+        Font f = new Font(Font.HELVETICA, 10, Font.BOLD);
+        PdfPCell c = new PdfPCell(new Phrase(text, f));
+        c.setBackgroundColor(new java.awt.Color(230, 230, 230));
+        c.setPadding(6f);
+        return c;
+    }
+
+    private static PdfPCell bodyCell(String text) {
+        Font f = new Font(Font.HELVETICA, 10, Font.NORMAL);
+        PdfPCell c = new PdfPCell(new Phrase(text, f));
+        c.setPadding(6f);
+        return c;
+    }
+}
@@ -0,0 +1,73 @@
+package com.bank.bank_backend.pdf;
+
+import com.bank.bank_backend.dto.ReporteMovimientoItem;
+import com.lowagie.text.pdf.PdfReader;
+import com.lowagie.text.pdf.parser.PdfTextExtractor;
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayOutputStream;
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.Collections;
+import java.util.stream.IntStream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * El tamaño de bloque no cambia el documento: mismas páginas, encabezado repetido y todas las filas.
+ */
+class RenderizadorPdfTest {
+
+    private static final int FILAS = 2_000;
+    private static final LocalDate DIA = LocalDate.of(2026, 5, 4);
+
+    @Test
+    void estadoCuenta_mismoDocumentoConCualquierTamanoDeBloque() throws Exception {
+        byte[] porFila = estadoCuenta(new RenderizadorPdf(1));
+        byte[] porBloque = estadoCuenta(new RenderizadorPdf(200));
+        byte[] porBloqueGrande = estadoCuenta(new RenderizadorPdf(500));
+
+        PdfReader reader = new PdfReader(porBloque);
+        try {
+            int paginas = reader.getNumberOfPages();
+            assertTrue(paginas > 10, "2000 filas deberían ocupar varias páginas");
+            assertEquals(paginas, paginas(porFila));
+            assertEquals(paginas, paginas(porBloqueGrande));
+
+            PdfTextExtractor extractor = new PdfTextExtractor(reader);
+            String ultima = extractor.getTextFromPage(paginas);
+            assertTrue(ultima.contains("Fecha"), "el encabezado se repite en cada página");
+            assertTrue(ultima.contains(String.valueOf(FILAS)), "la última fila llega al documento");
+        } finally {
+            reader.close();
+        }
+    }
+
+    @Test
+    void movimientosPorCliente_sinFilas_pdfValidoDeUnaPagina() throws Exception {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        new RenderizadorPdf(200).movimientosPorCliente(out, DIA, DIA, Collections.emptyIterator());
+
+        assertEquals(1, paginas(out.toByteArray()));
+    }
+
+    private static byte[] estadoCuenta(RenderizadorPdf renderizador) {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        renderizador.estadoCuenta(out, "Jose Lema", "478758", new BigDecimal("100.00"), DIA, DIA,
+                IntStream.rangeClosed(1, FILAS)
+                        .mapToObj(i -> new ReporteMovimientoItem(
+                                DIA.atStartOfDay().plusSeconds(i), "Credito", BigDecimal.ONE, BigDecimal.valueOf(i)))
+                        .iterator());
+        return out.toByteArray();
+    }
+
+    private static int paginas(byte[] pdf) throws Exception {
+        assertEquals("%PDF", new String(pdf, 0, 4));
+        PdfReader reader = new PdfReader(pdf);
+        try {
+            return reader.getNumberOfPages();
+        } finally {
+            reader.close();
+        }
+    }
+}
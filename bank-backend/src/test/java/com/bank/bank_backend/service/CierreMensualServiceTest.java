@@ -0,0 +1,186 @@
+package com.bank.bank_backend.service;
+
+import com.bank.bank_backend.dto.CierreMensualResponse;
+import com.bank.bank_backend.entity.Cliente;
+import com.bank.bank_backend.entity.Cuenta;
+import com.bank.bank_backend.entity.Movimiento;
+import com.bank.bank_backend.exception.BadRequestException;
+import com.bank.bank_backend.exception.ConflictException;
+import com.bank.bank_backend.exception.NotFoundException;
+import com.bank.bank_backend.pdf.RenderizadorPdf;
+import com.bank.bank_backend.repository.ClienteRepository;
+import com.bank.bank_backend.repository.CuentaRepository;
+import com.bank.bank_backend.repository.MovimientoRepository;
+import com.bank.bank_backend.support.DatosPrueba;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.lowagie.text.pdf.PdfReader;
+import com.lowagie.text.pdf.parser.PdfTextExtractor;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.data.domain.Limit;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.math.BigDecimal;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDateTime;
+import java.time.YearMonth;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Cierre mensual contra H2: un PDF por cuenta activa con los saldos del período,
+ * checkpoint al terminar y reanudación desde un checkpoint incompleto.
+ */
+@SpringBootTest
+@ActiveProfiles("test")
+class CierreMensualServiceTest {
+
+    private static final YearMonth PERIODO = YearMonth.of(2025, 11);
+    private static final AtomicInteger SECUENCIA = new AtomicInteger();
+
+    @Autowired
+    private ClienteRepository clienteRepo;
+
+    @Autowired
+    private CuentaRepository cuentaRepo;
+
+    @Autowired
+    private MovimientoRepository movRepo;
+
+    @Autowired
+    private SaldoDiarioService saldosDiarios;
+
+    @Autowired
+    private LectorCierreMensual lector;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @TempDir
+    Path directorio;
+
+    private final ForkJoinPool pool = new ForkJoinPool(2);
+
+    private Cliente cliente;
+    private Cuenta primera;
+    private Cuenta segunda;
+    private Cuenta inactiva;
+
+    @BeforeEach
+    void setUp() {
+        int prueba = SECUENCIA.incrementAndGet();
+        cliente = DatosPrueba.cliente(clienteRepo, "CIERRE-" + prueba);
+        primera = DatosPrueba.cuenta(cuentaRepo, cliente, "8" + prueba + "0000001", new BigDecimal("100.00"));
+        segunda = DatosPrueba.cuenta(cuentaRepo, cliente, "8" + prueba + "0000002", new BigDecimal("10.00"));
+        inactiva = DatosPrueba.cuenta(cuentaRepo, cliente, "8" + prueba + "0000003", new BigDecimal("10.00"));
+        inactiva.setEstado(false);
+        cuentaRepo.save(inactiva);
+
+        movRepo.saveAll(List.of(
+                mov(primera, LocalDateTime.of(2025, 10, 31, 23, 0), "5.00", "100.00"),  // mes anterior
+                mov(primera, LocalDateTime.of(2025, 11, 3, 9, 0), "50.00", "150.00"),
+                mov(primera, LocalDateTime.of(2025, 11, 20, 9, 0), "-20.00", "130.00"),
+                mov(primera, LocalDateTime.of(2025, 12, 1, 9, 0), "1000.00", "1130.00"), // mes siguiente
+                mov(segunda, LocalDateTime.of(2025, 11, 5, 9, 0), "1.00", "11.00")));
+        saldosDiarios.reconstruir(primera.getCuentaId());
+        saldosDiarios.reconstruir(segunda.getCuentaId());
+    }
+
+    @AfterEach
+    void tearDown() {
+        pool.shutdownNow();
+    }
+
+    @Test
+    void cierre_unPdfPorCuentaActivaConLosSaldosDelPeriodo() throws Exception {
+        CierreMensualService service = service();
+
+        service.iniciar(PERIODO);
+
+        CierreMensualResponse progreso = service.progreso(null);
+        assertEquals(EstadoTrabajo.COMPLETADO, progreso.getEstado());
+        assertEquals(cuentaRepo.contarActivas(), progreso.getCuentasProcesadas());
+        assertFalse(progreso.isReanudado());
+
+        String texto = texto(pdf(primera));
+        assertTrue(texto.contains("Saldo de apertura: 100.00"), texto);
+        assertTrue(texto.contains("Saldo de cierre: 130.00"), texto);
+        assertFalse(texto.contains("1130.00"), "el movimiento de diciembre no entra");
+        assertTrue(Files.exists(pdf(segunda)));
+        assertFalse(Files.exists(pdf(inactiva)));
+        try (var restos = Files.walk(directorio)) {
+            assertTrue(restos.noneMatch(p -> p.toString().endsWith(".tmp")));
+        }
+
+        assertThrows(ConflictException.class, () -> service.iniciar(PERIODO));
+        assertEquals(EstadoTrabajo.COMPLETADO, service().progreso(PERIODO).getEstado()); // desde el checkpoint
+    }
+
+    @Test
+    void checkpointIncompleto_seReanudaDesdeLaCuentaSiguiente() throws Exception {
+        Files.createDirectories(directorio.resolve(PERIODO.toString()));
+        Files.writeString(directorio.resolve(PERIODO.toString()).resolve("checkpoint.json"),
+                "{\"periodo\":\"" + PERIODO + "\",\"ultimoCuentaId\":" + primera.getCuentaId()
+                        + ",\"cuentasProcesadas\":7,\"completado\":false}");
+        CierreMensualService service = service();
+        assertEquals(EstadoTrabajo.FALLIDO, service.progreso(PERIODO).getEstado());
+
+        service.iniciar(PERIODO);
+
+        CierreMensualResponse progreso = service.progreso(PERIODO);
+        assertEquals(EstadoTrabajo.COMPLETADO, progreso.getEstado());
+        assertTrue(progreso.isReanudado());
+        long restantes = cuentaRepo.activasDesde(primera.getCuentaId(), Limit.unlimited()).size();
+        assertEquals(7 + restantes, progreso.getCuentasProcesadas());
+        assertFalse(Files.exists(pdf(primera)), "ya estaba antes del checkpoint");
+        assertTrue(Files.exists(pdf(segunda)));
+    }
+
+    @Test
+    void validaciones() {
+        CierreMensualService service = service();
+
+        assertThrows(BadRequestException.class, () -> service.iniciar(YearMonth.now()));
+        assertThrows(NotFoundException.class, () -> service.progreso(null));
+        assertThrows(NotFoundException.class, () -> service.progreso(PERIODO.minusYears(5)));
+    }
+
+    private CierreMensualService service() {
+        // Tamaño de bloque chico: la corrida pasa por varios checkpoints
+        return new CierreMensualService(cuentaRepo, lector, new RenderizadorPdf(200), objectMapper,
+                Runnable::run, pool, directorio.toString(), 3);
+    }
+
+    private Path pdf(Cuenta cuenta) {
+        return directorio.resolve(PERIODO.toString())
+                .resolve(String.valueOf(cliente.getClienteId()))
+                .resolve(cuenta.getNumeroCuenta() + ".pdf");
+    }
+
+    private static String texto(Path pdf) throws Exception {
+        PdfReader reader = new PdfReader(Files.readAllBytes(pdf));
+        try {
+            return new PdfTextExtractor(reader).getTextFromPage(1);
+        } finally {
+            reader.close();
+        }
+    }
+
+    private static Movimiento mov(Cuenta cuenta, LocalDateTime fecha, String valor, String saldo) {
+        Movimiento m = new Movimiento();
+        m.setCuenta(cuenta);
+        m.setFecha(fecha);
+        m.setTipoMovimiento(valor.startsWith("-") ? "Debito" : "Credito");
+        m.setValor(new BigDecimal(valor));
+        m.setSaldo(new BigDecimal(saldo));
+        return m;
+    }
+}
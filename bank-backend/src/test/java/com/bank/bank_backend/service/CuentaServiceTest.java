@@ -0,0 +1,89 @@
+package com.bank.bank_backend.service;
+
+import com.bank.bank_backend.cache.CacheCuentas;
+import com.bank.bank_backend.entity.Cliente;
+import com.bank.bank_backend.entity.Cuenta;
+import com.bank.bank_backend.repository.ClienteRepository;
+import com.bank.bank_backend.repository.CuentaRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.dao.DataIntegrityViolationException;
+
+import java.math.BigDecimal;
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class CuentaServiceTest {
+
+    @Mock
+    private CuentaRepository cuentaRepo;
+
+    @Mock
+    private ClienteRepository clienteRepo;
+
+    @Mock
+    private ObjectProvider<MotorPosteo> motorPosteo;
+
+    @Mock
+    private CacheCuentas cacheCuentas;
+
+    @Mock
+    private GeneradorNumeroCuenta generadorNumero;
+
+    @InjectMocks
+    private CuentaService cuentaService;
+
+    private Cuenta nueva;
+
+    @BeforeEach
+    void setUp() {
+        when(clienteRepo.findById(1L)).thenReturn(Optional.of(new Cliente()));
+        nueva = new Cuenta();
+        nueva.setTipoCuenta("Ahorros");
+        nueva.setSaldoInicial(new BigDecimal("50.00"));
+    }
+
+    @Test
+    void crear_usaNumeroDelGeneradorSinConsultarExistencia() {
+        when(generadorNumero.siguiente()).thenReturn("123456782");
+        when(cuentaRepo.save(any(Cuenta.class))).thenAnswer(inv -> inv.getArgument(0));
+
+        Cuenta c = cuentaService.crear(nueva, 1L);
+
+        assertEquals("123456782", c.getNumeroCuenta());
+        assertEquals(new BigDecimal("50.00"), c.getSaldoActual());
+        verify(cuentaRepo, times(1)).save(any(Cuenta.class));
+    }
+
+    @Test
+    void crear_numeroYaExistente_reintentaConElSiguiente() {
+        when(generadorNumero.siguiente()).thenReturn("111111118", "222222226");
+        when(cuentaRepo.save(any(Cuenta.class)))
+                .thenThrow(new DataIntegrityViolationException("duplicate key value violates unique constraint \"uk_numero_cuenta\""))
+                .thenAnswer(inv -> inv.getArgument(0));
+
+        Cuenta c = cuentaService.crear(nueva, 1L);
+
+        assertEquals("222222226", c.getNumeroCuenta());
+        verify(cuentaRepo, times(2)).save(any(Cuenta.class));
+    }
+
+    @Test
+    void crear_otraViolacionDeIntegridad_noReintenta() {
+        when(generadorNumero.siguiente()).thenReturn("111111118");
+        when(cuentaRepo.save(any(Cuenta.class)))
+                .thenThrow(new DataIntegrityViolationException("fk_cuenta_cliente"));
+
+        assertThrows(DataIntegrityViolationException.class, () -> cuentaService.crear(nueva, 1L));
+        verify(cuentaRepo, times(1)).save(any(Cuenta.class));
+    }
+}
@@ -0,0 +1,127 @@
+package com.bank.bank_backend.service;
+
+import com.bank.bank_backend.entity.Cliente;
+import com.bank.bank_backend.entity.Cuenta;
+import com.bank.bank_backend.entity.Movimiento;
+import com.bank.bank_backend.repository.ClienteRepository;
+import com.bank.bank_backend.repository.CuentaRepository;
+import com.bank.bank_backend.repository.MovimientoRepository;
+import com.bank.bank_backend.support.DatosPrueba;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.io.ByteArrayOutputStream;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Consumer;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Exportación CSV / NDJSON: todas las filas del rango, en orden, con el escapado de CSV.
+ */
+@SpringBootTest
+@ActiveProfiles("test")
+class ExportadorMovimientosTest {
+
+    private static final int FILAS = 1_200;
+    private static final LocalDate DIA = LocalDate.of(2026, 4, 7);
+    private static final AtomicInteger SECUENCIA = new AtomicInteger();
+
+    @Autowired
+    private ExportadorMovimientos exportador;
+
+    @Autowired
+    private ClienteRepository clienteRepo;
+
+    @Autowired
+    private CuentaRepository cuentaRepo;
+
+    @Autowired
+    private MovimientoRepository movRepo;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    private Cliente cliente;
+    private Cuenta cuenta;
+
+    @BeforeEach
+    void setUp() {
+        int prueba = SECUENCIA.incrementAndGet();
+        // Coma y comillas en el nombre: el CSV debe citar el campo
+        cliente = DatosPrueba.cliente(clienteRepo, "EXP-" + prueba);
+        cliente.setNombre("Lema, Jose \"Pepe\"");
+        cliente = clienteRepo.save(cliente);
+        cuenta = DatosPrueba.cuenta(cuentaRepo, cliente, "7" + prueba + "0000001", new BigDecimal("0.00"));
+
+        List<Movimiento> movs = new ArrayList<>(FILAS + 1);
+        for (int i = 0; i < FILAS; i++) {
+            movs.add(mov(DIA.atStartOfDay().plusSeconds(i), i + 1));
+        }
+        movs.add(mov(DIA.plusDays(1).atStartOfDay(), FILAS + 1)); // fuera del rango
+        movRepo.saveAll(movs);
+    }
+
+    @Test
+    void csvPorCliente_todasLasFilasDelRangoConCabeceraYEscapado() {
+        String csv = exportar(out -> exportador.exportarPorCliente(
+                cliente.getClienteId(), DIA, DIA, FormatoExportacion.CSV, out));
+
+        String[] lineas = csv.split("\r\n");
+        assertEquals(FILAS + 1, lineas.length);
+        assertEquals("fecha,cliente,numeroCuenta,tipo,saldoInicial,estado,movimiento,saldoDisponible", lineas[0]);
+        assertEquals(DIA.atStartOfDay() + ",\"Lema, Jose \"\"Pepe\"\"\"," + cuenta.getNumeroCuenta()
+                + ",Ahorros,0.00,true,1.00,1.00", lineas[1]);
+        assertTrue(lineas[FILAS].endsWith("," + FILAS + ".00"));
+    }
+
+    @Test
+    void ndjsonPorCuenta_unObjetoPorLineaEnOrden() throws Exception {
+        String ndjson = exportar(out -> exportador.exportarEstadoCuenta(
+                cuenta.getNumeroCuenta(), DIA, DIA, FormatoExportacion.NDJSON, out));
+
+        String[] lineas = ndjson.split("\n");
+        assertEquals(FILAS, lineas.length);
+        for (int i = 0; i < FILAS; i += 97) {
+            JsonNode fila = objectMapper.readTree(lineas[i]);
+            assertEquals(0, BigDecimal.valueOf(i + 1).compareTo(fila.get("saldo").decimalValue()));
+            assertEquals("Credito", fila.get("tipoMovimiento").asText());
+        }
+        assertTrue(ndjson.endsWith("\n"));
+    }
+
+    @Test
+    void rangoSinMovimientos_csvSoloConCabecera() {
+        String csv = exportar(out -> exportador.exportarEstadoCuenta(
+                cuenta.getNumeroCuenta(), DIA.minusDays(10), DIA.minusDays(9), FormatoExportacion.CSV, out));
+
+        assertEquals("fecha,tipoMovimiento,valor,saldo\r\n", csv);
+    }
+
+    private Movimiento mov(LocalDateTime fecha, int saldo) {
+        Movimiento m = new Movimiento();
+        m.setCuenta(cuenta);
+        m.setFecha(fecha);
+        m.setTipoMovimiento("Credito");
+        m.setValor(BigDecimal.ONE);
+        m.setSaldo(BigDecimal.valueOf(saldo));
+        return m;
+    }
+
+    private static String exportar(Consumer<ByteArrayOutputStream> escritura) {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        escritura.accept(out);
+        return out.toString(StandardCharsets.UTF_8);
+    }
+}
@@ -0,0 +1,33 @@
+package com.bank.bank_backend.service;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.util.HashSet;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * El generador ya no crea cuentas_numero_seq: en producción la crea V1 y en las pruebas import.sql.
+ */
+@SpringBootTest
+@ActiveProfiles("test")
+class GeneradorNumeroCuentaIntegracionTest {
+
+    @Autowired
+    private GeneradorNumeroCuenta generador;
+
+    @Test
+    void siguiente_usaLaSecuenciaDelEsquema() {
+        Set<String> numeros = new HashSet<>();
+        for (int i = 0; i < GeneradorNumeroCuenta.TAMANO_BLOQUE + 5; i++) {
+            String n = generador.siguiente();
+            assertTrue(GeneradorNumeroCuenta.esValido(n), n);
+            numeros.add(n);
+        }
+        assertEquals(GeneradorNumeroCuenta.TAMANO_BLOQUE + 5, numeros.size());
+    }
+}
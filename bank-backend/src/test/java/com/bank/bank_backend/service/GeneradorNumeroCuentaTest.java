@@ -0,0 +1,56 @@
+package com.bank.bank_backend.service;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.HashSet;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class GeneradorNumeroCuentaTest {
+
+    @Test
+    void numeros_tienenNueveDigitosYVerificadorValido() {
+        for (long n = 0; n < 1_000; n++) {
+            String numero = GeneradorNumeroCuenta.numeroPara(n, true);
+            assertEquals(9, numero.length());
+            assertTrue(GeneradorNumeroCuenta.esValido(numero), numero);
+        }
+    }
+
+    @Test
+    void permutacion_noRepiteNumeros() {
+        Set<String> vistos = new HashSet<>();
+        for (long n = 0; n < 200_000; n++) {
+            assertTrue(vistos.add(GeneradorNumeroCuenta.numeroPara(n, true)));
+        }
+        // Los extremos del espacio también son distintos entre sí
+        assertNotEquals(GeneradorNumeroCuenta.numeroPara(0, true),
+                GeneradorNumeroCuenta.numeroPara(GeneradorNumeroCuenta.ESPACIO - 1, true));
+    }
+
+    @Test
+    void permutacion_noEsCorrelativa() {
+        long a = Long.parseLong(GeneradorNumeroCuenta.numeroPara(1, true).substring(0, 8));
+        long b = Long.parseLong(GeneradorNumeroCuenta.numeroPara(2, true).substring(0, 8));
+        assertNotEquals(1, Math.abs(b - a));
+        assertEquals("000000018", GeneradorNumeroCuenta.numeroPara(1, false));
+    }
+
+    @Test
+    void esValido_detectaDigitoCambiado() {
+        String numero = GeneradorNumeroCuenta.numeroPara(42, true);
+        char otro = numero.charAt(3) == '9' ? '0' : (char) (numero.charAt(3) + 1);
+        String alterado = numero.substring(0, 3) + otro + numero.substring(4);
+
+        assertFalse(GeneradorNumeroCuenta.esValido(alterado));
+        assertFalse(GeneradorNumeroCuenta.esValido("12345"));
+        assertFalse(GeneradorNumeroCuenta.esValido("12345678a"));
+    }
+
+    @Test
+    void digitoLuhn_valorConocido() {
+        // 7992739871 -> verificador 3 (ejemplo clásico)
+        assertEquals(3, GeneradorNumeroCuenta.digitoLuhn("7992739871"));
+    }
+}
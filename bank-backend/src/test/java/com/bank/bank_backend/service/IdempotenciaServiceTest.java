@@ -0,0 +1,225 @@
+package com.bank.bank_backend.service;
+
+import com.bank.bank_backend.dto.CrearMovimientoRequest;
+import com.bank.bank_backend.entity.ClaveIdempotencia;
+import com.bank.bank_backend.entity.Cuenta;
+import com.bank.bank_backend.entity.Movimiento;
+import com.bank.bank_backend.exception.BadRequestException;
+import com.bank.bank_backend.exception.ConflictException;
+import com.bank.bank_backend.exception.PosteoPendienteException;
+import com.bank.bank_backend.exception.ServicioNoDisponibleException;
+import com.bank.bank_backend.repository.ClaveIdempotenciaRepository;
+import com.bank.bank_backend.repository.MovimientoRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.mockito.junit.jupiter.MockitoSettings;
+import org.mockito.quality.Strictness;
+import org.springframework.orm.ObjectOptimisticLockingFailureException;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.Optional;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+@MockitoSettings(strictness = Strictness.LENIENT)
+class IdempotenciaServiceTest {
+
+    @Mock
+    private ClaveIdempotenciaRepository claveRepo;
+
+    @Mock
+    private MovimientoRepository movRepo;
+
+    private IdempotenciaService service;
+
+    @BeforeEach
+    void setUp() {
+        service = new IdempotenciaService(claveRepo, movRepo, 100, 60);
+        when(claveRepo.findById(any())).thenReturn(Optional.empty());
+        when(claveRepo.saveAndFlush(any())).thenAnswer(inv -> inv.getArgument(0));
+    }
+
+    @Test
+    void repeticion_devuelveOriginalDesdeCacheSinPostear() {
+        AtomicInteger posteos = new AtomicInteger();
+        Movimiento m = movimiento(10L);
+
+        Movimiento r1 = service.ejecutar("k1", req("10.00"), clave -> { posteos.incrementAndGet(); return m; });
+        Movimiento r2 = service.ejecutar("k1", req("10.00"), clave -> { posteos.incrementAndGet(); return movimiento(11L); });
+
+        assertSame(r1, r2);
+        assertEquals(1, posteos.get());
+        verify(claveRepo, times(1)).findById("k1");
+        verifyNoInteractions(movRepo);
+    }
+
+    @Test
+    void repeticion_conClaveCompletadaEnTabla_releeMovimiento() {
+        ClaveIdempotencia fila = new ClaveIdempotencia();
+        fila.setClave("k2");
+        fila.setHuella(IdempotenciaService.huella(req("10.00")));
+        fila.setEstado(ClaveIdempotencia.COMPLETADO);
+        fila.setMovimientoId(20L);
+        Movimiento original = movimiento(20L);
+        when(claveRepo.findById("k2")).thenReturn(Optional.of(fila));
+        when(movRepo.findById(20L)).thenReturn(Optional.of(original));
+
+        Movimiento r = service.ejecutar("k2", req("10"), clave -> fail("No debe postear"));
+
+        assertSame(original, r);
+        verify(claveRepo, never()).saveAndFlush(any());
+    }
+
+    @Test
+    void claveReutilizadaConOtroRequest_lanzaBadRequest() {
+        service.ejecutar("k3", req("10.00"), clave -> movimiento(30L));
+
+        BadRequestException ex = assertThrows(BadRequestException.class,
+                () -> service.ejecutar("k3", req("99.00"), clave -> movimiento(31L)));
+        assertEquals("Idempotency-Key ya usada con un movimiento distinto", ex.getMessage());
+    }
+
+    @Test
+    void claveEnProcesoEnTabla_lanzaConflict() {
+        ClaveIdempotencia fila = new ClaveIdempotencia();
+        fila.setClave("k4");
+        fila.setHuella(IdempotenciaService.huella(req("10.00")));
+        fila.setEstado(ClaveIdempotencia.EN_PROCESO);
+        fila.setFechaCreacion(LocalDateTime.now());
+        when(claveRepo.findById("k4")).thenReturn(Optional.of(fila));
+
+        assertThrows(ConflictException.class, () -> service.ejecutar("k4", req("10.00"), clave -> movimiento(40L)));
+    }
+
+    @Test
+    void posteoFallido_liberaLaReserva() {
+        assertThrows(BadRequestException.class, () -> service.ejecutar("k5", req("10.00"),
+                clave -> { throw new BadRequestException("Saldo no disponible"); }));
+
+        verify(claveRepo).liberar(eq("k5"), any());
+        // la clave queda libre: un reintento vuelve a postear
+        assertEquals(50L, service.ejecutar("k5", req("10.00"), clave -> movimiento(50L)).getMovimientoId());
+    }
+
+    @Test
+    void posteoIncierto_conservaLaReserva() {
+        assertThrows(PosteoPendienteException.class, () -> service.ejecutar("k7", req("10.00"),
+                clave -> { throw new PosteoPendienteException("Tiempo de espera agotado"); }));
+        assertThrows(IllegalStateException.class, () -> service.ejecutar("k8", req("10.00"),
+                clave -> { throw new IllegalStateException("Error de base"); }));
+
+        verify(claveRepo, never()).liberar(any(), any());
+        verify(claveRepo, never()).deleteById(any());
+    }
+
+    @Test
+    void motorSaturado_liberaLaReserva() {
+        assertThrows(ServicioNoDisponibleException.class, () -> service.ejecutar("k9", req("10.00"),
+                clave -> { throw new ServicioNoDisponibleException("Motor de posteo saturado"); }));
+
+        verify(claveRepo).liberar(eq("k9"), any());
+    }
+
+    @Test
+    void conflictoDeConcurrenciaAgotado_liberaLaReserva() {
+        assertThrows(ObjectOptimisticLockingFailureException.class, () -> service.ejecutar("k11", req("10.00"),
+                clave -> { throw new ObjectOptimisticLockingFailureException(Cuenta.class, 1L); }));
+
+        verify(claveRepo).liberar(eq("k11"), any());
+    }
+
+    @Test
+    void reservaVencida_seLiberaYVuelveAPostear() {
+        ClaveIdempotencia fila = new ClaveIdempotencia();
+        fila.setClave("k10");
+        fila.setHuella(IdempotenciaService.huella(req("10.00")));
+        fila.setEstado(ClaveIdempotencia.EN_PROCESO);
+        fila.setFechaCreacion(LocalDateTime.now().minusMinutes(5));
+        when(claveRepo.findById("k10")).thenReturn(Optional.of(fila));
+        when(claveRepo.liberarVencida(eq("k10"), any())).thenReturn(1);
+
+        Movimiento r = service.ejecutar("k10", req("10.00"), clave -> movimiento(100L));
+
+        assertEquals(100L, r.getMovimientoId());
+        verify(claveRepo).saveAndFlush(any());
+    }
+
+    @Test
+    void claveCompletadaSinMovimientoAplicado_lanzaConflict() {
+        // Modo journal: la clave se completó pero el drenador aún no insertó el movimiento
+        ClaveIdempotencia fila = new ClaveIdempotencia();
+        fila.setClave("k11");
+        fila.setHuella(IdempotenciaService.huella(req("10.00")));
+        fila.setEstado(ClaveIdempotencia.COMPLETADO);
+        fila.setMovimientoId(110L);
+        fila.setFechaCreacion(LocalDateTime.now());
+        when(claveRepo.findById("k11")).thenReturn(Optional.of(fila));
+        when(movRepo.findById(110L)).thenReturn(Optional.empty());
+
+        assertThrows(ConflictException.class,
+                () -> service.ejecutar("k11", req("10.00"), clave -> fail("No debe postear")));
+    }
+
+    @Test
+    void duplicadosConcurrentes_esperanAlPrimeroYPosteanUnaVez() throws Exception {
+        AtomicInteger posteos = new AtomicInteger();
+        CountDownLatch dentro = new CountDownLatch(1);
+        CountDownLatch liberar = new CountDownLatch(1);
+        Movimiento m = movimiento(60L);
+
+        ExecutorService pool = Executors.newFixedThreadPool(4);
+        Future<Movimiento> primero = pool.submit(() -> service.ejecutar("k6", req("10.00"), clave -> {
+            posteos.incrementAndGet();
+            dentro.countDown();
+            try {
+                liberar.await();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            return m;
+        }));
+        assertTrue(dentro.await(5, TimeUnit.SECONDS));
+
+        Future<Movimiento> dup1 = pool.submit(() -> service.ejecutar("k6", req("10.00"), clave -> movimiento(61L)));
+        Future<Movimiento> dup2 = pool.submit(() -> service.ejecutar("k6", req("10.00"), clave -> movimiento(62L)));
+        Thread.sleep(50);
+        liberar.countDown();
+
+        assertSame(m, primero.get(5, TimeUnit.SECONDS));
+        assertSame(m, dup1.get(5, TimeUnit.SECONDS));
+        assertSame(m, dup2.get(5, TimeUnit.SECONDS));
+        assertEquals(1, posteos.get());
+        pool.shutdown();
+    }
+
+    @Test
+    void claveDemasiadoLarga_lanzaBadRequest() {
+        String larga = "x".repeat(IdempotenciaService.LARGO_MAXIMO_CLAVE + 1);
+        assertThrows(BadRequestException.class, () -> service.ejecutar(larga, req("1.00"), clave -> movimiento(1L)));
+        verifyNoInteractions(claveRepo);
+    }
+
+    private static CrearMovimientoRequest req(String valor) {
+        CrearMovimientoRequest r = new CrearMovimientoRequest();
+        r.setNumeroCuenta("123");
+        r.setTipoMovimiento("Credito");
+        r.setValor(new BigDecimal(valor));
+        return r;
+    }
+
+    private static Movimiento movimiento(Long id) {
+        Movimiento m = new Movimiento();
+        m.setMovimientoId(id);
+        return m;
+    }
+}
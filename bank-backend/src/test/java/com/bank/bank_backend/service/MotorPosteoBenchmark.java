@@ -0,0 +1,113 @@
+package com.bank.bank_backend.service;
+
+import com.bank.bank_backend.dto.CrearMovimientoRequest;
+import com.bank.bank_backend.entity.Cliente;
+import com.bank.bank_backend.entity.Cuenta;
+import com.bank.bank_backend.repository.ClienteRepository;
+import com.bank.bank_backend.repository.CuentaRepository;
+import com.bank.bank_backend.support.DatosPrueba;
+import com.bank.bank_backend.support.Tormenta;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Consumer;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Motor de posteo (shards de un solo escritor + group commit) contra el posteo ATOMICO
+ * de MovimientoService, con muchos hilos sobre pocas cuentas calientes.
+ *
+ * Corre solo con {@code mvn -Pbenchmark test}. Mide movimientos aceptados por segundo.
+ * {@code -Dbenchmark.hilos=N} y {@code -Dbenchmark.operaciones=N} cambian la carga.
+ */
+@SpringBootTest(properties = {
+        "spring.datasource.url=jdbc:h2:mem:motor-benchmark;MODE=PostgreSQL;DATABASE_TO_LOWER=TRUE;DEFAULT_NULL_ORDERING=HIGH;DB_CLOSE_DELAY=-1",
+        "bank.posteo.motor.habilitado=true",
+        "bank.posteo.motor.shards=4",
+        "bank.posteo.motor.flush-ms=2",
+        "bank.posteo.motor.flush-items=200"
+})
+@ActiveProfiles("test")
+@Tag("benchmark")
+class MotorPosteoBenchmark {
+
+    private static final int HILOS = Integer.getInteger("benchmark.hilos", 32);
+    private static final int OPERACIONES = Integer.getInteger("benchmark.operaciones", 8_000);
+    private static final int CUENTAS = 5;
+
+    private static final AtomicInteger SECUENCIA = new AtomicInteger();
+
+    @Autowired
+    private MotorPosteo motor;
+
+    @Autowired
+    private MovimientoService movimientoService;
+
+    @Autowired
+    private ClienteRepository clienteRepo;
+
+    @Autowired
+    private CuentaRepository cuentaRepo;
+
+    @AfterEach
+    void restaurarModo() {
+        movimientoService.setModoPosteo(ModoPosteo.CLASICO);
+    }
+
+    @Test
+    void motorVsAtomico_cuentasCalientes() throws Exception {
+        movimientoService.setModoPosteo(ModoPosteo.ATOMICO);
+        medir(movimientoService::crear, 1_000);
+        medir(motor::postear, 1_000);
+
+        Tormenta.Resultado atomico = medir(movimientoService::crear, OPERACIONES);
+        Tormenta.Resultado motorGrupo = medir(motor::postear, OPERACIONES);
+
+        System.out.println();
+        System.out.printf("Posteo sobre %d cuentas, %,d operaciones, %d hilos%n", CUENTAS, OPERACIONES, HILOS);
+        System.out.printf("%-10s %12s %10s%n", "", "aceptados/s", "ms");
+        imprimir("ATOMICO", atomico);
+        imprimir("MOTOR", motorGrupo);
+
+        assertEquals(0, atomico.errores());
+        assertEquals(0, motorGrupo.errores());
+        assertTrue(motorGrupo.porSegundo() > atomico.porSegundo(),
+                "el motor debe aceptar más movimientos por segundo que el posteo atómico");
+    }
+
+    // Cuentas nuevas por medición: el motor conserva en memoria las ya vistas
+    private Tormenta.Resultado medir(Consumer<CrearMovimientoRequest> posteo, int operaciones) throws Exception {
+        List<String> numeros = crearCuentas();
+        return Tormenta.correr(HILOS, operaciones, i -> {
+            CrearMovimientoRequest req = new CrearMovimientoRequest();
+            req.setNumeroCuenta(numeros.get(i % numeros.size()));
+            req.setTipoMovimiento("Credito");
+            req.setValor(new BigDecimal("1.00"));
+            posteo.accept(req);
+        });
+    }
+
+    private List<String> crearCuentas() {
+        int n = SECUENCIA.incrementAndGet();
+        Cliente cliente = DatosPrueba.cliente(clienteRepo, "BENCH-MOTOR-" + n);
+        List<String> numeros = new ArrayList<>();
+        for (int i = 0; i < CUENTAS; i++) {
+            Cuenta c = DatosPrueba.cuenta(cuentaRepo, cliente, "72" + n + "00000" + i, BigDecimal.ZERO);
+            numeros.add(c.getNumeroCuenta());
+        }
+        return numeros;
+    }
+
+    private static void imprimir(String nombre, Tormenta.Resultado r) {
+        System.out.printf("%-10s %,12.0f %10d%n", nombre, r.porSegundo(), r.millis());
+    }
+}
@@ -0,0 +1,254 @@
+package com.bank.bank_backend.service;
+
+import com.bank.bank_backend.dto.CrearMovimientoRequest;
+import com.bank.bank_backend.entity.Cliente;
+import com.bank.bank_backend.entity.Cuenta;
+import com.bank.bank_backend.entity.Movimiento;
+import com.bank.bank_backend.exception.BadRequestException;
+import com.bank.bank_backend.exception.ServicioNoDisponibleException;
+import com.bank.bank_backend.journal.AplicadorJournal;
+import com.bank.bank_backend.journal.JournalShard;
+import com.bank.bank_backend.journal.RegistroJournal;
+import com.bank.bank_backend.repository.ClaveIdempotenciaRepository;
+import com.bank.bank_backend.repository.ClienteRepository;
+import com.bank.bank_backend.repository.CuentaRepository;
+import com.bank.bank_backend.repository.MovimientoRepository;
+import com.bank.bank_backend.support.DatosPrueba;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+/**
+ * Motor con journal: el acuse llega antes de la base, pero al drenar
+ * saldoActual debe quedar igual a saldoInicial + suma(Movimiento.valor).
+ */
+@SpringBootTest(properties = {
+        "spring.datasource.url=jdbc:h2:mem:journal;MODE=PostgreSQL;DATABASE_TO_LOWER=TRUE;DEFAULT_NULL_ORDERING=HIGH;DB_CLOSE_DELAY=-1",
+        "bank.posteo.motor.habilitado=true",
+        "bank.posteo.motor.shards=2",
+        "bank.posteo.motor.flush-ms=2",
+        "bank.posteo.journal.habilitado=true",
+        "bank.posteo.journal.registros-por-segmento=128",
+        "bank.transferencias.habilitadas=false",
+        "bank.movimientos.lote.habilitado=false"
+})
+@ActiveProfiles("test")
+class MotorPosteoJournalTest {
+
+    private static final BigDecimal SALDO_INICIAL = new BigDecimal("100.00");
+    private static final AtomicInteger SECUENCIA = new AtomicInteger();
+
+    @DynamicPropertySource
+    static void directorioJournal(DynamicPropertyRegistry registry) throws IOException {
+        Path dir = Files.createTempDirectory("journal-motor");
+        registry.add("bank.posteo.journal.directorio", dir::toString);
+    }
+
+    @Autowired
+    private MotorPosteo motor;
+
+    @Autowired
+    private AplicadorJournal aplicador;
+
+    @Autowired
+    private ClienteRepository clienteRepo;
+
+    @Autowired
+    private CuentaRepository cuentaRepo;
+
+    @Autowired
+    private MovimientoRepository movRepo;
+
+    @TempDir
+    Path otroDirectorio;
+
+    @Test
+    void tormenta_acusaConIdYLaBaseConvergeAlDrenar() throws Exception {
+        List<Cuenta> cuentas = crearCuentas(4);
+        ExecutorService pool = Executors.newFixedThreadPool(6);
+        List<Future<Movimiento>> futuros = new ArrayList<>();
+        for (int i = 0; i < 600; i++) {
+            int n = i;
+            futuros.add(pool.submit(() -> {
+                CrearMovimientoRequest req = new CrearMovimientoRequest();
+                req.setNumeroCuenta(cuentas.get(n % cuentas.size()).getNumeroCuenta());
+                boolean credito = n % 3 == 0;
+                req.setTipoMovimiento(credito ? "Credito" : "Debito");
+                req.setValor(credito ? new BigDecimal("7.00") : new BigDecimal("4.00"));
+                try {
+                    return motor.postear(req);
+                } catch (BadRequestException e) {
+                    return null;
+                }
+            }));
+        }
+
+        List<Long> ids = new ArrayList<>();
+        for (Future<Movimiento> f : futuros) {
+            Movimiento m = f.get(30, TimeUnit.SECONDS);
+            if (m != null) {
+                assertNotNull(m.getMovimientoId(), "El acuse debe traer el ID definitivo");
+                ids.add(m.getMovimientoId());
+            }
+        }
+        pool.shutdown();
+        assertEquals(ids.size(), ids.stream().distinct().count());
+
+        esperarDrenado(cuentas, ids.size());
+        long enBase = 0;
+        for (Cuenta c : cuentas) {
+            Cuenta fila = cuentaRepo.findById(c.getCuentaId()).orElseThrow();
+            List<Movimiento> movs = movRepo.findByCuenta_NumeroCuentaOrderByFechaAsc(c.getNumeroCuenta());
+            BigDecimal suma = movs.stream().map(Movimiento::getValor).reduce(BigDecimal.ZERO, BigDecimal::add);
+            assertEquals(0, SALDO_INICIAL.add(suma).compareTo(fila.getSaldoActual()));
+            assertTrue(fila.getSaldoActual().signum() >= 0);
+            enBase += movs.size();
+        }
+        assertEquals(ids.size(), enBase);
+    }
+
+    @Test
+    void journalSinAplicar_seReaplicaUnaSolaVez() {
+        Cuenta c = crearCuentas(1).get(0);
+        int shard = 40 + SECUENCIA.get(); // fuera de los shards activos del motor
+        long[] ids = aplicador.reservarIds(Movimiento.BLOQUE_IDS);
+
+        // "Caída" con dos movimientos acusados pero no aplicados
+        assertTrue(ids[1] > ids[0]);
+        JournalShard j = JournalShard.abrir(otroDirectorio, shard, 64, aplicador.marca(shard));
+        j.agregar(ids[0], c.getCuentaId(), new BigDecimal("25.00"), new BigDecimal("125.00"), LocalDateTime.now());
+        j.agregar(ids[1], c.getCuentaId(), new BigDecimal("-5.00"), new BigDecimal("120.00"), LocalDateTime.now());
+        j.forzar();
+        j.cerrar();
+
+        for (int intento = 0; intento < 2; intento++) {
+            JournalShard reabierto = JournalShard.abrir(otroDirectorio, shard, 64, aplicador.marca(shard));
+            List<RegistroJournal> pendientes = reabierto.recuperados();
+            assertEquals(intento == 0 ? 2 : 0, pendientes.size());
+            if (!pendientes.isEmpty()) aplicador.aplicar(shard, pendientes, r -> fail("Nada que rechazar"));
+            reabierto.cerrar();
+        }
+
+        // Reaplicar el mismo lote (como si la marca no se hubiera leído) tampoco duplica
+        aplicador.aplicar(shard, List.of(new RegistroJournal(1, ids[0], c.getCuentaId(),
+                new BigDecimal("25.00"), new BigDecimal("125.00"), LocalDateTime.now())), r -> fail("Ya aplicado"));
+
+        assertEquals(2, movRepo.findByCuenta_NumeroCuentaOrderByFechaAsc(c.getNumeroCuenta()).size());
+        assertEquals(0, new BigDecimal("120.00").compareTo(
+                cuentaRepo.findById(c.getCuentaId()).orElseThrow().getSaldoActual()));
+    }
+
+    @Test
+    void saldoDistintoONegativo_noSePisaYVaADescartados() {
+        List<Cuenta> cs = crearCuentas(3);
+        Cuenta cambiada = cs.get(0), negativa = cs.get(1), sana = cs.get(2);
+        int shard = 60 + SECUENCIA.get();
+        long[] ids = aplicador.reservarIds(Movimiento.BLOQUE_IDS);
+
+        // Escritura por fuera del motor: el journal esperaba 100.00 como saldo previo
+        Cuenta fila = cuentaRepo.findById(cambiada.getCuentaId()).orElseThrow();
+        fila.setSaldoActual(new BigDecimal("500.00"));
+        cuentaRepo.save(fila);
+
+        LocalDateTime ahora = LocalDateTime.now();
+        List<RegistroJournal> lote = List.of(
+                new RegistroJournal(1, ids[0], cambiada.getCuentaId(), new BigDecimal("10.00"), new BigDecimal("110.00"), ahora),
+                new RegistroJournal(2, ids[0] + 1, negativa.getCuentaId(), new BigDecimal("-150.00"), new BigDecimal("-50.00"), ahora),
+                new RegistroJournal(3, ids[0] + 2, sana.getCuentaId(), new BigDecimal("-30.00"), new BigDecimal("70.00"), ahora));
+        List<RegistroJournal> rechazados = new ArrayList<>();
+
+        assertEquals(3, aplicador.aplicar(shard, lote, rechazados::addAll));
+
+        assertEquals(List.of(lote.get(0), lote.get(1)), rechazados);
+        assertEquals(0, new BigDecimal("500.00").compareTo(saldo(cambiada)));
+        assertEquals(0, SALDO_INICIAL.compareTo(saldo(negativa)));
+        assertEquals(0, new BigDecimal("70.00").compareTo(saldo(sana)));
+        assertTrue(movRepo.findByCuenta_NumeroCuentaOrderByFechaAsc(cambiada.getNumeroCuenta()).isEmpty());
+        assertEquals(1, movRepo.findByCuenta_NumeroCuentaOrderByFechaAsc(sana.getNumeroCuenta()).size());
+        assertEquals(3, aplicador.marca(shard));
+    }
+
+    @Test
+    void loteQueFallaSiempre_vaADescartadosYLaCuentaQuedaEnConciliacion() throws Exception {
+        // Motor aparte con un aplicador que siempre falla por integridad (no por conexión)
+        Cuenta cuenta = new Cuenta();
+        cuenta.setCuentaId(77L);
+        cuenta.setNumeroCuenta("7700000001");
+        cuenta.setSaldoActual(new BigDecimal("10.00"));
+        cuenta.setEstado(true);
+        CuentaRepository cuentas = mock(CuentaRepository.class);
+        when(cuentas.findByNumeroCuenta(cuenta.getNumeroCuenta())).thenReturn(Optional.of(cuenta));
+        AplicadorJournal roto = mock(AplicadorJournal.class);
+        when(roto.reservarIds(anyInt())).thenReturn(new long[]{1, 50});
+        when(roto.aplicar(anyInt(), anyList(), any())).thenThrow(new DataIntegrityViolationException("duplicada"));
+        when(roto.saltar(anyInt(), anyLong())).thenAnswer(inv -> inv.getArgument(1));
+
+        MotorPosteo aislado = new MotorPosteo(cuentas, mock(MovimientoRepository.class),
+                mock(PlatformTransactionManager.class), 1, 1, 1, 10, 5_000, 10,
+                roto, true, otroDirectorio.toString(), 64, 2,
+                mock(SaldoDiarioService.class), mock(ClaveIdempotenciaRepository.class));
+        try {
+            CrearMovimientoRequest req = new CrearMovimientoRequest();
+            req.setNumeroCuenta(cuenta.getNumeroCuenta());
+            req.setTipoMovimiento("Credito");
+            req.setValor(new BigDecimal("5.00"));
+            assertEquals(1L, aislado.postear(req).getMovimientoId()); // acusado tras el fsync
+
+            // Tras 2 intentos: archivo de descartados, marca avanzada y la cuenta deja de aceptar posteos
+            verify(roto, timeout(5_000)).saltar(0, 1L);
+            verify(roto, times(2)).aplicar(anyInt(), anyList(), any());
+            List<String> lineas = Files.readAllLines(otroDirectorio.resolve("shard-00-descartados.csv"));
+            assertEquals(2, lineas.size());
+            assertTrue(lineas.get(1).startsWith("1,1,77,5.00,15.00,"));
+            assertThrows(ServicioNoDisponibleException.class, () -> aislado.postear(req));
+        } finally {
+            aislado.detener();
+        }
+    }
+
+    private BigDecimal saldo(Cuenta c) {
+        return cuentaRepo.findById(c.getCuentaId()).orElseThrow().getSaldoActual();
+    }
+
+    private void esperarDrenado(List<Cuenta> cuentas, int esperados) throws InterruptedException {
+        long limite = System.currentTimeMillis() + 10_000;
+        while (System.currentTimeMillis() < limite) {
+            long enBase = cuentas.stream()
+                    .mapToLong(c -> movRepo.findByCuenta_NumeroCuentaOrderByFechaAsc(c.getNumeroCuenta()).size())
+                    .sum();
+            if (enBase >= esperados) return;
+            Thread.sleep(20);
+        }
+    }
+
+    private List<Cuenta> crearCuentas(int cantidad) {
+        int prueba = SECUENCIA.incrementAndGet();
+        Cliente cliente = DatosPrueba.cliente(clienteRepo, "JOURNAL-" + prueba);
+        List<Cuenta> cuentas = new ArrayList<>();
+        for (int i = 0; i < cantidad; i++) {
+            cuentas.add(DatosPrueba.cuenta(cuentaRepo, cliente, "8" + prueba + "000000" + i, SALDO_INICIAL));
+        }
+        return cuentas;
+    }
+}
@@ -0,0 +1,229 @@
+package com.bank.bank_backend.service;
+
+import com.bank.bank_backend.dto.CrearMovimientoRequest;
+import com.bank.bank_backend.entity.ClaveIdempotencia;
+import com.bank.bank_backend.entity.Cliente;
+import com.bank.bank_backend.entity.Cuenta;
+import com.bank.bank_backend.entity.Movimiento;
+import com.bank.bank_backend.exception.BadRequestException;
+import com.bank.bank_backend.exception.PosteoPendienteException;
+import com.bank.bank_backend.exception.ServicioNoDisponibleException;
+import com.bank.bank_backend.repository.ClaveIdempotenciaRepository;
+import com.bank.bank_backend.repository.ClienteRepository;
+import com.bank.bank_backend.repository.CuentaRepository;
+import com.bank.bank_backend.repository.MovimientoRepository;
+import com.bank.bank_backend.support.DatosPrueba;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.MediaType;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+/**
+ * Tormenta multi-hilo contra el motor de posteo: al final, para cada cuenta,
+ * saldoActual debe ser exactamente saldoInicial + suma(Movimiento.valor).
+ * El throughput contra el posteo atómico se mide en MotorPosteoBenchmark.
+ */
+@SpringBootTest(properties = {
+        "spring.datasource.url=jdbc:h2:mem:motor;MODE=PostgreSQL;DATABASE_TO_LOWER=TRUE;DEFAULT_NULL_ORDERING=HIGH;DB_CLOSE_DELAY=-1",
+        "bank.posteo.motor.habilitado=true",
+        "bank.posteo.motor.shards=3",
+        "bank.posteo.motor.flush-ms=2",
+        "bank.posteo.motor.flush-items=50"
+})
+@ActiveProfiles("test")
+@AutoConfigureMockMvc
+class MotorPosteoTest {
+
+    private static final int HILOS = 8;
+    private static final int OPERACIONES = 1_200;
+    private static final BigDecimal SALDO_INICIAL = new BigDecimal("200.00");
+
+    // Números distintos por prueba: el motor conserva en memoria las cuentas ya vistas.
+    private static final AtomicInteger SECUENCIA = new AtomicInteger();
+
+    @Autowired
+    private MotorPosteo motor;
+
+    @Autowired
+    private ClienteRepository clienteRepo;
+
+    @Autowired
+    private CuentaRepository cuentaRepo;
+
+    @Autowired
+    private MovimientoRepository movRepo;
+
+    @Autowired
+    private IdempotenciaService idempotencia;
+
+    @Autowired
+    private ClaveIdempotenciaRepository claveRepo;
+
+    @Autowired
+    private MockMvc mvc;
+
+    private final List<Cuenta> cuentas = new ArrayList<>();
+
+    @BeforeEach
+    void setUp() {
+        movRepo.deleteAll();
+        cuentaRepo.deleteAll();
+        clienteRepo.deleteAll();
+        cuentas.clear();
+
+        int prueba = SECUENCIA.incrementAndGet();
+        Cliente cliente = DatosPrueba.cliente(clienteRepo, "MOTOR-" + prueba);
+        for (int i = 0; i < 5; i++) {
+            cuentas.add(DatosPrueba.cuenta(cuentaRepo, cliente, "9" + prueba + "000000" + i, SALDO_INICIAL));
+        }
+    }
+
+    @Test
+    void tormenta_saldoFinalIgualASaldoInicialMasSumaDeMovimientos() throws Exception {
+        ExecutorService pool = Executors.newFixedThreadPool(HILOS);
+        CountDownLatch largada = new CountDownLatch(1);
+        AtomicInteger aceptados = new AtomicInteger();
+        AtomicInteger sinSaldo = new AtomicInteger();
+        List<Future<?>> futuros = new ArrayList<>();
+
+        for (int i = 0; i < OPERACIONES; i++) {
+            int n = i;
+            futuros.add(pool.submit(() -> {
+                largada.await();
+                CrearMovimientoRequest req = new CrearMovimientoRequest();
+                req.setNumeroCuenta(cuentas.get(n % cuentas.size()).getNumeroCuenta());
+                // Débitos más grandes que créditos: fuerza rechazos por saldo.
+                boolean credito = n % 3 == 0;
+                req.setTipoMovimiento(credito ? "Credito" : "Debito");
+                req.setValor(credito ? new BigDecimal("15.00") : new BigDecimal("9.00"));
+                try {
+                    assertNotNull(motor.postear(req).getMovimientoId());
+                    aceptados.incrementAndGet();
+                } catch (BadRequestException e) {
+                    assertEquals("Saldo no disponible", e.getMessage());
+                    sinSaldo.incrementAndGet();
+                }
+                return null;
+            }));
+        }
+
+        largada.countDown();
+        for (Future<?> f : futuros) f.get(60, TimeUnit.SECONDS);
+        pool.shutdown();
+
+        int totalMovs = 0;
+        for (Cuenta c : cuentas) {
+            Cuenta finalCta = cuentaRepo.findById(c.getCuentaId()).orElseThrow();
+            List<Movimiento> movs = movRepo.findByCuenta_NumeroCuentaOrderByFechaAsc(c.getNumeroCuenta());
+            BigDecimal suma = movs.stream().map(Movimiento::getValor).reduce(BigDecimal.ZERO, BigDecimal::add);
+
+            assertEquals(0, SALDO_INICIAL.add(suma).compareTo(finalCta.getSaldoActual()),
+                    "Saldo inconsistente en " + c.getNumeroCuenta());
+            assertTrue(finalCta.getSaldoActual().signum() >= 0);
+            totalMovs += movs.size();
+        }
+
+        assertEquals(aceptados.get(), totalMovs);
+        assertEquals(OPERACIONES, aceptados.get() + sinSaldo.get());
+        assertTrue(sinSaldo.get() > 0, "La tormenta debería provocar rechazos por saldo");
+    }
+
+    @Test
+    void cambioFueraDelMotor_503YElReintentoConLaMismaClaveSeAplica() throws Exception {
+        Cuenta c = cuentas.get(0);
+        motor.postear(req(c.getNumeroCuenta(), "Credito", "10.00")); // la cuenta queda en memoria
+
+        // Escritura externa: cambia saldo y versión por fuera del motor
+        Cuenta fila = cuentaRepo.findById(c.getCuentaId()).orElseThrow();
+        fila.setSaldoActual(new BigDecimal("1000.00"));
+        cuentaRepo.save(fila);
+
+        String debito = "{\"numeroCuenta\":\"" + c.getNumeroCuenta()
+                + "\",\"tipoMovimiento\":\"Debito\",\"valor\":5.00}";
+        mvc.perform(post("/movimientos").header("Idempotency-Key", "motor-externa")
+                        .contentType(MediaType.APPLICATION_JSON).content(debito))
+                .andExpect(status().isServiceUnavailable());
+        assertTrue(claveRepo.findById("motor-externa").isEmpty(), "la reserva tiene que quedar liberada");
+
+        // Reintento con la misma clave: saldo recargado desde la base, un solo movimiento
+        mvc.perform(post("/movimientos").header("Idempotency-Key", "motor-externa")
+                        .contentType(MediaType.APPLICATION_JSON).content(debito))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.saldo").value(995.00));
+        assertEquals(ClaveIdempotencia.COMPLETADO, claveRepo.findById("motor-externa").orElseThrow().getEstado());
+        assertEquals(2, movRepo.findByCuenta_NumeroCuentaOrderByFechaAsc(c.getNumeroCuenta()).size());
+    }
+
+    @Test
+    void idempotencyKey_seCompletaEnElGroupCommit_ySinReservaNoSeAplica() {
+        Cuenta c = cuentas.get(0);
+        CrearMovimientoRequest credito = req(c.getNumeroCuenta(), "Credito", "10.00");
+        Movimiento m = idempotencia.ejecutar("motor-k1", credito, clave -> motor.postear(credito, clave));
+
+        ClaveIdempotencia fila = claveRepo.findById("motor-k1").orElseThrow();
+        assertEquals(ClaveIdempotencia.COMPLETADO, fila.getEstado());
+        assertEquals(m.getMovimientoId(), fila.getMovimientoId());
+
+        // Reserva inexistente (vencida y liberada): el movimiento no se confirma
+        assertThrows(ServicioNoDisponibleException.class,
+                () -> motor.postear(req(c.getNumeroCuenta(), "Credito", "5.00"), "motor-sin-reserva"));
+        assertEquals(1, movRepo.findByCuenta_NumeroCuentaOrderByFechaAsc(c.getNumeroCuenta()).size());
+        assertEquals(0, new BigDecimal("210.00").compareTo(
+                cuentaRepo.findById(c.getCuentaId()).orElseThrow().getSaldoActual()));
+    }
+
+    @Test
+    void sinRespuestaOColaLlena_servicioNoDisponible() throws Exception {
+        // Motor aparte de un shard con cola de 1: la lectura de la cuenta queda bloqueada
+        CuentaRepository lento = mock(CuentaRepository.class);
+        CountDownLatch soltar = new CountDownLatch(1);
+        when(lento.findByNumeroCuenta(any())).thenAnswer(inv -> {
+            soltar.await();
+            return Optional.empty();
+        });
+        MotorPosteo bloqueado = new MotorPosteo(lento, mock(MovimientoRepository.class),
+                mock(PlatformTransactionManager.class), 1, 1, 1, 1, 100, 10,
+                null, false, "", 1, 1, mock(SaldoDiarioService.class), mock(ClaveIdempotenciaRepository.class));
+        try {
+            // 1) ocupa el hilo del shard y vence el timeout; 2) queda en la cola; 3) la cola está llena
+            PosteoPendienteException timeout = assertThrows(PosteoPendienteException.class,
+                    () -> bloqueado.postear(req("1", "Credito", "1.00")));
+            assertTrue(timeout.getMessage().startsWith("Tiempo de espera agotado"));
+            assertThrows(ServicioNoDisponibleException.class, () -> bloqueado.postear(req("2", "Credito", "1.00")));
+            ServicioNoDisponibleException saturado = assertThrows(ServicioNoDisponibleException.class,
+                    () -> bloqueado.postear(req("3", "Credito", "1.00")));
+            assertEquals("Motor de posteo saturado, intente nuevamente", saturado.getMessage());
+        } finally {
+            soltar.countDown();
+            bloqueado.detener();
+        }
+    }
+
+    private CrearMovimientoRequest req(String numero, String tipo, String valor) {
+        CrearMovimientoRequest r = new CrearMovimientoRequest();
+        r.setNumeroCuenta(numero);
+        r.setTipoMovimiento(tipo);
+        r.setValor(new BigDecimal(valor));
+        return r;
+    }
+}
@@ -0,0 +1,217 @@
+package com.bank.bank_backend.service;
+
+import com.bank.bank_backend.dto.CrearMovimientoRequest;
+import com.bank.bank_backend.entity.ClaveIdempotencia;
+import com.bank.bank_backend.entity.Cliente;
+import com.bank.bank_backend.entity.Cuenta;
+import com.bank.bank_backend.entity.Movimiento;
+import com.bank.bank_backend.exception.ConflictException;
+import com.bank.bank_backend.repository.ClaveIdempotenciaRepository;
+import com.bank.bank_backend.repository.ClienteRepository;
+import com.bank.bank_backend.repository.CuentaRepository;
+import com.bank.bank_backend.repository.MovimientoRepository;
+import com.bank.bank_backend.support.DatosPrueba;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Tormenta de créditos/débitos concurrentes sobre UNA sola cuenta.
+ * Verifica que ningún modo pierde actualizaciones y que una Idempotency-Key postea una sola vez; el throughput se compara en MovimientoPosteoBenchmark.
+ */
+@SpringBootTest
+@ActiveProfiles("test")
+class MovimientoConcurrenciaTest {
+
+    private static final int HILOS = 8;
+    private static final int OPERACIONES = 400;
+
+    @Autowired
+    private MovimientoService movimientoService;
+
+    @Autowired
+    private ClienteRepository clienteRepo;
+
+    @Autowired
+    private CuentaRepository cuentaRepo;
+
+    @Autowired
+    private MovimientoRepository movRepo;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Autowired
+    private IdempotenciaService idempotencia;
+
+    @Autowired
+    private ClaveIdempotenciaRepository claveRepo;
+
+    @BeforeEach
+    void limpiar() {
+        movRepo.deleteAll();
+        cuentaRepo.deleteAll();
+        clienteRepo.deleteAll();
+    }
+
+    @AfterEach
+    void restaurarModo() {
+        movimientoService.setModoPosteo(ModoPosteo.CLASICO);
+    }
+
+    @Test
+    void posteoAtomico_tormentaConcurrente_noPierdeActualizaciones() throws Exception {
+        Cuenta cuenta = crearCuenta("700000001", new BigDecimal("1000.00"));
+        movimientoService.setModoPosteo(ModoPosteo.ATOMICO);
+
+        Resultado r = tormenta(cuenta.getNumeroCuenta());
+
+        Cuenta finalCta = cuentaRepo.findByNumeroCuenta(cuenta.getNumeroCuenta()).orElseThrow();
+        List<Movimiento> movs = movRepo.findByCuenta_NumeroCuentaOrderByFechaAsc(cuenta.getNumeroCuenta());
+        BigDecimal sumaMovs = movs.stream().map(Movimiento::getValor).reduce(BigDecimal.ZERO, BigDecimal::add);
+
+        assertEquals(0, r.errores, "El posteo atómico no debe fallar por concurrencia");
+        assertEquals(OPERACIONES, movs.size());
+        assertEquals(0, new BigDecimal("1000.00").add(r.sumaAceptada).compareTo(finalCta.getSaldoActual()));
+        assertEquals(0, new BigDecimal("1000.00").add(sumaMovs).compareTo(finalCta.getSaldoActual()));
+        assertTrue(movs.stream().allMatch(m -> m.getSaldo().signum() >= 0));
+    }
+
+    @Test
+    void posteoClasicoVersionado_tormentaConcurrente_noPierdeActualizaciones() throws Exception {
+        Cuenta cuenta = crearCuenta("700000002", new BigDecimal("1000.00"));
+        movimientoService.setModoPosteo(ModoPosteo.CLASICO);
+
+        Resultado r = tormenta(cuenta.getNumeroCuenta());
+
+        Cuenta finalCta = cuentaRepo.findByNumeroCuenta(cuenta.getNumeroCuenta()).orElseThrow();
+        List<Movimiento> movs = movRepo.findByCuenta_NumeroCuentaOrderByFechaAsc(cuenta.getNumeroCuenta());
+        BigDecimal sumaMovs = movs.stream().map(Movimiento::getValor).reduce(BigDecimal.ZERO, BigDecimal::add);
+
+        // Solo cuentan los posteos aceptados; los que agotaron reintentos no dejan rastro.
+        assertEquals(OPERACIONES - r.errores, movs.size());
+        assertEquals(0, new BigDecimal("1000.00").add(r.sumaAceptada).compareTo(finalCta.getSaldoActual()));
+        assertEquals(0, new BigDecimal("1000.00").add(sumaMovs).compareTo(finalCta.getSaldoActual()));
+        // Cada movimiento agotado pasó antes por los reintentos
+        assertTrue(r.errores == 0 || contador("bank.posteo.reintentos") > 0);
+    }
+
+    @Test
+    void mismaIdempotencyKey_tormentaConcurrente_posteaUnaSolaVez() throws Exception {
+        Cuenta cuenta = crearCuenta("700000003", new BigDecimal("1000.00"));
+        movimientoService.setModoPosteo(ModoPosteo.ATOMICO);
+        CrearMovimientoRequest req = new CrearMovimientoRequest();
+        req.setNumeroCuenta(cuenta.getNumeroCuenta());
+        req.setTipoMovimiento("Debito");
+        req.setValor(new BigDecimal("100.00"));
+
+        ExecutorService pool = Executors.newFixedThreadPool(HILOS);
+        CountDownLatch largada = new CountDownLatch(1);
+        List<Future<Long>> futuros = new ArrayList<>();
+        for (int i = 0; i < HILOS * 4; i++) {
+            futuros.add(pool.submit(() -> {
+                largada.await();
+                try {
+                    return idempotencia.ejecutar("conc-k1", req, clave -> movimientoService.crear(req, clave))
+                            .getMovimientoId();
+                } catch (ConflictException e) {
+                    return null; // la reserva seguía en curso al llegar
+                }
+            }));
+        }
+        largada.countDown();
+        Set<Long> ids = new HashSet<>();
+        for (Future<Long> f : futuros) {
+            Long id = f.get(60, TimeUnit.SECONDS);
+            if (id != null) ids.add(id);
+        }
+        pool.shutdown();
+
+        List<Movimiento> movs = movRepo.findByCuenta_NumeroCuentaOrderByFechaAsc(cuenta.getNumeroCuenta());
+        assertEquals(1, movs.size());
+        assertEquals(Set.of(movs.get(0).getMovimientoId()), ids);
+        ClaveIdempotencia fila = claveRepo.findById("conc-k1").orElseThrow();
+        assertEquals(ClaveIdempotencia.COMPLETADO, fila.getEstado());
+        assertEquals(movs.get(0).getMovimientoId(), fila.getMovimientoId());
+    }
+
+    @Test
+    void idempotencyKeySinReserva_elMovimientoNoSeConfirma() {
+        Cuenta cuenta = crearCuenta("700000004", new BigDecimal("1000.00"));
+        CrearMovimientoRequest req = new CrearMovimientoRequest();
+        req.setNumeroCuenta(cuenta.getNumeroCuenta());
+        req.setTipoMovimiento("Debito");
+        req.setValor(new BigDecimal("100.00"));
+
+        // La reserva venció y se liberó: el movimiento y la clave se revierten juntos
+        assertThrows(ConflictException.class, () -> movimientoService.crear(req, "conc-sin-reserva"));
+
+        assertTrue(movRepo.findByCuenta_NumeroCuentaOrderByFechaAsc(cuenta.getNumeroCuenta()).isEmpty());
+        assertEquals(0, new BigDecimal("1000.00").compareTo(
+                cuentaRepo.findById(cuenta.getCuentaId()).orElseThrow().getSaldoActual()));
+    }
+
+    /* ===============================
+       Helpers
+       =============================== */
+
+    private Resultado tormenta(String numeroCuenta) throws Exception {
+        ExecutorService pool = Executors.newFixedThreadPool(HILOS);
+        CountDownLatch largada = new CountDownLatch(1);
+        AtomicInteger errores = new AtomicInteger();
+        List<Future<BigDecimal>> futuros = new ArrayList<>();
+
+        for (int i = 0; i < OPERACIONES; i++) {
+            boolean credito = i % 2 == 0;
+            futuros.add(pool.submit(() -> {
+                largada.await();
+                CrearMovimientoRequest req = new CrearMovimientoRequest();
+                req.setNumeroCuenta(numeroCuenta);
+                req.setTipoMovimiento(credito ? "Credito" : "Debito");
+                req.setValor(credito ? new BigDecimal("10.00") : new BigDecimal("5.00"));
+                try {
+                    return movimientoService.crear(req).getValor();
+                } catch (RuntimeException e) {
+                    errores.incrementAndGet();
+                    return BigDecimal.ZERO;
+                }
+            }));
+        }
+
+        largada.countDown();
+        BigDecimal suma = BigDecimal.ZERO;
+        for (Future<BigDecimal> f : futuros) {
+            suma = suma.add(f.get(60, TimeUnit.SECONDS));
+        }
+        pool.shutdown();
+
+        return new Resultado(suma, errores.get());
+    }
+
+    private double contador(String nombre) {
+        Counter c = meterRegistry.find(nombre).counter();
+        return c == null ? 0 : c.count();
+    }
+
+    private Cuenta crearCuenta(String numero, BigDecimal saldo) {
+        Cliente cliente = DatosPrueba.cliente(clienteRepo, "ID-" + numero);
+        return DatosPrueba.cuenta(cuentaRepo, cliente, numero, saldo);
+    }
+
+    private record Resultado(BigDecimal sumaAceptada, int errores) {}
+}
@@ -0,0 +1,194 @@
+package com.bank.bank_backend.service;
+
+import com.bank.bank_backend.dto.CrearMovimientoRequest;
+import com.bank.bank_backend.dto.ResultadoMovimientoLote;
+import com.bank.bank_backend.entity.Cliente;
+import com.bank.bank_backend.entity.Cuenta;
+import com.bank.bank_backend.entity.Movimiento;
+import com.bank.bank_backend.exception.BadRequestException;
+import com.bank.bank_backend.repository.ClienteRepository;
+import com.bank.bank_backend.repository.CuentaRepository;
+import com.bank.bank_backend.repository.MovimientoRepository;
+import com.bank.bank_backend.support.DatosPrueba;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+@SpringBootTest
+@ActiveProfiles("test")
+class MovimientoLoteServiceTest {
+
+    @Autowired
+    private MovimientoLoteService loteService;
+
+    @Autowired
+    private MovimientoService movimientoService;
+
+    @Autowired
+    private ClienteRepository clienteRepo;
+
+    @Autowired
+    private CuentaRepository cuentaRepo;
+
+    @Autowired
+    private MovimientoRepository movRepo;
+
+    private Cuenta a;
+    private Cuenta b;
+
+    @BeforeEach
+    void setUp() {
+        movRepo.deleteAll();
+        cuentaRepo.deleteAll();
+        clienteRepo.deleteAll();
+
+        Cliente cliente = DatosPrueba.cliente(clienteRepo, "LOTE-1");
+        a = DatosPrueba.cuenta(cuentaRepo, cliente, "800000001", new BigDecimal("100.00"));
+        b = DatosPrueba.cuenta(cuentaRepo, cliente, "800000002", new BigDecimal("0.00"));
+    }
+
+    @Test
+    void procesar_aplicaEnOrdenPorCuentaYDevuelveResultadoPorItem() {
+        List<ResultadoMovimientoLote> r = loteService.procesar(List.of(
+                req("800000001", "Debito", "80.00"),   // 0: ok  -> 20
+                req("800000002", "Credito", "50.00"),  // 1: ok  -> 50
+                req("800000001", "Debito", "30.00"),   // 2: sin saldo (20 - 30)
+                req("999999999", "Credito", "10.00"),  // 3: cuenta inexistente
+                req("800000001", "Credito", "5.00"),   // 4: ok  -> 25
+                req("800000002", "Retiro", "1.00"),    // 5: tipo inválido
+                req(" ", "Credito", "1.00")            // 6: sin número de cuenta
+        ));
+
+        assertEquals(7, r.size());
+        for (int i = 0; i < r.size(); i++) assertEquals(i, r.get(i).getIndice());
+
+        assertEquals("OK", r.get(0).getEstado());
+        assertEquals(0, new BigDecimal("20.00").compareTo(r.get(0).getSaldo()));
+        assertNotNull(r.get(0).getMovimientoId());
+        assertEquals("OK", r.get(1).getEstado());
+        assertEquals("Saldo no disponible", r.get(2).getMensaje());
+        assertEquals("Cuenta no encontrada", r.get(3).getMensaje());
+        assertEquals(0, new BigDecimal("25.00").compareTo(r.get(4).getSaldo()));
+        assertEquals("tipoMovimiento debe ser 'Credito' o 'Debito'", r.get(5).getMensaje());
+        assertEquals("numeroCuenta es requerido", r.get(6).getMensaje());
+
+        assertEquals(0, new BigDecimal("25.00").compareTo(saldo(a)));
+        assertEquals(0, new BigDecimal("50.00").compareTo(saldo(b)));
+        assertEquals(2, movRepo.findByCuenta_NumeroCuentaOrderByFechaAsc("800000001").size());
+        assertEquals(1, movRepo.findByCuenta_NumeroCuentaOrderByFechaAsc("800000002").size());
+    }
+
+    @Test
+    void procesar_loteGrande_saldoIgualASumaDeMovimientos() {
+        List<CrearMovimientoRequest> items = new ArrayList<>();
+        for (int i = 0; i < 2_000; i++) {
+            items.add(req(i % 2 == 0 ? "800000001" : "800000002", "Credito", "1.00"));
+        }
+
+        List<ResultadoMovimientoLote> r = loteService.procesar(items);
+
+        assertTrue(r.stream().allMatch(x -> "OK".equals(x.getEstado())));
+        BigDecimal sumaA = movRepo.findByCuenta_NumeroCuentaOrderByFechaAsc("800000001").stream()
+                .map(Movimiento::getValor).reduce(BigDecimal.ZERO, BigDecimal::add);
+        assertEquals(0, new BigDecimal("100.00").add(sumaA).compareTo(saldo(a)));
+        assertEquals(0, new BigDecimal("1000.00").compareTo(saldo(b)));
+    }
+
+    @Test
+    void procesar_errorInesperadoEnUnGrupo_losDemasConResultadoPorItem() {
+        MovimientoService falla = mock(MovimientoService.class);
+        when(falla.crearLote(eq("1"), anyList())).thenReturn(List.of(
+                ResultadoMovimientoLote.ok(0, "1", 10L, "Credito", BigDecimal.ONE, BigDecimal.ONE)));
+        when(falla.crearLote(eq("2"), anyList())).thenThrow(new IllegalStateException("conexión perdida"));
+
+        List<ResultadoMovimientoLote> r = new MovimientoLoteService(falla).procesar(List.of(
+                req("1", "Credito", "1.00"), req("2", "Credito", "1.00"), req("2", "Debito", "1.00")));
+
+        assertEquals(3, r.size());
+        assertEquals("OK", r.get(0).getEstado());
+        for (int i = 1; i < 3; i++) {
+            assertEquals(i, r.get(i).getIndice());
+            assertEquals("ERROR", r.get(i).getEstado());
+            assertEquals("Error inesperado, estos movimientos no se aplicaron", r.get(i).getMensaje());
+        }
+    }
+
+    @Test
+    void procesar_itemIlegibleTrasBloquesConfirmados_resultadosHastaElCorte() {
+        // 1500 ítems legibles (un bloque de 1000 ya confirmado) y después una línea inválida
+        Iterator<CrearMovimientoRequest> items = new Iterator<>() {
+            int i;
+
+            @Override
+            public boolean hasNext() {
+                return true;
+            }
+
+            @Override
+            public CrearMovimientoRequest next() {
+                if (i++ == 1_500) throw new BadRequestException("NDJSON inválido: línea cortada");
+                return req("800000002", "Credito", "1.00");
+            }
+        };
+
+        List<ResultadoMovimientoLote> r = new MovimientoLoteService(movimientoService).procesarStream(items);
+
+        assertEquals(1_501, r.size());
+        assertTrue(r.subList(0, 1_500).stream().allMatch(x -> "OK".equals(x.getEstado())));
+        assertEquals(1_499, r.get(1_499).getIndice());
+        assertEquals("ERROR", r.get(1_500).getEstado());
+        assertEquals(1_500, r.get(1_500).getIndice());
+        assertTrue(r.get(1_500).getMensaje().startsWith("NDJSON inválido: línea cortada"));
+        assertEquals(0, new BigDecimal("1500.00").compareTo(saldo(b)));
+    }
+
+    @Test
+    void procesar_itemIlegibleEnElPrimerBloque_noPosteaNada() {
+        Iterator<CrearMovimientoRequest> items = List.of(req("800000002", "Credito", "1.00")).iterator();
+        Iterator<CrearMovimientoRequest> conError = new Iterator<>() {
+            @Override
+            public boolean hasNext() {
+                return true;
+            }
+
+            @Override
+            public CrearMovimientoRequest next() {
+                if (items.hasNext()) return items.next();
+                throw new BadRequestException("NDJSON inválido");
+            }
+        };
+
+        assertThrows(BadRequestException.class, () -> loteService.procesarStream(conError));
+        assertTrue(movRepo.findByCuenta_NumeroCuentaOrderByFechaAsc("800000002").isEmpty());
+    }
+
+    @Test
+    void procesar_loteVacio_lanzaBadRequest() {
+        assertThrows(BadRequestException.class, () -> loteService.procesar(List.of()));
+    }
+
+    private BigDecimal saldo(Cuenta c) {
+        return cuentaRepo.findById(c.getCuentaId()).orElseThrow().getSaldoActual();
+    }
+
+    private CrearMovimientoRequest req(String numero, String tipo, String valor) {
+        CrearMovimientoRequest r = new CrearMovimientoRequest();
+        r.setNumeroCuenta(numero);
+        r.setTipoMovimiento(tipo);
+        r.setValor(new BigDecimal(valor));
+        return r;
+    }
+}
@@ -0,0 +1,95 @@
+package com.bank.bank_backend.service;
+
+import com.bank.bank_backend.dto.CrearMovimientoRequest;
+import com.bank.bank_backend.entity.Cliente;
+import com.bank.bank_backend.entity.Cuenta;
+import com.bank.bank_backend.repository.ClienteRepository;
+import com.bank.bank_backend.repository.CuentaRepository;
+import com.bank.bank_backend.support.DatosPrueba;
+import com.bank.bank_backend.support.Tormenta;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.math.BigDecimal;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Posteo CLASICO (versión optimista + reintentos) contra ATOMICO (UPDATE condicionado)
+ * con créditos y débitos concurrentes sobre UNA sola cuenta.
+ *
+ * Corre solo con {@code mvn -Pbenchmark test}. Mide movimientos aceptados por segundo:
+ * en CLASICO los que agotan los reintentos no cuentan.
+ * {@code -Dbenchmark.hilos=N} y {@code -Dbenchmark.operaciones=N} cambian la carga.
+ */
+@SpringBootTest
+@ActiveProfiles("test")
+@Tag("benchmark")
+class MovimientoPosteoBenchmark {
+
+    private static final int HILOS = Integer.getInteger("benchmark.hilos", 8);
+    private static final int OPERACIONES = Integer.getInteger("benchmark.operaciones", 4_000);
+
+    private static final AtomicInteger SECUENCIA = new AtomicInteger();
+
+    @Autowired
+    private MovimientoService movimientoService;
+
+    @Autowired
+    private ClienteRepository clienteRepo;
+
+    @Autowired
+    private CuentaRepository cuentaRepo;
+
+    @AfterEach
+    void restaurarModo() {
+        movimientoService.setModoPosteo(ModoPosteo.CLASICO);
+    }
+
+    @Test
+    void atomicoVsClasico_unaCuentaCaliente() throws Exception {
+        medir(ModoPosteo.ATOMICO, 500);
+        medir(ModoPosteo.CLASICO, 500);
+
+        Tormenta.Resultado clasico = medir(ModoPosteo.CLASICO, OPERACIONES);
+        Tormenta.Resultado atomico = medir(ModoPosteo.ATOMICO, OPERACIONES);
+
+        System.out.println();
+        System.out.printf("Posteo sobre una cuenta, %,d operaciones, %d hilos%n", OPERACIONES, HILOS);
+        System.out.printf("%-10s %12s %12s %10s%n", "", "aceptados/s", "agotados", "ms");
+        imprimir("CLASICO", clasico);
+        imprimir("ATOMICO", atomico);
+
+        assertEquals(0, atomico.errores(), "el posteo atómico no falla por concurrencia");
+        assertTrue(atomico.porSegundo() > clasico.porSegundo(),
+                "ATOMICO debe aceptar más movimientos por segundo que CLASICO");
+    }
+
+    private Tormenta.Resultado medir(ModoPosteo modo, int operaciones) throws Exception {
+        movimientoService.setModoPosteo(modo);
+        String numero = crearCuenta().getNumeroCuenta();
+        return Tormenta.correr(HILOS, operaciones, i -> {
+            boolean credito = i % 2 == 0;
+            CrearMovimientoRequest req = new CrearMovimientoRequest();
+            req.setNumeroCuenta(numero);
+            req.setTipoMovimiento(credito ? "Credito" : "Debito");
+            req.setValor(credito ? new BigDecimal("10.00") : new BigDecimal("5.00"));
+            movimientoService.crear(req);
+        });
+    }
+
+    private Cuenta crearCuenta() {
+        int n = SECUENCIA.incrementAndGet();
+        Cliente cliente = DatosPrueba.cliente(clienteRepo, "BENCH-POSTEO-" + n);
+        return DatosPrueba.cuenta(cuentaRepo, cliente, "71000000" + n, new BigDecimal("1000.00"));
+    }
+
+    private static void imprimir(String nombre, Tormenta.Resultado r) {
+        System.out.printf("%-10s %,12.0f %12d %10d%n", nombre, r.porSegundo(), r.errores(), r.millis());
+    }
+}
@@ -1,6 +1,8 @@
 package com.bank.bank_backend.service;
 
+import com.bank.bank_backend.cache.CacheCuentas;
 import com.bank.bank_backend.dto.CrearMovimientoRequest;
+import com.bank.bank_backend.dto.DescriptorCuenta;
 import com.bank.bank_backend.entity.Cuenta;
 import com.bank.bank_backend.entity.Movimiento;
 import com.bank.bank_backend.exception.BadRequestException;
@@ -31,6 +33,12 @@ class MovimientoServiceTest {
     @Mock
     private MovimientoRepository movRepo;
 
+    @Mock
+    private CacheCuentas cacheCuentas;
+
+    @Mock
+    private SaldoDiarioService saldosDiarios;
+
     @InjectMocks
     private MovimientoService movimientoService;
 
@@ -236,4 +244,105 @@ class MovimientoServiceTest {
         verify(movRepo).save(any(Movimiento.class));
         verify(cuentaRepo).save(cuentaActiva);
     }
+
+    @Test
+    void crearAtomico_credito_ok_actualizaEnUnaSentenciaYCreaMovimiento() {
+        movimientoService.setModoPosteo(ModoPosteo.ATOMICO);
+        CrearMovimientoRequest req = mock(CrearMovimientoRequest.class);
+        when(req.getNumeroCuenta()).thenReturn("123");
+        when(req.getValor()).thenReturn(new BigDecimal("50.00"));
+        when(req.getTipoMovimiento()).thenReturn("Credito");
+
+        when(cacheCuentas.obtener("123")).thenReturn(descriptor(true));
+        when(cuentaRepo.aplicarDelta(1L, new BigDecimal("50.00"))).thenReturn(1);
+        cuentaActiva.setSaldoActual(new BigDecimal("150.00")); // estado luego del UPDATE
+        when(cuentaRepo.findById(1L)).thenReturn(Optional.of(cuentaActiva));
+        when(movRepo.save(any(Movimiento.class))).thenAnswer(inv -> inv.getArgument(0));
+
+        Movimiento result = movimientoService.crear(req);
+
+        assertEquals("Credito", result.getTipoMovimiento());
+        assertEquals(new BigDecimal("50.00"), result.getValor());
+        assertEquals(new BigDecimal("150.00"), result.getSaldo());
+        assertEquals(cuentaActiva, result.getCuenta());
+        verify(cuentaRepo, never()).save(any(Cuenta.class));
+        verify(cuentaRepo, never()).findByNumeroCuenta(any());
+    }
+
+    @Test
+    void crearAtomico_debito_sinSaldo_lanzaBadRequestSaldoNoDisponible() {
+        movimientoService.setModoPosteo(ModoPosteo.ATOMICO);
+        CrearMovimientoRequest req = mock(CrearMovimientoRequest.class);
+        when(req.getNumeroCuenta()).thenReturn("123");
+        when(req.getValor()).thenReturn(new BigDecimal("150.00"));
+        when(req.getTipoMovimiento()).thenReturn("Debito");
+
+        when(cacheCuentas.obtener("123")).thenReturn(descriptor(true));
+        when(cuentaRepo.aplicarDelta(1L, new BigDecimal("-150.00"))).thenReturn(0);
+        when(cuentaRepo.findById(1L)).thenReturn(Optional.of(cuentaActiva));
+
+        BadRequestException ex = assertThrows(BadRequestException.class,
+                () -> movimientoService.crear(req));
+
+        assertEquals("Saldo no disponible", ex.getMessage());
+        verifyNoInteractions(movRepo);
+    }
+
+    @Test
+    void crearAtomico_cuentaNoExiste_lanzaNotFound() {
+        movimientoService.setModoPosteo(ModoPosteo.ATOMICO);
+        CrearMovimientoRequest req = mock(CrearMovimientoRequest.class);
+        when(req.getNumeroCuenta()).thenReturn("999");
+        when(req.getValor()).thenReturn(new BigDecimal("10.00"));
+        when(req.getTipoMovimiento()).thenReturn("Credito");
+
+        when(cacheCuentas.obtener("999")).thenThrow(new NotFoundException("Cuenta no encontrada"));
+
+        NotFoundException ex = assertThrows(NotFoundException.class,
+                () -> movimientoService.crear(req));
+
+        assertEquals("Cuenta no encontrada", ex.getMessage());
+        verifyNoInteractions(cuentaRepo, movRepo);
+    }
+
+    @Test
+    void crearAtomico_cuentaInactivaEnCache_lanzaBadRequestSinUpdate() {
+        movimientoService.setModoPosteo(ModoPosteo.ATOMICO);
+        CrearMovimientoRequest req = mock(CrearMovimientoRequest.class);
+        when(req.getNumeroCuenta()).thenReturn("123");
+        when(req.getValor()).thenReturn(new BigDecimal("10.00"));
+        when(req.getTipoMovimiento()).thenReturn("Debito");
+
+        when(cacheCuentas.obtener("123")).thenReturn(descriptor(false));
+
+        BadRequestException ex = assertThrows(BadRequestException.class,
+                () -> movimientoService.crear(req));
+
+        assertEquals("La cuenta está inactiva", ex.getMessage());
+        verifyNoInteractions(cuentaRepo, movRepo);
+    }
+
+    @Test
+    void crearAtomico_cacheViejaConCuentaYaInactiva_desalojaYLanzaBadRequest() {
+        movimientoService.setModoPosteo(ModoPosteo.ATOMICO);
+        CrearMovimientoRequest req = mock(CrearMovimientoRequest.class);
+        when(req.getNumeroCuenta()).thenReturn("123");
+        when(req.getValor()).thenReturn(new BigDecimal("10.00"));
+        when(req.getTipoMovimiento()).thenReturn("Credito");
+
+        when(cacheCuentas.obtener("123")).thenReturn(descriptor(true));
+        when(cuentaRepo.aplicarDelta(1L, new BigDecimal("10.00"))).thenReturn(0);
+        cuentaActiva.setEstado(false);
+        when(cuentaRepo.findById(1L)).thenReturn(Optional.of(cuentaActiva));
+
+        BadRequestException ex = assertThrows(BadRequestException.class,
+                () -> movimientoService.crear(req));
+
+        assertEquals("La cuenta está inactiva", ex.getMessage());
+        verify(cacheCuentas).desalojar("123");
+    }
+
+    private static DescriptorCuenta descriptor(boolean activa) {
+        return new DescriptorCuenta(1L, "123", "Ahorros", activa, 10L, "Jose Lema");
+    }
 }
@@ -0,0 +1,153 @@
+package com.bank.bank_backend.service;
+
+import com.bank.bank_backend.dto.CursorMovimiento;
+import com.bank.bank_backend.dto.PaginaMovimientos;
+import com.bank.bank_backend.dto.ReporteMovimientoUsuarioItem;
+import com.bank.bank_backend.entity.Cliente;
+import com.bank.bank_backend.entity.Cuenta;
+import com.bank.bank_backend.entity.Movimiento;
+import com.bank.bank_backend.exception.BadRequestException;
+import com.bank.bank_backend.repository.ClienteRepository;
+import com.bank.bank_backend.repository.CuentaRepository;
+import com.bank.bank_backend.repository.MovimientoRepository;
+import com.bank.bank_backend.support.DatosPrueba;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Paginación por keyset: recorrer todas las páginas entrega cada movimiento una sola vez
+ * y en orden, aun con muchas filas en la misma fecha (desempate por movimientoId).
+ */
+@SpringBootTest
+@ActiveProfiles("test")
+class PaginacionMovimientosTest {
+
+    private static final int FILAS = 230;
+    private static final LocalDate DIA = LocalDate.of(2026, 5, 4);
+
+    private static final AtomicInteger SECUENCIA = new AtomicInteger();
+
+    @Autowired
+    private MovimientoService movimientoService;
+
+    @Autowired
+    private ReporteService reporteService;
+
+    @Autowired
+    private ClienteRepository clienteRepo;
+
+    @Autowired
+    private CuentaRepository cuentaRepo;
+
+    @Autowired
+    private MovimientoRepository movRepo;
+
+    private Cliente cliente;
+    private Cuenta cuenta;
+    private List<Long> idsEnOrden;
+
+    @BeforeEach
+    void setUp() {
+        int prueba = SECUENCIA.incrementAndGet();
+        cliente = DatosPrueba.cliente(clienteRepo, "PAGINA-" + prueba);
+        cuenta = DatosPrueba.cuenta(cuentaRepo, cliente, "4" + prueba + "0000001", BigDecimal.ZERO);
+
+        // Grupos de 7 movimientos con la misma fecha: el cursor no puede depender solo de la fecha
+        List<Movimiento> movs = new ArrayList<>();
+        for (int i = 0; i < FILAS; i++) {
+            Movimiento m = new Movimiento();
+            m.setCuenta(cuenta);
+            m.setFecha(DIA.atStartOfDay().plusMinutes(i / 7));
+            m.setTipoMovimiento("Credito");
+            m.setValor(BigDecimal.ONE);
+            m.setSaldo(BigDecimal.valueOf(i + 1));
+            movs.add(m);
+        }
+        idsEnOrden = movRepo.saveAll(movs).stream().map(Movimiento::getMovimientoId).sorted().toList();
+    }
+
+    @Test
+    void listarPorCuenta_recorreTodasLasPaginasSinRepetirNiSaltar() {
+        List<Long> vistos = new ArrayList<>();
+        String cursor = null;
+        int paginas = 0;
+        do {
+            PaginaMovimientos<Movimiento> p = movimientoService.listarPorCuenta(cuenta.getNumeroCuenta(), cursor, 40);
+            assertTrue(p.items().size() <= 40);
+            p.items().forEach(m -> vistos.add(m.getMovimientoId()));
+            cursor = p.siguienteCursor();
+            paginas++;
+        } while (cursor != null);
+
+        assertEquals(idsEnOrden, vistos);
+        assertEquals(6, paginas); // 230 filas / 40 por página
+    }
+
+    @Test
+    void listarPorCuenta_sinPaginar_devuelveTodasEnOrden() {
+        List<Long> ids = movimientoService.listarPorCuenta(cuenta.getNumeroCuenta()).stream()
+                .map(Movimiento::getMovimientoId).toList();
+
+        assertEquals(idsEnOrden, ids); // más filas que el tamaño de página por defecto
+        assertTrue(movimientoService.listarPorCuenta("000000000").isEmpty());
+    }
+
+    @Test
+    void listarPorCuenta_limiteSeAcotaAlMaximo() {
+        PaginaMovimientos<Movimiento> p = movimientoService.listarPorCuenta(cuenta.getNumeroCuenta(), null, 1_000_000);
+        assertEquals(FILAS, p.items().size());
+        assertNull(p.siguienteCursor());
+
+        assertThrows(BadRequestException.class,
+                () -> movimientoService.listarPorCuenta(cuenta.getNumeroCuenta(), null, 0));
+    }
+
+    @Test
+    void listarPorCuenta_cuentaInexistente_paginaVacia() {
+        PaginaMovimientos<Movimiento> p = movimientoService.listarPorCuenta("000000000", null, null);
+        assertTrue(p.items().isEmpty());
+        assertNull(p.siguienteCursor());
+    }
+
+    @Test
+    void movimientosPorClientePaginado_igualAlListadoCompleto() {
+        List<ReporteMovimientoUsuarioItem> completo = reporteService.movimientosPorCliente(cliente.getClienteId(), DIA, DIA);
+
+        List<ReporteMovimientoUsuarioItem> paginado = new ArrayList<>();
+        String cursor = null;
+        do {
+            PaginaMovimientos<ReporteMovimientoUsuarioItem> p = reporteService.movimientosPorClientePaginado(
+                    cliente.getClienteId(), DIA, DIA, cursor, 64);
+            paginado.addAll(p.items());
+            cursor = p.siguienteCursor();
+        } while (cursor != null);
+
+        assertEquals(FILAS, paginado.size());
+        for (int i = 0; i < FILAS; i++) {
+            assertEquals(idsEnOrden.get(i), paginado.get(i).getMovimientoId());
+            assertEquals(0, completo.get(i).getSaldoDisponible().compareTo(paginado.get(i).getSaldoDisponible()));
+        }
+    }
+
+    @Test
+    void cursor_idaYVuelta_yTokenInvalido() {
+        CursorMovimiento c = new CursorMovimiento(LocalDateTime.of(2026, 1, 2, 3, 4, 5, 6000), 42L);
+        assertEquals(c, CursorMovimiento.decodificar(c.codificar()));
+
+        BadRequestException ex = assertThrows(BadRequestException.class,
+                () -> CursorMovimiento.decodificar("no-es-un-cursor"));
+        assertEquals("Cursor inválido", ex.getMessage());
+    }
+}
@@ -0,0 +1,99 @@
+package com.bank.bank_backend.service;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfEnvironmentVariable;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.SingleConnectionDataSource;
+
+import java.time.YearMonth;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Particiones mensuales de movimientos.
+ *
+ * Las pruebas contra PostgreSQL (H2 no particiona) corren solo con BANK_TEST_POSTGRES_URL,
+ * ej. jdbc:postgresql://localhost:5432/bankdb?user=postgres&password=1234. Usan un esquema propio
+ * que se borra al terminar. La poda con el SQL que genera Hibernate está en PodaParticionesPostgresTest.
+ */
+class ParticionesMovimientosServiceTest {
+
+    private static final String ESQUEMA = "prueba_particiones";
+
+    private SingleConnectionDataSource dataSource;
+
+    @AfterEach
+    void tearDown() {
+        if (dataSource != null) {
+            new JdbcTemplate(dataSource).execute("DROP SCHEMA IF EXISTS " + ESQUEMA + " CASCADE");
+            dataSource.destroy();
+        }
+    }
+
+    @Test
+    void nombresYLimites() {
+        YearMonth marzo = YearMonth.of(2026, 3);
+
+        assertEquals("movimientos_2026_03", ParticionesMovimientosService.nombre(marzo));
+        assertEquals(marzo, ParticionesMovimientosService.mes("movimientos_2026_03"));
+        assertNull(ParticionesMovimientosService.mes("movimientos_default"));
+        assertNull(ParticionesMovimientosService.mes("otra_tabla"));
+        assertEquals("CREATE TABLE IF NOT EXISTS movimientos_2026_12 PARTITION OF movimientos"
+                        + " FOR VALUES FROM ('2026-12-01') TO ('2027-01-01')",
+                ParticionesMovimientosService.crearParticion(YearMonth.of(2026, 12)));
+    }
+
+    @Test
+    @EnabledIfEnvironmentVariable(named = "BANK_TEST_POSTGRES_URL", matches = ".+")
+    void crea_futuras_y_desacopla() throws Exception {
+        JdbcTemplate jdbc = esquemaParticionado();
+        YearMonth viejo = YearMonth.of(2020, 1);
+        jdbc.execute(ParticionesMovimientosService.crearParticion(viejo));
+        jdbc.execute(ParticionesMovimientosService.crearParticion(viejo.plusMonths(1)));
+        jdbc.update("INSERT INTO movimientos VALUES (1, '2020-01-15 10:00', 'Credito', 10, 10, 7)");
+        jdbc.update("INSERT INTO movimientos VALUES (2, '2020-02-15 10:00', 'Credito', 10, 20, 7)");
+
+        // Al construirse detecta la tabla particionada y crea el mes actual y 2 más
+        ParticionesMovimientosService service = new ParticionesMovimientosService(dataSource, null, 2, 0);
+        assertTrue(service.isParticionada());
+        assertEquals(List.of(), service.crearFuturas());
+        assertTrue(particiones(jdbc).contains(ParticionesMovimientosService.nombre(YearMonth.now().plusMonths(2))));
+
+        // Retención: desacoplar no borra filas, la partición queda como tabla suelta
+        assertEquals(List.of("movimientos_2020_01"), service.desacoplarAnterioresA(YearMonth.of(2020, 2)));
+        assertFalse(particiones(jdbc).contains("movimientos_2020_01"));
+        assertEquals(1, jdbc.queryForObject("SELECT COUNT(*) FROM movimientos", Integer.class));
+        assertEquals(1, jdbc.queryForObject("SELECT COUNT(*) FROM movimientos_2020_01", Integer.class));
+    }
+
+    private JdbcTemplate esquemaParticionado() {
+        String url = System.getenv("BANK_TEST_POSTGRES_URL");
+        dataSource = new SingleConnectionDataSource(url, true);
+        JdbcTemplate jdbc = new JdbcTemplate(dataSource);
+        jdbc.execute("DROP SCHEMA IF EXISTS " + ESQUEMA + " CASCADE");
+        jdbc.execute("CREATE SCHEMA " + ESQUEMA);
+        jdbc.execute("SET search_path TO " + ESQUEMA);
+        jdbc.execute("""
+                CREATE TABLE movimientos (
+                    movimiento_id BIGINT NOT NULL,
+                    fecha TIMESTAMP(6) NOT NULL,
+                    tipo_movimiento VARCHAR(255) NOT NULL,
+                    valor NUMERIC(18,2) NOT NULL,
+                    saldo NUMERIC(18,2) NOT NULL,
+                    cuenta_id BIGINT NOT NULL,
+                    PRIMARY KEY (movimiento_id, fecha)
+                ) PARTITION BY RANGE (fecha)
+                """);
+        jdbc.execute("CREATE INDEX ON movimientos (cuenta_id, fecha, movimiento_id)");
+        return jdbc;
+    }
+
+    private static List<String> particiones(JdbcTemplate jdbc) {
+        return jdbc.queryForList("""
+                SELECT c.relname FROM pg_inherits i JOIN pg_class c ON c.oid = i.inhrelid
+                 WHERE i.inhparent = to_regclass('movimientos')
+                """, String.class);
+    }
+}
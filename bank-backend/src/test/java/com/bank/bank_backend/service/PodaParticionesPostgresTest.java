@@ -0,0 +1,217 @@
+package com.bank.bank_backend.service;
+
+import com.bank.bank_backend.dto.CursorMovimiento;
+import com.bank.bank_backend.entity.Cliente;
+import com.bank.bank_backend.entity.Cuenta;
+import com.bank.bank_backend.entity.Movimiento;
+import com.bank.bank_backend.repository.ClienteRepository;
+import com.bank.bank_backend.repository.CuentaRepository;
+import com.bank.bank_backend.repository.MovimientoRepository;
+import com.bank.bank_backend.support.CapturaSql;
+import com.bank.bank_backend.support.DatosPrueba;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfEnvironmentVariable;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.data.domain.Limit;
+import org.springframework.jdbc.core.ConnectionCallback;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.math.BigDecimal;
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.ResultSet;
+import java.sql.Statement;
+import java.time.LocalDateTime;
+import java.time.YearMonth;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Poda de particiones con el SQL que genera Hibernate, contra PostgreSQL con el esquema de Flyway
+ * (V1 crea movimientos particionada, V2 los índices). Corre solo con BANK_TEST_POSTGRES_URL,
+ * ej. jdbc:postgresql://localhost:5432/bankdb?user=postgres&password=1234, en un esquema propio
+ * que se borra al terminar.
+ *
+ * Cada consulta se prepara tal cual la capturó {@link CapturaSql} y se explica dos veces:
+ * plan a medida (poda al planificar) y plan genérico (poda al iniciar la ejecución, el que usa
+ * el driver cuando reutiliza el statement). Ninguno puede tocar la partición de enero.
+ */
+@SpringBootTest(properties = {
+        "spring.flyway.enabled=true",
+        "spring.flyway.schemas=" + PodaParticionesPostgresTest.ESQUEMA,
+        "spring.flyway.default-schema=" + PodaParticionesPostgresTest.ESQUEMA,
+        "spring.jpa.hibernate.ddl-auto=validate",
+        "spring.jpa.show-sql=false",
+        "spring.jpa.properties.hibernate.session_factory.statement_inspector=com.bank.bank_backend.support.CapturaSql"
+})
+@EnabledIfEnvironmentVariable(named = "BANK_TEST_POSTGRES_URL", matches = ".+")
+class PodaParticionesPostgresTest {
+
+    static final String ESQUEMA = "prueba_poda";
+
+    private static final YearMonth ENERO = YearMonth.of(2020, 1);
+    private static final YearMonth FEBRERO = YearMonth.of(2020, 2);
+    private static final LocalDateTime DESDE = FEBRERO.atDay(1).atStartOfDay();
+    private static final LocalDateTime HASTA = FEBRERO.atEndOfMonth().atTime(23, 59, 59);
+
+    private static final AtomicInteger SECUENCIA = new AtomicInteger();
+
+    @DynamicPropertySource
+    static void postgres(DynamicPropertyRegistry registro) {
+        String url = System.getenv("BANK_TEST_POSTGRES_URL");
+        registro.add("spring.datasource.url",
+                () -> url + (url.contains("?") ? "&" : "?") + "currentSchema=" + ESQUEMA);
+    }
+
+    @BeforeAll
+    static void antes() throws Exception {
+        borrarEsquema();
+    }
+
+    @AfterAll
+    static void despues() throws Exception {
+        borrarEsquema();
+    }
+
+    private static void borrarEsquema() throws Exception {
+        try (Connection con = DriverManager.getConnection(System.getenv("BANK_TEST_POSTGRES_URL"));
+             Statement st = con.createStatement()) {
+            st.execute("DROP SCHEMA IF EXISTS " + ESQUEMA + " CASCADE");
+        }
+    }
+
+    @Autowired
+    private MovimientoRepository movRepo;
+
+    @Autowired
+    private ClienteRepository clienteRepo;
+
+    @Autowired
+    private CuentaRepository cuentaRepo;
+
+    @Autowired
+    private JdbcTemplate jdbc;
+
+    @Autowired
+    private TransactionTemplate tx;
+
+    private Cliente cliente;
+    private Cuenta cuenta;
+
+    @BeforeEach
+    void setUp() {
+        jdbc.execute(ParticionesMovimientosService.crearParticion(ENERO));
+        jdbc.execute(ParticionesMovimientosService.crearParticion(FEBRERO));
+
+        int prueba = SECUENCIA.incrementAndGet();
+        cliente = DatosPrueba.cliente(clienteRepo, "PODA-" + prueba);
+        cuenta = DatosPrueba.cuenta(cuentaRepo, cliente, "9" + prueba + "0000001", BigDecimal.ZERO);
+        List<Movimiento> movs = new ArrayList<>();
+        for (YearMonth mes : List.of(ENERO, FEBRERO)) {
+            for (int dia = 1; dia <= 20; dia++) {
+                Movimiento m = new Movimiento();
+                m.setCuenta(cuenta);
+                m.setFecha(mes.atDay(dia).atTime(10, 0));
+                m.setTipoMovimiento("Credito");
+                m.setValor(BigDecimal.ONE);
+                m.setSaldo(BigDecimal.valueOf(movs.size() + 1L));
+                movs.add(m);
+            }
+        }
+        movRepo.saveAll(movs);
+        jdbc.execute("ANALYZE movimientos");
+    }
+
+    @Test
+    void streamEstadoCuenta() {
+        String sql = CapturaSql.sobreMovimientos(() -> tx.executeWithoutResult(s -> {
+            try (var filas = movRepo.streamEstadoCuenta(cuenta.getCuentaId(), DESDE, HASTA)) {
+                filas.count();
+            }
+        }));
+        assertSoloFebrero(sql, cuenta.getCuentaId(), DESDE, HASTA);
+    }
+
+    @Test
+    void streamPorCliente() {
+        String sql = CapturaSql.sobreMovimientos(() -> tx.executeWithoutResult(s -> {
+            try (var filas = movRepo.streamPorCliente(cliente.getClienteId(), DESDE, HASTA)) {
+                filas.count();
+            }
+        }));
+        assertSoloFebrero(sql, cliente.getClienteId(), DESDE, HASTA);
+    }
+
+    @Test
+    void keysetPorCliente() {
+        CursorMovimiento cursor = new CursorMovimiento(DESDE.plusDays(3), 0L);
+        String sql = CapturaSql.sobreMovimientos(() ->
+                movRepo.paginaPorCliente(cliente.getClienteId(), DESDE, HASTA, cursor, 10));
+        assertSoloFebrero(sql, cliente.getClienteId(), DESDE, HASTA,
+                cursor.fecha(), cursor.fecha(), cursor.movimientoId(), 10);
+    }
+
+    @Test
+    void keysetPorCuenta() {
+        String sql = CapturaSql.sobreMovimientos(() ->
+                movRepo.paginaPorCuentaDesde(cuenta.getCuentaId(), DESDE, 0L, Limit.of(10)));
+        assertSoloFebrero(sql, cuenta.getCuentaId(), DESDE, DESDE, 0L, 10);
+    }
+
+    // Los argumentos van en el orden de los "?" del SQL generado
+    private void assertSoloFebrero(String sql, Object... argumentos) {
+        List<String> literales = new ArrayList<>();
+        for (Object a : argumentos) {
+            literales.add(a instanceof LocalDateTime ? "'" + a + "'" : String.valueOf(a));
+        }
+        String preparada = numerarParametros(sql, literales.size());
+        String ejecutar = "EXECUTE consulta(" + String.join(", ", literales) + ")";
+
+        String aMedida = explicar(preparada, "force_custom_plan", "EXPLAIN (COSTS OFF) " + ejecutar);
+        assertTrue(aMedida.contains(ParticionesMovimientosService.nombre(FEBRERO)), aMedida);
+        assertFalse(aMedida.contains(ParticionesMovimientosService.nombre(ENERO)), aMedida);
+
+        String generico = explicar(preparada, "force_generic_plan", "EXPLAIN (ANALYZE, COSTS OFF) " + ejecutar);
+        assertTrue(generico.contains("Subplans Removed"), generico);
+        assertFalse(generico.contains(ParticionesMovimientosService.nombre(ENERO)), generico);
+    }
+
+    // PREPARE, SET y EXECUTE en la misma conexión del pool
+    private String explicar(String preparada, String modoPlan, String explain) {
+        return jdbc.execute((ConnectionCallback<String>) con -> {
+            try (Statement st = con.createStatement()) {
+                st.execute("SET plan_cache_mode = " + modoPlan);
+                st.execute("PREPARE consulta AS " + preparada);
+                try (ResultSet rs = st.executeQuery(explain)) {
+                    StringBuilder plan = new StringBuilder();
+                    while (rs.next()) plan.append(rs.getString(1)).append('\n');
+                    return plan.toString();
+                } finally {
+                    st.execute("DEALLOCATE consulta");
+                    st.execute("RESET plan_cache_mode");
+                }
+            }
+        });
+    }
+
+    private static String numerarParametros(String sql, int esperados) {
+        StringBuilder out = new StringBuilder();
+        int n = 0;
+        for (char c : sql.toCharArray()) {
+            if (c == '?') out.append('$').append(++n);
+            else out.append(c);
+        }
+        assertEquals(esperados, n, "parámetros del SQL generado: " + sql);
+        return out.toString();
+    }
+}
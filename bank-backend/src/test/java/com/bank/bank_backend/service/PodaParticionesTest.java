@@ -0,0 +1,73 @@
+package com.bank.bank_backend.service;
+
+import com.bank.bank_backend.dto.CursorMovimiento;
+import com.bank.bank_backend.repository.MovimientoRepository;
+import com.bank.bank_backend.support.CapturaSql;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.data.domain.Limit;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDateTime;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Poda de particiones: las consultas de reportes y de keyset tienen que comparar la columna
+ * de partición (fecha) tal cual, sin funciones ni casts, contra parámetros. Se revisa el SQL
+ * que genera Hibernate, en cada build; el plan real contra PostgreSQL está en
+ * {@link PodaParticionesPostgresTest}.
+ */
+@SpringBootTest(properties = {
+        "spring.datasource.url=jdbc:h2:mem:poda;MODE=PostgreSQL;DATABASE_TO_LOWER=TRUE;DEFAULT_NULL_ORDERING=HIGH;DB_CLOSE_DELAY=-1",
+        "spring.jpa.properties.hibernate.session_factory.statement_inspector=com.bank.bank_backend.support.CapturaSql"
+})
+@ActiveProfiles("test")
+class PodaParticionesTest {
+
+    private static final LocalDateTime DESDE = LocalDateTime.of(2020, 2, 1, 0, 0);
+    private static final LocalDateTime HASTA = LocalDateTime.of(2020, 2, 29, 23, 59, 59);
+
+    @Autowired
+    private MovimientoRepository movRepo;
+
+    @Autowired
+    private TransactionTemplate tx;
+
+    @Test
+    void rangosDeReportes_fechaBetweenSobreLaColumna() {
+        assertRango(CapturaSql.sobreMovimientos(() -> tx.executeWithoutResult(s -> {
+            try (var filas = movRepo.streamEstadoCuenta(1L, DESDE, HASTA)) {
+                filas.count();
+            }
+        })));
+        assertRango(CapturaSql.sobreMovimientos(() -> tx.executeWithoutResult(s -> {
+            try (var filas = movRepo.streamPorCliente(1L, DESDE, HASTA)) {
+                filas.count();
+            }
+        })));
+        assertRango(CapturaSql.sobreMovimientos(() ->
+                movRepo.paginaPorCliente(1L, DESDE, HASTA, new CursorMovimiento(DESDE.plusDays(3), 10L), 100)));
+    }
+
+    @Test
+    void keysetPorCuenta_cotaInferiorSobreLaColumna() {
+        String sql = CapturaSql.sobreMovimientos(() ->
+                movRepo.paginaPorCuentaDesde(1L, DESDE, 10L, Limit.of(100)));
+        assertTrue(Pattern.compile(alias(sql) + "\\.fecha\\s*>=\\s*\\?").matcher(sql).find(), sql);
+    }
+
+    private static void assertRango(String sql) {
+        assertTrue(Pattern.compile(alias(sql) + "\\.fecha\\s+between\\s+\\?\\s+and\\s+\\?").matcher(sql).find(), sql);
+    }
+
+    private static String alias(String sql) {
+        Matcher m = Pattern.compile("\\bmovimientos\\s+(\\w+)").matcher(sql);
+        assertTrue(m.find(), sql);
+        return m.group(1);
+    }
+}
@@ -0,0 +1,203 @@
+package com.bank.bank_backend.service;
+
+import com.bank.bank_backend.dto.CrearMovimientoRequest;
+import com.bank.bank_backend.dto.ReporteEstadoCuentaResponse;
+import com.bank.bank_backend.entity.Cliente;
+import com.bank.bank_backend.entity.Cuenta;
+import com.bank.bank_backend.entity.Movimiento;
+import com.bank.bank_backend.repository.ClienteRepository;
+import com.bank.bank_backend.repository.CuentaRepository;
+import com.bank.bank_backend.repository.MovimientoRepository;
+import com.bank.bank_backend.support.DatosPrueba;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Base64;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Cantidad de sentencias SQL por reporte: constante sin importar cuántas cuentas tenga el cliente
+ * (sin N+1 por cuenta ni por movimiento), y una sola cuando el estado de cuenta sale de la cache.
+ */
+@SpringBootTest(properties = {
+        "spring.datasource.url=jdbc:h2:mem:estadisticas;MODE=PostgreSQL;DATABASE_TO_LOWER=TRUE;DEFAULT_NULL_ORDERING=HIGH;DB_CLOSE_DELAY=-1",
+        "spring.jpa.properties.hibernate.generate_statistics=true"
+})
+@ActiveProfiles("test")
+class ReporteConsultasTest {
+
+    private static final LocalDate DIA = LocalDate.of(2026, 2, 14);
+    private static final AtomicInteger SECUENCIA = new AtomicInteger();
+
+    @Autowired
+    private ReporteService reporteService;
+
+    @Autowired
+    private ClienteRepository clienteRepo;
+
+    @Autowired
+    private CuentaRepository cuentaRepo;
+
+    @Autowired
+    private MovimientoRepository movRepo;
+
+    @Autowired
+    private MovimientoService movimientoService;
+
+    @Autowired
+    private EntityManagerFactory emf;
+
+    private Cliente unaCuenta;
+    private Cliente muchasCuentas;
+
+    @BeforeEach
+    void setUp() {
+        unaCuenta = clienteConCuentas(1);
+        muchasCuentas = clienteConCuentas(12);
+    }
+
+    @Test
+    void estadoCuentaPorCliente_sentenciasFijasSinImportarLasCuentas() {
+        long una = sentencias(() -> reporteService.estadoCuentaPorCliente(unaCuenta.getClienteId(), DIA, DIA, false));
+        long muchas = sentencias(() -> {
+            List<ReporteEstadoCuentaResponse> r = reporteService.estadoCuentaPorCliente(
+                    muchasCuentas.getClienteId(), DIA, DIA, false);
+            assertEquals(12, r.size());
+            assertTrue(r.stream().allMatch(e -> e.getMovimientos().size() == 3));
+            return r;
+        });
+
+        assertEquals(4, una); // cuentas, movimientos y dos sobre saldos_diarios
+        assertEquals(una, muchas);
+    }
+
+    @Test
+    void estadoCuentaPorCliente_conPdf_pdfsEnParaleloSinConsultasExtra() {
+        long sentencias = sentencias(() -> {
+            List<ReporteEstadoCuentaResponse> r = reporteService.estadoCuentaPorCliente(
+                    muchasCuentas.getClienteId(), DIA, DIA, true);
+            assertEquals(12, r.size());
+            for (ReporteEstadoCuentaResponse e : r) {
+                byte[] pdf = Base64.getDecoder().decode(e.getPdfBase64());
+                assertEquals("%PDF", new String(pdf, 0, 4));
+            }
+            return r;
+        });
+
+        assertEquals(4, sentencias);
+
+        // Sin movimientos en el rango no se genera PDF
+        reporteService.estadoCuentaPorCliente(muchasCuentas.getClienteId(), DIA.plusDays(1), DIA.plusDays(1), true)
+                .forEach(e -> assertNull(e.getPdfBase64()));
+    }
+
+    @Test
+    void estadoCuenta_repetidoSaleDeCacheYUnPosteoSoloInvalidaRangosQueLoContienen() {
+        String numero = cuentaRepo.numerosDeCliente(unaCuenta.getClienteId()).get(0);
+        LocalDate hoy = LocalDate.now();
+
+        ReporteEstadoCuentaResponse primero = reporteService.estadoCuenta(numero, DIA, DIA, true);
+        reporteService.estadoCuenta(numero, DIA, hoy, false);
+        // Solo el saldo actual: movimientos, saldos diarios y PDF vienen de la cache
+        assertEquals(1, sentencias(() -> reporteService.estadoCuenta(numero, DIA, DIA, true)));
+        assertEquals(1, sentencias(() -> reporteService.estadoCuenta(numero, DIA, hoy, false)));
+
+        movimientoService.crear(credito(numero, "5.00"));
+
+        // Rango abierto: contiene el posteo, se recalcula
+        ReporteEstadoCuentaResponse abierto = reporteService.estadoCuenta(numero, DIA, hoy, false);
+        assertEquals(4, abierto.getMovimientos().size());
+        // Período cerrado en JSON: sigue en cache, con el saldo actual al día
+        ReporteEstadoCuentaResponse cerrado = reporteService.estadoCuenta(numero, DIA, DIA, false);
+        assertEquals(3, cerrado.getMovimientos().size());
+        assertEquals(0, new BigDecimal("55.00").compareTo(cerrado.getSaldoActual()));
+        assertEquals(1, sentencias(() -> reporteService.estadoCuenta(numero, DIA, DIA, false)));
+        // Con PDF el saldo actual va impreso: se regenera
+        ReporteEstadoCuentaResponse pdf = reporteService.estadoCuenta(numero, DIA, DIA, true);
+        assertNotEquals(primero.getPdfBase64(), pdf.getPdfBase64());
+        assertEquals(0, new BigDecimal("55.00").compareTo(pdf.getSaldoActual()));
+    }
+
+    @Test
+    void movimientosPorCliente_unaSentencia() {
+        long una = sentencias(() -> reporteService.movimientosPorCliente(unaCuenta.getClienteId(), DIA, DIA));
+        long muchas = sentencias(() -> {
+            assertEquals(36, reporteService.movimientosPorCliente(muchasCuentas.getClienteId(), DIA, DIA).size());
+            return null;
+        });
+
+        assertEquals(1, una);
+        assertEquals(una, muchas);
+    }
+
+    @Test
+    void cuentasPorCliente_unaSentenciaYOrdenadas() {
+        long muchas = sentencias(() -> {
+            List<String> numeros = reporteService.cuentasPorCliente(muchasCuentas.getClienteId());
+            assertEquals(12, numeros.size());
+            assertEquals(numeros.stream().sorted().toList(), numeros);
+            return numeros;
+        });
+
+        assertEquals(1, muchas);
+        assertEquals(0, estadisticas().getEntityLoadCount());
+    }
+
+    /* ===============================
+       Helpers
+       =============================== */
+
+    private Cliente clienteConCuentas(int cantidad) {
+        int prueba = SECUENCIA.incrementAndGet();
+        Cliente cliente = DatosPrueba.cliente(clienteRepo, "SQL-" + prueba);
+        List<Movimiento> movs = new ArrayList<>();
+        for (int i = 0; i < cantidad; i++) {
+            // Números en orden inverso a la creación: el orden debe venir de la consulta
+            Cuenta c = DatosPrueba.cuenta(cuentaRepo, cliente,
+                    "3" + prueba + String.format("%07d", 100 - i), new BigDecimal("50.00"));
+            for (int j = 0; j < 3; j++) {
+                Movimiento m = new Movimiento();
+                m.setCuenta(c);
+                m.setFecha(DIA.atTime(9, j));
+                m.setTipoMovimiento("Credito");
+                m.setValor(BigDecimal.ONE);
+                m.setSaldo(new BigDecimal("51.00").add(BigDecimal.valueOf(j)));
+                movs.add(m);
+            }
+        }
+        movRepo.saveAll(movs);
+        return cliente;
+    }
+
+    private static CrearMovimientoRequest credito(String numero, String valor) {
+        CrearMovimientoRequest r = new CrearMovimientoRequest();
+        r.setNumeroCuenta(numero);
+        r.setTipoMovimiento("Credito");
+        r.setValor(new BigDecimal(valor));
+        return r;
+    }
+
+    private long sentencias(Supplier<?> reporte) {
+        Statistics stats = estadisticas();
+        stats.clear();
+        reporte.get();
+        return stats.getPrepareStatementCount();
+    }
+
+    private Statistics estadisticas() {
+        return emf.unwrap(SessionFactory.class).getStatistics();
+    }
+}
@@ -0,0 +1,212 @@
+package com.bank.bank_backend.service;
+
+import com.bank.bank_backend.dto.ReporteEstadoCuentaResponse;
+import com.bank.bank_backend.entity.Cliente;
+import com.bank.bank_backend.entity.Cuenta;
+import com.bank.bank_backend.entity.Movimiento;
+import com.bank.bank_backend.repository.ClienteRepository;
+import com.bank.bank_backend.repository.CuentaRepository;
+import com.bank.bank_backend.repository.MovimientoRepository;
+import com.bank.bank_backend.support.DatosPrueba;
+import com.lowagie.text.pdf.PdfReader;
+import com.lowagie.text.pdf.parser.PdfTextExtractor;
+import jakarta.persistence.EntityManager;
+import org.hibernate.Session;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Base64;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipInputStream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * PDFs en stream: mismas páginas que la variante en memoria y filas leídas desde la base en stream.
+ */
+@SpringBootTest
+@ActiveProfiles("test")
+class ReporteServiceTest {
+
+    private static final int FILAS = 1_500;
+    private static final LocalDate DIA = LocalDate.of(2026, 3, 10);
+
+    private static final AtomicInteger SECUENCIA = new AtomicInteger();
+
+    @Autowired
+    private ReporteService reporteService;
+
+    @Autowired
+    private ClienteRepository clienteRepo;
+
+    @Autowired
+    private CuentaRepository cuentaRepo;
+
+    @Autowired
+    private MovimientoRepository movRepo;
+
+    @Autowired
+    private SaldoDiarioService saldosDiarios;
+
+    @Autowired
+    private EntityManager em;
+
+    @Autowired
+    private TransactionTemplate tx;
+
+    private Cliente cliente;
+    private Cuenta cuenta;
+
+    @BeforeEach
+    void setUp() {
+        int prueba = SECUENCIA.incrementAndGet();
+        cliente = DatosPrueba.cliente(clienteRepo, "REPORTE-" + prueba);
+        cuenta = DatosPrueba.cuenta(cuentaRepo, cliente, "5" + prueba + "0000001", new BigDecimal("100.00"));
+
+        List<Movimiento> movs = new ArrayList<>(FILAS);
+        BigDecimal saldo = new BigDecimal("100.00");
+        for (int i = 0; i < FILAS; i++) {
+            saldo = saldo.add(BigDecimal.ONE);
+            Movimiento m = new Movimiento();
+            m.setCuenta(cuenta);
+            m.setFecha(DIA.atStartOfDay().plusSeconds(i));
+            m.setTipoMovimiento("Credito");
+            m.setValor(BigDecimal.ONE);
+            m.setSaldo(saldo);
+            movs.add(m);
+        }
+        movRepo.saveAll(movs);
+    }
+
+    @Test
+    void escribirPdfEstadoCuenta_mismasPaginasQueLaVersionBase64() throws Exception {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        reporteService.escribirPdfEstadoCuenta(cuenta.getNumeroCuenta(), DIA, DIA, out);
+
+        ReporteEstadoCuentaResponse enMemoria =
+                reporteService.estadoCuenta(cuenta.getNumeroCuenta(), DIA, DIA, true);
+        byte[] base64 = Base64.getDecoder().decode(enMemoria.getPdfBase64());
+
+        assertEquals(FILAS, enMemoria.getMovimientos().size());
+        int paginas = paginas(out.toByteArray());
+        assertTrue(paginas > 10, "1500 filas deberían ocupar varias páginas");
+        assertEquals(paginas(base64), paginas);
+    }
+
+    @Test
+    void escribirPdfMovimientosPorCliente_generaPdfValido() throws Exception {
+        assertTrue(reporteService.clienteTieneMovimientos(cliente.getClienteId(), DIA, DIA));
+        assertFalse(reporteService.clienteTieneMovimientos(cliente.getClienteId(), DIA.plusDays(1), DIA.plusDays(2)));
+
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        reporteService.escribirPdfMovimientosPorCliente(cliente.getClienteId(), DIA, DIA, out);
+
+        byte[] enMemoria = reporteService.movimientosPorClientePdfBytes(cliente.getClienteId(), DIA, DIA);
+        assertEquals(paginas(enMemoria), paginas(out.toByteArray()));
+    }
+
+    @Test
+    void escribirZipEstadosCuentaPorCliente_unPdfDePeriodoPorCuentaConMovimientos() throws Exception {
+        Cuenta sinMovimientos = DatosPrueba.cuenta(cuentaRepo, cliente, cuenta.getNumeroCuenta() + "9", BigDecimal.ONE);
+        Cuenta otra = DatosPrueba.cuenta(cuentaRepo, cliente,
+                cuenta.getNumeroCuenta().substring(0, cuenta.getNumeroCuenta().length() - 1) + "2", new BigDecimal("50.00"));
+        movRepo.saveAll(List.of(
+                movimiento(otra, DIA.minusDays(1).atTime(9, 0), "Credito", "10.00", "60.00"),
+                movimiento(otra, DIA.atTime(9, 0), "Debito", "-5.00", "55.00")));
+        saldosDiarios.reconstruir(cuenta.getCuentaId());
+        saldosDiarios.reconstruir(otra.getCuentaId());
+
+        ByteArrayOutputStream zip = new ByteArrayOutputStream();
+        reporteService.escribirZipEstadosCuentaPorCliente(cliente.getClienteId(), DIA, DIA, zip);
+
+        Map<String, byte[]> entradas = new LinkedHashMap<>();
+        try (ZipInputStream in = new ZipInputStream(new ByteArrayInputStream(zip.toByteArray()))) {
+            ZipEntry e;
+            while ((e = in.getNextEntry()) != null) {
+                entradas.put(e.getName(), in.readAllBytes());
+            }
+        }
+        assertEquals(List.of("estado-cuenta-" + cuenta.getNumeroCuenta() + ".pdf",
+                        "estado-cuenta-" + otra.getNumeroCuenta() + ".pdf"),
+                List.copyOf(entradas.keySet()),
+                "la cuenta " + sinMovimientos.getNumeroCuenta() + " no tiene movimientos en el rango");
+
+        // Cada entrada es un PDF completo (el renderizador no cierra el ZIP) con el resumen del período
+        byte[] pdf = entradas.get("estado-cuenta-" + cuenta.getNumeroCuenta() + ".pdf");
+        assertTrue(paginas(pdf) > 10, "1500 filas deberían ocupar varias páginas");
+        String portada = texto(pdf);
+        assertTrue(portada.contains("Saldo de apertura: 100.00"), portada);
+        assertTrue(portada.contains("Saldo de cierre: 1600.00"), portada);
+
+        pdf = entradas.get("estado-cuenta-" + otra.getNumeroCuenta() + ".pdf");
+        assertEquals(1, paginas(pdf));
+        portada = texto(pdf);
+        assertTrue(portada.contains("Saldo de apertura: 60.00"), portada);
+        assertTrue(portada.contains("Saldo de cierre: 55.00"), portada);
+        assertTrue(portada.contains("Total débitos: 5.00"), portada);
+    }
+
+    @Test
+    void estadoCuentaTieneMovimientos_fueraDeRango_false() {
+        assertTrue(reporteService.estadoCuentaTieneMovimientos(cuenta.getNumeroCuenta(), DIA, DIA));
+        assertFalse(reporteService.estadoCuentaTieneMovimientos(cuenta.getNumeroCuenta(), DIA.minusDays(5), DIA.minusDays(1)));
+    }
+
+    @Test
+    void reportesEnStream_noRegistranEntidadesEnElContexto() {
+        tx.executeWithoutResult(status -> {
+            Session session = em.unwrap(Session.class);
+            session.clear();
+
+            assertEquals(FILAS, reporteService.movimientosPorCliente(cliente.getClienteId(), DIA, DIA).size());
+            assertEquals(FILAS, reporteService.estadoCuenta(cuenta.getNumeroCuenta(), DIA, DIA).getMovimientos().size());
+
+            assertEquals(0, session.getStatistics().getEntityCount(),
+                    "Las proyecciones no deben dejar Movimiento/Cuenta/Cliente administrados");
+        });
+    }
+
+    private static Movimiento movimiento(Cuenta cuenta, LocalDateTime fecha, String tipo, String valor, String saldo) {
+        Movimiento m = new Movimiento();
+        m.setCuenta(cuenta);
+        m.setFecha(fecha);
+        m.setTipoMovimiento(tipo);
+        m.setValor(new BigDecimal(valor));
+        m.setSaldo(new BigDecimal(saldo));
+        return m;
+    }
+
+    // Texto de la primera página
+    private static String texto(byte[] pdf) throws Exception {
+        PdfReader reader = new PdfReader(pdf);
+        try {
+            return new PdfTextExtractor(reader).getTextFromPage(1);
+        } finally {
+            reader.close();
+        }
+    }
+
+    private static int paginas(byte[] pdf) throws Exception {
+        assertEquals("%PDF", new String(pdf, 0, 4));
+        PdfReader reader = new PdfReader(pdf);
+        try {
+            return reader.getNumberOfPages();
+        } finally {
+            reader.close();
+        }
+    }
+}
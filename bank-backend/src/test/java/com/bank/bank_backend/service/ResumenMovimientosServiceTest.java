@@ -0,0 +1,156 @@
+package com.bank.bank_backend.service;
+
+import com.bank.bank_backend.dto.ResumenMovimientosResponse;
+import com.bank.bank_backend.entity.Cliente;
+import com.bank.bank_backend.entity.Cuenta;
+import com.bank.bank_backend.entity.Movimiento;
+import com.bank.bank_backend.exception.BadRequestException;
+import com.bank.bank_backend.exception.NotFoundException;
+import com.bank.bank_backend.repository.ClienteRepository;
+import com.bank.bank_backend.repository.CuentaRepository;
+import com.bank.bank_backend.repository.MovimientoRepository;
+import com.bank.bank_backend.support.DatosPrueba;
+import jakarta.persistence.EntityManager;
+import org.hibernate.Session;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.math.BigDecimal;
+import java.time.DayOfWeek;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Resumen agregado en SQL: totales, mínimo/máximo de saldo y agrupación por día, semana y mes.
+ */
+@SpringBootTest
+@ActiveProfiles("test")
+class ResumenMovimientosServiceTest {
+
+    private static final LocalDate INI = LocalDate.of(2026, 2, 1);
+    private static final LocalDate FIN = LocalDate.of(2026, 3, 31);
+    private static final AtomicInteger SECUENCIA = new AtomicInteger();
+
+    @Autowired
+    private ResumenMovimientosService resumenService;
+
+    @Autowired
+    private ClienteRepository clienteRepo;
+
+    @Autowired
+    private CuentaRepository cuentaRepo;
+
+    @Autowired
+    private MovimientoRepository movRepo;
+
+    @Autowired
+    private EntityManager em;
+
+    @Autowired
+    private TransactionTemplate tx;
+
+    private Cliente cliente;
+    private Cuenta ahorros;
+    private Cuenta corriente;
+
+    @BeforeEach
+    void setUp() {
+        int prueba = SECUENCIA.incrementAndGet();
+        cliente = DatosPrueba.cliente(clienteRepo, "RESUMEN-" + prueba);
+        ahorros = DatosPrueba.cuenta(cuentaRepo, cliente, "6" + prueba + "0000001", new BigDecimal("100.00"));
+        corriente = DatosPrueba.cuenta(cuentaRepo, cliente, "6" + prueba + "0000002", new BigDecimal("0.00"));
+
+        movRepo.saveAll(List.of(
+                mov(ahorros, LocalDateTime.of(2026, 1, 31, 23, 59), "999.00", "1099.00"), // fuera del rango
+                mov(ahorros, LocalDateTime.of(2026, 2, 27, 10, 0), "50.00", "150.00"),   // viernes
+                mov(ahorros, LocalDateTime.of(2026, 2, 28, 9, 0), "-30.00", "120.00"),   // sábado, misma semana
+                mov(ahorros, LocalDateTime.of(2026, 3, 2, 9, 0), "-100.00", "20.00"),    // lunes
+                mov(ahorros, LocalDateTime.of(2026, 3, 2, 18, 0), "10.00", "30.00"),
+                mov(corriente, LocalDateTime.of(2026, 3, 15, 12, 0), "5.00", "5.00")));
+    }
+
+    @Test
+    void sinAgrupacion_unaFilaPorCuentaDelCliente() {
+        ResumenMovimientosResponse r = resumenService.resumen(cliente.getClienteId(), null, INI, FIN, null);
+
+        assertNull(r.agrupacion());
+        assertEquals(2, r.filas().size());
+        ResumenMovimientosResponse.Fila fila = r.filas().get(0);
+        assertEquals(ahorros.getNumeroCuenta(), fila.numeroCuenta());
+        assertNull(fila.periodo());
+        assertEquals(0, new BigDecimal("60.00").compareTo(fila.creditos()));
+        assertEquals(0, new BigDecimal("130.00").compareTo(fila.debitos()));
+        assertEquals(4, fila.movimientos());
+        assertEquals(0, new BigDecimal("20.00").compareTo(fila.saldoMinimo()));
+        assertEquals(0, new BigDecimal("150.00").compareTo(fila.saldoMaximo()));
+        assertEquals(corriente.getNumeroCuenta(), r.filas().get(1).numeroCuenta());
+    }
+
+    @Test
+    void porCuenta_agrupadoPorSemanaYMes() {
+        List<ResumenMovimientosResponse.Fila> semanas = resumenService
+                .resumen(null, ahorros.getNumeroCuenta(), INI, FIN, AgrupacionResumen.SEMANA).filas();
+
+        // PostgreSQL empieza la semana el lunes (23/02 y 02/03) y H2 el domingo (22/02 y 01/03):
+        // los datos no cruzan domingos, así que la agrupación es la misma en las dos
+        assertEquals(2, semanas.size());
+        assertTrue(semanas.stream().map(ResumenMovimientosResponse.Fila::periodo)
+                .allMatch(p -> p.getDayOfWeek() == DayOfWeek.MONDAY || p.getDayOfWeek() == DayOfWeek.SUNDAY));
+        assertEquals(2, semanas.get(0).movimientos());
+        assertEquals(0, new BigDecimal("20.00").compareTo(semanas.get(1).saldoMinimo()));
+
+        List<ResumenMovimientosResponse.Fila> meses = resumenService
+                .resumen(null, ahorros.getNumeroCuenta(), INI, FIN, AgrupacionResumen.MES).filas();
+        assertEquals(List.of(LocalDate.of(2026, 2, 1), LocalDate.of(2026, 3, 1)),
+                meses.stream().map(ResumenMovimientosResponse.Fila::periodo).toList());
+        assertEquals(0, new BigDecimal("30.00").compareTo(meses.get(0).debitos()));
+        assertEquals(0, new BigDecimal("100.00").compareTo(meses.get(1).debitos()));
+
+        List<ResumenMovimientosResponse.Fila> dias = resumenService
+                .resumen(null, ahorros.getNumeroCuenta(), INI, FIN, AgrupacionResumen.DIA).filas();
+        assertEquals(3, dias.size());
+        assertEquals(2, dias.get(2).movimientos());
+    }
+
+    @Test
+    void resumen_noCargaEntidades() {
+        tx.executeWithoutResult(status -> {
+            Session session = em.unwrap(Session.class);
+            session.clear();
+
+            resumenService.resumen(cliente.getClienteId(), null, INI, FIN, AgrupacionResumen.DIA);
+
+            assertEquals(0, session.getStatistics().getEntityCount());
+        });
+    }
+
+    @Test
+    void validaciones() {
+        assertThrows(BadRequestException.class, () -> resumenService.resumen(null, null, INI, FIN, null));
+        assertThrows(BadRequestException.class,
+                () -> resumenService.resumen(cliente.getClienteId(), ahorros.getNumeroCuenta(), INI, FIN, null));
+        assertThrows(BadRequestException.class,
+                () -> resumenService.resumen(cliente.getClienteId(), null, FIN, INI, null));
+        assertThrows(NotFoundException.class, () -> resumenService.resumen(-1L, null, INI, FIN, null));
+        assertThrows(BadRequestException.class, () -> AgrupacionResumen.desde("anio"));
+        assertEquals(AgrupacionResumen.SEMANA, AgrupacionResumen.desde("Semana"));
+    }
+
+    private static Movimiento mov(Cuenta cuenta, LocalDateTime fecha, String valor, String saldo) {
+        Movimiento m = new Movimiento();
+        m.setCuenta(cuenta);
+        m.setFecha(fecha);
+        m.setTipoMovimiento(valor.startsWith("-") ? "Debito" : "Credito");
+        m.setValor(new BigDecimal(valor));
+        m.setSaldo(new BigDecimal(saldo));
+        return m;
+    }
+}
@@ -0,0 +1,228 @@
+package com.bank.bank_backend.service;
+
+import com.bank.bank_backend.dto.CrearMovimientoRequest;
+import com.bank.bank_backend.dto.CrearTransferenciaRequest;
+import com.bank.bank_backend.dto.ReporteEstadoCuentaResponse;
+import com.bank.bank_backend.dto.ResumenPeriodo;
+import com.bank.bank_backend.entity.Cliente;
+import com.bank.bank_backend.entity.Cuenta;
+import com.bank.bank_backend.entity.Movimiento;
+import com.bank.bank_backend.entity.SaldoDiario;
+import com.bank.bank_backend.repository.ClienteRepository;
+import com.bank.bank_backend.repository.CuentaRepository;
+import com.bank.bank_backend.repository.MovimientoRepository;
+import com.bank.bank_backend.repository.SaldoDiarioRepository;
+import com.bank.bank_backend.support.DatosPrueba;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.core.io.ClassPathResource;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * saldos_diarios: el MERGE incremental de cada posteo coincide con la reconstrucción
+ * desde movimientos, y apertura/cierre del período salen de la foto diaria.
+ */
+@SpringBootTest
+@ActiveProfiles("test")
+class SaldoDiarioServiceTest {
+
+    private static final AtomicInteger SECUENCIA = new AtomicInteger();
+
+    @Autowired
+    private SaldoDiarioService saldosDiarios;
+
+    @Autowired
+    private SaldoDiarioRepository saldoRepo;
+
+    @Autowired
+    private MovimientoService movimientoService;
+
+    @Autowired
+    private TransferenciaService transferenciaService;
+
+    @Autowired
+    private ReporteService reporteService;
+
+    @Autowired
+    private ClienteRepository clienteRepo;
+
+    @Autowired
+    private CuentaRepository cuentaRepo;
+
+    @Autowired
+    private MovimientoRepository movRepo;
+
+    @Autowired
+    private JdbcTemplate jdbc;
+
+    private Cuenta cuenta;
+    private Cuenta otra;
+
+    @BeforeEach
+    void setUp() {
+        int prueba = SECUENCIA.incrementAndGet();
+        Cliente cliente = DatosPrueba.cliente(clienteRepo, "SALDOS-" + prueba);
+        cuenta = DatosPrueba.cuenta(cuentaRepo, cliente, "6" + prueba + "0000001", new BigDecimal("100.00"));
+        otra = DatosPrueba.cuenta(cuentaRepo, cliente, "6" + prueba + "0000002", new BigDecimal("100.00"));
+    }
+
+    @Test
+    void posteo_actualizaLaFotoDelDia() {
+        movimientoService.crear(req(cuenta.getNumeroCuenta(), "Credito", "50.00"));
+        movimientoService.crear(req(cuenta.getNumeroCuenta(), "Debito", "20.00"));
+
+        List<SaldoDiario> filas = saldoRepo.findByCuentaIdOrderByFechaAsc(cuenta.getCuentaId());
+        assertEquals(1, filas.size());
+        SaldoDiario hoy = filas.get(0);
+        assertEquals(LocalDate.now(), hoy.getFecha());
+        assertEquals(2, hoy.getMovimientos());
+        assertEquals(0, new BigDecimal("50.00").compareTo(hoy.getCreditos()));
+        assertEquals(0, new BigDecimal("20.00").compareTo(hoy.getDebitos()));
+        assertEquals(0, new BigDecimal("130.00").compareTo(hoy.getSaldoCierre()));
+
+        ResumenPeriodo r = saldosDiarios.resumen(cuenta.getCuentaId(), LocalDate.now(), LocalDate.now());
+        assertEquals(0, new BigDecimal("100.00").compareTo(r.saldoApertura()));
+        assertEquals(0, new BigDecimal("130.00").compareTo(r.saldoCierre()));
+    }
+
+    @Test
+    void loteYTransferencia_coincidenConLaReconstruccion() {
+        movimientoService.crearLote(cuenta.getNumeroCuenta(), List.of(
+                req(cuenta.getNumeroCuenta(), "Credito", "10.00"),
+                req(cuenta.getNumeroCuenta(), "Debito", "500.00"), // rechazado: sin saldo
+                req(cuenta.getNumeroCuenta(), "Debito", "5.00")));
+
+        CrearTransferenciaRequest t = new CrearTransferenciaRequest();
+        t.setNumeroCuentaOrigen(cuenta.getNumeroCuenta());
+        t.setNumeroCuentaDestino(otra.getNumeroCuenta());
+        t.setValor(new BigDecimal("40.00"));
+        transferenciaService.transferir(t);
+
+        List<String> incrementalCuenta = foto(cuenta.getCuentaId());
+        List<String> incrementalOtra = foto(otra.getCuentaId());
+
+        saldosDiarios.reconstruir(cuenta.getCuentaId());
+        saldosDiarios.reconstruir(otra.getCuentaId());
+
+        assertEquals(incrementalCuenta, foto(cuenta.getCuentaId()));
+        assertEquals(incrementalOtra, foto(otra.getCuentaId()));
+        assertEquals(List.of(LocalDate.now() + " 10.00 45.00 3 65.00"), incrementalCuenta);
+    }
+
+    @Test
+    void reconstruccion_incluyeMovimientosRetroactivos_yElReporteUsaApertura() {
+        LocalDate d1 = LocalDate.of(2026, 2, 1);
+        LocalDate d2 = LocalDate.of(2026, 2, 2);
+        LocalDate d3 = LocalDate.of(2026, 2, 3);
+        // Cargados por fuera del posteo: saldos_diarios no se entera hasta reconstruir
+        movRepo.saveAll(List.of(
+                mov(d1, "25.00", "125.00", 0),
+                mov(d1, "-5.00", "120.00", 1),
+                mov(d2, "30.00", "150.00", 0),
+                mov(d2, "-60.00", "90.00", 1),
+                mov(d3, "10.00", "100.00", 0)));
+        assertTrue(saldoRepo.findByCuentaIdOrderByFechaAsc(cuenta.getCuentaId()).isEmpty());
+
+        saldosDiarios.reconstruir(cuenta.getCuentaId());
+        List<String> primera = foto(cuenta.getCuentaId());
+        assertEquals(List.of(
+                d1 + " 25.00 5.00 2 120.00",
+                d2 + " 30.00 60.00 2 90.00",
+                d3 + " 10.00 0.00 1 100.00"), primera);
+
+        // Reconstruir de nuevo es idempotente
+        saldosDiarios.reconstruir(cuenta.getCuentaId());
+        assertEquals(primera, foto(cuenta.getCuentaId()));
+
+        ResumenPeriodo r = saldosDiarios.resumen(cuenta.getCuentaId(), d2, d2);
+        assertEquals(0, new BigDecimal("120.00").compareTo(r.saldoApertura()));
+        assertEquals(0, new BigDecimal("90.00").compareTo(r.saldoCierre()));
+        assertEquals(0, new BigDecimal("30.00").compareTo(r.totalCreditos()));
+        assertEquals(0, new BigDecimal("60.00").compareTo(r.totalDebitos()));
+
+        ReporteEstadoCuentaResponse reporte = reporteService.estadoCuenta(cuenta.getNumeroCuenta(), d2, d3);
+        assertEquals(0, new BigDecimal("120.00").compareTo(reporte.getSaldoApertura()));
+        assertEquals(0, new BigDecimal("100.00").compareTo(reporte.getSaldoCierre()));
+
+        ReporteEstadoCuentaResponse porCliente = reporteService
+                .estadoCuentaPorCliente(cuenta.getCliente().getClienteId(), d2, d3, false).get(0);
+        assertEquals(0, reporte.getSaldoApertura().compareTo(porCliente.getSaldoApertura()));
+        assertEquals(0, reporte.getSaldoCierre().compareTo(porCliente.getSaldoCierre()));
+    }
+
+    @Test
+    void migracionV3_cargaLaTablaIgualQueLaReconstruccion() throws Exception {
+        LocalDate d1 = LocalDate.of(2026, 3, 1);
+        LocalDate d2 = LocalDate.of(2026, 3, 2);
+        // Movimientos previos a saldos_diarios y una fila parcial de un posteo posterior a V1
+        movRepo.saveAll(List.of(
+                mov(d1, "25.00", "125.00", 0),
+                mov(d1, "-5.00", "120.00", 1),
+                mov(d2, "30.00", "150.00", 0)));
+        movimientoService.crear(req(otra.getNumeroCuenta(), "Credito", "7.00"));
+        jdbc.update("UPDATE saldos_diarios SET creditos = 1, movimientos = 1 WHERE cuenta_id = ?", otra.getCuentaId());
+
+        // El LOCK TABLE es de PostgreSQL; el resto corre igual en H2
+        String v3 = new ClassPathResource("db/migration/V3__backfill_saldos_diarios.sql")
+                .getContentAsString(StandardCharsets.UTF_8);
+        for (String sentencia : v3.replaceAll("(?m)^--.*$", "").split(";")) {
+            if (!sentencia.isBlank() && !sentencia.strip().startsWith("LOCK")) jdbc.execute(sentencia);
+        }
+        List<String> migrada = foto(cuenta.getCuentaId());
+        List<String> migradaOtra = foto(otra.getCuentaId());
+
+        saldosDiarios.reconstruir(cuenta.getCuentaId());
+        saldosDiarios.reconstruir(otra.getCuentaId());
+        assertEquals(List.of(d1 + " 25.00 5.00 2 120.00", d2 + " 30.00 0.00 1 150.00"), migrada);
+        assertEquals(foto(cuenta.getCuentaId()), migrada);
+        assertEquals(List.of(LocalDate.now() + " 7.00 0.00 1 107.00"), migradaOtra);
+        assertEquals(foto(otra.getCuentaId()), migradaOtra);
+    }
+
+    @Test
+    void sinDiasPrevios_laAperturaEsElSaldoInicial() {
+        ResumenPeriodo r = saldosDiarios.resumen(otra.getCuentaId(), LocalDate.of(2020, 1, 1), LocalDate.of(2020, 1, 31));
+
+        assertEquals(0, new BigDecimal("100.00").compareTo(r.saldoApertura()));
+        assertEquals(0, new BigDecimal("100.00").compareTo(r.saldoCierre()));
+        assertEquals(0, BigDecimal.ZERO.compareTo(r.totalCreditos()));
+        assertEquals(0, BigDecimal.ZERO.compareTo(r.totalDebitos()));
+    }
+
+    private List<String> foto(Long cuentaId) {
+        return saldoRepo.findByCuentaIdOrderByFechaAsc(cuentaId).stream()
+                .map(d -> d.getFecha() + " " + d.getCreditos().setScale(2) + " " + d.getDebitos().setScale(2)
+                        + " " + d.getMovimientos() + " " + d.getSaldoCierre().setScale(2))
+                .toList();
+    }
+
+    private Movimiento mov(LocalDate dia, String valor, String saldo, int segundos) {
+        BigDecimal v = new BigDecimal(valor);
+        Movimiento m = new Movimiento();
+        m.setCuenta(cuenta);
+        m.setFecha(dia.atTime(10, 0).plusSeconds(segundos));
+        m.setTipoMovimiento(MovimientoService.tipoDe(v));
+        m.setValor(v);
+        m.setSaldo(new BigDecimal(saldo));
+        return m;
+    }
+
+    private CrearMovimientoRequest req(String numero, String tipo, String valor) {
+        CrearMovimientoRequest r = new CrearMovimientoRequest();
+        r.setNumeroCuenta(numero);
+        r.setTipoMovimiento(tipo);
+        r.setValor(new BigDecimal(valor));
+        return r;
+    }
+}
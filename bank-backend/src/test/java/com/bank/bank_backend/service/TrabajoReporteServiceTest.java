@@ -0,0 +1,148 @@
+package com.bank.bank_backend.service;
+
+import com.bank.bank_backend.dto.CrearTrabajoReporteRequest;
+import com.bank.bank_backend.dto.ReporteEstadoCuentaResponse;
+import com.bank.bank_backend.dto.TrabajoReporteResponse;
+import com.bank.bank_backend.exception.BadRequestException;
+import com.bank.bank_backend.exception.ConflictException;
+import com.bank.bank_backend.exception.NotFoundException;
+import com.bank.bank_backend.exception.ServicioNoDisponibleException;
+import com.bank.bank_backend.repository.ClienteRepository;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.math.BigDecimal;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.FileTime;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.temporal.ChronoUnit;
+import java.util.List;
+import java.util.concurrent.*;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+class TrabajoReporteServiceTest {
+
+    private static final LocalDate INI = LocalDate.of(2026, 1, 1);
+    private static final LocalDate FIN = LocalDate.of(2026, 1, 31);
+
+    @TempDir
+    Path directorio;
+
+    private ReporteService reporteService;
+    private ClienteRepository clienteRepo;
+    private final ObjectMapper objectMapper = new ObjectMapper();
+
+    @BeforeEach
+    void setUp() {
+        reporteService = mock(ReporteService.class);
+        clienteRepo = mock(ClienteRepository.class);
+        when(clienteRepo.existsById(10L)).thenReturn(true);
+    }
+
+    @Test
+    void trabajoCompletado_elResultadoSeLeeDelDisco() throws Exception {
+        when(reporteService.estadoCuentaPorCliente(10L, INI, FIN, true)).thenReturn(List.of(
+                new ReporteEstadoCuentaResponse("123", "Jose Lema", new BigDecimal("10.00"), List.of())));
+        TrabajoReporteService service = service(Runnable::run); // sincrónico
+
+        TrabajoReporteResponse creado = service.crear(req(10L, INI, FIN, true));
+        TrabajoReporteResponse estado = service.consultar(creado.getId());
+
+        assertEquals(EstadoTrabajo.COMPLETADO, estado.getEstado());
+        assertNotNull(estado.getExpiraEn());
+        JsonNode json = objectMapper.readTree(service.resultado(creado.getId()).toFile());
+        assertEquals("123", json.get(0).get("numeroCuenta").asText());
+        try (var archivos = Files.list(directorio)) {
+            assertEquals(1, archivos.count()); // sin temporales
+        }
+    }
+
+    @Test
+    void colaLlena_rechazaSinBloquear_yNoHayResultadoHastaTerminar() throws Exception {
+        CountDownLatch liberar = new CountDownLatch(1);
+        when(reporteService.estadoCuentaPorCliente(anyLong(), any(), any(), anyBoolean())).thenAnswer(inv -> {
+            liberar.await(10, TimeUnit.SECONDS);
+            return List.of();
+        });
+        ThreadPoolExecutor pool = new ThreadPoolExecutor(1, 1, 0, TimeUnit.SECONDS,
+                new ArrayBlockingQueue<>(1), new ThreadPoolExecutor.AbortPolicy());
+        try {
+            TrabajoReporteService service = service(pool);
+
+            TrabajoReporteResponse enCurso = service.crear(req(10L, INI, FIN, false));
+            service.crear(req(10L, INI, FIN, false)); // queda en cola
+            assertThrows(ServicioNoDisponibleException.class, () -> service.crear(req(10L, INI, FIN, false)));
+
+            ConflictException ex = assertThrows(ConflictException.class, () -> service.resultado(enCurso.getId()));
+            assertEquals("El reporte aún no está listo", ex.getMessage());
+
+            liberar.countDown();
+            pool.shutdown();
+            assertTrue(pool.awaitTermination(10, TimeUnit.SECONDS));
+            assertEquals(EstadoTrabajo.COMPLETADO, service.consultar(enCurso.getId()).getEstado());
+        } finally {
+            liberar.countDown();
+            pool.shutdownNow();
+        }
+    }
+
+    @Test
+    void reporteQueFalla_quedaFallidoConElMotivo() {
+        when(reporteService.estadoCuentaPorCliente(anyLong(), any(), any(), anyBoolean()))
+                .thenThrow(new IllegalStateException("conexión perdida"));
+        TrabajoReporteService service = service(Runnable::run);
+
+        TrabajoReporteResponse creado = service.crear(req(10L, INI, FIN, false));
+
+        TrabajoReporteResponse estado = service.consultar(creado.getId());
+        assertEquals(EstadoTrabajo.FALLIDO, estado.getEstado());
+        assertEquals("Error generando el reporte", estado.getError());
+        assertThrows(ConflictException.class, () -> service.resultado(creado.getId()));
+    }
+
+    @Test
+    void validaciones() {
+        TrabajoReporteService service = service(Runnable::run);
+
+        assertThrows(BadRequestException.class, () -> service.crear(req(null, INI, FIN, false)));
+        assertThrows(BadRequestException.class, () -> service.crear(req(10L, FIN, INI, false)));
+        assertThrows(NotFoundException.class, () -> service.crear(req(99L, INI, FIN, false)));
+        assertThrows(NotFoundException.class, () -> service.consultar("no-existe"));
+        verifyNoInteractions(reporteService);
+    }
+
+    @Test
+    void purgar_borraArchivosMasViejosQueElTtl() throws Exception {
+        TrabajoReporteService service = service(Runnable::run);
+        Path viejo = Files.writeString(directorio.resolve("viejo.json"), "[]");
+        Files.setLastModifiedTime(viejo, FileTime.from(Instant.now().minus(2, ChronoUnit.HOURS)));
+        Path reciente = Files.writeString(directorio.resolve("reciente.json"), "[]");
+
+        service.purgar();
+
+        assertFalse(Files.exists(viejo));
+        assertTrue(Files.exists(reciente));
+    }
+
+    private TrabajoReporteService service(Executor ejecutor) {
+        return new TrabajoReporteService(reporteService, clienteRepo, objectMapper, ejecutor,
+                directorio.toString(), 60);
+    }
+
+    private static CrearTrabajoReporteRequest req(Long clienteId, LocalDate ini, LocalDate fin, boolean pdf) {
+        CrearTrabajoReporteRequest r = new CrearTrabajoReporteRequest();
+        r.setClienteId(clienteId);
+        r.setFechaInicio(ini);
+        r.setFechaFin(fin);
+        r.setIncluirPdf(pdf);
+        return r;
+    }
+}
@@ -0,0 +1,131 @@
+package com.bank.bank_backend.service;
+
+import com.bank.bank_backend.dto.CrearMovimientoRequest;
+import com.bank.bank_backend.dto.CrearTransferenciaRequest;
+import com.bank.bank_backend.entity.Cliente;
+import com.bank.bank_backend.entity.Cuenta;
+import com.bank.bank_backend.repository.ClienteRepository;
+import com.bank.bank_backend.repository.CuentaRepository;
+import com.bank.bank_backend.support.DatosPrueba;
+import com.bank.bank_backend.support.Tormenta;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * POST /transferencias (débito y crédito en una transacción, bloqueo ordenado por cuentaId)
+ * contra el modelo anterior de dos posteos ATOMICO separados, con transferencias opuestas
+ * entre los mismos pares de cuentas.
+ *
+ * Corre solo con {@code mvn -Pbenchmark test}. Mide transferencias completas por segundo.
+ * {@code -Dbenchmark.hilos=N} y {@code -Dbenchmark.operaciones=N} cambian la carga.
+ */
+@SpringBootTest
+@ActiveProfiles("test")
+@Tag("benchmark")
+class TransferenciaBenchmark {
+
+    private static final int HILOS = Integer.getInteger("benchmark.hilos", 8);
+    private static final int OPERACIONES = Integer.getInteger("benchmark.operaciones", 4_000);
+
+    private static final AtomicInteger SECUENCIA = new AtomicInteger();
+
+    @Autowired
+    private TransferenciaService transferenciaService;
+
+    @Autowired
+    private MovimientoService movimientoService;
+
+    @Autowired
+    private ClienteRepository clienteRepo;
+
+    @Autowired
+    private CuentaRepository cuentaRepo;
+
+    @AfterEach
+    void restaurarModo() {
+        movimientoService.setModoPosteo(ModoPosteo.CLASICO);
+    }
+
+    @Test
+    void transferenciaVsDosPosteos_paresOpuestos() throws Exception {
+        movimientoService.setModoPosteo(ModoPosteo.ATOMICO);
+        medir(this::transferir, 500);
+        medir(this::dosPosteos, 500);
+
+        Tormenta.Resultado dos = medir(this::dosPosteos, OPERACIONES);
+        Tormenta.Resultado transferencia = medir(this::transferir, OPERACIONES);
+
+        System.out.println();
+        System.out.printf("Transferencias opuestas entre 2 pares, %,d operaciones, %d hilos%n", OPERACIONES, HILOS);
+        System.out.printf("%-14s %12s %10s%n", "", "transf/s", "ms");
+        imprimir("DOS POSTEOS", dos);
+        imprimir("TRANSFERENCIA", transferencia);
+
+        assertEquals(0, transferencia.errores(), "sin deadlocks ni conflictos");
+        assertEquals(0, dos.errores());
+        assertTrue(transferencia.porSegundo() > dos.porSegundo(),
+                "una transferencia debe costar menos que dos posteos separados");
+    }
+
+    private interface Traspaso {
+        void mover(String desde, String hacia, BigDecimal valor);
+    }
+
+    private void transferir(String desde, String hacia, BigDecimal valor) {
+        CrearTransferenciaRequest r = new CrearTransferenciaRequest();
+        r.setNumeroCuentaOrigen(desde);
+        r.setNumeroCuentaDestino(hacia);
+        r.setValor(valor);
+        transferenciaService.transferir(r);
+    }
+
+    // Modelo anterior: débito y crédito como dos POST /movimientos
+    private void dosPosteos(String desde, String hacia, BigDecimal valor) {
+        movimientoService.crear(posteo(desde, "Debito", valor));
+        movimientoService.crear(posteo(hacia, "Credito", valor));
+    }
+
+    private Tormenta.Resultado medir(Traspaso traspaso, int operaciones) throws Exception {
+        List<String> c = crearCuentas();
+        BigDecimal valor = new BigDecimal("3.00");
+        return Tormenta.correr(HILOS, operaciones, i -> {
+            int par = (i / 2) % 2 * 2;   // cuentas 0-1 o 2-3
+            boolean ida = i % 2 == 0;    // alterna el sentido
+            traspaso.mover(c.get(ida ? par : par + 1), c.get(ida ? par + 1 : par), valor);
+        });
+    }
+
+    private List<String> crearCuentas() {
+        int n = SECUENCIA.incrementAndGet();
+        Cliente cliente = DatosPrueba.cliente(clienteRepo, "BENCH-TRANSF-" + n);
+        List<String> numeros = new ArrayList<>();
+        for (int i = 0; i < 4; i++) {
+            Cuenta c = DatosPrueba.cuenta(cuentaRepo, cliente, "73" + n + "00000" + i, new BigDecimal("100000.00"));
+            numeros.add(c.getNumeroCuenta());
+        }
+        return numeros;
+    }
+
+    private static CrearMovimientoRequest posteo(String numero, String tipo, BigDecimal valor) {
+        CrearMovimientoRequest r = new CrearMovimientoRequest();
+        r.setNumeroCuenta(numero);
+        r.setTipoMovimiento(tipo);
+        r.setValor(valor);
+        return r;
+    }
+
+    private static void imprimir(String nombre, Tormenta.Resultado r) {
+        System.out.printf("%-14s %,12.0f %10d%n", nombre, r.porSegundo(), r.millis());
+    }
+}
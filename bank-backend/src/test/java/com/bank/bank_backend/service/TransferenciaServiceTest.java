@@ -0,0 +1,170 @@
+package com.bank.bank_backend.service;
+
+import com.bank.bank_backend.dto.CrearTransferenciaRequest;
+import com.bank.bank_backend.dto.TransferenciaResponse;
+import com.bank.bank_backend.entity.Cliente;
+import com.bank.bank_backend.entity.Cuenta;
+import com.bank.bank_backend.entity.Movimiento;
+import com.bank.bank_backend.exception.BadRequestException;
+import com.bank.bank_backend.repository.ClienteRepository;
+import com.bank.bank_backend.repository.CuentaRepository;
+import com.bank.bank_backend.repository.MovimientoRepository;
+import com.bank.bank_backend.support.DatosPrueba;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@SpringBootTest
+@ActiveProfiles("test")
+class TransferenciaServiceTest {
+
+    private static final AtomicInteger SECUENCIA = new AtomicInteger();
+
+    @Autowired
+    private TransferenciaService transferenciaService;
+
+    @Autowired
+    private ClienteRepository clienteRepo;
+
+    @Autowired
+    private CuentaRepository cuentaRepo;
+
+    @Autowired
+    private MovimientoRepository movRepo;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Test
+    void transferir_debitaYAcreditaEnUnaTransaccion() {
+        List<Cuenta> c = crearCuentas(2, new BigDecimal("100.00"));
+
+        TransferenciaResponse r = transferenciaService.transferir(
+                req(c.get(0).getNumeroCuenta(), c.get(1).getNumeroCuenta(), "30.00"));
+
+        assertEquals(0, new BigDecimal("70.00").compareTo(r.getSaldoOrigen()));
+        assertEquals(0, new BigDecimal("130.00").compareTo(r.getSaldoDestino()));
+        assertNotNull(r.getMovimientoDebitoId());
+        assertNotNull(r.getMovimientoCreditoId());
+
+        List<Movimiento> debitos = movRepo.findByCuenta_NumeroCuentaOrderByFechaAsc(c.get(0).getNumeroCuenta());
+        assertEquals(1, debitos.size());
+        assertEquals("Debito", debitos.get(0).getTipoMovimiento());
+        assertEquals(0, new BigDecimal("-30.00").compareTo(debitos.get(0).getValor()));
+    }
+
+    @Test
+    void transferir_sinSaldo_noDejaRastro() {
+        List<Cuenta> c = crearCuentas(2, new BigDecimal("10.00"));
+
+        BadRequestException ex = assertThrows(BadRequestException.class, () -> transferenciaService.transferir(
+                req(c.get(0).getNumeroCuenta(), c.get(1).getNumeroCuenta(), "10.01")));
+
+        assertEquals("Saldo no disponible", ex.getMessage());
+        assertTrue(movRepo.findByCuenta_NumeroCuentaOrderByFechaAsc(c.get(1).getNumeroCuenta()).isEmpty());
+        assertEquals(0, new BigDecimal("10.00").compareTo(
+                cuentaRepo.findById(c.get(1).getCuentaId()).orElseThrow().getSaldoActual()));
+    }
+
+    @Test
+    void transferir_mismaCuenta_lanzaBadRequest() {
+        Cuenta c = crearCuentas(1, new BigDecimal("10.00")).get(0);
+
+        BadRequestException ex = assertThrows(BadRequestException.class, () -> transferenciaService.transferir(
+                req(c.getNumeroCuenta(), c.getNumeroCuenta(), "1.00")));
+        assertEquals("La cuenta origen y destino deben ser distintas", ex.getMessage());
+    }
+
+    /**
+     * Transferencias opuestas (A→B y B→A, C→D y D→C) desde varios hilos a la vez.
+     * Con bloqueo en orden de cuentaId no hay deadlocks ni conflictos, y el dinero se conserva.
+     * El throughput contra dos posteos separados se mide en TransferenciaBenchmark.
+     */
+    @Test
+    void tormentaDeTransferenciasOpuestas_sinDeadlocksYConservaElTotal() throws Exception {
+        final int hilos = 8;
+        final int operaciones = 800;
+        BigDecimal saldoInicial = new BigDecimal("10000.00");
+        List<Cuenta> c = crearCuentas(4, saldoInicial);
+        double conflictosAntes = contador("bank.posteo.conflictos");
+
+        ExecutorService pool = Executors.newFixedThreadPool(hilos);
+        CountDownLatch largada = new CountDownLatch(1);
+        AtomicInteger errores = new AtomicInteger();
+        List<Future<?>> futuros = new ArrayList<>();
+
+        for (int i = 0; i < operaciones; i++) {
+            int par = (i / 2) % 2 * 2;          // cuentas 0-1 o 2-3
+            boolean ida = i % 2 == 0;           // alterna el sentido
+            Cuenta desde = c.get(ida ? par : par + 1);
+            Cuenta hacia = c.get(ida ? par + 1 : par);
+            futuros.add(pool.submit(() -> {
+                largada.await();
+                try {
+                    transferenciaService.transferir(req(desde.getNumeroCuenta(), hacia.getNumeroCuenta(), "3.00"));
+                } catch (RuntimeException e) {
+                    errores.incrementAndGet();
+                }
+                return null;
+            }));
+        }
+
+        largada.countDown();
+        for (Future<?> f : futuros) f.get(60, TimeUnit.SECONDS);
+        pool.shutdown();
+
+        assertEquals(0, errores.get(), "Ninguna transferencia debe fallar (ni por deadlock ni por timeout)");
+        assertEquals(0, contador("bank.posteo.conflictos") - conflictosAntes, "No debe haber conflictos reintentados");
+
+        BigDecimal total = BigDecimal.ZERO;
+        int movs = 0;
+        for (Cuenta cta : c) {
+            Cuenta fila = cuentaRepo.findById(cta.getCuentaId()).orElseThrow();
+            List<Movimiento> m = movRepo.findByCuenta_NumeroCuentaOrderByFechaAsc(cta.getNumeroCuenta());
+            BigDecimal suma = m.stream().map(Movimiento::getValor).reduce(BigDecimal.ZERO, BigDecimal::add);
+            assertEquals(0, saldoInicial.add(suma).compareTo(fila.getSaldoActual()));
+            total = total.add(fila.getSaldoActual());
+            movs += m.size();
+        }
+        assertEquals(0, saldoInicial.multiply(BigDecimal.valueOf(4)).compareTo(total));
+        assertEquals(operaciones * 2, movs);
+    }
+
+    /* ===============================
+       Helpers
+       =============================== */
+
+    private List<Cuenta> crearCuentas(int cantidad, BigDecimal saldo) {
+        int prueba = SECUENCIA.incrementAndGet();
+        Cliente cliente = DatosPrueba.cliente(clienteRepo, "TRANSF-" + prueba);
+        List<Cuenta> cuentas = new ArrayList<>();
+        for (int i = 0; i < cantidad; i++) {
+            cuentas.add(DatosPrueba.cuenta(cuentaRepo, cliente, "6" + prueba + "00000" + i, saldo));
+        }
+        return cuentas;
+    }
+
+    private static CrearTransferenciaRequest req(String origen, String destino, String valor) {
+        CrearTransferenciaRequest r = new CrearTransferenciaRequest();
+        r.setNumeroCuentaOrigen(origen);
+        r.setNumeroCuentaDestino(destino);
+        r.setValor(new BigDecimal(valor));
+        return r;
+    }
+
+    private double contador(String nombre) {
+        Counter counter = meterRegistry.find(nombre).counter();
+        return counter == null ? 0 : counter.count();
+    }
+}
@@ -0,0 +1,36 @@
+package com.bank.bank_backend.support;
+
+import org.hibernate.resource.jdbc.spi.StatementInspector;
+
+import java.util.List;
+import java.util.Locale;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+/**
+ * SQL tal como lo genera Hibernate, para inspeccionarlo o pasarlo a EXPLAIN.
+ * Se activa con {@code spring.jpa.properties.hibernate.session_factory.statement_inspector}
+ * apuntando a esta clase (Hibernate la instancia por nombre).
+ */
+public class CapturaSql implements StatementInspector {
+
+    private static final List<String> SENTENCIAS = new CopyOnWriteArrayList<>();
+
+    @Override
+    public String inspect(String sql) {
+        SENTENCIAS.add(sql);
+        return sql;
+    }
+
+    /** Corre la consulta y devuelve la única sentencia que generó sobre movimientos. */
+    public static String sobreMovimientos(Runnable consulta) {
+        SENTENCIAS.clear();
+        consulta.run();
+        List<String> sobreMovimientos = SENTENCIAS.stream()
+                .filter(sql -> sql.toLowerCase(Locale.ROOT).matches("(?s).*\\bfrom\\s+movimientos\\b.*"))
+                .toList();
+        if (sobreMovimientos.size() != 1) {
+            throw new AssertionError("se esperaba una sentencia sobre movimientos: " + SENTENCIAS);
+        }
+        return sobreMovimientos.get(0);
+    }
+}
@@ -0,0 +1,40 @@
+package com.bank.bank_backend.support;
+
+import com.bank.bank_backend.entity.Cliente;
+import com.bank.bank_backend.entity.Cuenta;
+import com.bank.bank_backend.repository.ClienteRepository;
+import com.bank.bank_backend.repository.CuentaRepository;
+
+import java.math.BigDecimal;
+
+/**
+ * Datos mínimos para pruebas de integración (perfil "test").
+ */
+public final class DatosPrueba {
+
+    private DatosPrueba() {}
+
+    public static Cliente cliente(ClienteRepository repo, String identificacion) {
+        Cliente cliente = new Cliente();
+        cliente.setNombre("Cliente " + identificacion);
+        cliente.setGenero("M");
+        cliente.setEdad(30);
+        cliente.setIdentificacion(identificacion);
+        cliente.setDireccion("Calle 1");
+        cliente.setTelefono("0999999999");
+        cliente.setContrasena("1234");
+        cliente.setEstado(true);
+        return repo.save(cliente);
+    }
+
+    public static Cuenta cuenta(CuentaRepository repo, Cliente cliente, String numero, BigDecimal saldo) {
+        Cuenta cuenta = new Cuenta();
+        cuenta.setNumeroCuenta(numero);
+        cuenta.setTipoCuenta("Ahorros");
+        cuenta.setSaldoInicial(saldo);
+        cuenta.setSaldoActual(saldo);
+        cuenta.setEstado(true);
+        cuenta.setCliente(cliente);
+        return repo.save(cuenta);
+    }
+}
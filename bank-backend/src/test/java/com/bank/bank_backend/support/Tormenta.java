@@ -0,0 +1,61 @@
+package com.bank.bank_backend.support;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Operaciones concurrentes que arrancan todas juntas (benchmarks de posteo).
+ * Una operación que lanza RuntimeException cuenta como error y no como aceptada.
+ */
+public final class Tormenta {
+
+    private Tormenta() {}
+
+    @FunctionalInterface
+    public interface Operacion {
+        void ejecutar(int i);
+    }
+
+    public record Resultado(int operaciones, int errores, long millis) {
+
+        public int aceptadas() {
+            return operaciones - errores;
+        }
+
+        /** Operaciones aceptadas por segundo. */
+        public double porSegundo() {
+            return aceptadas() * 1000.0 / Math.max(1, millis);
+        }
+    }
+
+    public static Resultado correr(int hilos, int operaciones, Operacion operacion) throws Exception {
+        ExecutorService pool = Executors.newFixedThreadPool(hilos);
+        CountDownLatch largada = new CountDownLatch(1);
+        AtomicInteger errores = new AtomicInteger();
+        List<Future<?>> futuros = new ArrayList<>(operaciones);
+
+        for (int i = 0; i < operaciones; i++) {
+            int n = i;
+            futuros.add(pool.submit(() -> {
+                largada.await();
+                try {
+                    operacion.ejecutar(n);
+                } catch (RuntimeException e) {
+                    errores.incrementAndGet();
+                }
+                return null;
+            }));
+        }
+
+        long t0 = System.nanoTime();
+        largada.countDown();
+        try {
+            for (Future<?> f : futuros) f.get(5, TimeUnit.MINUTES);
+        } finally {
+            pool.shutdownNow();
+        }
+        return new Resultado(operaciones, errores.get(), TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - t0));
+    }
+}
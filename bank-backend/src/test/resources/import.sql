@@ -0,0 +1,2 @@
+-- Hibernate ejecuta este archivo después de create-drop: objetos de V1 que ninguna entidad declara
+CREATE SEQUENCE IF NOT EXISTS cuentas_numero_seq START WITH 1 INCREMENT BY 1;